@@ -0,0 +1,36 @@
+package com.kiruah.poi2cc;
+
+import java.nio.file.Path;
+
+import com.kiruah.poi2cc.storage.Book;
+
+/**
+ * 複数のExcelファイルを一括ロードする際に、ファイルごとのロード結果を受け取ります。
+ * <p>
+ * {@link BulkLoader#load(java.util.Collection, BookHandler)}に渡して利用します。
+ * ロードが完了した順に、呼び出し元のスレッドから1件ずつ呼び出されます。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public interface BookHandler {
+
+	/**
+	 * ファイルのロードに成功した場合に呼び出されます。
+	 *
+	 * @param path ファイルのパス
+	 * @param book ロードしたブック情報
+	 */
+	void handleBook(Path path, Book book);
+
+	/**
+	 * ファイルのロードに失敗した場合に呼び出されます。
+	 * <p>
+	 * 失敗したファイル以外のロードは継続します。
+	 * </p>
+	 *
+	 * @param path ファイルのパス
+	 * @param e 発生した例外
+	 */
+	void handleError(Path path, Exception e);
+}
@@ -0,0 +1,264 @@
+package com.kiruah.poi2cc;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.kiruah.poi2cc.storage.Book;
+
+/**
+ * 複数のExcelファイルを並行してロードし、ロードが完了した順に結果を通知します。
+ * <p>
+ * 同時にロードするファイル数は同時実行数までに制限され、結果を通知するごとに次のファイルのロードを開始します。
+ * そのため、保持されるロード中・通知待ちのブックはファイル数に関わらず同時実行数までとなります。
+ * エグゼキューターが指定されていない場合は、同時実行数分のスレッドを{@link #load(Collection, BookHandler)}の間だけ生成します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class BulkLoader {
+
+	/** ロード時のオプション */
+	protected LoadOptions options = LoadOptions.defaults();
+
+	/** ロードを実行するエグゼキューター(ロードごとにスレッドを生成する場合はnull) */
+	protected Executor executor = null;
+
+	/** 同時にロードするファイル数 */
+	protected int concurrency = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * 一括ロードのコンストラクタ
+	 */
+	public BulkLoader() {
+
+	}
+
+	/**
+	 * 一括ロードのコンストラクタ
+	 *
+	 * @param options ロード時のオプション
+	 * @param concurrency 同時にロードするファイル数
+	 */
+	public BulkLoader(LoadOptions options, int concurrency) {
+
+		setOptions(options);
+		setConcurrency(concurrency);
+	}
+
+	/**
+	 * ファイルを並行してロードし、ロードが完了した順にハンドラへ通知します。
+	 * <p>
+	 * すべてのファイルの結果を通知した後に返却します。ハンドラは呼び出し元のスレッドから呼び出されます。
+	 * ハンドラが例外をスローした場合は以降のロードを開始せず、ロード中のファイルの終了を待ってそのブックを閉じてから例外をスローします。
+	 * </p>
+	 *
+	 * @param paths ファイルのパス
+	 * @param handler ロード結果の通知先
+	 * @throws Poi2ccRuntimeException 待機中に割り込まれた場合
+	 */
+	public void load(Collection<Path> paths, BookHandler handler) {
+
+		ExecutorService ownExecutor = null;
+		Executor loadExecutor = executor;
+
+		if (loadExecutor == null) {
+			ownExecutor = Executors.newFixedThreadPool(Math.min(concurrency, Math.max(paths.size(), 1)));
+			loadExecutor = ownExecutor;
+		}
+
+		BlockingQueue<Result> resultQueue = new LinkedBlockingQueue<Result>();
+		Iterator<Path> iterator = paths.iterator();
+		int running = 0;
+
+		try {
+			while (running > 0 || iterator.hasNext() == true) {
+				while (running < concurrency && iterator.hasNext() == true) {
+					Path path = iterator.next();
+
+					ExcelReader.loadBookAsync(path, options, loadExecutor)
+							.whenComplete((book, e) -> resultQueue.add(new Result(path, book, e)));
+
+					running++;
+				}
+
+				Result result = resultQueue.take();
+
+				running--;
+
+				handleResult(result, handler);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new Poi2ccRuntimeException("一括ロードの待機中に割り込まれました", e);
+		} finally {
+			discardResults(resultQueue, running);
+
+			if (ownExecutor != null) {
+				ownExecutor.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * ロード中のファイルの終了を待ち、ハンドラへ通知しなかったブックを閉じます。
+	 * <p>
+	 * 遅延ロードしたブックのロード元ファイルや共有文字列の一時ファイルが残らないよう、すべての終了を待ちます。
+	 * 待機中に割り込まれた場合は、終了を待った後に割り込み状態を戻します。
+	 * </p>
+	 *
+	 * @param resultQueue ロード結果のキュー
+	 * @param running ロード中のファイル数
+	 */
+	protected void discardResults(BlockingQueue<Result> resultQueue, int running) {
+
+		boolean interrupted = false;
+
+		while (running > 0) {
+			try {
+				Result result = resultQueue.take();
+
+				running--;
+
+				if (result.book != null) {
+					result.book.close();
+				}
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+
+		if (interrupted == true) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * ロード結果をハンドラへ通知します。
+	 *
+	 * @param result ロード結果
+	 * @param handler ロード結果の通知先
+	 */
+	protected void handleResult(Result result, BookHandler handler) {
+
+		Throwable cause = result.error;
+
+		if (cause instanceof CompletionException == true && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+
+		if (cause == null) {
+			handler.handleBook(result.path, result.book);
+		} else if (cause instanceof Exception == true) {
+			handler.handleError(result.path, (Exception) cause);
+		} else if (cause instanceof Error == true) {
+			throw (Error) cause;
+		} else {
+			throw new Poi2ccRuntimeException(cause);
+		}
+	}
+
+	/**
+	 * ロード時のオプションを取得します。
+	 *
+	 * @return ロード時のオプション
+	 */
+	public LoadOptions getOptions() {
+
+		return options;
+	}
+
+	/**
+	 * ロード時のオプションを設定します。
+	 *
+	 * @param options ロード時のオプション
+	 */
+	public void setOptions(LoadOptions options) {
+
+		this.options = options;
+	}
+
+	/**
+	 * ロードを実行するエグゼキューターを取得します。
+	 *
+	 * @return ロードを実行するエグゼキューター(ロードごとにスレッドを生成する場合はnull)
+	 */
+	public Executor getExecutor() {
+
+		return executor;
+	}
+
+	/**
+	 * ロードを実行するエグゼキューターを設定します。
+	 * <p>
+	 * 同時実行数の制限はエグゼキューターのスレッド数に関わらず適用されます。
+	 * </p>
+	 *
+	 * @param executor ロードを実行するエグゼキューター(ロードごとにスレッドを生成する場合はnull)
+	 */
+	public void setExecutor(Executor executor) {
+
+		this.executor = executor;
+	}
+
+	/**
+	 * 同時にロードするファイル数を取得します。
+	 *
+	 * @return 同時にロードするファイル数
+	 */
+	public int getConcurrency() {
+
+		return concurrency;
+	}
+
+	/**
+	 * 同時にロードするファイル数を設定します。
+	 *
+	 * @param concurrency 同時にロードするファイル数(1以上)
+	 * @throws Poi2ccRuntimeException 1未満の場合
+	 */
+	public void setConcurrency(int concurrency) {
+
+		if (concurrency < 1) {
+			throw new Poi2ccRuntimeException("同時実行数は1以上を指定してください:" + concurrency);
+		}
+
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * ファイルごとのロード結果
+	 */
+	protected static class Result {
+
+		/** ファイルのパス */
+		protected Path path = null;
+
+		/** ロードしたブック情報(失敗した場合はnull) */
+		protected Book book = null;
+
+		/** 発生した例外(成功した場合はnull) */
+		protected Throwable error = null;
+
+		/**
+		 * ロード結果のコンストラクタ
+		 *
+		 * @param path ファイルのパス
+		 * @param book ロードしたブック情報
+		 * @param error 発生した例外
+		 */
+		protected Result(Path path, Book book, Throwable error) {
+
+			this.path = path;
+			this.book = book;
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,142 @@
+package com.kiruah.poi2cc;
+
+import com.kiruah.poi2cc.storage.sub.CellFont;
+import com.kiruah.poi2cc.storage.sub.CellStyle;
+
+/**
+ * 出力先のセルスタイルを特定するセルスタイル情報・フォント情報・ロックの組み合わせです。
+ * <p>
+ * ハッシュ値は生成時に1度だけ計算します。
+ * 変更不可のセルスタイル情報・フォント情報はハッシュ値を保持するため、ロード時に共有されたインスタンスからは項目を走査せずに生成できます。
+ * {@link CellStyleRegistry}に登録する際は{@link #snapshot()}で変更不可の複製に置き換えるため、登録後にセルの情報を変更しても影響を受けません。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public final class CellStyleKey {
+
+	/** セルスタイル情報 */
+	private final CellStyle style;
+
+	/** フォント情報 */
+	private final CellFont font;
+
+	/** ロックするかどうか */
+	private final boolean locked;
+
+	/** ハッシュ値 */
+	private final int hash;
+
+	/**
+	 * セルスタイルのキーのコンストラクタ
+	 *
+	 * @param style セルスタイル情報
+	 * @param font フォント情報
+	 * @param locked ロックするかどうか
+	 */
+	public CellStyleKey(CellStyle style, CellFont font, boolean locked) {
+
+		this.style = style;
+		this.font = font;
+		this.locked = locked;
+
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((style == null) ? 0 : style.hashCode());
+		result = prime * result + ((font == null) ? 0 : font.hashCode());
+		result = prime * result + (locked ? 1231 : 1237);
+		this.hash = result;
+	}
+
+	/**
+	 * 変更不可のセルスタイル情報・フォント情報を持つキーを取得します。
+	 * <p>
+	 * セルスタイル情報・フォント情報がすでに変更不可の場合はこのインスタンスを返却します。
+	 * </p>
+	 *
+	 * @return 変更不可のセルスタイル情報・フォント情報を持つキー
+	 */
+	public CellStyleKey snapshot() {
+
+		boolean styleFrozen = style == null || style.isFrozen() == true;
+		boolean fontFrozen = font == null || font.isFrozen() == true;
+
+		if (styleFrozen == true && fontFrozen == true) {
+			return this;
+		}
+
+		CellStyle frozenStyle = styleFrozen == true ? style : style.clone().freeze();
+		CellFont frozenFont = fontFrozen == true ? font : font.clone().freeze();
+
+		return new CellStyleKey(frozenStyle, frozenFont, locked);
+	}
+
+	/**
+	 * セルスタイル情報を取得します。
+	 *
+	 * @return セルスタイル情報
+	 */
+	public CellStyle getStyle() {
+
+		return style;
+	}
+
+	/**
+	 * フォント情報を取得します。
+	 *
+	 * @return フォント情報
+	 */
+	public CellFont getFont() {
+
+		return font;
+	}
+
+	/**
+	 * ロックするかどうかを取得します。
+	 *
+	 * @return ロックするかどうか
+	 */
+	public boolean isLocked() {
+
+		return locked;
+	}
+
+	/* (非 Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+
+		return hash;
+	}
+
+	/* (非 Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		CellStyleKey other = (CellStyleKey) obj;
+		if (hash != other.hash)
+			return false;
+		if (locked != other.locked)
+			return false;
+		if (style == null) {
+			if (other.style != null)
+				return false;
+		} else if (style != other.style && !style.equals(other.style))
+			return false;
+		if (font == null) {
+			if (other.font != null)
+				return false;
+		} else if (font != other.font && !font.equals(other.font))
+			return false;
+		return true;
+	}
+}
@@ -0,0 +1,93 @@
+package com.kiruah.poi2cc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+
+import com.kiruah.poi2cc.storage.sub.CellFont;
+
+/**
+ * 保存するブックに生成したセルスタイル・フォントの登録先です。
+ * <p>
+ * セルスタイルは{@link CellStyleKey}ごとに1度だけ生成し、取得はロックせずに行います。
+ * Apache POIのスタイルテーブルはスレッドセーフではないため、セルスタイル・フォントの生成はこのインスタンス単位で排他します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class CellStyleRegistry {
+
+	/** キーごとのセルスタイル */
+	protected Map<CellStyleKey, XSSFCellStyle> styleMap = new ConcurrentHashMap<CellStyleKey, XSSFCellStyle>();
+
+	/** フォント情報ごとのフォント(セルスタイルの生成中のみ参照します) */
+	protected Map<CellFont, XSSFFont> fontMap = new HashMap<CellFont, XSSFFont>();
+
+	/**
+	 * キーに対応するセルスタイルを取得します。
+	 *
+	 * @param key セルスタイルのキー
+	 * @return セルスタイル(未登録の場合はnull)
+	 */
+	public XSSFCellStyle get(CellStyleKey key) {
+
+		return styleMap.get(key);
+	}
+
+	/**
+	 * キーに対応するセルスタイルを取得し、未登録の場合は生成して登録します。
+	 * <p>
+	 * キーは変更不可の複製に置き換えて登録します。
+	 * </p>
+	 *
+	 * @param key セルスタイルのキー
+	 * @param factory セルスタイルの生成処理
+	 * @return セルスタイル
+	 */
+	public synchronized XSSFCellStyle register(CellStyleKey key, Function<CellStyleKey, XSSFCellStyle> factory) {
+
+		XSSFCellStyle style = styleMap.get(key);
+
+		if (style == null) {
+			CellStyleKey snapshot = key.snapshot();
+
+			style = factory.apply(snapshot);
+
+			styleMap.put(snapshot, style);
+		}
+
+		return style;
+	}
+
+	/**
+	 * フォント情報に対応するフォントを取得します。
+	 * <p>
+	 * {@link #register(CellStyleKey, Function)}のセルスタイルの生成処理からのみ呼び出してください。
+	 * </p>
+	 *
+	 * @param cellFont フォント情報
+	 * @return フォント(未登録の場合はnull)
+	 */
+	public XSSFFont getFont(CellFont cellFont) {
+
+		return fontMap.get(cellFont);
+	}
+
+	/**
+	 * フォント情報に対応するフォントを登録します。
+	 * <p>
+	 * {@link #register(CellStyleKey, Function)}のセルスタイルの生成処理からのみ呼び出してください。
+	 * </p>
+	 *
+	 * @param cellFont 変更不可のフォント情報
+	 * @param font フォント
+	 */
+	public void putFont(CellFont cellFont, XSSFFont font) {
+
+		fontMap.put(cellFont, font);
+	}
+}
@@ -0,0 +1,31 @@
+package com.kiruah.poi2cc;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+
+/**
+ * ストリーミングでロードする際に、行情報のスタイル番号からApache POIのスタイルを取得します。
+ * <p>
+ * {@link SheetBuilder}がセルのフォント・スタイルを組み立てる際に参照します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public interface CellStyleSource {
+
+	/**
+	 * スタイル番号に対応するスタイルを取得します。
+	 *
+	 * @param styleIndex スタイル番号
+	 * @return スタイル(スタイルテーブルがない場合はnull)
+	 */
+	CellStyle getCellStyle(int styleIndex);
+
+	/**
+	 * スタイルのフォントを取得します。
+	 *
+	 * @param style スタイル
+	 * @return フォント
+	 */
+	Font getFont(CellStyle style);
+}
@@ -0,0 +1,503 @@
+package com.kiruah.poi2cc;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.poifs.nio.CleanerUtil;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.xssf.binary.XSSFBParseException;
+import org.apache.poi.xssf.binary.XSSFBParser;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.zaxxer.sparsebits.SparseBitSet;
+
+/**
+ * 共有文字列テーブルを一時ファイルへ書き出し、メモリマップで参照する共有文字列テーブルです。
+ * <p>
+ * 共有文字列をUTF-8で連結したデータファイルと、共有文字列番号ごとのデータ位置を並べた索引ファイルを作成し、
+ * 文字列は共有文字列番号から必要な時点で読み取ります。
+ * 共有文字列の数に関わらず、ヒープには読み取り中の文字列のみを保持します。
+ * 読み取りは複数のスレッドから同時に行えます。
+ * </p>
+ * <p>
+ * 一時ファイルは{@link #close()}でメモリマップを解放してから削除します。
+ * 閉じた後に共有文字列を取得すると{@link Poi2ccRuntimeException}をスローします。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class DiskSharedStringsTable implements SharedStrings, Closeable {
+
+	/** xlsb形式の共有文字列テーブルのコンテンツタイプ */
+	protected static final String BINARY_CONTENT_TYPE = "application/vnd.ms-excel.sharedStrings";
+
+	/** レコード種別 BrtSstItem */
+	protected static final int BRT_SST_ITEM = 19;
+
+	/** レコード種別 BrtBeginSst */
+	protected static final int BRT_BEGIN_SST = 159;
+
+	/** sharedStrings.binから解析するレコード */
+	protected static final SparseBitSet BINARY_RECORDS = new SparseBitSet();
+
+	static {
+		BINARY_RECORDS.set(BRT_SST_ITEM);
+		BINARY_RECORDS.set(BRT_BEGIN_SST);
+	}
+
+	/** 1回にメモリマップする大きさ(1つの文字列は複数の領域にまたがらないように配置します) */
+	protected static final int SEGMENT_SIZE = 1 << 30;
+
+	/** データファイル */
+	protected Path dataFile = null;
+
+	/** 索引ファイル */
+	protected Path indexFile = null;
+
+	/** 作成中のデータファイルの出力先 */
+	protected DataOutputStream dataOut = null;
+
+	/** 作成中の索引ファイルの出力先 */
+	protected DataOutputStream indexOut = null;
+
+	/** 作成中のデータファイルの大きさ */
+	protected long dataSize = 0;
+
+	/** データファイルの領域ごとのメモリマップ */
+	protected MappedByteBuffer[] dataSegments = null;
+
+	/** 索引ファイルの領域ごとのメモリマップ */
+	protected MappedByteBuffer[] indexSegments = null;
+
+	/** 共有文字列の数 */
+	protected int size = 0;
+
+	/** 読み取りとメモリマップの解放を排他するロック */
+	protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/** ブック内の文字列セルの数(記録されていない場合は-1) */
+	protected int count = -1;
+
+	/** 一意な共有文字列の数(記録されていない場合は-1) */
+	protected int uniqueCount = -1;
+
+	/**
+	 * 空の共有文字列テーブルのコンストラクタ
+	 * <p>
+	 * 一時ファイルを作成し、{@link #add(String)}で共有文字列を追加できる状態にします。
+	 * </p>
+	 *
+	 * @throws IOException IO例外
+	 */
+	protected DiskSharedStringsTable() throws IOException {
+
+		try {
+			dataFile = Files.createTempFile("poi2cc-sst", ".dat");
+			indexFile = Files.createTempFile("poi2cc-sst", ".idx");
+			dataOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile)));
+			indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)));
+		} catch (IOException e) {
+			close();
+
+			throw e;
+		}
+	}
+
+	/**
+	 * xlsx形式のパッケージの共有文字列テーブルを一時ファイルへ書き出します。
+	 * <p>
+	 * ふりがな(rPh)は{@link org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable}と同様に含めません。
+	 * </p>
+	 *
+	 * @param pkg xlsx形式のパッケージ
+	 * @return 共有文字列テーブル
+	 * @throws IOException IO例外
+	 * @throws SAXException XML解析例外
+	 */
+	public static DiskSharedStringsTable load(OPCPackage pkg) throws IOException, SAXException {
+
+		DiskSharedStringsTable table = new DiskSharedStringsTable();
+
+		try {
+			List<PackagePart> partList = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+
+			if (partList.isEmpty() == false) {
+				InputStream in = partList.get(0).getInputStream();
+
+				try {
+					XlsxWorkbookSource.parse(in, table.new SharedStringsHandler());
+				} finally {
+					Poi2ccUtil.close(in);
+				}
+			}
+
+			table.finish();
+		} catch (IOException | SAXException | RuntimeException e) {
+			table.close();
+
+			throw e;
+		}
+
+		return table;
+	}
+
+	/**
+	 * xlsb形式のパッケージの共有文字列テーブルを一時ファイルへ書き出します。
+	 *
+	 * @param pkg xlsb形式のパッケージ
+	 * @return 共有文字列テーブル
+	 * @throws IOException IO例外
+	 */
+	public static DiskSharedStringsTable loadBinary(OPCPackage pkg) throws IOException {
+
+		DiskSharedStringsTable table = new DiskSharedStringsTable();
+
+		try {
+			List<PackagePart> partList = pkg.getPartsByContentType(BINARY_CONTENT_TYPE);
+
+			if (partList.isEmpty() == false) {
+				InputStream in = partList.get(0).getInputStream();
+
+				try {
+					table.new BinarySharedStringsHandler(in).parse();
+				} finally {
+					Poi2ccUtil.close(in);
+				}
+			}
+
+			table.finish();
+		} catch (IOException | RuntimeException e) {
+			table.close();
+
+			throw e;
+		}
+
+		return table;
+	}
+
+	/**
+	 * 共有文字列を末尾に追加します。
+	 *
+	 * @param value 共有文字列
+	 * @throws IOException IO例外
+	 */
+	protected void add(String value) throws IOException {
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		long remaining = SEGMENT_SIZE - dataSize % SEGMENT_SIZE;
+
+		if (remaining < Integer.BYTES + bytes.length) {
+			for (long i = 0; i < remaining; i++) {
+				dataOut.write(0);
+			}
+
+			dataSize += remaining;
+		}
+
+		indexOut.writeLong(dataSize);
+		dataOut.writeInt(bytes.length);
+		dataOut.write(bytes);
+
+		dataSize += Integer.BYTES + bytes.length;
+		size++;
+	}
+
+	/**
+	 * 一時ファイルの作成を終了し、メモリマップします。
+	 *
+	 * @throws IOException IO例外
+	 */
+	protected void finish() throws IOException {
+
+		dataOut.close();
+		dataOut = null;
+		indexOut.close();
+		indexOut = null;
+
+		dataSegments = map(dataFile);
+		indexSegments = map(indexFile);
+	}
+
+	/**
+	 * ファイルを領域ごとに読み取り専用でメモリマップします。
+	 *
+	 * @param file ファイル
+	 * @return 領域ごとのメモリマップ
+	 * @throws IOException IO例外
+	 */
+	protected static MappedByteBuffer[] map(Path file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((fileSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+
+			for (int i = 0; i < segments.length; i++) {
+				long position = (long) i * SEGMENT_SIZE;
+
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, fileSize - position));
+			}
+
+			return segments;
+		}
+	}
+
+	/**
+	 * 共有文字列を取得します。
+	 *
+	 * @param index 共有文字列番号
+	 * @return 共有文字列
+	 * @throws Poi2ccRuntimeException 共有文字列テーブルを閉じた後に取得した場合
+	 */
+	public String getString(int index) {
+
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("共有文字列番号が範囲外です:" + index);
+		}
+
+		// 解放済みのメモリマップを参照しないよう、読み取り中は解放を待たせます。
+		lock.readLock().lock();
+
+		try {
+			if (dataSegments == null || indexSegments == null) {
+				throw new Poi2ccRuntimeException("共有文字列テーブルは閉じられています");
+			}
+
+			long indexPosition = (long) index * Long.BYTES;
+			long dataPosition = indexSegments[(int) (indexPosition / SEGMENT_SIZE)].getLong((int) (indexPosition % SEGMENT_SIZE));
+
+			// 読み取り位置を他のスレッドと共有しないよう、複製したバッファから読み取ります。
+			ByteBuffer buffer = dataSegments[(int) (dataPosition / SEGMENT_SIZE)].duplicate();
+
+			buffer.position((int) (dataPosition % SEGMENT_SIZE));
+
+			byte[] bytes = new byte[buffer.getInt()];
+
+			buffer.get(bytes);
+
+			return new String(bytes, StandardCharsets.UTF_8);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public RichTextString getItemAt(int index) {
+
+		return new XSSFRichTextString(getString(index));
+	}
+
+	@Override
+	public int getCount() {
+
+		return count >= 0 ? count : size;
+	}
+
+	@Override
+	public int getUniqueCount() {
+
+		return uniqueCount >= 0 ? uniqueCount : size;
+	}
+
+	/**
+	 * メモリマップを解放し、一時ファイルを削除します。
+	 * <p>
+	 * 読み取り中の文字列がある場合は、読み取りの終了を待ってから解放します。
+	 * メモリマップを明示的に解放できないJVMでは、Windowsなどマップ中のファイルを削除できない環境に限り、
+	 * 一時ファイルはJVM終了時まで残ります。
+	 * </p>
+	 */
+	@Override
+	public void close() {
+
+		lock.writeLock().lock();
+
+		try {
+			Poi2ccUtil.close(dataOut);
+			Poi2ccUtil.close(indexOut);
+
+			dataOut = null;
+			indexOut = null;
+
+			unmap(dataSegments);
+			unmap(indexSegments);
+
+			dataSegments = null;
+			indexSegments = null;
+
+			delete(dataFile);
+			delete(indexFile);
+
+			dataFile = null;
+			indexFile = null;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * メモリマップを明示的に解放します。
+	 * <p>
+	 * 解放できないJVMの場合は、ガベージコレクションでの解放に任せます。
+	 * </p>
+	 *
+	 * @param segments 領域ごとのメモリマップ(マップしていない場合はnull)
+	 */
+	protected static void unmap(MappedByteBuffer[] segments) {
+
+		if (segments == null || CleanerUtil.UNMAP_SUPPORTED == false) {
+			return;
+		}
+
+		for (MappedByteBuffer segment : segments) {
+			try {
+				CleanerUtil.getCleaner().freeBuffer(segment);
+			} catch (IOException e) {
+				// ガベージコレクションでの解放に任せます
+			}
+		}
+	}
+
+	/**
+	 * 一時ファイルを削除します。
+	 *
+	 * @param file 一時ファイル(作成していない場合はnull)
+	 */
+	protected static void delete(Path file) {
+
+		if (file == null) {
+			return;
+		}
+
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			file.toFile().deleteOnExit();
+		}
+	}
+
+	/**
+	 * sharedStrings.xmlから共有文字列を読み取り、一時ファイルへ書き出すハンドラ
+	 */
+	protected class SharedStringsHandler extends DefaultHandler {
+
+		/** 読み取り中の共有文字列 */
+		protected StringBuilder characters = new StringBuilder();
+
+		/** 文字列(t)の内側かどうか */
+		protected boolean text = false;
+
+		/** ふりがな(rPh)の内側かどうか */
+		protected boolean phonetic = false;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+
+			if ("sst".equals(localName) == true) {
+				count = parseCount(attributes.getValue("count"));
+				uniqueCount = parseCount(attributes.getValue("uniqueCount"));
+			} else if ("si".equals(localName) == true) {
+				characters.setLength(0);
+			} else if ("t".equals(localName) == true) {
+				text = true;
+			} else if ("rPh".equals(localName) == true) {
+				phonetic = true;
+			}
+		}
+
+		/**
+		 * 属性値の件数を整数に変換します。
+		 *
+		 * @param value 属性値
+		 * @return 件数(属性がない場合・整数として解釈できない場合は-1)
+		 */
+		protected int parseCount(String value) {
+
+			if (value == null) {
+				return -1;
+			}
+
+			try {
+				return Poi2ccUtil.parseInt(value);
+			} catch (NumberFormatException e) {
+				return -1;
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+
+			if ("si".equals(localName) == true) {
+				try {
+					add(characters.toString());
+				} catch (IOException e) {
+					throw new SAXException(e);
+				}
+			} else if ("t".equals(localName) == true) {
+				text = false;
+			} else if ("rPh".equals(localName) == true) {
+				phonetic = false;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) throws SAXException {
+
+			if (text == true && phonetic == false) {
+				characters.append(ch, start, length);
+			}
+		}
+	}
+
+	/**
+	 * sharedStrings.binから共有文字列(BrtSstItem)を読み取り、一時ファイルへ書き出すハンドラ
+	 */
+	protected class BinarySharedStringsHandler extends XSSFBParser {
+
+		/**
+		 * ハンドラのコンストラクタ
+		 *
+		 * @param in sharedStrings.binの入力ストリーム
+		 */
+		protected BinarySharedStringsHandler(InputStream in) {
+
+			super(in, BINARY_RECORDS);
+		}
+
+		@Override
+		public void handleRecord(int recordType, byte[] data) throws XSSFBParseException {
+
+			if (recordType == BRT_BEGIN_SST) {
+				count = LittleEndian.getInt(data, 0);
+				uniqueCount = LittleEndian.getInt(data, 4);
+			} else if (recordType == BRT_SST_ITEM) {
+				try {
+					// RichStrは書式の有無などのフラグ(1バイト)に続いて文字列が格納されています。
+					add(XlsbWorkbookSource.readString(data, 1));
+				} catch (IOException e) {
+					throw new XSSFBParseException(e.getMessage());
+				}
+			}
+		}
+	}
+}
@@ -8,34 +8,75 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+import org.apache.poi.EncryptedDocumentException;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
 import org.apache.poi.hssf.util.HSSFColor;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.crypt.EncryptionInfo;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Comment;
 import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
 import org.apache.poi.ss.usermodel.ExtendedColor;
 import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.Footer;
-import org.apache.poi.ss.usermodel.Header;
+import org.apache.poi.ss.usermodel.HeaderFooter;
 import org.apache.poi.ss.usermodel.PrintSetup;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellAddress;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.binary.XSSFBCommentsTable;
+import org.apache.poi.xssf.binary.XSSFBParseException;
+import org.apache.poi.xssf.model.CommentsTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.SAXException;
 
 import com.kiruah.poi2cc.storage.Address;
 import com.kiruah.poi2cc.storage.Book;
 import com.kiruah.poi2cc.storage.Cell;
 import com.kiruah.poi2cc.storage.Sheet;
+import com.kiruah.poi2cc.storage.ValueType;
 import com.kiruah.poi2cc.storage.sub.CellFont;
 import com.kiruah.poi2cc.storage.sub.CellRange;
 import com.kiruah.poi2cc.storage.sub.SheetStyle;
 
 /**
  * Excelファイルをロードします。
+ * <p>
+ * ロード・走査中の状態は呼び出しごとに{@link ReadContext}へ保持し、インスタンスはロード時のオプションと
+ * 空のセルで共有する変更不可のフォント・スタイルのみを保持します。
+ * そのため、オプションを指定して生成した1つのインスタンスを、複数のスレッドから同時に利用できます。
+ * 利用中はオプションを変更しないでください。
+ * </p>
  *
  * @author Kiruah
  */
@@ -44,17 +85,14 @@ public class ExcelReader {
 	/** カラムサイズデフォルト値補正数 */
 	protected static final int COLUMN_CORRECTING_VALUE = 256;
 
-	/** 現在処理中のブック */
-	protected org.apache.poi.ss.usermodel.Workbook fileBook = null;
-
-	/** 現在処理中のシート */
-	protected org.apache.poi.ss.usermodel.Sheet fileSheet = null;
+	/** ロード時のオプション */
+	protected LoadOptions options = LoadOptions.defaults();
 
-	/** 現在処理中の行 */
-	protected org.apache.poi.ss.usermodel.Row fileRow = null;
+	/** 空のセルで共有するフォント */
+	protected CellFont blankCellFont = new CellFont().freeze();
 
-	/** 現在処理中のセル */
-	protected org.apache.poi.ss.usermodel.Cell fileCell = null;
+	/** 空のセルで共有するスタイル */
+	protected com.kiruah.poi2cc.storage.sub.CellStyle blankCellStyle = new com.kiruah.poi2cc.storage.sub.CellStyle().freeze();
 
 	/**
 	 * Excelファイルロードします。
@@ -67,9 +105,7 @@ public class ExcelReader {
 	 */
 	public static Book loadBook(String fileName) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
-
-		return reader.loadBook(fileName, new FileInputStream(fileName));
+		return loadBook(new File(fileName), fileName, LoadOptions.defaults(), null);
 	}
 
 	/**
@@ -98,9 +134,7 @@ public class ExcelReader {
 	 */
 	public static Book loadBook(File file) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
-
-		return reader.loadBook(file.getAbsolutePath(), new FileInputStream(file));
+		return loadBook(file, file.getAbsolutePath(), LoadOptions.defaults(), null);
 	}
 
 	/**
@@ -153,494 +187,2556 @@ public class ExcelReader {
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * オプションを指定してExcelファイルロードします。
 	 *
-	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
-	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param fileName ファイル名
+	 * @param options ロード時のオプション
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public Book loadBook(String fileName, InputStream in) throws InvalidFormatException, IOException {
-
-		Book book = new Book(fileName);
-
-		try {
-			fileBook = WorkbookFactory.create(in);
+	public static Book loadBook(String fileName, LoadOptions options) throws InvalidFormatException, FileNotFoundException, IOException {
 
-			int sheetNumber = fileBook.getNumberOfSheets();
-
-			for (int i = 0; i < sheetNumber; i++) {
-				String sheetName = fileBook.getSheetName(i);
-				fileSheet = fileBook.getSheetAt(i);
-
-				Sheet sheet = loadSheet(sheetName);
-
-				book.addSheet(sheet);
-			}
-		} finally {
-			Poi2ccUtil.close(in);
-		}
-
-		return book;
+		return loadBook(new File(fileName), fileName, options, null);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * オプションを指定してExcelファイルロードします。
 	 *
-	 * @param fileName ファイル名
-	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @param file ファイルオブジェクト
+	 * @param options ロード時のオプション
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
 	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public static Book loadBookSpecifiedIncludeSheet(String fileName, String... includeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+	public static Book loadBook(File file, LoadOptions options) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
-
-		return reader.loadBookSpecifiedIncludeSheet(fileName, new FileInputStream(fileName), includeSheetNameArray);
+		return loadBook(file, file.getAbsolutePath(), options, null);
 	}
 
 	/**
-	 * システムリソースからファイルをロードします。
+	 * Excelファイルロードします。
 	 *
-	 * @param fileName ファイル名
-	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @param path ファイルのパス
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public static Book loadBookFromResourceSpecifiedIncludeSheet(String fileName, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+	public static Book loadBook(Path path) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
-
-		return reader.loadBookSpecifiedIncludeSheet(fileName, Thread.currentThread().getContextClassLoader().getSystemResourceAsStream(fileName), includeSheetNameArray);
+		return loadBook(path, LoadOptions.defaults());
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * オプションを指定してExcelファイルロードします。
+	 * <p>
+	 * 既定のファイルシステム以外(zipファイルシステムなど)のパスは入力ストリーム経由でロードします。
+	 * </p>
 	 *
-	 * @param file ファイルオブジェクト
-	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @param path ファイルのパス
+	 * @param options ロード時のオプション
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
 	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public static Book loadBookSpecifiedIncludeSheet(File file, String... includeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+	public static Book loadBook(Path path, LoadOptions options) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
+		ExcelReader reader = new ExcelReader(options);
 
-		return reader.loadBookSpecifiedIncludeSheet(file.getAbsolutePath(), new FileInputStream(file), includeSheetNameArray);
+		return reader.read(path);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * パスワードで保護されたExcelファイルロードします。
 	 *
-	 * @param uri URI
-	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @param file ファイルオブジェクト
+	 * @param password パスワード
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
+	 * @see #read(File, String)
 	 */
-	public static Book loadBookSpecifiedIncludeSheet(URI uri, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+	public static Book loadEncryptedBook(File file, String password) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		return loadBookSpecifiedIncludeSheet(uri.toURL(), includeSheetNameArray);
+		return loadEncryptedBook(file, password, LoadOptions.defaults());
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * オプションを指定して、パスワードで保護されたExcelファイルロードします。
 	 *
-	 * @param url URL
-	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @param file ファイルオブジェクト
+	 * @param password パスワード
+	 * @param options ロード時のオプション
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
+	 * @see #read(File, String)
 	 */
-	public static Book loadBookSpecifiedIncludeSheet(URL url, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+	public static Book loadEncryptedBook(File file, String password, LoadOptions options) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
+		ExcelReader reader = new ExcelReader(options);
 
-		return reader.loadBookSpecifiedIncludeSheet(url.toExternalForm(), url.openStream(), includeSheetNameArray);
+		return reader.read(file, password);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * オプションを指定して、パスワードで保護されたExcelファイルロードします。
 	 *
-	 * @param uri URI(ファイル名の元情報として利用します。)
-	 * @param in Excelファイルを読み取る入力ストリーム
-	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @param path ファイルのパス
+	 * @param password パスワード
+	 * @param options ロード時のオプション
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
+	 * @see #read(Path, String)
 	 */
-	public static Book loadBookSpecifiedIncludeSheet(URI uri, InputStream in, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+	public static Book loadEncryptedBook(Path path, String password, LoadOptions options) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
+		ExcelReader reader = new ExcelReader(options);
 
-		return reader.loadBookSpecifiedIncludeSheet(uri.toString(), in, includeSheetNameArray);
+		return reader.read(path, password);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * オプションを指定してExcelファイルを非同期にロードします。
+	 * <p>
+	 * ロードはエグゼキューター上で実行され、呼び出し元のスレッドはブロックしません。
+	 * ロードに失敗した場合、返却値は{@link CompletionException}で完了し、原因に発生した例外を保持します。
+	 * </p>
 	 *
-	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
-	 * @param in Excelファイルを読み取る入力ストリーム
-	 * @param includeSheetNameArray ロードするシート名の配列
-	 * @return Excelファイル内容を保持したブック情報
-	 * @throws InvalidFormatException 不正なフォーマット例外
-	 * @throws IOException IO例外
+	 * @param path ファイルのパス
+	 * @param options ロード時のオプション
+	 * @param executor ロードを実行するエグゼキューター
+	 * @return ロード結果のブック情報
 	 */
-	public Book loadBookSpecifiedIncludeSheet(String fileName, InputStream in, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+	public static CompletableFuture<Book> loadBookAsync(Path path, LoadOptions options, Executor executor) {
 
-		Book book = new Book(fileName);
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return loadBook(path, options);
+			} catch (IOException | InvalidFormatException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
 
-		Map<String, String> map = new HashMap<String, String>();
+	/**
+	 * オプションを指定してExcelファイルを非同期にロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param options ロード時のオプション
+	 * @param executor ロードを実行するエグゼキューター
+	 * @return ロード結果のブック情報
+	 * @see #loadBookAsync(Path, LoadOptions, Executor)
+	 */
+	public static CompletableFuture<Book> loadBookAsync(File file, LoadOptions options, Executor executor) {
 
-		for (String sheetName : includeSheetNameArray) {
-			map.put(sheetName, sheetName);
-		}
+		return loadBookAsync(file.getAbsoluteFile().toPath(), options, executor);
+	}
 
-		try {
-			fileBook = WorkbookFactory.create(in);
+	/**
+	 * オプションを指定してExcelファイルを非同期にロードします。
+	 *
+	 * @param fileName ファイル名
+	 * @param options ロード時のオプション
+	 * @param executor ロードを実行するエグゼキューター
+	 * @return ロード結果のブック情報
+	 * @see #loadBookAsync(Path, LoadOptions, Executor)
+	 */
+	public static CompletableFuture<Book> loadBookAsync(String fileName, LoadOptions options, Executor executor) {
 
-			int sheetNumber = fileBook.getNumberOfSheets();
+		return loadBookAsync(Paths.get(fileName), options, executor);
+	}
 
-			for (int i = 0; i < sheetNumber; i++) {
-				String sheetName = fileBook.getSheetName(i);
+	/**
+	 * 変更されたExcelファイルを再ロードし、ブックの内容を更新します。
+	 *
+	 * @param book 前回ロードしたブック
+	 * @param path ファイルのパス
+	 * @return 解析し直したシート名
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see #reload(Book, Path)
+	 */
+	public static List<String> reloadBook(Book book, Path path) throws InvalidFormatException, FileNotFoundException, IOException {
 
-				if (map.containsKey(sheetName) == true) {
-					fileSheet = fileBook.getSheetAt(i);
+		return reloadBook(book, path, LoadOptions.defaults());
+	}
 
-					Sheet sheet = loadSheet(sheetName);
+	/**
+	 * オプションを指定して、変更されたExcelファイルを再ロードし、ブックの内容を更新します。
+	 *
+	 * @param book 前回ロードしたブック
+	 * @param path ファイルのパス
+	 * @param options ロード時のオプション
+	 * @return 解析し直したシート名
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see #reload(Book, Path)
+	 */
+	public static List<String> reloadBook(Book book, Path path, LoadOptions options) throws InvalidFormatException, FileNotFoundException, IOException {
 
-					book.addSheet(sheet);
-				}
-			}
-		} finally {
-			Poi2ccUtil.close(in);
-		}
+		ExcelReader reader = new ExcelReader(options);
 
-		return book;
+		return reader.reload(book, path);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * オプションを指定してExcelファイルロードします。
+	 * <p>
+	 * 入力ストリームを経由せず、ファイルを読み取り専用で直接開きます。
+	 * ファイル全体をメモリへ複製せず、必要な部分のみをファイルから読み取ります。
+	 * </p>
 	 *
-	 * @param fileName ファイル名
-	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @param file ファイルオブジェクト
+	 * @param fileName ブック名として利用するファイル名
+	 * @param options ロード時のオプション
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
 	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public static Book loadBookSpecifiedExcludeSheet(String fileName, String... excludeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+	protected static Book loadBook(File file, String fileName, LoadOptions options, Predicate<String> sheetFilter) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
+		ExcelReader reader = new ExcelReader(options);
 
-		return reader.loadBookSpecifiedExcludeSheet(fileName, new FileInputStream(fileName), excludeSheetNameArray);
+		return reader.loadBook(file, fileName, sheetFilter);
 	}
 
 	/**
-	 * システムリソースからファイルをロードします。
+	 * このリーダーのオプションでExcelファイルロードします。
+	 * <p>
+	 * 1つのリーダーを複数のスレッドから同時に呼び出せます。
+	 * </p>
 	 *
 	 * @param fileName ファイル名
-	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public static Book loadBookFromResourceSpecifiedExcludeSheet(String fileName, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+	public Book read(String fileName) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
-
-		return reader.loadBookSpecifiedExcludeSheet(fileName, Thread.currentThread().getContextClassLoader().getSystemResourceAsStream(fileName), excludeSheetNameArray);
+		return loadBook(new File(fileName), fileName, null);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * このリーダーのオプションでExcelファイルロードします。
+	 * <p>
+	 * 1つのリーダーを複数のスレッドから同時に呼び出せます。
+	 * </p>
 	 *
 	 * @param file ファイルオブジェクト
-	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
 	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public static Book loadBookSpecifiedExcludeSheet(File file, String... excludeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
-
-		ExcelReader reader = new ExcelReader();
+	public Book read(File file) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		return reader.loadBookSpecifiedExcludeSheet(file.getAbsolutePath(), new FileInputStream(file), excludeSheetNameArray);
+		return loadBook(file, file.getAbsolutePath(), null);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * このリーダーのオプションでExcelファイルロードします。
+	 * <p>
+	 * 既定のファイルシステム上のファイルは{@link #read(File)}と同様に直接開き、それ以外は入力ストリームから読み取ります。
+	 * 1つのリーダーを複数のスレッドから同時に呼び出せます。
+	 * </p>
 	 *
-	 * @param uri URI
-	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @param path ファイルのパス
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public static Book loadBookSpecifiedExcludeSheet(URI uri, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+	public Book read(Path path) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		return loadBookSpecifiedExcludeSheet(uri.toURL(), excludeSheetNameArray);
+		if (path.getFileSystem() == FileSystems.getDefault()) {
+			return loadBook(path.toFile(), path.toString(), null);
+		}
+
+		return loadBook(path.toString(), Files.newInputStream(path));
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * このリーダーのオプションで、パスワードで保護されたExcelファイルロードします。
+	 * <p>
+	 * 暗号化されたxlsx形式・xlsb形式のファイルは、復号したパッケージを復号ストリームから直接読み取ってロードします。
+	 * 暗号化されたファイル自体はメモリへ読み込まないため、暗号化前と復号後の内容を同時にメモリへ保持しません。
+	 * ロード方法はオプションに従いますが、ファイルから開いたパッケージではないため{@link #reload(Book, Path)}の差分判定には対応しません。
+	 * xls形式のファイルはApache POIにパスワードを渡して読み込みます。
+	 * 暗号化されていないファイルはパスワードを無視し、{@link #read(File)}と同様にロードします。
+	 * 1つのリーダーを複数のスレッドから同時に呼び出せます。
+	 * </p>
 	 *
-	 * @param url URL
-	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @param file ファイルオブジェクト
+	 * @param password パスワード
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
 	 */
-	public static Book loadBookSpecifiedExcludeSheet(URL url, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
-
-		ExcelReader reader = new ExcelReader();
+	public Book read(File file, String password) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		return reader.loadBookSpecifiedExcludeSheet(url.toExternalForm(), url.openStream(), excludeSheetNameArray);
+		return loadEncryptedBook(file, file.getAbsolutePath(), password, null);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * このリーダーのオプションで、パスワードで保護されたExcelファイルロードします。
+	 * <p>
+	 * 既定のファイルシステム上のファイルは{@link #read(File, String)}と同様に直接開き、それ以外は入力ストリームから読み取ります。
+	 * </p>
 	 *
-	 * @param uri URI(ファイル名の元情報として利用します。)
-	 * @param in Excelファイルを読み取る入力ストリーム
-	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @param path ファイルのパス
+	 * @param password パスワード
 	 * @return Excelファイル内容を保持したブック情報
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
 	 */
-	public static Book loadBookSpecifiedExcludeSheet(URI uri, InputStream in, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+	public Book read(Path path, String password) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		ExcelReader reader = new ExcelReader();
+		if (path.getFileSystem() == FileSystems.getDefault()) {
+			return loadEncryptedBook(path.toFile(), path.toString(), password, null);
+		}
 
-		return reader.loadBookSpecifiedExcludeSheet(uri.toString(), in, excludeSheetNameArray);
+		return loadEncryptedBook(path.toString(), Files.newInputStream(path), password);
 	}
 
 	/**
-	 * Excelファイルロードします。
+	 * このリーダーのオプションで、変更されたExcelファイルを再ロードし、ブックの内容を更新します。
+	 * <p>
+	 * 前回のロード時にブックへ記録したzipの各パーツのCRC・サイズと比較し、シートのパーツまたはシートが依存する
+	 * 共有文字列・スタイルなどのパーツが変更されたシートのみを解析し直します。変更されていないシートは現在のシート情報をそのまま利用します。
+	 * シートの追加・削除・並び替えはブックに反映し、前回のロードで対象外としたシートは再ロード後も含めません。
+	 * 前回の状態を記録していないブック(入力ストリームからロードした場合、xls形式の場合など)は、すべてのシートを解析し直します。
+	 * 解析し直したシートは遅延ロードしません。
+	 * </p>
 	 *
-	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
-	 * @param in Excelファイルを読み取る入力ストリーム
-	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
-	 * @return Excelファイル内容を保持したブック情報
+	 * @param book 前回ロードしたブック
+	 * @param path ファイルのパス
+	 * @return 解析し直したシート名
 	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
 	 * @throws IOException IO例外
 	 */
-	public Book loadBookSpecifiedExcludeSheet(String fileName, InputStream in, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
-
-		Book book = new Book(fileName);
+	public List<String> reload(Book book, Path path) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		Map<String, String> map = new HashMap<String, String>();
+		PackageFingerprint previous = book.getFingerprint();
 
-		for (String sheetName : excludeSheetNameArray) {
-			map.put(sheetName, sheetName);
+		if (previous == null || path.getFileSystem() != FileSystems.getDefault() || Files.isRegularFile(path) == false
+				|| FileMagic.valueOf(path.toFile()) != FileMagic.OOXML) {
+			return replaceSheets(book, read(path));
 		}
 
-		try {
-			fileBook = WorkbookFactory.create(in);
-
-			int sheetNumber = fileBook.getNumberOfSheets();
+		OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ);
+		PackageFingerprint current = null;
 
-			for (int i = 0; i < sheetNumber; i++) {
-				String sheetName = fileBook.getSheetName(i);
-
-				if (map.containsKey(sheetName) == false) {
-					fileSheet = fileBook.getSheetAt(i);
-
-					Sheet sheet = loadSheet(sheetName);
-
-					book.addSheet(sheet);
-				}
-			}
+		try {
+			current = PackageFingerprint.of(pkg);
 		} finally {
-			Poi2ccUtil.close(in);
+			if (current == null) {
+				pkg.revert();
+			}
 		}
 
-		return book;
-	}
-
-	protected void loadSheetStyle(SheetStyle style) {
-
-		style.setDisplayGridLine(fileSheet.isDisplayGridlines());
-		style.setDisplayZeros(fileSheet.isDisplayZeros());
-
-		style.setMarginTop(fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.TopMargin));
-		style.setMarginBottom(fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.BottomMargin));
-		style.setMarginLeft(fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.LeftMargin));
-		style.setMarginRight(fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.RightMargin));
-
-		style.setAutoBreaks(fileSheet.getAutobreaks());
-		style.setDisplayGuts(fileSheet.getDisplayGuts());
-		style.setFitToPage(fileSheet.getFitToPage());
-		style.setHorizontallyCenter(fileSheet.getHorizontallyCenter());
-		style.setVerticallyCenter(fileSheet.getVerticallyCenter());
-		style.setPrintGridlines(fileSheet.isPrintGridlines());
+		if (current == null) {
+			return replaceSheets(book, read(path));
+		}
 
-		Header header = fileSheet.getHeader();
+		List<String> sheetNameList = new ArrayList<String>();
+		List<String> reloadNameList = new ArrayList<String>();
 
-		if (header != null) {
-			style.setHeaderCenter(header.getCenter());
-			style.setHeaderLeft(header.getLeft());
-			style.setHeaderRight(header.getRight());
-		}
+		for (String sheetName : current.getSheetNames()) {
+			if (previous.containsSheet(sheetName) == true && book.containsSheet(sheetName) == false) {
+				continue;
+			}
 
-		Footer footer = fileSheet.getFooter();
+			sheetNameList.add(sheetName);
 
-		if (footer != null) {
-			style.setFooterCenter(footer.getCenter());
-			style.setFooterLeft(footer.getLeft());
-			style.setFooterRight(footer.getRight());
+			if (book.getLoadedSheet(sheetName) == null || current.isSheetChanged(previous, sheetName) == true) {
+				reloadNameList.add(sheetName);
+			}
 		}
 
-		PrintSetup printSetup = fileSheet.getPrintSetup();
+		Book loadedBook = null;
 
-		if (printSetup != null) {
-			style.setHeaderMargin(printSetup.getHeaderMargin());
-			style.setFooterMargin(printSetup.getFooterMargin());
-			style.setFitHeight(printSetup.getFitHeight());
-			style.setFitWidth(printSetup.getFitWidth());
-			style.setDraft(printSetup.getDraft());
-			style.setHorizontallyResolution(printSetup.getHResolution());
-			style.setLandscape(printSetup.getLandscape());
-			style.setLeftToRight(printSetup.getLeftToRight());
-			style.setNoOrientation(printSetup.getNoOrientation());
-			style.setNoColor(printSetup.getNoColor());
-			style.setNotes(printSetup.getNotes());
-			style.setPaperSize(printSetup.getPaperSize());
-			style.setPageStart(printSetup.getPageStart());
-			style.setScale(printSetup.getScale());
-			style.setUsePage(printSetup.getUsePage());
-			style.setValidSettings(printSetup.getValidSettings());
-			style.setVerticallyResolution(printSetup.getVResolution());
+		if (reloadNameList.isEmpty() == true) {
+			pkg.revert();
+		} else {
+			loadedBook = loadPackage(book.getName(), pkg, reloadNameList::contains);
+			loadedBook.loadAllSheets();
 		}
 
-		int[] columnBreakArray = fileSheet.getColumnBreaks();
+		List<Sheet> sheetList = new ArrayList<Sheet>();
 
-		if (columnBreakArray != null) {
-			for (int value : columnBreakArray) {
-				style.getColumnBreakList().add(value);
-			}
+		for (String sheetName : sheetNameList) {
+			sheetList.add(loadedBook != null && reloadNameList.contains(sheetName) == true ? loadedBook.getSheet(sheetName) : book.getLoadedSheet(sheetName));
 		}
 
-		int[] rowBreakArray = fileSheet.getRowBreaks();
+		book.close();
+		book.setSheetList(sheetList);
+		book.setFingerprint(current);
 
-		if (rowBreakArray != null) {
-			for (int value : rowBreakArray) {
-				style.getRowBreakList().add(value);
-			}
-		}
+		return reloadNameList;
 	}
 
 	/**
-	 * シート情報をロードします。
+	 * ブックのすべてのシートを、ロードし直したブックのシートに置き換えます。
 	 *
-	 * @param sheetName シート名
-	 * @return ロードしたシート情報
+	 * @param book 前回ロードしたブック
+	 * @param loadedBook ロードし直したブック
+	 * @return 置き換えたシート名
 	 */
-	protected Sheet loadSheet(String sheetName) {
-
-		Sheet sheet = new Sheet(sheetName);
-
-		sheet.setDefaultColumnSize(fileSheet.getDefaultColumnWidth() * COLUMN_CORRECTING_VALUE);
-		sheet.setDefaultRowSize(fileSheet.getDefaultRowHeight());
-
-		SheetStyle style = sheet.getStyle();
-
-		loadSheetStyle(style);
-
-		int beginRow = fileSheet.getFirstRowNum();
-		int lastRow = fileSheet.getLastRowNum();
-
-		for (int i = beginRow; i <= lastRow; i++) {
-			fileRow = fileSheet.getRow(i);
+	protected List<String> replaceSheets(Book book, Book loadedBook) {
 
-			if (fileRow != null) {
-				sheet.getRowSizeMap().put(i, (int) fileRow.getHeight());
+		List<String> sheetNameList = new ArrayList<String>();
 
-				loadRow(i, sheet);
-			}
-		}
+		loadedBook.loadAllSheets();
 
-		for (int i = 0; i < fileSheet.getNumMergedRegions(); i++) {
-			CellRangeAddress range = fileSheet.getMergedRegion(i);
-
-			loadMergedCell(sheet, range);
+		for (Sheet sheet : loadedBook.getSheetList()) {
+			sheetNameList.add(sheet.getName());
 		}
 
-		int maxRow = sheet.getMaxRow();
-		int maxColumn = sheet.getMaxColumn();
-		Address address = new Address();
-
-		for (int column = 0; column < maxColumn; column++) {
-			for (int row = 0; row < maxRow; row++) {
-				address.setAddress(column, row);
-
-				Cell cell = sheet.getCell(address);
-
-				if (cell == null) {
-					cell = new Cell();
-					sheet.setCell(address, cell);
-				}
-
-				cell.setEdited(false);
-			}
-		}
+		book.close();
+		book.setSheetList(loadedBook.getSheetList());
+		book.setFingerprint(loadedBook.getFingerprint());
 
-		return sheet;
+		return sheetNameList;
 	}
 
 	/**
-	 * 結合セル情報をロードします。
+	 * 条件に一致するシートのみExcelファイルロードします。
+	 * <p>
+	 * 入力ストリームを経由せず、ファイルを読み取り専用で直接開きます。
+	 * ファイル全体をメモリへ複製せず、必要な部分のみをファイルから読み取ります。
+	 * xlsx形式・xlsb形式のファイルは{@link #loadBook(String, OPCPackage, Predicate)}でロードします。
+	 * </p>
 	 *
-	 * @param sheet シート
-	 * @param range セルの結合情報
+	 * @param file ファイルオブジェクト
+	 * @param fileName ブック名として利用するファイル名
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
 	 */
-	protected void loadMergedCell(Sheet sheet, CellRangeAddress range) {
+	protected Book loadBook(File file, String fileName, Predicate<String> sheetFilter) throws InvalidFormatException, FileNotFoundException, IOException {
 
-		CellRange cellRange = new CellRange(range.getFirstColumn(), range.getFirstRow(), range.getLastColumn(), range.getLastRow());
-		Address address = new Address(range.getFirstColumn(), range.getFirstRow());
-		Cell baseCell = sheet.getCell(address);
-
-		for (int i = range.getFirstRow(); i <= range.getLastRow(); i++) {
-			for (int j = range.getFirstColumn(); j <= range.getLastColumn(); j++) {
-				address.setAddress(j, i);
+		if (file.isFile() == true) {
+			FileMagic magic = FileMagic.valueOf(file);
 
-				sheet.getCell(address).setParentCell(baseCell);
+			if (magic == FileMagic.OOXML) {
+				return loadBook(fileName, OPCPackage.open(file, PackageAccess.READ), sheetFilter);
+			} else if (magic == FileMagic.OLE2 && isSheetParsing() == true && isRecordStreaming() == true) {
+				return loadBookStreaming(fileName, new POIFSFileSystem(file, true), sheetFilter);
 			}
 		}
 
-		baseCell.setMergedCell(cellRange);
-		baseCell.setParentCell(null);
+		return loadBook(fileName, file, sheetFilter);
+	}
+
+	/**
+	 * オプションを指定してExcelファイルロードします。
+	 *
+	 * @param uri URI(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param options ロード時のオプション
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBook(URI uri, InputStream in, LoadOptions options) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader(options);
+		String name = null;
+
+		if (uri != null) {
+			name = uri.toString();
+		}
+
+		return reader.loadBook(name, in);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 * <p>
+	 * ストリーミング・遅延ロード・並列ロードのいずれかが指定されていて、かつxlsx形式の場合は{@link #loadBookStreaming(String, OPCPackage)}でロードします。
+	 * ストリーミングが指定されていて(遅延ロードを除く)、かつxls形式の場合は{@link #loadBookStreaming(String, POIFSFileSystem)}でロードします。
+	 * xlsb形式の場合はオプションに関わらず{@link #loadBookBinary(String, OPCPackage)}でロードします。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public Book loadBook(String fileName, InputStream in) throws InvalidFormatException, IOException {
+
+		return loadBook(fileName, in, null);
+	}
+
+	/**
+	 * 条件に一致するシートのみExcelファイルロードします。
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected Book loadBook(String fileName, InputStream in, Predicate<String> sheetFilter) throws InvalidFormatException, IOException {
+
+		InputStream magicIn = FileMagic.prepareToCheckMagic(in);
+		FileMagic magic = FileMagic.valueOf(magicIn);
+
+		if (magic == FileMagic.OOXML) {
+			OPCPackage pkg = null;
+
+			try {
+				pkg = OPCPackage.open(magicIn);
+			} finally {
+				Poi2ccUtil.close(magicIn);
+			}
+
+			return loadBook(fileName, pkg, sheetFilter);
+		} else if (magic == FileMagic.OLE2 && isSheetParsing() == true && isRecordStreaming() == true) {
+			POIFSFileSystem fs = null;
+
+			try {
+				fs = new POIFSFileSystem(magicIn);
+			} finally {
+				Poi2ccUtil.close(magicIn);
+			}
+
+			return loadBookStreaming(fileName, fs, sheetFilter);
+		}
+
+		ReadContext context = new ReadContext();
+
+		try {
+			context.fileBook = WorkbookFactory.create(magicIn);
+		} finally {
+			Poi2ccUtil.close(magicIn);
+		}
+
+		return loadWorkbook(context, fileName, sheetFilter);
+	}
+
+	/**
+	 * パスワードで保護されたExcelファイルから条件に一致するシートのみロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param fileName ブック名として利用するファイル名
+	 * @param password パスワード
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see #read(File, String)
+	 */
+	protected Book loadEncryptedBook(File file, String fileName, String password, Predicate<String> sheetFilter) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		if (file.isFile() == true && FileMagic.valueOf(file) == FileMagic.OLE2) {
+			return loadEncryptedBook(fileName, new POIFSFileSystem(file, true), password, sheetFilter);
+		}
+
+		return loadBook(file, fileName, sheetFilter);
+	}
+
+	/**
+	 * パスワードで保護されたExcelファイルロードします。
+	 * <p>
+	 * 暗号化されたファイルは入力ストリームからメモリへ読み込んでから復号します。
+	 * ファイルから読み取れる場合は{@link #read(File, String)}を利用してください。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param password パスワード
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
+	 */
+	public Book loadEncryptedBook(String fileName, InputStream in, String password) throws InvalidFormatException, IOException {
+
+		InputStream magicIn = FileMagic.prepareToCheckMagic(in);
+
+		if (FileMagic.valueOf(magicIn) != FileMagic.OLE2) {
+			return loadBook(fileName, magicIn, null);
+		}
+
+		POIFSFileSystem fs = null;
+
+		try {
+			fs = new POIFSFileSystem(magicIn);
+		} finally {
+			Poi2ccUtil.close(magicIn);
+		}
+
+		return loadEncryptedBook(fileName, fs, password, null);
+	}
+
+	/**
+	 * パスワードで保護されたファイルシステムから条件に一致するシートのみロードします。
+	 * <p>
+	 * 暗号化されたxlsx形式・xlsb形式のパッケージは{@link #openDecryptedPackage(POIFSFileSystem, String)}で復号し、
+	 * {@link #loadPackage(String, OPCPackage, Predicate)}でオプションに応じた方法でロードします。
+	 * xls形式はストリーミングが指定されていて(遅延ロードを除く)、かつレコードの逐次処理が可能な場合はパスワードを設定して逐次処理し、
+	 * それ以外の場合はApache POIにパスワードを渡して読み込みます。
+	 * ファイルシステムはロード終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param fs ファイルシステム
+	 * @param password パスワード
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected Book loadEncryptedBook(String fileName, POIFSFileSystem fs, String password, Predicate<String> sheetFilter) throws InvalidFormatException, IOException {
+
+		if (fs.getRoot().hasEntry(Decryptor.DEFAULT_POIFS_ENTRY) == true) {
+			return loadPackage(fileName, openDecryptedPackage(fs, password), sheetFilter);
+		}
+
+		if (isSheetParsing() == true && isRecordStreaming() == true) {
+			Biff8EncryptionKey.setCurrentUserPassword(password);
+
+			try {
+				return loadBookStreaming(fileName, fs, sheetFilter);
+			} finally {
+				Biff8EncryptionKey.setCurrentUserPassword(null);
+			}
+		}
+
+		ReadContext context = new ReadContext();
+
+		try {
+			context.fileBook = WorkbookFactory.create(fs.getRoot(), password);
+		} finally {
+			if (context.fileBook == null) {
+				Poi2ccUtil.close(fs);
+			}
+		}
+
+		Book book = null;
+
+		try {
+			book = loadWorkbook(context, fileName, sheetFilter);
+		} finally {
+			if (book == null || book.getSheetLoader() == null) {
+				closeWorkbook(context);
+			}
+		}
+
+		return book;
+	}
+
+	/**
+	 * 暗号化されたxlsx形式・xlsb形式のパッケージを復号して開きます。
+	 * <p>
+	 * 復号ストリームから直接パッケージを読み取り、復号後のパッケージのみをメモリへ保持します。
+	 * ファイルシステムはパッケージを読み取った時点で閉じられます。
+	 * </p>
+	 *
+	 * @param fs 暗号化されたパッケージを格納したファイルシステム
+	 * @param password パスワード(nullの場合は既定のパスワード)
+	 * @return 復号したパッケージ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
+	 */
+	protected OPCPackage openDecryptedPackage(POIFSFileSystem fs, String password) throws InvalidFormatException, IOException {
+
+		InputStream in = null;
+
+		try {
+			Decryptor decryptor = Decryptor.getInstance(new EncryptionInfo(fs));
+
+			if (decryptor.verifyPassword(password == null ? Decryptor.DEFAULT_PASSWORD : password) == false) {
+				throw new EncryptedDocumentException("パスワードが一致しません");
+			}
+
+			in = decryptor.getDataStream(fs);
+
+			return OPCPackage.open(in);
+		} catch (GeneralSecurityException e) {
+			throw new EncryptedDocumentException("ファイルを復号できません", e);
+		} finally {
+			Poi2ccUtil.close(in, fs);
+		}
+	}
+
+	/**
+	 * xlsx形式・xlsb形式のパッケージから条件に一致するシートのみロードします。
+	 * <p>
+	 * xlsb形式の場合は{@link #loadBookBinary(String, OPCPackage)}でロードします。
+	 * ストリーミング・遅延ロード・並列ロードのいずれかが指定されている場合は{@link #loadBookStreaming(String, OPCPackage)}でロードします。
+	 * それ以外の場合はApache POIのオブジェクトモデルを生成してロードし、遅延ロードする場合を除き、パッケージはロード終了時に閉じられます。
+	 * ファイルから開いたパッケージの場合、{@link #reload(Book, Path)}のためにロード時点の状態をブックに記録します。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param pkg xlsx形式・xlsb形式のパッケージ
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected Book loadBook(String fileName, OPCPackage pkg, Predicate<String> sheetFilter) throws InvalidFormatException, IOException {
+
+		PackageFingerprint fingerprint = null;
+
+		try {
+			fingerprint = PackageFingerprint.of(pkg);
+		} catch (InvalidFormatException | IOException e) {
+			pkg.revert();
+
+			throw e;
+		}
+
+		Book book = loadPackage(fileName, pkg, sheetFilter);
+
+		book.setFingerprint(fingerprint);
+
+		return book;
+	}
+
+	/**
+	 * xlsx形式・xlsb形式のパッケージから条件に一致するシートのみ、形式とオプションに応じた方法でロードします。
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param pkg xlsx形式・xlsb形式のパッケージ
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 * @see #loadBook(String, OPCPackage, Predicate)
+	 */
+	protected Book loadPackage(String fileName, OPCPackage pkg, Predicate<String> sheetFilter) throws InvalidFormatException, IOException {
+
+		if (XlsbWorkbookSource.isXlsb(pkg) == true) {
+			return loadBookBinary(fileName, pkg, sheetFilter);
+		} else if (isSheetParsing() == true) {
+			return loadBookStreaming(fileName, pkg, sheetFilter);
+		}
+
+		ReadContext context = new ReadContext();
+		Book book = null;
+
+		try {
+			context.fileBook = new XSSFWorkbook(pkg);
+			book = loadWorkbook(context, fileName, sheetFilter);
+		} finally {
+			if (context.fileBook == null) {
+				pkg.revert();
+			} else if (book == null || book.getSheetLoader() == null) {
+				closeWorkbook(context);
+			}
+		}
+
+		return book;
+	}
+
+	/**
+	 * 条件に一致するシートのみExcelファイルロードします。
+	 * <p>
+	 * ファイルは読み取り専用で開き、Apache POIがファイルを直接参照するため、ファイル全体をメモリへ複製しません。
+	 * 遅延ロードする場合を除き、ファイルはロード終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param file ファイルオブジェクト
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	protected Book loadBook(String fileName, File file, Predicate<String> sheetFilter) throws FileNotFoundException, IOException {
+
+		if (file.isFile() == false) {
+			throw new FileNotFoundException(file.getPath());
+		}
+
+		ReadContext context = new ReadContext();
+
+		context.fileBook = WorkbookFactory.create(file, null, true);
+
+		Book book = null;
+
+		try {
+			book = loadWorkbook(context, fileName, sheetFilter);
+		} finally {
+			if (book == null || book.getSheetLoader() == null) {
+				closeWorkbook(context);
+			}
+		}
+
+		return book;
+	}
+
+	/**
+	 * 読み込み済みのApache POIのブックから、条件に一致するシートのみロードします。
+	 *
+	 * @param context ロードの状態
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 */
+	protected Book loadWorkbook(ReadContext context, String fileName, Predicate<String> sheetFilter) {
+
+		Book book = new Book(fileName);
+		LazySheetLoader loader = null;
+
+		if (options.isLazy() == true) {
+			loader = new LazySheetLoader(this, context, null);
+		}
+
+		int sheetNumber = context.fileBook.getNumberOfSheets();
+
+		for (int i = 0; i < sheetNumber; i++) {
+			String sheetName = context.fileBook.getSheetName(i);
+
+			if (sheetFilter != null && sheetFilter.test(sheetName) == false) {
+				continue;
+			}
+
+			context.fileSheet = context.fileBook.getSheetAt(i);
+
+			if (loader != null) {
+				Sheet sheet = new Sheet(sheetName);
+
+				loadSheetDimension(context, sheet);
+				loader.addSheet(sheet, i);
+				book.addSheet(sheet);
+			} else {
+				Sheet sheet = loadSheet(context, sheetName);
+
+				book.addSheet(sheet);
+			}
+		}
+
+		if (loader != null && loader.getSheetCount() > 0) {
+			book.setSheetLoader(loader);
+		}
+
+		return book;
+	}
+
+	/**
+	 * 読み込み済みのApache POIのブックを閉じます。
+	 * <p>
+	 * 読み取り専用として扱うため、ファイルへの保存は行いません。
+	 * </p>
+	 *
+	 * @param context ロードの状態
+	 */
+	protected void closeWorkbook(ReadContext context) {
+
+		if (context.fileBook instanceof XSSFWorkbook == true) {
+			((XSSFWorkbook) context.fileBook).getPackage().revert();
+		} else {
+			Poi2ccUtil.close(context.fileBook);
+		}
+	}
+
+	/**
+	 * シート単位でSAX解析するかどうかを判定します。
+	 *
+	 * @return ストリーミング・遅延ロード・並列ロードのいずれかが指定されている場合はtrue
+	 */
+	protected boolean isSheetParsing() {
+
+		return options.isStreaming() == true || options.isLazy() == true || options.getExecutor() != null;
+	}
+
+	/**
+	 * xls形式のブックをレコードの逐次処理でロードするかどうかを判定します。
+	 * <p>
+	 * レコードはブックの先頭から順にしか読めないため、遅延ロード・並列ロードでは利用しません。
+	 * </p>
+	 *
+	 * @return ストリーミングが指定されていて、遅延ロードが指定されていない場合はtrue
+	 */
+	protected boolean isRecordStreaming() {
+
+		return options.isStreaming() == true && options.isLazy() == false;
+	}
+
+	/**
+	 * 現在処理中のシートの使用範囲を、未ロードのシートに設定します。
+	 *
+	 * @param context ロードの状態
+	 * @param sheet 未ロードのシート
+	 */
+	protected void loadSheetDimension(ReadContext context, Sheet sheet) {
+
+		int maxColumn = 0;
+
+		for (org.apache.poi.ss.usermodel.Row row : context.fileSheet) {
+			if (maxColumn < row.getLastCellNum()) {
+				maxColumn = row.getLastCellNum();
+			}
+		}
+
+		if (context.fileSheet.getPhysicalNumberOfRows() > 0) {
+			sheet.setMaxRow(context.fileSheet.getLastRowNum() + 1);
+			sheet.setMaxColumn(maxColumn);
+		}
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param fileName ファイル名
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedIncludeSheet(String fileName, String... includeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedIncludeSheet(new File(fileName), fileName, LoadOptions.defaults(), includeSheetNameArray);
+	}
+
+	/**
+	 * システムリソースからファイルをロードします。
+	 *
+	 * @param fileName ファイル名
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookFromResourceSpecifiedIncludeSheet(String fileName, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		return reader.loadBookSpecifiedIncludeSheet(fileName, Thread.currentThread().getContextClassLoader().getSystemResourceAsStream(fileName), includeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedIncludeSheet(File file, String... includeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedIncludeSheet(file, file.getAbsolutePath(), LoadOptions.defaults(), includeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param uri URI
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedIncludeSheet(URI uri, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+
+		return loadBookSpecifiedIncludeSheet(uri.toURL(), includeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param url URL
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedIncludeSheet(URL url, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		return reader.loadBookSpecifiedIncludeSheet(url.toExternalForm(), url.openStream(), includeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param uri URI(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedIncludeSheet(URI uri, InputStream in, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		return reader.loadBookSpecifiedIncludeSheet(uri.toString(), in, includeSheetNameArray);
+	}
+
+	/**
+	 * オプションを指定してExcelファイルロードします。
+	 *
+	 * @param fileName ファイル名
+	 * @param options ロード時のオプション
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedIncludeSheet(String fileName, LoadOptions options, String... includeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedIncludeSheet(new File(fileName), fileName, options, includeSheetNameArray);
+	}
+
+	/**
+	 * オプションを指定してExcelファイルロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param options ロード時のオプション
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedIncludeSheet(File file, LoadOptions options, String... includeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedIncludeSheet(file, file.getAbsolutePath(), options, includeSheetNameArray);
+	}
+
+	/**
+	 * オプションを指定してExcelファイルロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param fileName ブック名として利用するファイル名
+	 * @param options ロード時のオプション
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	protected static Book loadBookSpecifiedIncludeSheet(File file, String fileName, LoadOptions options, String... includeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		Map<String, String> map = new HashMap<String, String>();
+
+		for (String sheetName : includeSheetNameArray) {
+			map.put(sheetName, sheetName);
+		}
+
+		return loadBook(file, fileName, options, sheetName -> map.containsKey(sheetName) == true);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param includeSheetNameArray ロードするシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public Book loadBookSpecifiedIncludeSheet(String fileName, InputStream in, String... includeSheetNameArray) throws InvalidFormatException, IOException {
+
+		Map<String, String> map = new HashMap<String, String>();
+
+		for (String sheetName : includeSheetNameArray) {
+			map.put(sheetName, sheetName);
+		}
+
+		return loadBook(fileName, in, sheetName -> map.containsKey(sheetName) == true);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param fileName ファイル名
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedExcludeSheet(String fileName, String... excludeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedExcludeSheet(new File(fileName), fileName, LoadOptions.defaults(), excludeSheetNameArray);
+	}
+
+	/**
+	 * システムリソースからファイルをロードします。
+	 *
+	 * @param fileName ファイル名
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookFromResourceSpecifiedExcludeSheet(String fileName, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		return reader.loadBookSpecifiedExcludeSheet(fileName, Thread.currentThread().getContextClassLoader().getSystemResourceAsStream(fileName), excludeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedExcludeSheet(File file, String... excludeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedExcludeSheet(file, file.getAbsolutePath(), LoadOptions.defaults(), excludeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param uri URI
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedExcludeSheet(URI uri, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+
+		return loadBookSpecifiedExcludeSheet(uri.toURL(), excludeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param url URL
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedExcludeSheet(URL url, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		return reader.loadBookSpecifiedExcludeSheet(url.toExternalForm(), url.openStream(), excludeSheetNameArray);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param uri URI(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedExcludeSheet(URI uri, InputStream in, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		return reader.loadBookSpecifiedExcludeSheet(uri.toString(), in, excludeSheetNameArray);
+	}
+
+	/**
+	 * オプションを指定してExcelファイルロードします。
+	 *
+	 * @param fileName ファイル名
+	 * @param options ロード時のオプション
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedExcludeSheet(String fileName, LoadOptions options, String... excludeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedExcludeSheet(new File(fileName), fileName, options, excludeSheetNameArray);
+	}
+
+	/**
+	 * オプションを指定してExcelファイルロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param options ロード時のオプション
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static Book loadBookSpecifiedExcludeSheet(File file, LoadOptions options, String... excludeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return loadBookSpecifiedExcludeSheet(file, file.getAbsolutePath(), options, excludeSheetNameArray);
+	}
+
+	/**
+	 * オプションを指定してExcelファイルロードします。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param fileName ブック名として利用するファイル名
+	 * @param options ロード時のオプション
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	protected static Book loadBookSpecifiedExcludeSheet(File file, String fileName, LoadOptions options, String... excludeSheetNameArray) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		Map<String, String> map = new HashMap<String, String>();
+
+		for (String sheetName : excludeSheetNameArray) {
+			map.put(sheetName, sheetName);
+		}
+
+		return loadBook(file, fileName, options, sheetName -> map.containsKey(sheetName) == false);
+	}
+
+	/**
+	 * Excelファイルロードします。
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param excludeSheetNameArray ロード除外対象のシート名の配列
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public Book loadBookSpecifiedExcludeSheet(String fileName, InputStream in, String... excludeSheetNameArray) throws InvalidFormatException, IOException {
+
+		Map<String, String> map = new HashMap<String, String>();
+
+		for (String sheetName : excludeSheetNameArray) {
+			map.put(sheetName, sheetName);
+		}
+
+		return loadBook(fileName, in, sheetName -> map.containsKey(sheetName) == false);
+	}
+
+	/**
+	 * xlsx形式のパッケージをストリーミング(SAX)でロードします。
+	 * <p>
+	 * Apache POIのオブジェクトモデルを生成せず、シートのXMLを1行ずつ解析してブック情報へ直接格納します。
+	 * パッケージはロード終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param pkg xlsx形式のパッケージ
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public Book loadBookStreaming(String fileName, OPCPackage pkg) throws InvalidFormatException, IOException {
+
+		return loadBookStreaming(fileName, pkg, null);
+	}
+
+	/**
+	 * xlsx形式のパッケージから条件に一致するシートのみストリーミング(SAX)でロードします。
+	 * <p>
+	 * 遅延ロードが指定されている場合は未ロードのシートを持つブックを返却し、
+	 * パッケージはすべてのシートがロードされるか{@link Book#close()}が呼び出されるまで開かれたままになります。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param pkg xlsx形式のパッケージ
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected Book loadBookStreaming(String fileName, OPCPackage pkg, Predicate<String> sheetFilter) throws InvalidFormatException, IOException {
+
+		ReadContext context = new ReadContext();
+		Book book = new Book(fileName);
+		XlsxWorkbookSource source = null;
+		LazySheetLoader loader = null;
+
+		try {
+			source = new XlsxWorkbookSource(pkg, options.isSharedStringsOnDisk());
+
+			if (options.isLazy() == true) {
+				loader = new LazySheetLoader(this, context, source);
+			}
+
+			if (loader == null && options.getExecutor() != null) {
+				loadSheetParallel(context, book, source, sheetFilter);
+			} else {
+				int sheetNumber = source.getSheetCount();
+
+				for (int i = 0; i < sheetNumber; i++) {
+					String sheetName = source.getSheetName(i);
+
+					if (sheetFilter != null && sheetFilter.test(sheetName) == false) {
+						continue;
+					}
+
+					if (loader != null) {
+						Sheet sheet = new Sheet(sheetName);
+						CellRangeAddress dimension = source.getSheetDimension(i);
+
+						if (dimension != null) {
+							sheet.setMaxRow(dimension.getLastRow() + 1);
+							sheet.setMaxColumn(dimension.getLastColumn() + 1);
+						}
+
+						loader.addSheet(sheet, i);
+						book.addSheet(sheet);
+					} else {
+						Sheet sheet = loadSheetStreaming(context, source, i);
+
+						book.addSheet(sheet);
+					}
+				}
+			}
+
+			if (loader != null && loader.getSheetCount() > 0) {
+				book.setSheetLoader(loader);
+				source = null;
+			}
+		} finally {
+			if (source != null) {
+				source.close();
+			} else if (book.getSheetLoader() == null) {
+				pkg.revert();
+			}
+		}
+
+		return book;
+	}
+
+	/**
+	 * xlsb形式のパッケージをストリーミング(レコードの逐次処理)でロードします。
+	 * <p>
+	 * Apache POIのオブジェクトモデルを生成せず、シートのレコードを先頭から順に解析してブック情報へ直接格納します。
+	 * パッケージはロード終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param pkg xlsb形式のパッケージ
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public Book loadBookBinary(String fileName, OPCPackage pkg) throws InvalidFormatException, IOException {
+
+		return loadBookBinary(fileName, pkg, null);
+	}
+
+	/**
+	 * xlsb形式のパッケージから条件に一致するシートのみストリーミング(レコードの逐次処理)でロードします。
+	 * <p>
+	 * 遅延ロード・並列ロードが指定されている場合も、すべてのシートを順にロードします。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param pkg xlsb形式のパッケージ
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected Book loadBookBinary(String fileName, OPCPackage pkg, Predicate<String> sheetFilter) throws InvalidFormatException, IOException {
+
+		ReadContext context = new ReadContext();
+		Book book = new Book(fileName);
+		XlsbWorkbookSource source = null;
+
+		try {
+			source = new XlsbWorkbookSource(pkg, options.isSharedStringsOnDisk());
+
+			int sheetNumber = source.getSheetCount();
+
+			for (int i = 0; i < sheetNumber; i++) {
+				if (sheetFilter != null && sheetFilter.test(source.getSheetName(i)) == false) {
+					continue;
+				}
+
+				book.addSheet(loadSheetBinary(context, source, i));
+			}
+		} finally {
+			if (source != null) {
+				source.close();
+			} else {
+				pkg.revert();
+			}
+		}
+
+		return book;
+	}
+
+	/**
+	 * xls形式のファイルシステムをストリーミング(レコードの逐次処理)でロードします。
+	 * <p>
+	 * Apache POIのオブジェクトモデルを生成せず、ブックのレコードを先頭から順に処理してブック情報へ直接格納します。
+	 * ファイルシステムはロード終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param fs xls形式のファイルシステム
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws IOException IO例外
+	 */
+	public Book loadBookStreaming(String fileName, POIFSFileSystem fs) throws IOException {
+
+		return loadBookStreaming(fileName, fs, null);
+	}
+
+	/**
+	 * xls形式のファイルシステムから条件に一致するシートのみストリーミング(レコードの逐次処理)でロードします。
+	 *
+	 * @param fileName ファイル名(ファイル名の元情報として利用します。)
+	 * @param fs xls形式のファイルシステム
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @return Excelファイル内容を保持したブック情報
+	 * @throws IOException IO例外
+	 */
+	protected Book loadBookStreaming(String fileName, POIFSFileSystem fs, Predicate<String> sheetFilter) throws IOException {
+
+		Book book = new Book(fileName);
+
+		try {
+			processRecord(fs, new XlsRecordHandler(this, new ReadContext(), book, sheetFilter));
+		} finally {
+			Poi2ccUtil.close(fs);
+		}
+
+		return book;
+	}
+
+	/**
+	 * xls形式のファイルシステムのブックのレコードを先頭から順に処理します。
+	 * <p>
+	 * 行の通知先が走査の打ち切りを指定した時点で、以降のレコードは読み取りません。
+	 * </p>
+	 *
+	 * @param fs xls形式のファイルシステム
+	 * @param handler レコード処理
+	 * @throws IOException IO例外
+	 */
+	protected void processRecord(POIFSFileSystem fs, XlsRecordHandler handler) throws IOException {
+
+		HSSFRequest request = new HSSFRequest();
+
+		request.addListenerForAllRecords(handler);
+
+		try {
+			new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+		} catch (HSSFUserException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * 条件に一致するシートをエグゼキューター上で並列にロードし、元のシート順にブックへ追加します。
+	 * <p>
+	 * 解析に失敗したシートがある場合は、すべての解析の終了を待ってから、シート順で最初の例外をスローします。
+	 * </p>
+	 *
+	 * @param context ロードの状態
+	 * @param book 追加先のブック
+	 * @param source ブックの共有情報
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected void loadSheetParallel(ReadContext context, Book book, XlsxWorkbookSource source, Predicate<String> sheetFilter) throws InvalidFormatException, IOException {
+
+		source.prepareConcurrentAccess();
+
+		List<CompletableFuture<Sheet>> futureList = new ArrayList<CompletableFuture<Sheet>>();
+
+		for (int i = 0; i < source.getSheetCount(); i++) {
+			if (sheetFilter != null && sheetFilter.test(source.getSheetName(i)) == false) {
+				continue;
+			}
+
+			final int sheetIndex = i;
+
+			futureList.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					return loadSheetStreaming(context, source, sheetIndex);
+				} catch (IOException | InvalidFormatException e) {
+					throw new CompletionException(e);
+				}
+			}, options.getExecutor()));
+		}
+
+		try {
+			CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[futureList.size()])).join();
+		} catch (CompletionException e) {
+			// 例外はシート順に取得し直します
+		}
+
+		for (CompletableFuture<Sheet> future : futureList) {
+			try {
+				book.addSheet(future.join());
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+
+				if (cause instanceof IOException == true) {
+					throw (IOException) cause;
+				} else if (cause instanceof InvalidFormatException == true) {
+					throw (InvalidFormatException) cause;
+				} else if (cause instanceof RuntimeException == true) {
+					throw (RuntimeException) cause;
+				}
+
+				throw new Poi2ccRuntimeException(cause);
+			}
+		}
+	}
+
+	/**
+	 * シート情報をストリーミング(SAX)でロードします。
+	 *
+	 * @param context ロードの状態
+	 * @param source ブックの共有情報
+	 * @param sheetIndex シート番号
+	 * @return ロードしたシート情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected Sheet loadSheetStreaming(ReadContext context, XlsxWorkbookSource source, int sheetIndex) throws InvalidFormatException, IOException {
+
+		Sheet sheet = new Sheet(source.getSheetName(sheetIndex));
+		Map<Address, String> commentMap = null;
+
+		if (options.isValuesOnly() == false) {
+			commentMap = loadCommentMap(source.getSheetComments(sheetIndex));
+		}
+
+		SheetBuilder builder = new SheetBuilder(this, context, source, sheet, commentMap);
+		XlsxSheetHandler handler = new XlsxSheetHandler(source, sheet, builder, options);
+
+		parseSheet(source, sheetIndex, handler);
+
+		handler.finish();
+
+		for (CellRangeAddress range : handler.getMergedRegionList()) {
+			loadMergedCell(sheet, range);
+		}
+
+		fillBlankCell(sheet);
+
+		return sheet;
+	}
+
+	/**
+	 * シートのXMLを解析します。
+	 *
+	 * @param source ブックの共有情報
+	 * @param sheetIndex シート番号
+	 * @param handler シートXML解析ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected void parseSheet(XlsxWorkbookSource source, int sheetIndex, XlsxSheetHandler handler) throws InvalidFormatException, IOException {
+
+		InputStream in = source.openSheet(sheetIndex);
+
+		try {
+			XlsxWorkbookSource.parse(in, handler);
+		} catch (SAXException e) {
+			if (handler.isFinished() == true) {
+				return;
+			}
+
+			throw new InvalidFormatException("シートを解析できません:" + source.getSheetName(sheetIndex), e);
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+	}
+
+	/**
+	 * シート情報をストリーミング(レコードの逐次処理)でロードします。
+	 *
+	 * @param context ロードの状態
+	 * @param source ブックの共有情報
+	 * @param sheetIndex シート番号
+	 * @return ロードしたシート情報
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected Sheet loadSheetBinary(ReadContext context, XlsbWorkbookSource source, int sheetIndex) throws InvalidFormatException, IOException {
+
+		Sheet sheet = new Sheet(source.getSheetName(sheetIndex));
+		Map<Address, String> commentMap = null;
+
+		if (options.isValuesOnly() == false) {
+			commentMap = loadCommentMap(source.getSheetComments(sheetIndex));
+		}
+
+		SheetBuilder builder = new SheetBuilder(this, context, source, sheet, commentMap);
+		XlsbSheetHandler handler = parseSheet(source, sheetIndex, sheet, builder, options);
+
+		handler.finish();
+
+		for (CellRangeAddress range : handler.getMergedRegionList()) {
+			loadMergedCell(sheet, range);
+		}
+
+		fillBlankCell(sheet);
+
+		return sheet;
+	}
+
+	/**
+	 * シートのレコードを解析します。
+	 *
+	 * @param source ブックの共有情報
+	 * @param sheetIndex シート番号
+	 * @param sheet シート単位の情報の格納先(格納しない場合はnull)
+	 * @param rowHandler 行の通知先
+	 * @param loadOptions ロード時のオプション
+	 * @return 解析を終えたシートのレコード解析ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected XlsbSheetHandler parseSheet(XlsbWorkbookSource source, int sheetIndex, Sheet sheet, RowHandler rowHandler, LoadOptions loadOptions) throws InvalidFormatException, IOException {
+
+		InputStream in = source.openSheet(sheetIndex);
+		XlsbSheetHandler handler = new XlsbSheetHandler(in, source, sheet, rowHandler, loadOptions);
+
+		try {
+			handler.parse();
+		} catch (XSSFBParseException e) {
+			if (handler.isFinished() == false) {
+				throw new InvalidFormatException("シートを解析できません:" + source.getSheetName(sheetIndex), e);
+			}
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+
+		return handler;
+	}
+
+	/**
+	 * コメントテーブルからセルのアドレスとコメントの対応表を作成します。
+	 *
+	 * @param comments コメントテーブル
+	 * @return セルのアドレスとコメントの対応表(コメントがない場合はnull)
+	 */
+	protected Map<Address, String> loadCommentMap(CommentsTable comments) {
+
+		if (comments == null) {
+			return null;
+		}
+
+		Map<Address, String> commentMap = new HashMap<Address, String>();
+		Iterator<CellAddress> iterator = comments.getCellAddresses();
+
+		while (iterator.hasNext() == true) {
+			CellAddress cellAddress = iterator.next();
+			XSSFComment comment = comments.findCellComment(cellAddress);
+
+			if (comment != null && comment.getString() != null) {
+				commentMap.put(new Address(cellAddress.getColumn(), cellAddress.getRow()), comment.getString().getString());
+			}
+		}
+
+		return commentMap;
+	}
+
+	/**
+	 * xlsb形式のコメントテーブルからセルのアドレスとコメントの対応表を作成します。
+	 *
+	 * @param comments コメントテーブル
+	 * @return セルのアドレスとコメントの対応表(コメントがない場合はnull)
+	 */
+	protected Map<Address, String> loadCommentMap(XSSFBCommentsTable comments) {
+
+		if (comments == null) {
+			return null;
+		}
+
+		Map<Address, String> commentMap = new HashMap<Address, String>();
+
+		for (CellAddress cellAddress : comments.getAddresses()) {
+			XSSFComment comment = comments.get(cellAddress);
+
+			if (comment != null && comment.getString() != null) {
+				commentMap.put(new Address(cellAddress.getColumn(), cellAddress.getRow()), comment.getString().getString());
+			}
+		}
+
+		return commentMap;
+	}
+
+	/**
+	 * シートのすべてのコメントを一度に読み込み、セルのアドレスとコメントの対応表を作成します。
+	 * <p>
+	 * xlsx形式はコメントのパートを、xls形式は描画オブジェクトを一度だけ走査します。
+	 * 描画オブジェクトがないxls形式のシートはコメントがないものとして、描画オブジェクトを生成しません。
+	 * </p>
+	 *
+	 * @param sheet Apache POIのシート
+	 * @return セルのアドレスとコメントの対応表(コメントがない場合はnull)
+	 */
+	protected Map<Address, String> loadCommentMap(org.apache.poi.ss.usermodel.Sheet sheet) {
+
+		Map<Address, String> commentMap = null;
+
+		if (sheet instanceof XSSFSheet == true) {
+			for (POIXMLDocumentPart part : ((XSSFSheet) sheet).getRelations()) {
+				if (part instanceof CommentsTable == true) {
+					commentMap = loadCommentMap((CommentsTable) part);
+				}
+			}
+		} else if (sheet instanceof HSSFSheet == false || ((HSSFSheet) sheet).getDrawingPatriarch() != null) {
+			commentMap = new HashMap<Address, String>();
+
+			for (Map.Entry<CellAddress, ? extends Comment> entry : sheet.getCellComments().entrySet()) {
+				RichTextString text = entry.getValue().getString();
+
+				if (text != null) {
+					commentMap.put(new Address(entry.getKey().getColumn(), entry.getKey().getRow()), text.getString());
+				}
+			}
+		}
+
+		return commentMap == null || commentMap.isEmpty() == true ? null : commentMap;
+	}
+
+	/**
+	 * Excelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * ブック情報は生成しません。xlsx形式のファイルはシートのXMLを逐次解析するため、
+	 * シートの行数に関わらず一定のメモリで走査できます。
+	 * </p>
+	 *
+	 * @param fileName ファイル名
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public static void scan(String fileName, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		scan(new File(fileName), handler);
+	}
+
+	/**
+	 * Excelファイルの先頭から指定した行数のみを走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * 指定した行数を通知した時点で解析を打ち切り、ファイルを閉じます。行数はブック全体で数えます。
+	 * </p>
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param rowLimit 通知する最大行数
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see LimitedRowHandler
+	 */
+	public static void peek(File file, int rowLimit, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		scan(file, LimitedRowHandler.rows(rowLimit, handler));
+	}
+
+	/**
+	 * Excelファイルを先頭から条件に一致する行まで走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * 条件に一致した行を通知した時点で解析を打ち切り、ファイルを閉じます。
+	 * 見出し行の検索には{@link RowData#indexOfText(String)}を利用できます。
+	 * </p>
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param stopCondition 走査を打ち切る行の条件
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see LimitedRowHandler
+	 */
+	public static void scanUntil(File file, Predicate<RowData> stopCondition, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		scan(file, LimitedRowHandler.until(stopCondition, handler));
+	}
+
+	/**
+	 * xlsx形式のファイルを開き、シートの指定した行範囲のみを読み取るリーダーを生成します。
+	 * <p>
+	 * シートごとに行索引を作成し、以降は指定した行の近くから解析するため、巨大なシートをページ単位で読み取る場合に利用します。
+	 * 使用後はリーダーを閉じてください。
+	 * </p>
+	 *
+	 * @param file xlsx形式のファイル
+	 * @return 行範囲を読み取るリーダー
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see XlsxRowReader#readRows(String, int, int, RowHandler)
+	 */
+	public static XlsxRowReader openRowReader(File file) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		return new XlsxRowReader(file);
+	}
+
+	/**
+	 * Excelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see #scan(String, RowHandler)
+	 */
+	public static void scan(File file, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		reader.scanBook(file, handler);
+	}
+
+	/**
+	 * Excelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 *
+	 * @param path ファイルのパス
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @see #scan(String, RowHandler)
+	 */
+	public static void scan(Path path, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		if (path.getFileSystem() == FileSystems.getDefault()) {
+			scan(path.toFile(), handler);
+		} else {
+			scan(Files.newInputStream(path), handler);
+		}
+	}
+
+	/**
+	 * Excelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 *
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 * @see #scan(String, RowHandler)
+	 */
+	public static void scan(InputStream in, RowHandler handler) throws InvalidFormatException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		reader.scanBook(in, handler);
+	}
+
+	/**
+	 * パスワードで保護されたExcelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param password パスワード
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
+	 * @see #scanBook(File, String, RowHandler)
+	 */
+	public static void scan(File file, String password, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		ExcelReader reader = new ExcelReader();
+
+		reader.scanBook(file, password, handler);
+	}
+
+	/**
+	 * Excelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * ファイルを読み取り専用で直接開きます。1つのリーダーを複数のスレッドから同時に呼び出せます。
+	 * </p>
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public void scanBook(File file, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		FileMagic magic = file.isFile() == true ? FileMagic.valueOf(file) : FileMagic.UNKNOWN;
+
+		if (magic == FileMagic.OOXML) {
+			scanBook(OPCPackage.open(file, PackageAccess.READ), handler);
+		} else if (magic == FileMagic.OLE2) {
+			scanBook(new POIFSFileSystem(file, true), handler);
+		} else {
+			scanBook(new FileInputStream(file), handler);
+		}
+	}
+
+	/**
+	 * パスワードで保護されたExcelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * 暗号化されたxlsx形式・xlsb形式のファイルは復号したパッケージを、xls形式のファイルはパスワードを設定してレコードを逐次処理して走査します。
+	 * 暗号化されていないファイルはパスワードを無視し、{@link #scanBook(File, RowHandler)}と同様に走査します。
+	 * </p>
+	 *
+	 * @param file ファイルオブジェクト
+	 * @param password パスワード
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @throws EncryptedDocumentException パスワードが一致しない場合
+	 */
+	public void scanBook(File file, String password, RowHandler handler) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		if (file.isFile() == false || FileMagic.valueOf(file) != FileMagic.OLE2) {
+			scanBook(file, handler);
+
+			return;
+		}
+
+		POIFSFileSystem fs = new POIFSFileSystem(file, true);
+
+		if (fs.getRoot().hasEntry(Decryptor.DEFAULT_POIFS_ENTRY) == true) {
+			scanBook(openDecryptedPackage(fs, password), handler);
+
+			return;
+		}
+
+		Biff8EncryptionKey.setCurrentUserPassword(password);
+
+		try {
+			scanBook(fs, handler);
+		} finally {
+			Biff8EncryptionKey.setCurrentUserPassword(null);
+		}
+	}
+
+	/**
+	 * Excelファイルを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * xls形式のファイルはブックのレコードを逐次処理して走査します。
+	 * それ以外のファイルはApache POIのオブジェクトモデルを生成して走査します。
+	 * </p>
+	 *
+	 * @param in Excelファイルを読み取る入力ストリーム
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public void scanBook(InputStream in, RowHandler handler) throws InvalidFormatException, IOException {
+
+		InputStream magicIn = FileMagic.prepareToCheckMagic(in);
+		FileMagic magic = FileMagic.valueOf(magicIn);
+
+		if (magic == FileMagic.OOXML) {
+			OPCPackage pkg = null;
+
+			try {
+				pkg = OPCPackage.open(magicIn);
+			} finally {
+				Poi2ccUtil.close(magicIn);
+			}
+
+			scanBook(pkg, handler);
+
+			return;
+		} else if (magic == FileMagic.OLE2) {
+			POIFSFileSystem fs = null;
+
+			try {
+				fs = new POIFSFileSystem(magicIn);
+			} finally {
+				Poi2ccUtil.close(magicIn);
+			}
+
+			scanBook(fs, handler);
+
+			return;
+		}
+
+		ReadContext context = new ReadContext();
+
+		try {
+			context.fileBook = WorkbookFactory.create(magicIn);
+
+			RowData rowData = new RowData();
+			int sheetNumber = context.fileBook.getNumberOfSheets();
+
+			rowData.setDate1904(isDate1904(context));
+
+			for (int i = 0; i < sheetNumber && handler.isFinished() == false; i++) {
+				String sheetName = context.fileBook.getSheetName(i);
+				context.fileSheet = context.fileBook.getSheetAt(i);
+
+				handler.startSheet(sheetName, i);
+
+				for (org.apache.poi.ss.usermodel.Row row : context.fileSheet) {
+					context.fileRow = row;
+
+					scanRow(context, rowData, handler);
+
+					if (handler.isFinished() == true) {
+						break;
+					}
+				}
+
+				handler.endSheet(sheetName, i);
+			}
+		} finally {
+			Poi2ccUtil.close(magicIn);
+
+			if (context.fileBook != null) {
+				closeWorkbook(context);
+			}
+		}
+	}
+
+	/**
+	 * xlsx形式・xlsb形式のパッケージを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * パッケージは走査終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param pkg xlsx形式・xlsb形式のパッケージ
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public void scanBook(OPCPackage pkg, RowHandler handler) throws InvalidFormatException, IOException {
+
+		if (XlsbWorkbookSource.isXlsb(pkg) == true) {
+			scanBookBinary(pkg, handler);
+
+			return;
+		}
+
+		XlsxWorkbookSource source = null;
+
+		try {
+			source = new XlsxWorkbookSource(pkg, options.isSharedStringsOnDisk());
+
+			int sheetNumber = source.getSheetCount();
+
+			for (int i = 0; i < sheetNumber && handler.isFinished() == false; i++) {
+				String sheetName = source.getSheetName(i);
+
+				handler.startSheet(sheetName, i);
+
+				parseSheet(source, i, new XlsxSheetHandler(source, null, handler));
+
+				handler.endSheet(sheetName, i);
+			}
+		} finally {
+			if (source != null) {
+				source.close();
+			} else {
+				pkg.revert();
+			}
+		}
+	}
+
+	/**
+	 * xlsb形式のパッケージを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * 行・セル以外のレコードはデータを読み込まずに読み飛ばします。
+	 * パッケージは走査終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param pkg xlsb形式のパッケージ
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected void scanBookBinary(OPCPackage pkg, RowHandler handler) throws InvalidFormatException, IOException {
+
+		XlsbWorkbookSource source = null;
+
+		try {
+			source = new XlsbWorkbookSource(pkg, options.isSharedStringsOnDisk());
+
+			int sheetNumber = source.getSheetCount();
+
+			for (int i = 0; i < sheetNumber && handler.isFinished() == false; i++) {
+				String sheetName = source.getSheetName(i);
+
+				handler.startSheet(sheetName, i);
+
+				parseSheet(source, i, null, handler, LoadOptions.defaults());
+
+				handler.endSheet(sheetName, i);
+			}
+		} finally {
+			if (source != null) {
+				source.close();
+			} else {
+				pkg.revert();
+			}
+		}
+	}
+
+	/**
+	 * xls形式のファイルシステムを先頭から1行ずつ走査し、各行を行ハンドラへ通知します。
+	 * <p>
+	 * ブックのレコードを逐次処理するため、シートの行数に関わらず一定のメモリで走査できます。
+	 * ファイルシステムは走査終了時に閉じられます。
+	 * </p>
+	 *
+	 * @param fs xls形式のファイルシステム
+	 * @param handler 行ハンドラ
+	 * @throws IOException IO例外
+	 */
+	public void scanBook(POIFSFileSystem fs, RowHandler handler) throws IOException {
+
+		try {
+			processRecord(fs, new XlsRecordHandler(this, handler));
+		} finally {
+			Poi2ccUtil.close(fs);
+		}
+	}
+
+	/**
+	 * 現在処理中のブックが1904年を基準とした日付かどうかを判定します。
+	 *
+	 * @param context ロードの状態
+	 * @return 1904年を基準とした日付の場合はtrue
+	 */
+	protected boolean isDate1904(ReadContext context) {
+
+		if (context.fileBook instanceof XSSFWorkbook == true) {
+			return ((XSSFWorkbook) context.fileBook).isDate1904();
+		} else if (context.fileBook instanceof HSSFWorkbook == true) {
+			return ((HSSFWorkbook) context.fileBook).getInternalWorkbook().isUsing1904DateWindowing();
+		}
+
+		return false;
+	}
+
+	/**
+	 * 現在処理中の行を行情報に格納し、行ハンドラへ通知します。
+	 *
+	 * @param context ロードの状態
+	 * @param rowData 行情報
+	 * @param handler 行ハンドラ
+	 */
+	protected void scanRow(ReadContext context, RowData rowData, RowHandler handler) {
+
+		rowData.clear(context.fileRow.getRowNum(), context.fileRow.getHeight());
+
+		for (org.apache.poi.ss.usermodel.Cell cell : context.fileRow) {
+			context.fileCell = cell;
+
+			int index = rowData.addCell(cell.getColumnIndex(), cell.getCellStyle().getIndex());
+
+			try {
+				CellType cellType = cell.getCellType();
+
+				if (cellType == CellType.FORMULA) {
+					setRowData(context, rowData, index, cell.getCachedFormulaResultType());
+					rowData.setFormula(index, cell.getCellFormula());
+				} else {
+					setRowData(context, rowData, index, cellType);
+				}
+			} catch (Exception e) {
+				rowData.cellCount = index;
+				rowData.addCell(cell.getColumnIndex(), cell.getCellStyle().getIndex());
+			}
+		}
+
+		handler.handleRow(rowData);
+	}
+
+	/**
+	 * 現在処理中のセルの値を行情報に設定します。
+	 *
+	 * @param context ロードの状態
+	 * @param rowData 行情報
+	 * @param index セルのインデックス
+	 * @param cellType セルの種類
+	 */
+	protected void setRowData(ReadContext context, RowData rowData, int index, CellType cellType) {
+
+		if (cellType == CellType.ERROR) {
+			rowData.setError(index, context.fileCell.getErrorCellValue());
+		} else if (cellType == CellType.NUMERIC) {
+			if (isCellDateFormatted(context) == true) {
+				rowData.setDate(index, context.fileCell.getNumericCellValue());
+			} else {
+				rowData.setNumber(index, context.fileCell.getNumericCellValue());
+			}
+		} else if (cellType == CellType.STRING) {
+			rowData.setText(index, context.fileCell.getStringCellValue());
+		} else if (cellType == CellType.BOOLEAN) {
+			rowData.setBoolean(index, context.fileCell.getBooleanCellValue());
+		}
+	}
+
+	protected void loadSheetStyle(ReadContext context, SheetStyle style) {
+
+		style.setDisplayGridLine(context.fileSheet.isDisplayGridlines());
+		style.setDisplayZeros(context.fileSheet.isDisplayZeros());
+
+		style.setMarginTop(context.fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.TopMargin));
+		style.setMarginBottom(context.fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.BottomMargin));
+		style.setMarginLeft(context.fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.LeftMargin));
+		style.setMarginRight(context.fileSheet.getMargin(org.apache.poi.ss.usermodel.Sheet.RightMargin));
+
+		style.setAutoBreaks(context.fileSheet.getAutobreaks());
+		style.setDisplayGuts(context.fileSheet.getDisplayGuts());
+		style.setFitToPage(context.fileSheet.getFitToPage());
+		style.setHorizontallyCenter(context.fileSheet.getHorizontallyCenter());
+		style.setVerticallyCenter(context.fileSheet.getVerticallyCenter());
+		style.setPrintGridlines(context.fileSheet.isPrintGridlines());
+
+		loadHeader(style, context.fileSheet.getHeader());
+		loadFooter(style, context.fileSheet.getFooter());
+		loadPrintSetup(style, context.fileSheet.getPrintSetup());
+
+		int[] columnBreakArray = context.fileSheet.getColumnBreaks();
+
+		if (columnBreakArray != null) {
+			for (int value : columnBreakArray) {
+				style.getColumnBreakList().add(value);
+			}
+		}
+
+		int[] rowBreakArray = context.fileSheet.getRowBreaks();
+
+		if (rowBreakArray != null) {
+			for (int value : rowBreakArray) {
+				style.getRowBreakList().add(value);
+			}
+		}
+	}
+
+	/**
+	 * ヘッダーの左・中央・右の文字列を設定します。
+	 *
+	 * @param style シートのスタイル
+	 * @param header ヘッダー(ない場合はnull)
+	 */
+	protected void loadHeader(SheetStyle style, HeaderFooter header) {
+
+		if (header != null) {
+			style.setHeaderCenter(header.getCenter());
+			style.setHeaderLeft(header.getLeft());
+			style.setHeaderRight(header.getRight());
+		}
+	}
+
+	/**
+	 * フッターの左・中央・右の文字列を設定します。
+	 *
+	 * @param style シートのスタイル
+	 * @param footer フッター(ない場合はnull)
+	 */
+	protected void loadFooter(SheetStyle style, HeaderFooter footer) {
+
+		if (footer != null) {
+			style.setFooterCenter(footer.getCenter());
+			style.setFooterLeft(footer.getLeft());
+			style.setFooterRight(footer.getRight());
+		}
+	}
+
+	/**
+	 * 印刷設定を設定します。
+	 *
+	 * @param style シートのスタイル
+	 * @param printSetup 印刷設定(ない場合はnull)
+	 */
+	protected void loadPrintSetup(SheetStyle style, PrintSetup printSetup) {
+
+		if (printSetup == null) {
+			return;
+		}
+
+		style.setHeaderMargin(printSetup.getHeaderMargin());
+		style.setFooterMargin(printSetup.getFooterMargin());
+		style.setFitHeight(printSetup.getFitHeight());
+		style.setFitWidth(printSetup.getFitWidth());
+		style.setDraft(printSetup.getDraft());
+		style.setHorizontallyResolution(printSetup.getHResolution());
+		style.setLandscape(printSetup.getLandscape());
+		style.setLeftToRight(printSetup.getLeftToRight());
+		style.setNoOrientation(printSetup.getNoOrientation());
+		style.setNoColor(printSetup.getNoColor());
+		style.setNotes(printSetup.getNotes());
+		style.setPaperSize(printSetup.getPaperSize());
+		style.setPageStart(printSetup.getPageStart());
+		style.setScale(printSetup.getScale());
+		style.setUsePage(printSetup.getUsePage());
+		style.setValidSettings(printSetup.getValidSettings());
+		style.setVerticallyResolution(printSetup.getVResolution());
+	}
+
+	/**
+	 * シート情報をロードします。
+	 *
+	 * @param context ロードの状態
+	 * @param sheetName シート名
+	 * @return ロードしたシート情報
+	 */
+	protected Sheet loadSheet(ReadContext context, String sheetName) {
+
+		Sheet sheet = new Sheet(sheetName);
+
+		sheet.setDefaultColumnSize(context.fileSheet.getDefaultColumnWidth() * COLUMN_CORRECTING_VALUE);
+		sheet.setDefaultRowSize(context.fileSheet.getDefaultRowHeight());
+
+		context.commentMap = null;
+
+		if (options.isValuesOnly() == false) {
+			loadSheetStyle(context, sheet.getStyle());
+			context.commentMap = loadCommentMap(context.fileSheet);
+		}
+
+		int beginRow = context.fileSheet.getFirstRowNum();
+		int lastRow = context.fileSheet.getLastRowNum();
+
+		for (int i = beginRow; i <= lastRow; i++) {
+			if (options.containsRow(i) == false) {
+				continue;
+			}
+
+			context.fileRow = context.fileSheet.getRow(i);
+
+			if (context.fileRow != null) {
+				sheet.getRowSizeMap().put(i, (int) context.fileRow.getHeight());
+
+				if (options.isSparse() == true) {
+					loadRowSparse(context, i, sheet);
+				} else {
+					loadRow(context, i, sheet);
+				}
+			}
+		}
+
+		if (options.isSparse() == true) {
+			for (int i = 0; i < sheet.getMaxColumn(); i++) {
+				sheet.getColumnSizeMap().put(i, context.fileSheet.getColumnWidth(i));
+			}
+		}
+
+		for (int i = 0; i < context.fileSheet.getNumMergedRegions(); i++) {
+			CellRangeAddress range = context.fileSheet.getMergedRegion(i);
+
+			loadMergedCell(sheet, range);
+		}
+
+		fillBlankCell(sheet);
+
+		context.commentMap = null;
+
+		return sheet;
+	}
+
+	/**
+	 * シートの最大範囲内でセル情報がない位置を空のセルで補完し、編集済みフラグを初期化します。
+	 * <p>
+	 * ファイルに存在するセルのみを格納する場合は補完せず、編集済みフラグの初期化のみを行います。
+	 * ロードする列・範囲が限定されている場合は範囲内のみ補完します。
+	 * </p>
+	 *
+	 * @param sheet シート
+	 */
+	protected void fillBlankCell(Sheet sheet) {
+
+		if (options.isSparse() == true) {
+			sheet.initializeEdited();
+
+			return;
+		}
+
+		int maxRow = sheet.getMaxRow();
+		int maxColumn = sheet.getMaxColumn();
+
+		for (int column = 0; column < maxColumn; column++) {
+			for (int row = 0; row < maxRow; row++) {
+				if (options.containsCell(column, row) == false) {
+					continue;
+				}
+
+				Address address = new Address(column, row);
+				Cell cell = sheet.getActualCell(address);
+
+				if (cell == null) {
+					cell = createBlankCell();
+					sheet.setCell(address, cell);
+				}
+
+				cell.setEdited(false);
+			}
+		}
+	}
+
+	/**
+	 * 空のセルを生成します。
+	 * <p>
+	 * フォント・スタイルはロード中のすべての空のセルで共有します。
+	 * </p>
+	 *
+	 * @return 空のセル
+	 */
+	protected Cell createBlankCell() {
+
+		return new Cell(null, blankCellFont, blankCellStyle);
+	}
+
+	/**
+	 * 結合セル情報をロードします。
+	 * <p>
+	 * ロードする列・範囲が限定されている場合、結合元のセルが範囲外の結合は読み飛ばし、
+	 * 範囲内のセルにのみ結合元のセルを設定します。
+	 * </p>
+	 *
+	 * @param sheet シート
+	 * @param range セルの結合情報
+	 */
+	protected void loadMergedCell(Sheet sheet, CellRangeAddress range) {
+
+		if (options.containsCell(range.getFirstColumn(), range.getFirstRow()) == false) {
+			return;
+		}
+
+		CellRange cellRange = new CellRange(range.getFirstColumn(), range.getFirstRow(), range.getLastColumn(), range.getLastRow());
+		Cell baseCell = sheet.getCell(range.getFirstColumn(), range.getFirstRow());
+
+		if (options.isSparse() == true) {
+			loadMergedCellSparse(sheet, range, baseCell);
+		} else {
+			for (int i = range.getFirstRow(); i <= range.getLastRow(); i++) {
+				for (int j = range.getFirstColumn(); j <= range.getLastColumn(); j++) {
+					if (options.containsCell(j, i) == true) {
+						sheet.getCell(j, i).setParentCell(baseCell);
+					}
+				}
+			}
+		}
+
+		baseCell.setMergedCell(cellRange);
+		baseCell.setParentCell(null);
+	}
+
+	/**
+	 * 結合セル範囲内の格納済みのセルにのみ結合元のセルを設定します。
+	 * <p>
+	 * 範囲の面積と格納済みのセル数のうち、少ない方を走査します。
+	 * </p>
+	 *
+	 * @param sheet シート
+	 * @param range セルの結合情報
+	 * @param baseCell 結合元のセル
+	 */
+	protected void loadMergedCellSparse(Sheet sheet, CellRangeAddress range, Cell baseCell) {
+
+		if (range.getNumberOfCells() <= sheet.getCellMap().size()) {
+			for (int i = range.getFirstRow(); i <= range.getLastRow(); i++) {
+				for (int j = range.getFirstColumn(); j <= range.getLastColumn(); j++) {
+					Cell cell = sheet.getActualCell(new Address(j, i));
+
+					if (cell != null) {
+						cell.setParentCell(baseCell);
+					}
+				}
+			}
+		} else {
+			for (Map.Entry<Address, Cell> entry : sheet.getCellMap().entrySet()) {
+				Address address = entry.getKey();
+
+				if (range.isInRange(address.getRowNumber(), address.getColumnNumber()) == true) {
+					entry.getValue().setParentCell(baseCell);
+				}
+			}
+		}
 	}
 
 	/**
 	 * 特定の行をロードします。
 	 *
+	 * @param context ロードの状態
 	 * @param rowNumber 行番号
 	 * @param sheet シート
 	 */
-	protected void loadRow(int rowNumber, Sheet sheet) {
+	protected void loadRow(ReadContext context, int rowNumber, Sheet sheet) {
 
-		int endColumn = fileRow.getLastCellNum();
+		int endColumn = context.fileRow.getLastCellNum();
 
 		for (int columnNumber = 0; columnNumber <= endColumn; columnNumber++) {
-			sheet.getColumnSizeMap().put(columnNumber, fileSheet.getColumnWidth(columnNumber));
+			sheet.getColumnSizeMap().put(columnNumber, context.fileSheet.getColumnWidth(columnNumber));
+
+			if (options.containsCell(columnNumber, rowNumber) == false) {
+				continue;
+			}
 
 			Address address = new Address(columnNumber, rowNumber);
 
 			try {
-				fileCell = fileRow.getCell(columnNumber);
+				context.fileCell = context.fileRow.getCell(columnNumber);
+
+				Cell cell = getCell(context);
+				sheet.setCell(address, cell);
+			} catch (Exception e) {
+				Cell cell = createBlankCell();
+
+				sheet.setCell(address, cell);
+			}
+		}
+	}
+
+	/**
+	 * 特定の行のうち、ファイルに存在するセルのみをロードします。
+	 *
+	 * @param context ロードの状態
+	 * @param rowNumber 行番号
+	 * @param sheet シート
+	 */
+	protected void loadRowSparse(ReadContext context, int rowNumber, Sheet sheet) {
+
+		for (org.apache.poi.ss.usermodel.Cell physicalCell : context.fileRow) {
+			if (options.containsCell(physicalCell.getColumnIndex(), rowNumber) == false) {
+				continue;
+			}
+
+			Address address = new Address(physicalCell.getColumnIndex(), rowNumber);
+
+			try {
+				context.fileCell = physicalCell;
 
-				Cell cell = getCell();
+				Cell cell = getCell(context);
 				sheet.setCell(address, cell);
 			} catch (Exception e) {
-				Cell cell = new Cell();
+				Cell cell = createBlankCell();
 
 				sheet.setCell(address, cell);
 			}
@@ -650,48 +2746,63 @@ public class ExcelReader {
 	/**
 	 * 特定のセルをロードします。
 	 *
+	 * @param context ロードの状態
 	 * @return セル情報
 	 */
-	protected Cell getCell() {
+	protected Cell getCell(ReadContext context) {
 
-		if (fileCell == null) {
-			return new Cell();
+		if (context.fileCell == null) {
+			return createBlankCell();
 		}
 
 		Cell cell = new Cell(null, null, null);
 
-		setCellValue(cell);
-		setCellComment(cell);
+		setCellValue(context, cell);
+
+		if (options.isValuesOnly() == true) {
+			cell.setFont(blankCellFont);
+			cell.setStyle(blankCellStyle);
+
+			return cell;
+		}
+
+		setCellComment(context, cell);
 
-		CellStyle style = fileCell.getCellStyle();
+		CellStyle style = context.fileCell.getCellStyle();
 
 		cell.setLocked(style.getLocked());
-		setCellFont(style, cell);
-		setCellStyle(style, cell);
+		setCellFont(context, style, cell);
+		setCellStyle(context, style, cell);
 
 		return cell;
 	}
 
-	protected void setCellValue(Cell cell, CellType cellType) {
+	protected void setCellValue(ReadContext context, Cell cell, CellType cellType) {
 
 		if (cellType == CellType.BLANK) {
 			cell.setValue(Poi2ccConstants.EMPTY_STRING);
 			cell.setError(false);
 		} else if (cellType == CellType.ERROR) {
-			cell.setValue(fileCell.getErrorCellValue());
+			cell.setValue(context.fileCell.getErrorCellValue());
 			cell.setError(true);
 		} else if (cellType == CellType.NUMERIC) {
-			if (DateUtil.isCellDateFormatted(fileCell) == true) {
-				cell.setValue(fileCell.getLocalDateTimeCellValue());
+			if (isCellDateFormatted(context) == true) {
+				if (options.isLazyValues() == true) {
+					cell.setValueDeferred(ValueType.DATE, context.fileCell.getNumericCellValue(), isDate1904(context));
+				} else {
+					cell.setValue(context.fileCell.getLocalDateTimeCellValue());
+				}
+			} else if (options.isLazyValues() == true) {
+				cell.setValueDeferred(ValueType.NUMBER, context.fileCell.getNumericCellValue(), false);
 			} else {
-				cell.setValue(fileCell.getNumericCellValue());
+				cell.setValue(context.fileCell.getNumericCellValue());
 			}
 			cell.setError(false);
 		} else if (cellType == CellType.STRING) {
-			cell.setValue(fileCell.getStringCellValue());
+			cell.setValue(context.fileCell.getStringCellValue());
 			cell.setError(false);
 		} else if (cellType == CellType.BOOLEAN) {
-			cell.setValue(fileCell.getBooleanCellValue());
+			cell.setValue(context.fileCell.getBooleanCellValue());
 			cell.setError(false);
 		}
 	}
@@ -699,35 +2810,66 @@ public class ExcelReader {
 	/**
 	 * セル値を設定します。
 	 *
+	 * @param context ロードの状態
 	 * @param cell セル情報
 	 */
-	protected void setCellValue(Cell cell) {
+	protected void setCellValue(ReadContext context, Cell cell) {
 
-		CellType cellType = fileCell.getCellType();
+		CellType cellType = context.fileCell.getCellType();
 
 		if (cellType == CellType.FORMULA) {
-			CellType innerCellType = fileCell.getCachedFormulaResultType();
-			setCellValue(cell, innerCellType);
-			cell.setFormulaValue(fileCell.getCellFormula());
+			CellType innerCellType = context.fileCell.getCachedFormulaResultType();
+			setCellValue(context, cell, innerCellType);
+			cell.setFormulaValue(context.fileCell.getCellFormula());
 			cell.setFormula(true);
 		} else {
-			setCellValue(cell, cellType);
+			setCellValue(context, cell, cellType);
 		}
 	}
 
 	/**
 	 * セルのフォント情報をロードし設定します。
 	 *
+	 * @param context ロードの状態
 	 * @param style スタイル
 	 * @param cell セル情報
 	 */
-	protected void setCellFont(CellStyle style, Cell cell) {
+	protected void setCellFont(ReadContext context, CellStyle style, Cell cell) {
 
 		int fontIndex = style.getFontIndexAsInt();
-		CellFont cellFont = null;
+		Font font = context.fileBook.getFontAt(fontIndex);
+
+		setCellFont(context, font, cell);
+	}
+
+	/**
+	 * フォント情報をセルに設定します。
+	 *
+	 * @param context ロードの状態
+	 * @param font フォント
+	 * @param cell セル情報
+	 */
+	protected void setCellFont(ReadContext context, Font font, Cell cell) {
 
-		Font font = fileBook.getFontAt(fontIndex);
-		cellFont = new CellFont();
+		CellFont cellFont = context.cellFontMap.get(font.getIndexAsInt());
+
+		if (cellFont == null) {
+			cellFont = createCellFont(font).freeze();
+			context.cellFontMap.put(font.getIndexAsInt(), cellFont);
+		}
+
+		cell.setFont(cellFont);
+	}
+
+	/**
+	 * フォントからセルのフォント情報を生成します。
+	 *
+	 * @param font フォント
+	 * @return セルのフォント情報
+	 */
+	protected CellFont createCellFont(Font font) {
+
+		CellFont cellFont = new CellFont();
 
 		cellFont.setFontBold(font.getBold());
 		cellFont.setFontColor(font.getColor());
@@ -737,7 +2879,7 @@ public class ExcelReader {
 		cellFont.setFontStrikeout(font.getStrikeout());
 		cellFont.setFontUnderline(font.getUnderline());
 
-		cell.setFont(cellFont);
+		return cellFont;
 	}
 
 	protected Color getColor(CellStyle style, org.apache.poi.ss.usermodel.Color color, Color defaultColor) {
@@ -774,10 +2916,29 @@ public class ExcelReader {
 	/**
 	 * セルのスタイル情報をロードし設定します。
 	 *
+	 * @param context ロードの状態
 	 * @param style スタイル
 	 * @param cell セル情報
 	 */
-	protected void setCellStyle(CellStyle style, Cell cell) {
+	protected void setCellStyle(ReadContext context, CellStyle style, Cell cell) {
+
+		com.kiruah.poi2cc.storage.sub.CellStyle cellStyle = context.cellStyleMap.get((int) style.getIndex());
+
+		if (cellStyle == null) {
+			cellStyle = createCellStyle(style).freeze();
+			context.cellStyleMap.put((int) style.getIndex(), cellStyle);
+		}
+
+		cell.setStyle(cellStyle);
+	}
+
+	/**
+	 * スタイルからセルのスタイル情報を生成します。
+	 *
+	 * @param style スタイル
+	 * @return セルのスタイル情報
+	 */
+	protected com.kiruah.poi2cc.storage.sub.CellStyle createCellStyle(CellStyle style) {
 
 		com.kiruah.poi2cc.storage.sub.CellStyle cellStyle = new com.kiruah.poi2cc.storage.sub.CellStyle();
 
@@ -800,31 +2961,83 @@ public class ExcelReader {
 		cellStyle.setBorderRight(style.getBorderRight());
 		cellStyle.setBorderTop(style.getBorderTop());
 
-		cell.setStyle(cellStyle);
+		return cellStyle;
+	}
+
+	/**
+	 * 現在処理中のセルが日付書式かどうかを判定します。
+	 * <p>
+	 * 書式の判定結果はスタイルごとに保持し、同じスタイルのセルでは再利用します。
+	 * </p>
+	 *
+	 * @param context ロードの状態
+	 * @return 日付書式の場合はtrue
+	 */
+	protected boolean isCellDateFormatted(ReadContext context) {
+
+		if (DateUtil.isValidExcelDate(context.fileCell.getNumericCellValue()) == false) {
+			return false;
+		}
+
+		CellStyle style = context.fileCell.getCellStyle();
+
+		if (style == null) {
+			return false;
+		}
+
+		Boolean dateFormat = context.dateFormatMap.get((int) style.getIndex());
+
+		if (dateFormat == null) {
+			ExcelNumberFormat format = ExcelNumberFormat.from(style);
+
+			dateFormat = format != null && DateUtil.isADateFormat(format) == true;
+			context.dateFormatMap.put((int) style.getIndex(), dateFormat);
+		}
+
+		return dateFormat;
 	}
 
 	/**
-	 * セルのコメントをロードしセルに設定します。
+	 * セルのコメントをセルに設定します。
+	 * <p>
+	 * シートのロード開始時に読み込んだコメントの対応表から取得します。
+	 * </p>
 	 *
+	 * @param context ロードの状態
 	 * @param cell セル情報
 	 */
-	protected void setCellComment(Cell cell) {
+	protected void setCellComment(ReadContext context, Cell cell) {
 
-		Comment comment = fileCell.getCellComment();
+		if (context.commentMap == null) {
+			return;
+		}
 
-		if (fileCell.getCellComment() != null) {
-			RichTextString text = comment.getString();
+		String comment = context.commentMap.get(new Address(context.fileCell.getColumnIndex(), context.fileCell.getRowIndex()));
 
-			if (text != null) {
-				cell.setComment(text.getString());
-			}
+		if (comment != null) {
+			cell.setComment(comment);
 		}
 	}
 
 	/**
 	 * ExcelReader コンストラクタ
 	 */
-	protected ExcelReader() {
+	public ExcelReader() {
 
 	}
+
+	/**
+	 * ExcelReader コンストラクタ
+	 * <p>
+	 * オプションは複製して保持するため、生成後にオプションを変更しても実行中・以降のロードは影響を受けません。
+	 * </p>
+	 *
+	 * @param options ロード時のオプション
+	 */
+	public ExcelReader(LoadOptions options) {
+
+		if (options != null) {
+			this.options = options.copy();
+		}
+	}
 }
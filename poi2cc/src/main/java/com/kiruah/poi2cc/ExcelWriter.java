@@ -1,25 +1,32 @@
 package com.kiruah.poi2cc;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.apache.poi.ss.formula.FormulaParseException;
 import org.apache.poi.ss.usermodel.Footer;
 import org.apache.poi.ss.usermodel.Header;
 import org.apache.poi.ss.usermodel.PrintSetup;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.IndexedColorMap;
-import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFDataFormat;
 import org.apache.poi.xssf.usermodel.XSSFFont;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import com.kiruah.poi2cc.storage.Address;
@@ -29,10 +36,16 @@ import com.kiruah.poi2cc.storage.Sheet;
 import com.kiruah.poi2cc.storage.ValueType;
 import com.kiruah.poi2cc.storage.sub.CellFont;
 import com.kiruah.poi2cc.storage.sub.CellRange;
+import com.kiruah.poi2cc.storage.sub.CellStyle;
 import com.kiruah.poi2cc.storage.sub.SheetStyle;
 
 /**
  * Excelファイルライター
+ * <p>
+ * 保存中の状態は保存ごとに{@link WriteContext}へ保持し、インスタンスは状態を保持しません。
+ * そのため、1つのインスタンスを複数のスレッドから同時に利用できます。
+ * ただし、同じブック情報を複数のスレッドから同時に保存しないでください。
+ * </p>
  *
  * @author Kiruah
  */
@@ -44,26 +57,17 @@ public class ExcelWriter {
 	/** 最大カラム数 */
 	protected static final int MAX_COLUMN_SIZE = 255;
 
-	/** 現在処理中のブック */
-	protected XSSFWorkbook fileBook = null;
+	/** 出力時のバッファサイズ */
+	protected static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
 
-	/** 現在処理中のデータフォーマット */
-	protected XSSFDataFormat fileDataFormat = null;
+	/** 既定のフォント情報(出力不要な空のセルの判定とシートにないセルの出力に使用します) */
+	protected static final CellFont DEFAULT_FONT = new CellFont().freeze();
 
-	/** 現在処理中のシート */
-	protected XSSFSheet fileSheet = null;
+	/** 既定のセルスタイル情報(出力不要な空のセルの判定とシートにないセルの出力に使用します) */
+	protected static final CellStyle DEFAULT_STYLE = new CellStyle().freeze();
 
-	/** 現在処理中の行 */
-	protected XSSFRow row = null;
-
-	/** 現在処理中のセル */
-	protected XSSFCell fileCell = null;
-
-	/** 現在処理中のすべてのフォントキャッシュ */
-	protected Map<CellFont, XSSFFont> fontCache = new HashMap<CellFont, XSSFFont>();
-
-	/** 現在処理中のすべてのセルスタイルキャッシュ */
-	protected Map<com.kiruah.poi2cc.storage.sub.CellStyle, XSSFCellStyle> styleCache = new HashMap<com.kiruah.poi2cc.storage.sub.CellStyle, XSSFCellStyle>();
+	/** 保存時のオプション */
+	protected SaveOptions options = SaveOptions.defaults();
 
 	/**
 	 * Excelブック情報を指定したファイル名で2003以前の形式で保存します。
@@ -95,13 +99,234 @@ public class ExcelWriter {
 	public static void save(Book book, String fileName) throws IOException {
 
 		ExcelWriter writer = new ExcelWriter();
-		XSSFWorkbook workBook = new XSSFWorkbook();
 
-		if (fileName == null) {
+		writer.write(book, fileName);
+	}
+
+	/**
+	 * オプションを指定して、Excelブック情報を指定したファイルに保存します。
+	 *
+	 * @param book ブック
+	 * @param file ファイル(ブック名で保存する場合はnull)
+	 * @param options 保存時のオプション
+	 * @throws IOException IO例外
+	 */
+	public static void save(Book book, File file, SaveOptions options) throws IOException {
+
+		ExcelWriter writer = new ExcelWriter(options);
+
+		writer.write(book, file);
+	}
+
+	/**
+	 * オプションを指定して、Excelブック情報を指定したファイル名で保存します。
+	 *
+	 * @param book ブック
+	 * @param fileName ファイル名(ブック名で保存する場合はnull)
+	 * @param options 保存時のオプション
+	 * @throws IOException IO例外
+	 */
+	public static void save(Book book, String fileName, SaveOptions options) throws IOException {
+
+		ExcelWriter writer = new ExcelWriter(options);
+
+		writer.write(book, fileName);
+	}
+
+	/**
+	 * Excelブック情報を出力ストリームへ出力します。
+	 * <p>
+	 * 出力ストリームはクローズしません。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param out 出力先の出力ストリーム
+	 * @throws IOException IO例外
+	 */
+	public static void save(Book book, OutputStream out) throws IOException {
+
+		ExcelWriter writer = new ExcelWriter();
+
+		writer.write(book, out);
+	}
+
+	/**
+	 * オプションを指定して、Excelブック情報を出力ストリームへ出力します。
+	 * <p>
+	 * 出力ストリームはクローズしません。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param out 出力先の出力ストリーム
+	 * @param options 保存時のオプション
+	 * @throws IOException IO例外
+	 */
+	public static void save(Book book, OutputStream out, SaveOptions options) throws IOException {
+
+		ExcelWriter writer = new ExcelWriter(options);
+
+		writer.write(book, out);
+	}
+
+	/**
+	 * Excelブック情報をチャネルへ出力します。
+	 * <p>
+	 * チャネルはクローズしません。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param channel 出力先のチャネル
+	 * @throws IOException IO例外
+	 */
+	public static void save(Book book, WritableByteChannel channel) throws IOException {
+
+		ExcelWriter writer = new ExcelWriter();
+
+		writer.write(book, channel);
+	}
+
+	/**
+	 * オプションを指定して、Excelブック情報をチャネルへ出力します。
+	 * <p>
+	 * チャネルはクローズしません。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param channel 出力先のチャネル
+	 * @param options 保存時のオプション
+	 * @throws IOException IO例外
+	 */
+	public static void save(Book book, WritableByteChannel channel, SaveOptions options) throws IOException {
+
+		ExcelWriter writer = new ExcelWriter(options);
+
+		writer.write(book, channel);
+	}
+
+	/**
+	 * Excelブック情報を指定したファイルに保存します。
+	 * <p>
+	 * 1つのライターを複数のスレッドから同時に呼び出せます。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param file ファイル(ブック名で保存する場合はnull)
+	 * @throws IOException IO例外
+	 */
+	public void write(Book book, File file) throws IOException {
+
+		String fileName = null;
+
+		if (file != null) {
+			fileName = file.getAbsolutePath();
+		}
+
+		write(book, fileName);
+	}
+
+	/**
+	 * Excelブック情報を指定したファイル名で保存します。
+	 * <p>
+	 * ストリーミングが指定されている場合は{@link #saveBook(Book, SXSSFWorkbook, String)}で保存し、
+	 * 保存終了時に一時ファイルを削除します。
+	 * 1つのライターを複数のスレッドから同時に呼び出せます。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param fileName ファイル名(ブック名で保存する場合はnull)
+	 * @throws IOException IO例外
+	 */
+	public void write(Book book, String fileName) throws IOException {
+
+		if (fileName == null && book != null) {
 			fileName = book.getName();
 		}
 
-		writer.saveBook(book, workBook, fileName);
+		if (options.isStreaming() == true) {
+			SXSSFWorkbook workBook = createStreamingBook();
+
+			try {
+				saveBook(book, workBook, fileName);
+			} finally {
+				workBook.dispose();
+			}
+
+			return;
+		}
+
+		XSSFWorkbook workBook = new XSSFWorkbook();
+
+		saveBook(book, workBook, fileName);
+	}
+
+	/**
+	 * Excelブック情報を出力ストリームへ出力します。
+	 * <p>
+	 * 一時ファイルを経由せずに、HTTPレスポンスやパイプなどへ直接出力できます。
+	 * 出力はバッファリングし、出力終了時にフラッシュしますが、出力ストリームはクローズしません。
+	 * 1つのライターを複数のスレッドから同時に呼び出せます。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param out 出力先の出力ストリーム
+	 * @throws IOException IO例外
+	 */
+	public void write(Book book, OutputStream out) throws IOException {
+
+		if (out == null) {
+			throw new Poi2ccRuntimeException("出力先の出力ストリームがnullのため保存できません");
+		}
+
+		if (options.isStreaming() == true) {
+			SXSSFWorkbook workBook = createStreamingBook();
+
+			try {
+				saveBook(book, new WriteContext(workBook), out);
+			} finally {
+				workBook.dispose();
+			}
+
+			return;
+		}
+
+		saveBook(book, new WriteContext(new XSSFWorkbook()), out);
+	}
+
+	/**
+	 * Excelブック情報をチャネルへ出力します。
+	 * <p>
+	 * チャネルはクローズしません。
+	 * 1つのライターを複数のスレッドから同時に呼び出せます。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param channel 出力先のチャネル
+	 * @throws IOException IO例外
+	 */
+	public void write(Book book, WritableByteChannel channel) throws IOException {
+
+		if (channel == null) {
+			throw new Poi2ccRuntimeException("出力先のチャネルがnullのため保存できません");
+		}
+
+		write(book, Channels.newOutputStream(channel));
+	}
+
+	/**
+	 * オプションに従ってストリーミング形式のApache POIワークブックを生成します。
+	 * <p>
+	 * エグゼキューターが指定されている場合は、シートのパーツを並列に圧縮する{@link ParallelStreamingWorkbook}を生成します。
+	 * </p>
+	 *
+	 * @return ストリーミング形式のワークブック
+	 */
+	protected SXSSFWorkbook createStreamingBook() {
+
+		if (options.getExecutor() != null) {
+			return new ParallelStreamingWorkbook(options.getRowAccessWindowSize(), options.isCompressTempFiles(), options.getExecutor());
+		}
+
+		return new SXSSFWorkbook(null, options.getRowAccessWindowSize(), options.isCompressTempFiles());
 	}
 
 	/**
@@ -114,6 +339,36 @@ public class ExcelWriter {
 	 */
 	public void saveBook(Book book, XSSFWorkbook workBook, String fileName) throws IOException {
 
+		saveBook(book, new WriteContext(workBook), fileName);
+	}
+
+	/**
+	 * Excelブック情報をストリーミング形式のApache POIワークブックで保存します。
+	 * <p>
+	 * 各シートを行番号の昇順に出力するため、メモリ上に保持する行数を超えた行は順に一時ファイルへ書き出されます。
+	 * 一時ファイルは呼び出し元で{@link SXSSFWorkbook#dispose()}により削除してください。
+	 * </p>
+	 *
+	 * @param book ブック
+	 * @param workBook 保存するストリーミング形式のワークブック
+	 * @param fileName ファイル名
+	 * @throws IOException IO例外
+	 */
+	public void saveBook(Book book, SXSSFWorkbook workBook, String fileName) throws IOException {
+
+		saveBook(book, new WriteContext(workBook), fileName);
+	}
+
+	/**
+	 * Excelブック情報を保存の状態が保持するワークブックで保存します。
+	 *
+	 * @param book ブック
+	 * @param context 保存の状態
+	 * @param fileName ファイル名
+	 * @throws IOException IO例外
+	 */
+	protected void saveBook(Book book, WriteContext context, String fileName) throws IOException {
+
 		if (book == null) {
 			throw new Poi2ccRuntimeException("保存対象のブックがnullのため保存できません");
 		}
@@ -124,75 +379,180 @@ public class ExcelWriter {
 			throw new Poi2ccRuntimeException("保存するシートが存在しないため、保存処理を継続できません : " + fileName);
 		}
 
-		fileBook = workBook;
-		fileDataFormat = fileBook.createDataFormat();
+		createBook(context, book);
+
+		output(context, fileName);
+	}
+
+	/**
+	 * Excelブック情報を保存の状態が保持するワークブックで出力ストリームへ出力します。
+	 *
+	 * @param book ブック
+	 * @param context 保存の状態
+	 * @param out 出力先の出力ストリーム
+	 * @throws IOException IO例外
+	 */
+	protected void saveBook(Book book, WriteContext context, OutputStream out) throws IOException {
+
+		if (book == null) {
+			throw new Poi2ccRuntimeException("保存対象のブックがnullのため保存できません");
+		}
+		if (book.getSheetList().size() == 0) {
+			throw new Poi2ccRuntimeException("保存するシートが存在しないため、保存処理を継続できません : " + book.getName());
+		}
 
-		createBook(book);
+		createBook(context, book);
 
-		output(fileName);
+		output(context, out);
 	}
 
 	/**
 	 * 生成したメモリ上のExcelブック情報をファイルに出力します。
 	 *
+	 * @param context 保存の状態
 	 * @param fileName ファイル名
 	 * @throws IOException IO例外
 	 */
-	protected void output(String fileName) throws IOException {
+	protected void output(WriteContext context, String fileName) throws IOException {
 
 		FileOutputStream out = null;
 
 		try {
 			out = new FileOutputStream(fileName);
 
-			fileBook.write(out);
+			output(context, out);
 		} finally {
 			Poi2ccUtil.close(out);
 		}
 	}
 
+	/**
+	 * 生成したメモリ上のExcelブック情報を出力ストリームへ出力します。
+	 * <p>
+	 * Apache POIは出力終了時に出力ストリームをクローズする場合があるため、クローズを無視するストリームを介して出力します。
+	 * </p>
+	 *
+	 * @param context 保存の状態
+	 * @param out 出力先の出力ストリーム
+	 * @throws IOException IO例外
+	 */
+	protected void output(WriteContext context, OutputStream out) throws IOException {
+
+		OutputStream bufferedOut = new BufferedOutputStream(new CloseShieldOutputStream(out), OUTPUT_BUFFER_SIZE);
+
+		context.outputBook.write(bufferedOut);
+
+		bufferedOut.flush();
+	}
+
 	/**
 	 * ブックを作成します。
+	 * <p>
+	 * {@link ParallelStreamingWorkbook}で保存する場合は{@link #createBookParallel(WriteContext, Book)}で作成します。
+	 * </p>
 	 *
+	 * @param context 保存の状態
 	 * @param book ブック
+	 * @throws IOException IO例外
 	 */
-	protected void createBook(Book book) {
+	protected void createBook(WriteContext context, Book book) throws IOException {
+
+		if (context.outputBook instanceof ParallelStreamingWorkbook == true) {
+			createBookParallel(context, book);
+
+			return;
+		}
 
 		for (Sheet sheet : book.getSheetList()) {
-			createSheet(sheet);
+			createSheet(context, sheet);
 		}
 	}
 
 	/**
-	 * シートのスタイル情報を生成します。
+	 * 各シートのセルをエグゼキューター上で並列に生成します。
+	 * <p>
+	 * シートはこのスレッドで元のシート順に生成し、セルの生成と行データの一時ファイルへの出力をシートごとに並列に行います。
+	 * 生成に失敗したシートがある場合は、すべての生成の終了を待ってから、シート順で最初の例外をスローします。
+	 * </p>
 	 *
-	 * @param style スタイル情報
+	 * @param context 保存の状態
+	 * @param book ブック
+	 * @throws IOException IO例外
 	 */
-	protected void createSheetStyle(SheetStyle style) {
+	protected void createBookParallel(WriteContext context, Book book) throws IOException {
+
+		List<CompletableFuture<Void>> futureList = new ArrayList<CompletableFuture<Void>>();
 
-		fileSheet.setDisplayGridlines(style.isDisplayGridLine());
-		fileSheet.setDisplayZeros(style.isDisplayZeros());
-		fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.TopMargin, style.getMarginTop());
-		fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.BottomMargin, style.getMarginBottom());
-		fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.LeftMargin, style.getMarginLeft());
-		fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.RightMargin, style.getMarginRight());
+		for (Sheet sheet : book.getSheetList()) {
+			WriteContext sheetContext = new WriteContext(context);
+
+			sheetContext.fileSheet = context.outputBook.createSheet(sheet.getName());
+
+			futureList.add(CompletableFuture.runAsync(() -> {
+				createSheetContents(sheetContext, sheet);
 
-		fileSheet.setAutobreaks(style.isAutoBreaks());
-		fileSheet.setDisplayGuts(style.isDisplayGuts());
-		fileSheet.setFitToPage(style.isFitToPage());
-		fileSheet.setHorizontallyCenter(style.isHorizontallyCenter());
-		fileSheet.setVerticallyCenter(style.isVerticallyCenter());
-		fileSheet.setPrintGridlines(style.isPrintGridlines());
+				try {
+					((SXSSFSheet) sheetContext.fileSheet).flushRows();
+				} catch (IOException e) {
+					throw new CompletionException(e);
+				}
+			}, options.getExecutor()));
+		}
+
+		try {
+			CompletableFuture.allOf(futureList.toArray(new CompletableFuture<?>[futureList.size()])).join();
+		} catch (CompletionException e) {
+			// 例外はシート順に取得し直します
+		}
+
+		for (CompletableFuture<Void> future : futureList) {
+			try {
+				future.join();
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+
+				if (cause instanceof IOException == true) {
+					throw (IOException) cause;
+				} else if (cause instanceof RuntimeException == true) {
+					throw (RuntimeException) cause;
+				}
+
+				throw new Poi2ccRuntimeException(cause);
+			}
+		}
+	}
+
+	/**
+	 * シートのスタイル情報を生成します。
+	 *
+	 * @param context 保存の状態
+	 * @param style スタイル情報
+	 */
+	protected void createSheetStyle(WriteContext context, SheetStyle style) {
+
+		context.fileSheet.setDisplayGridlines(style.isDisplayGridLine());
+		context.fileSheet.setDisplayZeros(style.isDisplayZeros());
+		context.fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.TopMargin, style.getMarginTop());
+		context.fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.BottomMargin, style.getMarginBottom());
+		context.fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.LeftMargin, style.getMarginLeft());
+		context.fileSheet.setMargin(org.apache.poi.ss.usermodel.Sheet.RightMargin, style.getMarginRight());
+
+		context.fileSheet.setAutobreaks(style.isAutoBreaks());
+		context.fileSheet.setDisplayGuts(style.isDisplayGuts());
+		context.fileSheet.setFitToPage(style.isFitToPage());
+		context.fileSheet.setHorizontallyCenter(style.isHorizontallyCenter());
+		context.fileSheet.setVerticallyCenter(style.isVerticallyCenter());
+		context.fileSheet.setPrintGridlines(style.isPrintGridlines());
 
 		if (style.isHeader() == true) {
-			Header header = fileSheet.getHeader();
+			Header header = context.fileSheet.getHeader();
 
 			header.setCenter(style.getHeaderCenter());
 			header.setLeft(style.getHeaderLeft());
 			header.setRight(style.getHeaderRight());
 		}
 		if (style.isFooter() == true) {
-			Footer footer = fileSheet.getFooter();
+			Footer footer = context.fileSheet.getFooter();
 
 			footer.setCenter(style.getFooterCenter());
 			footer.setLeft(style.getFooterLeft());
@@ -200,7 +560,7 @@ public class ExcelWriter {
 		}
 
 		if (style.isPrinterSetup() == true) {
-			PrintSetup ps = fileSheet.getPrintSetup();
+			PrintSetup ps = context.fileSheet.getPrintSetup();
 
 			ps.setHeaderMargin(style.getHeaderMargin());
 			ps.setFooterMargin(style.getFooterMargin());
@@ -226,39 +586,51 @@ public class ExcelWriter {
 		Iterator<Integer> columnIterator = style.getColumnBreakList().iterator();
 
 		while (columnIterator.hasNext() == true) {
-			fileSheet.setRowBreak(columnIterator.next());
+			context.fileSheet.setRowBreak(columnIterator.next());
 		}
 
 		Iterator<Integer> rowIterator = style.getRowBreakList().iterator();
 
 		while (rowIterator.hasNext() == true) {
-			fileSheet.setRowBreak(rowIterator.next());
+			context.fileSheet.setRowBreak(rowIterator.next());
 		}
 	}
 
 	/**
 	 * シートを生成します。
 	 *
+	 * @param context 保存の状態
 	 * @param sheet シート
 	 */
-	protected void createSheet(Sheet sheet) {
+	protected void createSheet(WriteContext context, Sheet sheet) {
 
-		fileSheet = fileBook.createSheet(sheet.getName());
+		context.fileSheet = context.outputBook.createSheet(sheet.getName());
 
-		fileSheet.setDefaultColumnWidth(sheet.getDefaultColumnSize() / COLUMN_CORRECTING_VALUE);
-		fileSheet.setDefaultRowHeight(sheet.getDefaultRowSize());
+		createSheetContents(context, sheet);
+	}
 
-		fileSheet.getHeader().setLeft(sheet.getStyle().getHeaderLeft());
-		fileSheet.getHeader().setCenter(sheet.getStyle().getHeaderCenter());
-		fileSheet.getHeader().setRight(sheet.getStyle().getHeaderRight());
+	/**
+	 * 生成したシートにシートの設定とセルを出力します。
+	 *
+	 * @param context 保存の状態
+	 * @param sheet シート
+	 */
+	protected void createSheetContents(WriteContext context, Sheet sheet) {
+
+		context.fileSheet.setDefaultColumnWidth(sheet.getDefaultColumnSize() / COLUMN_CORRECTING_VALUE);
+		context.fileSheet.setDefaultRowHeight(sheet.getDefaultRowSize());
+
+		context.fileSheet.getHeader().setLeft(sheet.getStyle().getHeaderLeft());
+		context.fileSheet.getHeader().setCenter(sheet.getStyle().getHeaderCenter());
+		context.fileSheet.getHeader().setRight(sheet.getStyle().getHeaderRight());
 
-		fileSheet.getFooter().setLeft(sheet.getStyle().getFooterLeft());
-		fileSheet.getFooter().setCenter(sheet.getStyle().getFooterCenter());
-		fileSheet.getFooter().setRight(sheet.getStyle().getFooterRight());
+		context.fileSheet.getFooter().setLeft(sheet.getStyle().getFooterLeft());
+		context.fileSheet.getFooter().setCenter(sheet.getStyle().getFooterCenter());
+		context.fileSheet.getFooter().setRight(sheet.getStyle().getFooterRight());
 
 		SheetStyle style = sheet.getStyle();
 
-		createSheetStyle(style);
+		createSheetStyle(context, style);
 
 		int maxColumn = sheet.getMaxColumn();
 
@@ -268,33 +640,110 @@ public class ExcelWriter {
 
 		for (int i = 0; i < maxColumn; i++) {
 			if (sheet.getColumnSizeMap().get(i) != null) {
-				fileSheet.setColumnWidth(i, sheet.getColumnSizeMap().get(i));
+				context.fileSheet.setColumnWidth(i, sheet.getColumnSizeMap().get(i));
 			} else {
-				fileSheet.setColumnWidth(i, sheet.getDefaultColumnSize());
+				context.fileSheet.setColumnWidth(i, sheet.getDefaultColumnSize());
 			}
 		}
 
+		if (options.isSparse() == true) {
+			createSparseRows(context, sheet);
+
+			return;
+		}
+
 		int maxRow = sheet.getMaxRow();
 
 		for (int i = 0; i < maxRow; i++) {
-			createRow(sheet, i);
+			createRow(context, sheet, i);
 		}
 	}
 
 	/**
-	 * 行を生成します。
+	 * シートが保持するセルのみを行番号・列番号の昇順に出力します。
+	 * <p>
+	 * 出力不要な空のセルは出力せず、行高さのみを持つ行は空の行として出力します。
+	 * シートの最大行・最大列の範囲外のセルは出力しません。
+	 * </p>
 	 *
+	 * @param context 保存の状態
 	 * @param sheet シート
-	 * @param rowNumber 行番号
 	 */
-	protected void createRow(Sheet sheet, int rowNumber) {
+	protected void createSparseRows(WriteContext context, Sheet sheet) {
+
+		int maxColumn = sheet.getMaxColumn();
+		int maxRow = sheet.getMaxRow();
+		TreeMap<Integer, List<Map.Entry<Address, Cell>>> rowMap = new TreeMap<Integer, List<Map.Entry<Address, Cell>>>();
 
-		row = fileSheet.createRow(rowNumber);
+		for (Integer rowNumber : sheet.getRowSizeMap().keySet()) {
+			if (rowNumber < maxRow) {
+				rowMap.put(rowNumber, new ArrayList<Map.Entry<Address, Cell>>());
+			}
+		}
 
-		if (sheet.getRowSizeMap().get(rowNumber) != null) {
-			row.setHeight(sheet.getRowSizeMap().get(rowNumber).shortValue());
+		for (Map.Entry<Address, Cell> entry : sheet.getCellMap().entrySet()) {
+			Address address = entry.getKey();
+
+			if (address.getColumnNumber() >= maxColumn || address.getRowNumber() >= maxRow || isBlankCell(entry.getValue()) == true) {
+				continue;
+			}
+
+			List<Map.Entry<Address, Cell>> cellList = rowMap.get(address.getRowNumber());
+
+			if (cellList == null) {
+				cellList = new ArrayList<Map.Entry<Address, Cell>>();
+
+				rowMap.put(address.getRowNumber(), cellList);
+			}
+
+			cellList.add(entry);
+		}
+
+		for (Map.Entry<Integer, List<Map.Entry<Address, Cell>>> entry : rowMap.entrySet()) {
+			List<Map.Entry<Address, Cell>> cellList = entry.getValue();
+
+			cellList.sort((a, b) -> Integer.compare(a.getKey().getColumnNumber(), b.getKey().getColumnNumber()));
+
+			createFileRow(context, sheet, entry.getKey());
+
+			for (Map.Entry<Address, Cell> cellEntry : cellList) {
+				createCell(context, cellEntry.getValue(), cellEntry.getKey().getColumnNumber());
+			}
+		}
+	}
+
+	/**
+	 * 出力不要な空のセルかどうかを判定します。
+	 * <p>
+	 * 値・数式・コメント・結合を持たず、既定のフォント・セルスタイルでロックされたセルを空のセルと判定します。
+	 * </p>
+	 *
+	 * @param cell セル
+	 * @return 出力不要な空のセルの場合はtrue
+	 */
+	protected boolean isBlankCell(Cell cell) {
+
+		if (cell.getValueType() != ValueType.NONE || cell.isFormula() == true || cell.getComment() != null) {
+			return false;
+		}
+		if (cell.getMergedCell() != null || cell.getParentCell() != null || cell.isLocked() == false) {
+			return false;
 		}
 
+		return DEFAULT_FONT.equals(cell.getFont()) == true && DEFAULT_STYLE.equals(cell.getStyle()) == true;
+	}
+
+	/**
+	 * 行を生成します。
+	 *
+	 * @param context 保存の状態
+	 * @param sheet シート
+	 * @param rowNumber 行番号
+	 */
+	protected void createRow(WriteContext context, Sheet sheet, int rowNumber) {
+
+		createFileRow(context, sheet, rowNumber);
+
 		int maxColumn = sheet.getMaxColumn();
 
 		//		if (maxColumn > MAX_COLUMN_SIZE) {
@@ -302,59 +751,98 @@ public class ExcelWriter {
 		//		}
 		//
 		for (int i = 0; i < maxColumn; i++) {
-			createCell(sheet, i, rowNumber);
+			createCell(context, sheet, i, rowNumber);
+		}
+	}
+
+	/**
+	 * 出力先の行を生成し、行高さを設定します。
+	 *
+	 * @param context 保存の状態
+	 * @param sheet シート
+	 * @param rowNumber 行番号
+	 */
+	protected void createFileRow(WriteContext context, Sheet sheet, int rowNumber) {
+
+		context.row = context.fileSheet.createRow(rowNumber);
+
+		if (sheet.getRowSizeMap().get(rowNumber) != null) {
+			context.row.setHeight(sheet.getRowSizeMap().get(rowNumber).shortValue());
 		}
 	}
 
 	/**
 	 * セルを生成します。
+	 * <p>
+	 * シートにセルがない場合は既定のフォント・セルスタイルを持つ空のセルとして出力し、シートにセルを追加しません。
+	 * </p>
 	 *
+	 * @param context 保存の状態
 	 * @param sheet シート
 	 * @param columnNumber 列番号
 	 * @param rowNumber 行番号
 	 */
-	protected void createCell(Sheet sheet, int columnNumber, int rowNumber) {
+	protected void createCell(WriteContext context, Sheet sheet, int columnNumber, int rowNumber) {
+
+		Address address = new Address(columnNumber, rowNumber);
+		Cell cell = sheet.getActualCell(address);
+
+		if (cell == null) {
+			cell = new Cell(address, DEFAULT_FONT, DEFAULT_STYLE);
+		}
+
+		createCell(context, cell, columnNumber);
+	}
+
+	/**
+	 * セル情報から出力先のセルを生成します。
+	 *
+	 * @param context 保存の状態
+	 * @param cell セル
+	 * @param columnNumber 列番号
+	 */
+	protected void createCell(WriteContext context, Cell cell, int columnNumber) {
 
-		fileCell = row.createCell(columnNumber);
-		Cell cell = sheet.getCell(new Address(columnNumber, rowNumber));
+		context.fileCell = context.row.createCell(columnNumber);
 
 		CellRange cellRange = cell.getMergedCell();
 
 		if (cellRange != null) {
 			CellRangeAddress range = new CellRangeAddress(cellRange.getBeginRow(), cellRange.getLastRow(), cellRange.getBeginColumn(), cellRange.getLastColumn());
 
-			fileSheet.addMergedRegion(range);
+			context.fileSheet.addMergedRegion(range);
 		}
 
-		setCellValue(cell);
-		setCellStyle(cell);
+		setCellValue(context, cell);
+		setCellStyle(context, cell);
 	}
 
 	/**
 	 * セルに値を設定します。
 	 *
+	 * @param context 保存の状態
 	 * @param cell セル
 	 */
-	protected void setCellValue(Cell cell) {
+	protected void setCellValue(WriteContext context, Cell cell) {
 
 		if (cell.getParentCell() != null || cell.getValueType() == ValueType.NONE) {
 			return;
 		} else if (cell.getValueType() == ValueType.BOOLEAN) {
-			fileCell.setCellValue(cell.getValueDate());
+			context.fileCell.setCellValue(cell.getValueDate());
 		} else if (cell.getValueType() == ValueType.NUMBER) {
-			fileCell.setCellValue(cell.getValueNumber().doubleValue());
+			context.fileCell.setCellValue(cell.getValueNumber().doubleValue());
 		} else if (cell.getValueType() == ValueType.DATE) {
-			fileCell.setCellValue(cell.getValueDate());
+			context.fileCell.setCellValue(cell.getValueDate());
 		} else {
 			String text = cell.getValueText();
 
 			if (Poi2ccUtil.isEmptyString(text) == false) {
-				fileCell.setCellValue(text);
+				context.fileCell.setCellValue(text);
 			}
 		}
 		if (cell.isFormula() == true) {
 			try {
-				fileCell.setCellFormula(cell.getFormulaValue());
+				context.fileCell.setCellFormula(cell.getFormulaValue());
 			} catch (FormulaParseException e) {
 			}
 		}
@@ -362,16 +850,90 @@ public class ExcelWriter {
 
 	/**
 	 * セルにスタイルを設定します。
+	 * <p>
+	 * セルのセルスタイル情報・フォント情報・ロックを{@link CellStyleKey}にまとめて登録先から取得し、未登録の場合のみ生成します。
+	 * ロード時に共有された変更不可のセルスタイル情報・フォント情報はハッシュ値を保持するため、取得は1回の検索で済みます。
+	 * </p>
 	 *
+	 * @param context 保存の状態
 	 * @param cell セル
 	 */
-	protected void setCellStyle(Cell cell) {
+	protected void setCellStyle(WriteContext context, Cell cell) {
+
+		CellStyleKey key = new CellStyleKey(cell.getStyle(), cell.getFont(), cell.isLocked());
+		XSSFCellStyle style = context.styleRegistry.get(key);
+
+		if (style == null) {
+			style = context.styleRegistry.register(key, (snapshot) -> createCellStyle(context, snapshot));
+		}
+
+		context.fileCell.setCellStyle(style);
+	}
+
+	/**
+	 * キーのセルスタイル情報・フォント情報・ロックからセルスタイルを生成します。
+	 *
+	 * @param context 保存の状態
+	 * @param key セルスタイルのキー
+	 * @return セルスタイル
+	 */
+	protected XSSFCellStyle createCellStyle(WriteContext context, CellStyleKey key) {
+
+		CellStyle cellStyle = key.getStyle();
+		XSSFCellStyle style = context.fileBook.createCellStyle();
+
+		style.setLocked(key.isLocked());
+
+		style.setAlignment(cellStyle.getAlignment());
+		style.setVerticalAlignment(cellStyle.getVerticalAlignment());
+		style.setWrapText(cellStyle.isWrapText());
+		style.setRotation(cellStyle.getRotation());
+		style.setIndention(cellStyle.getIndent());
+
+		IndexedColorMap colorMap = context.fileBook.getStylesSource().getIndexedColors();
+		byte[] rgbBackgroundArray = new byte[] {(byte) cellStyle.getBackgroundColor().getRed(), (byte) cellStyle.getBackgroundColor().getGreen(), (byte) cellStyle.getBackgroundColor().getBlue()};
+		byte[] rgbForegroundArray = new byte[] {(byte) cellStyle.getForegroundColor().getRed(), (byte) cellStyle.getForegroundColor().getGreen(), (byte) cellStyle.getForegroundColor().getBlue()};
+
+		style.setFillBackgroundColor(new XSSFColor(rgbBackgroundArray, colorMap));
+		style.setFillForegroundColor(new XSSFColor(rgbForegroundArray, colorMap));
+		style.setFillPattern(cellStyle.getFillPattern());
+
+		style.setBorderBottom(cellStyle.getBorderBottom());
+		style.setBorderLeft(cellStyle.getBorderLeft());
+		style.setBorderRight(cellStyle.getBorderRight());
+		style.setBorderTop(cellStyle.getBorderTop());
+
+		if (Poi2ccUtil.isEmptyString(cellStyle.getFormat()) == false) {
+			short dataFormat = context.fileDataFormat.getFormat(cellStyle.getFormat());
+
+			style.setDataFormat(dataFormat);
+		}
+
+		XSSFFont font = getFont(context, key.getFont());
+
+		if (font != null) {
+			style.setFont(font);
+		}
+
+		return style;
+	}
+
+	/**
+	 * フォント情報に対応するフォントを登録先から取得し、未登録の場合は生成します。
+	 * <p>
+	 * セルスタイルの生成中に呼び出されるため、登録先の排他の中で実行されます。
+	 * </p>
+	 *
+	 * @param context 保存の状態
+	 * @param cellFont 変更不可のフォント情報
+	 * @return フォント(フォント名がない場合はnull)
+	 */
+	protected XSSFFont getFont(WriteContext context, CellFont cellFont) {
 
-		CellFont cellFont = cell.getFont();
-		XSSFFont font = fontCache.get(cellFont);
+		XSSFFont font = context.styleRegistry.getFont(cellFont);
 
 		if (font == null && Poi2ccUtil.isEmptyString(cellFont.getFontName()) == false) {
-			font = fileBook.createFont();
+			font = context.fileBook.createFont();
 
 			font.setBold(cellFont.getFontBold());
 			font.setFontName(cellFont.getFontName());
@@ -381,58 +943,74 @@ public class ExcelWriter {
 			font.setStrikeout(cellFont.isFontStrikeout());
 			font.setUnderline(cellFont.getFontUnderline());
 
-			fontCache.put(cellFont, font);
+			context.styleRegistry.putFont(cellFont, font);
 		}
 
-		com.kiruah.poi2cc.storage.sub.CellStyle cellStyle = cell.getStyle();
-		XSSFCellStyle style = styleCache.get(cellStyle);
-
-		if (style == null || font == null) {
-			if (style == null) {
-				style = fileBook.createCellStyle();
+		return font;
+	}
 
-				style.setLocked(cell.isLocked());
+	/**
+	 * ExcelWriter コンストラクタ
+	 */
+	public ExcelWriter() {
 
-				style.setAlignment(cellStyle.getAlignment());
-				style.setVerticalAlignment(cellStyle.getVerticalAlignment());
-				style.setWrapText(cellStyle.isWrapText());
-				style.setRotation(cellStyle.getRotation());
-				style.setIndention(cellStyle.getIndent());
+	}
 
-				IndexedColorMap colorMap = fileBook.getStylesSource().getIndexedColors();
-				byte[] rgbBackgroundArray = new byte[] {(byte) cellStyle.getBackgroundColor().getRed(), (byte) cellStyle.getBackgroundColor().getGreen(), (byte) cellStyle.getBackgroundColor().getBlue()};
-				byte[] rgbForegroundArray = new byte[] {(byte) cellStyle.getForegroundColor().getRed(), (byte) cellStyle.getForegroundColor().getGreen(), (byte) cellStyle.getForegroundColor().getBlue()};
+	/**
+	 * ExcelWriter コンストラクタ
+	 * <p>
+	 * オプションは複製して保持するため、生成後にオプションを変更しても実行中・以降の保存は影響を受けません。
+	 * </p>
+	 *
+	 * @param options 保存時のオプション
+	 */
+	public ExcelWriter(SaveOptions options) {
 
-				style.setFillBackgroundColor(new XSSFColor(rgbBackgroundArray, colorMap));
-				style.setFillForegroundColor(new XSSFColor(rgbForegroundArray, colorMap));
-				style.setFillPattern(cellStyle.getFillPattern());
+		if (options != null) {
+			this.options = options.copy();
+		}
+	}
 
-				style.setBorderBottom(cellStyle.getBorderBottom());
-				style.setBorderLeft(cellStyle.getBorderLeft());
-				style.setBorderRight(cellStyle.getBorderRight());
-				style.setBorderTop(cellStyle.getBorderTop());
+	/**
+	 * クローズを無視する出力ストリーム
+	 * <p>
+	 * クローズ時はフラッシュのみ行い、呼び出し元が所有する出力ストリームをクローズしません。
+	 * </p>
+	 */
+	protected static class CloseShieldOutputStream extends FilterOutputStream {
 
-				if (Poi2ccUtil.isEmptyString(cellStyle.getFormat()) == false) {
-					short dataFormat = fileDataFormat.getFormat(cellStyle.getFormat());
+		/**
+		 * クローズを無視する出力ストリームのコンストラクタ
+		 *
+		 * @param out 出力先の出力ストリーム
+		 */
+		public CloseShieldOutputStream(OutputStream out) {
 
-					style.setDataFormat(dataFormat);
-				}
+			super(out);
+		}
 
-				styleCache.put(cellStyle, style);
-			}
+		/**
+		 * 出力先へまとめて出力します。
+		 * <br/>
+		 * <p>(オーバーライドメソッド)</p>
+		 * @see java.io.FilterOutputStream#write(byte[], int, int)
+		 */
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
 
-			if (font != null) {
-				style.setFont(font);
-			}
+			out.write(b, off, len);
 		}
 
-		fileCell.setCellStyle(style);
-	}
-
-	/**
-	 * ExcelWriter コンストラクタ
-	 */
-	protected ExcelWriter() {
+		/**
+		 * フラッシュのみ行い、出力先はクローズしません。
+		 * <br/>
+		 * <p>(オーバーライドメソッド)</p>
+		 * @see java.io.FilterOutputStream#close()
+		 */
+		@Override
+		public void close() throws IOException {
 
+			out.flush();
+		}
 	}
 }
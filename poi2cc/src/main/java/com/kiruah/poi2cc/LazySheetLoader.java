@@ -0,0 +1,106 @@
+package com.kiruah.poi2cc;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.kiruah.poi2cc.storage.Sheet;
+import com.kiruah.poi2cc.storage.SheetLoader;
+
+/**
+ * 遅延ロードされるブックのシートを、ロード元のファイルから1シートずつロードします。
+ * <p>
+ * xlsx形式の場合はシートのXMLをSAXで解析し、それ以外の場合はApache POIのオブジェクトモデルから変換します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class LazySheetLoader implements SheetLoader {
+
+	/** シートをロードするリーダー */
+	protected ExcelReader reader = null;
+
+	/** ロードの状態(オブジェクトモデルからロードする場合は読み込み済みのブックを保持します) */
+	protected ReadContext context = null;
+
+	/** xlsx形式のブックの共有情報(オブジェクトモデルからロードする場合はnull) */
+	protected XlsxWorkbookSource source = null;
+
+	/** 未ロードのシートとロード元のシート番号 */
+	protected Map<Sheet, Integer> sheetIndexMap = new IdentityHashMap<Sheet, Integer>();
+
+	/**
+	 * 遅延ロードのローダーのコンストラクタ
+	 *
+	 * @param reader シートをロードするリーダー
+	 * @param context ロードの状態
+	 * @param source xlsx形式のブックの共有情報(オブジェクトモデルからロードする場合はnull)
+	 */
+	public LazySheetLoader(ExcelReader reader, ReadContext context, XlsxWorkbookSource source) {
+
+		this.reader = reader;
+		this.context = context;
+		this.source = source;
+	}
+
+	/**
+	 * 未ロードのシートを登録します。
+	 *
+	 * @param sheet 未ロードのシート
+	 * @param sheetIndex ロード元のシート番号
+	 */
+	public void addSheet(Sheet sheet, int sheetIndex) {
+
+		sheet.setLoaded(false);
+		sheetIndexMap.put(sheet, sheetIndex);
+	}
+
+	/**
+	 * 登録されている未ロードのシート数を取得します。
+	 *
+	 * @return 未ロードのシート数
+	 */
+	public int getSheetCount() {
+
+		return sheetIndexMap.size();
+	}
+
+	@Override
+	public synchronized Sheet loadSheet(Sheet sheet) {
+
+		Integer sheetIndex = sheetIndexMap.get(sheet);
+
+		if (sheetIndex == null) {
+			return sheet;
+		}
+
+		Sheet loadedSheet = null;
+
+		try {
+			if (source != null) {
+				loadedSheet = reader.loadSheetStreaming(context, source, sheetIndex);
+			} else {
+				context.fileSheet = context.fileBook.getSheetAt(sheetIndex);
+				loadedSheet = reader.loadSheet(context, sheet.getName());
+			}
+		} catch (Exception e) {
+			throw new Poi2ccRuntimeException("シートをロードできません:" + sheet.getName(), e);
+		}
+
+		loadedSheet.setName(sheet.getName());
+		sheetIndexMap.remove(sheet);
+
+		return loadedSheet;
+	}
+
+	@Override
+	public synchronized void close() {
+
+		if (source != null) {
+			source.close();
+		} else if (context.fileBook != null) {
+			reader.closeWorkbook(context);
+		}
+
+		sheetIndexMap.clear();
+	}
+}
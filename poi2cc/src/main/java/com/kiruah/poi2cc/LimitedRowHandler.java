@@ -0,0 +1,205 @@
+package com.kiruah.poi2cc;
+
+import java.util.function.Predicate;
+
+/**
+ * 行数・セル数・行の条件のいずれかに達した時点で走査を打ち切る行ハンドラです。
+ * <p>
+ * 通知された行を指定した行ハンドラへそのまま通知し、上限に達した時点で{@link #isFinished()}がtrueを返します。
+ * 走査はその時点で打ち切られ、ファイルも閉じられるため、アップロード時のプレビューや型の推定など
+ * 先頭の数行のみが必要な場合に、ファイルサイズに関わらず短時間で走査を終了できます。
+ * 上限は走査するブック全体で数えます。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class LimitedRowHandler implements RowHandler {
+
+	/** 行の通知先 */
+	protected RowHandler handler = null;
+
+	/** 通知する最大行数(制限しない場合は0) */
+	protected int rowLimit = 0;
+
+	/** 通知する最大セル数(制限しない場合は0) */
+	protected int cellLimit = 0;
+
+	/** 走査を打ち切る行の条件(条件に一致した行を通知した後に打ち切ります。制限しない場合はnull) */
+	protected Predicate<RowData> stopCondition = null;
+
+	/** 通知した行数 */
+	protected int rowCount = 0;
+
+	/** 通知したセル数 */
+	protected int cellCount = 0;
+
+	/** 走査を打ち切るかどうか */
+	protected boolean finished = false;
+
+	/**
+	 * 走査を打ち切る行ハンドラのコンストラクタ
+	 *
+	 * @param handler 行の通知先
+	 */
+	public LimitedRowHandler(RowHandler handler) {
+
+		this.handler = handler;
+	}
+
+	/**
+	 * 先頭から指定した行数を通知した時点で走査を打ち切る行ハンドラを生成します。
+	 *
+	 * @param rowLimit 通知する最大行数
+	 * @param handler 行の通知先
+	 * @return 走査を打ち切る行ハンドラ
+	 */
+	public static LimitedRowHandler rows(int rowLimit, RowHandler handler) {
+
+		LimitedRowHandler limitedHandler = new LimitedRowHandler(handler);
+
+		limitedHandler.setRowLimit(rowLimit);
+
+		return limitedHandler;
+	}
+
+	/**
+	 * 条件に一致する行を通知した時点で走査を打ち切る行ハンドラを生成します。
+	 *
+	 * @param stopCondition 走査を打ち切る行の条件
+	 * @param handler 行の通知先
+	 * @return 走査を打ち切る行ハンドラ
+	 */
+	public static LimitedRowHandler until(Predicate<RowData> stopCondition, RowHandler handler) {
+
+		LimitedRowHandler limitedHandler = new LimitedRowHandler(handler);
+
+		limitedHandler.setStopCondition(stopCondition);
+
+		return limitedHandler;
+	}
+
+	@Override
+	public void startSheet(String sheetName, int sheetIndex) {
+
+		handler.startSheet(sheetName, sheetIndex);
+	}
+
+	@Override
+	public void handleRow(RowData row) {
+
+		if (finished == true) {
+			return;
+		}
+
+		handler.handleRow(row);
+
+		rowCount++;
+		cellCount += row.getCellCount();
+
+		if (rowLimit > 0 && rowCount >= rowLimit) {
+			finished = true;
+		} else if (cellLimit > 0 && cellCount >= cellLimit) {
+			finished = true;
+		} else if (stopCondition != null && stopCondition.test(row) == true) {
+			finished = true;
+		}
+	}
+
+	@Override
+	public void endSheet(String sheetName, int sheetIndex) {
+
+		handler.endSheet(sheetName, sheetIndex);
+	}
+
+	@Override
+	public boolean isFinished() {
+
+		return finished == true || handler.isFinished() == true;
+	}
+
+	/**
+	 * 通知する最大行数を取得します。
+	 *
+	 * @return 通知する最大行数(制限しない場合は0)
+	 */
+	public int getRowLimit() {
+
+		return rowLimit;
+	}
+
+	/**
+	 * 通知する最大行数を設定します。
+	 *
+	 * @param rowLimit 通知する最大行数(制限しない場合は0)
+	 */
+	public void setRowLimit(int rowLimit) {
+
+		this.rowLimit = rowLimit;
+	}
+
+	/**
+	 * 通知する最大セル数を取得します。
+	 *
+	 * @return 通知する最大セル数(制限しない場合は0)
+	 */
+	public int getCellLimit() {
+
+		return cellLimit;
+	}
+
+	/**
+	 * 通知する最大セル数を設定します。
+	 * <p>
+	 * 行の途中では打ち切らないため、上限に達した行のセルはすべて通知します。
+	 * </p>
+	 *
+	 * @param cellLimit 通知する最大セル数(制限しない場合は0)
+	 */
+	public void setCellLimit(int cellLimit) {
+
+		this.cellLimit = cellLimit;
+	}
+
+	/**
+	 * 走査を打ち切る行の条件を取得します。
+	 *
+	 * @return 走査を打ち切る行の条件(制限しない場合はnull)
+	 */
+	public Predicate<RowData> getStopCondition() {
+
+		return stopCondition;
+	}
+
+	/**
+	 * 走査を打ち切る行の条件を設定します。
+	 * <p>
+	 * 条件に一致した行は通知した後に走査を打ち切ります。
+	 * </p>
+	 *
+	 * @param stopCondition 走査を打ち切る行の条件(制限しない場合はnull)
+	 */
+	public void setStopCondition(Predicate<RowData> stopCondition) {
+
+		this.stopCondition = stopCondition;
+	}
+
+	/**
+	 * 通知した行数を取得します。
+	 *
+	 * @return 通知した行数
+	 */
+	public int getRowCount() {
+
+		return rowCount;
+	}
+
+	/**
+	 * 通知したセル数を取得します。
+	 *
+	 * @return 通知したセル数
+	 */
+	public int getCellCount() {
+
+		return cellCount;
+	}
+}
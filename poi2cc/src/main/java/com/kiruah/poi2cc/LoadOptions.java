@@ -0,0 +1,505 @@
+package com.kiruah.poi2cc;
+
+import java.util.BitSet;
+import java.util.concurrent.Executor;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+
+import com.kiruah.poi2cc.storage.CellSet;
+import com.kiruah.poi2cc.storage.sub.CellRange;
+
+/**
+ * Excelファイルロード時のオプション
+ *
+ * @author Kiruah
+ */
+public class LoadOptions {
+
+	/** ストリーミング(SAX)でロードするかどうか */
+	protected boolean streaming = false;
+
+	/** シートを遅延ロードするかどうか */
+	protected boolean lazy = false;
+
+	/** 共有文字列テーブルを一時ファイルに保持するかどうか */
+	protected boolean sharedStringsOnDisk = false;
+
+	/** シートを並列に解析するエグゼキューター(並列に解析しない場合はnull) */
+	protected Executor executor = null;
+
+	/** ファイルに存在するセルのみを格納するかどうか */
+	protected boolean sparse = false;
+
+	/** セル値のみをロードするかどうか */
+	protected boolean valuesOnly = false;
+
+	/** 数値・日時の変換を値の取得時まで遅延するかどうか */
+	protected boolean lazyValues = false;
+
+	/** ロードする列(列を限定しない場合はnull) */
+	protected BitSet columnSet = null;
+
+	/** ロードする範囲(範囲を限定しない場合はnull) */
+	protected CellRange range = null;
+
+	/**
+	 * デフォルトのオプションを生成します。
+	 *
+	 * @return デフォルトのオプション
+	 */
+	public static LoadOptions defaults() {
+
+		return new LoadOptions();
+	}
+
+	/**
+	 * ストリーミングでロードするオプションを生成します。
+	 * <p>
+	 * xlsx形式はシートのXMLをSAXで、xls形式はブックのレコードを逐次処理で解析します。
+	 * </p>
+	 *
+	 * @return ストリーミングでロードするオプション
+	 */
+	public static LoadOptions streaming() {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setStreaming(true);
+
+		return options;
+	}
+
+	/**
+	 * シートを遅延ロードするオプションを生成します。
+	 *
+	 * @return シートを遅延ロードするオプション
+	 */
+	public static LoadOptions lazy() {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setLazy(true);
+
+		return options;
+	}
+
+	/**
+	 * 共有文字列テーブルを一時ファイルに保持し、ストリーミングでロードするオプションを生成します。
+	 *
+	 * @return 共有文字列テーブルを一時ファイルに保持するオプション
+	 */
+	public static LoadOptions sharedStringsOnDisk() {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setStreaming(true);
+		options.setSharedStringsOnDisk(true);
+
+		return options;
+	}
+
+	/**
+	 * シートを並列に解析するオプションを生成します。
+	 *
+	 * @param executor シートの解析を実行するエグゼキューター
+	 * @return シートを並列に解析するオプション
+	 */
+	public static LoadOptions parallel(Executor executor) {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setExecutor(executor);
+
+		return options;
+	}
+
+	/**
+	 * ファイルに存在するセルのみを格納するオプションを生成します。
+	 *
+	 * @return ファイルに存在するセルのみを格納するオプション
+	 */
+	public static LoadOptions sparse() {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setSparse(true);
+
+		return options;
+	}
+
+	/**
+	 * セル値のみをロードするオプションを生成します。
+	 *
+	 * @return セル値のみをロードするオプション
+	 */
+	public static LoadOptions valuesOnly() {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setValuesOnly(true);
+
+		return options;
+	}
+
+	/**
+	 * 数値・日時の変換を値の取得時まで遅延するオプションを生成します。
+	 *
+	 * @return 数値・日時の変換を遅延するオプション
+	 */
+	public static LoadOptions lazyValues() {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setLazyValues(true);
+
+		return options;
+	}
+
+	/**
+	 * 指定した列のみをロードするオプションを生成します。
+	 *
+	 * @param columnNumbers ロードする列番号
+	 * @return 指定した列のみをロードするオプション
+	 */
+	public static LoadOptions columns(int... columnNumbers) {
+
+		LoadOptions options = new LoadOptions();
+		BitSet columnSet = new BitSet();
+
+		for (int columnNumber : columnNumbers) {
+			columnSet.set(columnNumber);
+		}
+
+		options.setColumnSet(columnSet);
+
+		return options;
+	}
+
+	/**
+	 * 指定した範囲のみをロードするオプションを生成します。
+	 *
+	 * @param range ロードする範囲(A1形式。"B2:K5000"、列のみの"A:F"、行のみの"2:5000"など)
+	 * @return 指定した範囲のみをロードするオプション
+	 */
+	public static LoadOptions range(String range) {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setRange(range);
+
+		return options;
+	}
+
+	/**
+	 * 指定した行のみをロードするオプションを生成します。
+	 *
+	 * @param beginRow 開始行番号
+	 * @param lastRow 終了行番号(この行を含む)
+	 * @return 指定した行のみをロードするオプション
+	 */
+	public static LoadOptions rows(int beginRow, int lastRow) {
+
+		LoadOptions options = new LoadOptions();
+
+		options.setRange(new CellRange(0, beginRow, CellSet.MAX_COLUMN - 1, lastRow));
+
+		return options;
+	}
+
+	/**
+	 * ストリーミング(SAX)でロードするかどうかを取得します。
+	 * <p>
+	 * trueの場合、xlsx形式のファイルはApache POIのオブジェクトモデルを生成せずに
+	 * シート単位でSAX解析し、ブック情報へ直接格納します。
+	 * xlsx形式以外のファイルは通常通りロードします。
+	 * </p>
+	 * @return ストリーミング(SAX)でロードするかどうか
+	 */
+	public boolean isStreaming() {
+
+		return streaming;
+	}
+
+	/**
+	 * ストリーミング(SAX)でロードするかどうかを設定します。
+	 * @param streaming ストリーミング(SAX)でロードするかどうか
+	 */
+	public void setStreaming(boolean streaming) {
+
+		this.streaming = streaming;
+	}
+
+	/**
+	 * シートを遅延ロードするかどうかを取得します。
+	 * <p>
+	 * trueの場合、ロード直後のブックはシート名と範囲のみを保持した未ロードのシートを持ち、
+	 * 各シートは{@link com.kiruah.poi2cc.storage.Book#getSheet(String)}や
+	 * {@link com.kiruah.poi2cc.storage.Book#getSheetList()}で初めて取得された時点でロードされます。
+	 * xlsx形式のファイルはシート単位でSAX解析するため、アクセスしないシートは解析されません。
+	 * すべてのシートがロードされるか{@link com.kiruah.poi2cc.storage.Book#close()}を呼び出すまで、ロード元のファイルは開かれたままになります。
+	 * </p>
+	 * @return シートを遅延ロードするかどうか
+	 */
+	public boolean isLazy() {
+
+		return lazy;
+	}
+
+	/**
+	 * シートを遅延ロードするかどうかを設定します。
+	 * @param lazy シートを遅延ロードするかどうか
+	 */
+	public void setLazy(boolean lazy) {
+
+		this.lazy = lazy;
+	}
+
+	/**
+	 * 共有文字列テーブルを一時ファイルに保持するかどうかを取得します。
+	 * <p>
+	 * trueの場合、シート単位でSAX解析するxlsx形式のファイルとxlsb形式のファイルの共有文字列テーブルを
+	 * 一時ファイルへ書き出してメモリマップし、文字列セルの値は共有文字列番号から必要な時点で読み取ります。
+	 * 共有文字列の数に関わらずヒープの使用量が増えないため、一意な文字列が非常に多いブックに適しています。
+	 * 一時ファイルはロード完了時(遅延ロードの場合は{@link com.kiruah.poi2cc.storage.Book#close()}の呼び出し時)に削除します。
+	 * xlsx形式のファイルをストリーミング・遅延ロード・並列ロードのいずれでもなくロードする場合は無視します。
+	 * </p>
+	 * @return 共有文字列テーブルを一時ファイルに保持するかどうか
+	 */
+	public boolean isSharedStringsOnDisk() {
+
+		return sharedStringsOnDisk;
+	}
+
+	/**
+	 * 共有文字列テーブルを一時ファイルに保持するかどうかを設定します。
+	 * @param sharedStringsOnDisk 共有文字列テーブルを一時ファイルに保持するかどうか
+	 */
+	public void setSharedStringsOnDisk(boolean sharedStringsOnDisk) {
+
+		this.sharedStringsOnDisk = sharedStringsOnDisk;
+	}
+
+	/**
+	 * シートを並列に解析するエグゼキューターを取得します。
+	 * <p>
+	 * 指定した場合、xlsx形式のファイルは各シートのXMLをエグゼキューター上で並列にSAX解析し、
+	 * 元のシート順にブックへ格納します。結果は逐次ロードした場合と同一です。
+	 * xlsx形式以外のファイルや、遅延ロードする場合は逐次ロードします。
+	 * </p>
+	 * @return シートを並列に解析するエグゼキューター(並列に解析しない場合はnull)
+	 */
+	public Executor getExecutor() {
+
+		return executor;
+	}
+
+	/**
+	 * シートを並列に解析するエグゼキューターを設定します。
+	 * @param executor シートを並列に解析するエグゼキューター(並列に解析しない場合はnull)
+	 */
+	public void setExecutor(Executor executor) {
+
+		this.executor = executor;
+	}
+
+	/**
+	 * ファイルに存在するセルのみを格納するかどうかを取得します。
+	 * <p>
+	 * trueの場合、シートの最大範囲内の空き位置を空のセルで補完しません。
+	 * 格納されていない位置のセルは{@link com.kiruah.poi2cc.storage.CellSet#getCell(com.kiruah.poi2cc.storage.Address)}で
+	 * 取得した時点で空のセルとして生成されます。
+	 * 結合セルの範囲内で格納されていないセルには、結合元のセルが設定されません。
+	 * </p>
+	 * @return ファイルに存在するセルのみを格納するかどうか
+	 */
+	public boolean isSparse() {
+
+		return sparse;
+	}
+
+	/**
+	 * ファイルに存在するセルのみを格納するかどうかを設定します。
+	 * @param sparse ファイルに存在するセルのみを格納するかどうか
+	 */
+	public void setSparse(boolean sparse) {
+
+		this.sparse = sparse;
+	}
+
+	/**
+	 * セル値のみをロードするかどうかを取得します。
+	 * <p>
+	 * trueの場合、セル値・式・結合セル情報のみをロードし、セルのフォント・スタイル・コメント・編集ロック状態と
+	 * シートのスタイル・印刷設定はロードしません。
+	 * セルのフォント・スタイルには空のセルと同じ既定値が設定されます。
+	 * </p>
+	 * @return セル値のみをロードするかどうか
+	 */
+	public boolean isValuesOnly() {
+
+		return valuesOnly;
+	}
+
+	/**
+	 * セル値のみをロードするかどうかを設定します。
+	 * @param valuesOnly セル値のみをロードするかどうか
+	 */
+	public void setValuesOnly(boolean valuesOnly) {
+
+		this.valuesOnly = valuesOnly;
+	}
+
+	/**
+	 * 数値・日時の変換を値の取得時まで遅延するかどうかを取得します。
+	 * <p>
+	 * trueの場合、数値・日時のセルはファイルから読み取ったシリアル値と値の種類のみを保持し、
+	 * {@link com.kiruah.poi2cc.storage.Cell#getValue()}などで初めて取得された時点で{@link java.math.BigDecimal}・
+	 * {@link java.time.LocalDateTime}へ変換します。変換結果は遅延しない場合と同一です。
+	 * 一部の列のみを参照する場合に、参照しないセルの変換を省略できます。
+	 * </p>
+	 * @return 数値・日時の変換を値の取得時まで遅延するかどうか
+	 */
+	public boolean isLazyValues() {
+
+		return lazyValues;
+	}
+
+	/**
+	 * 数値・日時の変換を値の取得時まで遅延するかどうかを設定します。
+	 * @param lazyValues 数値・日時の変換を値の取得時まで遅延するかどうか
+	 */
+	public void setLazyValues(boolean lazyValues) {
+
+		this.lazyValues = lazyValues;
+	}
+
+	/**
+	 * ロードする列を取得します。
+	 * <p>
+	 * 指定した場合、含まれない列のセルは解析時に読み飛ばし、セル情報を生成しません。
+	 * ロードする範囲と併せて指定した場合は、両方に含まれるセルのみをロードします。
+	 * </p>
+	 * @return ロードする列(列を限定しない場合はnull)
+	 */
+	public BitSet getColumnSet() {
+
+		return columnSet;
+	}
+
+	/**
+	 * ロードする列を設定します。
+	 * @param columnSet ロードする列(列を限定しない場合はnull)
+	 */
+	public void setColumnSet(BitSet columnSet) {
+
+		this.columnSet = columnSet;
+	}
+
+	/**
+	 * ロードする範囲を取得します。
+	 * <p>
+	 * 指定した場合、範囲外のセルは解析時に読み飛ばし、セル情報を生成しません。
+	 * セルのアドレスはファイル上の位置のままで、空のセルによる補完も範囲内でのみ行います。
+	 * 結合セルは結合元のセルが範囲内にある場合のみ結合情報を設定します。
+	 * </p>
+	 * @return ロードする範囲(範囲を限定しない場合はnull)
+	 */
+	public CellRange getRange() {
+
+		return range;
+	}
+
+	/**
+	 * ロードする範囲を設定します。
+	 * @param range ロードする範囲(範囲を限定しない場合はnull)
+	 */
+	public void setRange(CellRange range) {
+
+		this.range = range;
+	}
+
+	/**
+	 * ロードする範囲をA1形式で設定します。
+	 * <p>
+	 * 列のみ("A:F")または行のみ("2:5000")を指定した場合、もう一方の方向は限定しません。
+	 * </p>
+	 * @param range ロードする範囲(A1形式)
+	 */
+	public void setRange(String range) {
+
+		CellRangeAddress address = CellRangeAddress.valueOf(range);
+		int beginColumn = address.getFirstColumn() < 0 ? 0 : address.getFirstColumn();
+		int lastColumn = address.getLastColumn() < 0 ? CellSet.MAX_COLUMN - 1 : address.getLastColumn();
+		int beginRow = address.getFirstRow() < 0 ? 0 : address.getFirstRow();
+		int lastRow = address.getLastRow() < 0 ? CellSet.MAX_ROW - 1 : address.getLastRow();
+
+		this.range = new CellRange(beginColumn, beginRow, lastColumn, lastRow);
+	}
+
+	/**
+	 * ロードする列・範囲が限定されているかどうかを取得します。
+	 * @return 限定されている場合はtrue
+	 */
+	public boolean isProjected() {
+
+		return columnSet != null || range != null;
+	}
+
+	/**
+	 * 指定した行がロードする範囲に含まれるかどうかを判定します。
+	 * @param rowNumber 行番号
+	 * @return 含まれる場合はtrue
+	 */
+	public boolean containsRow(int rowNumber) {
+
+		if (range == null) {
+			return true;
+		}
+
+		return range.getBeginRow() <= rowNumber && rowNumber <= range.getLastRow();
+	}
+
+	/**
+	 * 指定した位置のセルがロードする列・範囲に含まれるかどうかを判定します。
+	 * @param columnNumber 列番号
+	 * @param rowNumber 行番号
+	 * @return 含まれる場合はtrue
+	 */
+	public boolean containsCell(int columnNumber, int rowNumber) {
+
+		if (columnSet != null && columnSet.get(columnNumber) == false) {
+			return false;
+		}
+		if (range == null) {
+			return true;
+		}
+
+		return range.getBeginColumn() <= columnNumber && columnNumber <= range.getLastColumn() && containsRow(rowNumber);
+	}
+
+	/**
+	 * オプションを複製します。
+	 * <p>
+	 * ロードする列・範囲も複製するため、複製元を変更しても複製したオプションは影響を受けません。
+	 * エグゼキューターは共有します。
+	 * </p>
+	 *
+	 * @return 複製したオプション
+	 */
+	public LoadOptions copy() {
+
+		LoadOptions options = new LoadOptions();
+
+		options.streaming = streaming;
+		options.lazy = lazy;
+		options.sharedStringsOnDisk = sharedStringsOnDisk;
+		options.executor = executor;
+		options.sparse = sparse;
+		options.valuesOnly = valuesOnly;
+		options.lazyValues = lazyValues;
+		options.columnSet = columnSet == null ? null : (BitSet) columnSet.clone();
+		options.range = range == null ? null : new CellRange(range.getBeginColumn(), range.getBeginRow(), range.getLastColumn(), range.getLastRow());
+
+		return options;
+	}
+}
@@ -0,0 +1,278 @@
+package com.kiruah.poi2cc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.openxml4j.opc.ZipPackage;
+import org.apache.poi.openxml4j.opc.ZipPackagePart;
+import org.apache.poi.xssf.binary.XSSFBParseException;
+import org.apache.poi.xssf.eventusermodel.XSSFBReader;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.SAXException;
+
+/**
+ * xlsx形式・xlsb形式のファイルのロード時点の状態です。
+ * <p>
+ * zipの中央ディレクトリに記録された各パーツのCRCとサイズを、シートごとの依存パーツとともに保持します。
+ * パーツの内容を読み込まずに比較できるため、再ロード時に変更されたシートの判定に利用します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class PackageFingerprint implements Serializable {
+
+	/** シリアルバージョンUID */
+	private static final long serialVersionUID = 4410370528164571190L;
+
+	/** すべてのシートが依存するブックのパーツのリレーションシップ種別 */
+	protected static final Set<String> BOOK_RELATIONSHIP_TYPE_SET = new HashSet<String>(Arrays.asList(
+			XSSFRelation.SHARED_STRINGS.getRelation(),
+			XSSFRelation.STYLES.getRelation(),
+			XSSFRelation.THEME.getRelation()));
+
+	/** パーツ名ごとのCRCとサイズ */
+	protected Map<String, long[]> partMap = new HashMap<String, long[]>();
+
+	/** シート名ごとのシートのパーツ名(シートの順序を保持します) */
+	protected Map<String, String> sheetPartMap = new LinkedHashMap<String, String>();
+
+	/** シート名ごとのシートが依存するパーツ名(シート自身・リレーションシップ・コメントなど) */
+	protected Map<String, Set<String>> sheetDependencyMap = new HashMap<String, Set<String>>();
+
+	/** すべてのシートが依存するパーツ名(共有文字列・スタイル・テーマ) */
+	protected Set<String> bookPartSet = new HashSet<String>();
+
+	/** 1904年を基準とした日付かどうか */
+	protected boolean date1904 = false;
+
+	/**
+	 * パッケージの状態のコンストラクタ
+	 */
+	protected PackageFingerprint() {
+
+	}
+
+	/**
+	 * パッケージから各パーツのCRCとサイズ、シートの依存関係を読み取ります。
+	 * <p>
+	 * パーツの内容はブックのプロパティとシートの一覧以外読み込みません。
+	 * 入力ストリームから開いた場合など、CRCを取得できない場合はnullを返却します。
+	 * </p>
+	 *
+	 * @param pkg xlsx形式・xlsb形式のパッケージ
+	 * @return パッケージの状態(CRCを取得できない場合はnull)
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public static PackageFingerprint of(OPCPackage pkg) throws InvalidFormatException, IOException {
+
+		if (pkg instanceof ZipPackage == false) {
+			return null;
+		}
+
+		PackageFingerprint fingerprint = new PackageFingerprint();
+
+		for (PackagePart part : pkg.getParts()) {
+			// コアプロパティはシートの内容に影響しないため対象外とします。
+			if (part instanceof ZipPackagePart == false) {
+				continue;
+			}
+
+			ZipArchiveEntry entry = ((ZipPackagePart) part).getZipArchive();
+
+			if (entry == null || entry.getCrc() == -1 || entry.getSize() == -1) {
+				return null;
+			}
+
+			fingerprint.partMap.put(part.getPartName().getName(), new long[] { entry.getCrc(), entry.getSize() });
+		}
+
+		try {
+			boolean binary = XlsbWorkbookSource.isXlsb(pkg);
+			XSSFReader reader = binary == true ? new XSSFBReader(pkg) : new XSSFReader(pkg);
+			PackagePart workbookPart = pkg.getPart(pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT).getRelationship(0));
+
+			fingerprint.date1904 = readDate1904(reader, binary);
+
+			for (PackageRelationship relationship : workbookPart.getRelationships()) {
+				if (BOOK_RELATIONSHIP_TYPE_SET.contains(relationship.getRelationshipType()) == true) {
+					addTargetPartName(fingerprint.bookPartSet, relationship);
+				}
+			}
+
+			XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+			while (iterator.hasNext() == true) {
+				Poi2ccUtil.close(iterator.next());
+
+				PackagePart sheetPart = iterator.getSheetPart();
+
+				fingerprint.sheetPartMap.put(iterator.getSheetName(), sheetPart.getPartName().getName());
+				fingerprint.sheetDependencyMap.put(iterator.getSheetName(), getDependentPartNames(sheetPart));
+			}
+		} catch (InvalidFormatException e) {
+			throw e;
+		} catch (OpenXML4JException | SAXException | XSSFBParseException e) {
+			throw new InvalidFormatException("ブック情報を読み込めません", e);
+		}
+
+		return fingerprint;
+	}
+
+	/**
+	 * ブックのプロパティから1904年を基準とした日付かどうかを読み取ります。
+	 *
+	 * @param reader xlsx・xlsbリーダー
+	 * @param binary xlsb形式かどうか
+	 * @return 1904年を基準とした日付かどうか
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 * @throws SAXException XML解析例外
+	 */
+	protected static boolean readDate1904(XSSFReader reader, boolean binary) throws InvalidFormatException, IOException, SAXException {
+
+		InputStream in = reader.getWorkbookData();
+
+		try {
+			if (binary == true) {
+				XlsbWorkbookSource.WorkbookPropertyHandler handler = new XlsbWorkbookSource.WorkbookPropertyHandler(in);
+
+				handler.parse();
+
+				return handler.date1904;
+			}
+
+			XlsxWorkbookSource.WorkbookPropertyHandler handler = new XlsxWorkbookSource.WorkbookPropertyHandler();
+
+			XlsxWorkbookSource.parse(in, handler);
+
+			return handler.date1904;
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+	}
+
+	/**
+	 * シートが依存するパーツ名を取得します。
+	 * <p>
+	 * シート自身・シートのリレーションシップ・リレーションシップの参照先(コメントなど)が対象です。
+	 * </p>
+	 *
+	 * @param sheetPart シートのパーツ
+	 * @return 依存するパーツ名
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 */
+	protected static Set<String> getDependentPartNames(PackagePart sheetPart) throws InvalidFormatException {
+
+		Set<String> partNameSet = new HashSet<String>();
+
+		partNameSet.add(sheetPart.getPartName().getName());
+		partNameSet.add(PackagingURIHelper.getRelationshipPartName(sheetPart.getPartName()).getName());
+
+		for (PackageRelationship relationship : sheetPart.getRelationships()) {
+			addTargetPartName(partNameSet, relationship);
+		}
+
+		return partNameSet;
+	}
+
+	/**
+	 * リレーションシップの参照先がパッケージ内のパーツの場合、そのパーツ名を追加します。
+	 *
+	 * @param partNameSet 追加先
+	 * @param relationship リレーションシップ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 */
+	protected static void addTargetPartName(Set<String> partNameSet, PackageRelationship relationship) throws InvalidFormatException {
+
+		if (relationship.getTargetMode() == TargetMode.INTERNAL) {
+			partNameSet.add(PackagingURIHelper.createPartName(PackagingURIHelper.resolvePartUri(relationship.getSourceURI(), relationship.getTargetURI())).getName());
+		}
+	}
+
+	/**
+	 * 前回の状態から、シートの内容に影響するパーツが変更されたかどうかを判定します。
+	 * <p>
+	 * シートのパーツが異なる場合、シートまたは共有文字列・スタイル・テーマのいずれかのパーツのCRC・サイズが異なる場合、
+	 * 日付の基準が異なる場合に変更されたと判定します。
+	 * </p>
+	 *
+	 * @param previous 前回のロード時の状態
+	 * @param sheetName シート名
+	 * @return 変更された場合はtrue(前回のロード時にシートがない場合もtrue)
+	 */
+	public boolean isSheetChanged(PackageFingerprint previous, String sheetName) {
+
+		String sheetPartName = sheetPartMap.get(sheetName);
+
+		if (sheetPartName == null || sheetPartName.equals(previous.sheetPartMap.get(sheetName)) == false) {
+			return true;
+		}
+		if (date1904 != previous.date1904) {
+			return true;
+		}
+
+		Set<String> partNameSet = new HashSet<String>(bookPartSet);
+
+		partNameSet.addAll(previous.bookPartSet);
+		partNameSet.addAll(sheetDependencyMap.get(sheetName));
+		partNameSet.addAll(previous.sheetDependencyMap.get(sheetName));
+
+		for (String partName : partNameSet) {
+			if (Arrays.equals(partMap.get(partName), previous.partMap.get(partName)) == false) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * シートを含むかどうかを判定します。
+	 *
+	 * @param sheetName シート名
+	 * @return シートを含む場合はtrue
+	 */
+	public boolean containsSheet(String sheetName) {
+
+		return sheetPartMap.containsKey(sheetName);
+	}
+
+	/**
+	 * シート名の一覧をブック内の順序で取得します。
+	 *
+	 * @return シート名の一覧
+	 */
+	public Set<String> getSheetNames() {
+
+		return Collections.unmodifiableSet(sheetPartMap.keySet());
+	}
+
+	/**
+	 * 1904年を基準とした日付かどうかを取得します。
+	 *
+	 * @return 1904年を基準とした日付かどうか
+	 */
+	public boolean isDate1904() {
+
+		return date1904;
+	}
+}
@@ -0,0 +1,304 @@
+package com.kiruah.poi2cc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ScatterZipOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntryRequest;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.openxml4j.util.ZipArchiveThresholdInputStream;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+
+/**
+ * シートのパーツを並列に圧縮するストリーミング形式のワークブックです。
+ * <p>
+ * {@link SXSSFWorkbook}はシートのパーツを1スレッドで順に圧縮しながら出力します。
+ * このワークブックは各シートのパーツの圧縮をエグゼキューター上で並列に行い、
+ * 圧縮済みのパーツを元のパッケージの順序でzipへ格納します。
+ * 圧縮済みのパーツは出力までの間、一時ファイルに保持します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class ParallelStreamingWorkbook extends SXSSFWorkbook {
+
+	/** シートのXMLのうち、行データを格納する要素の開始タグ */
+	protected static final String SHEET_DATA_START = "<sheetData";
+
+	/** シートのXMLのうち、行データを格納する空要素 */
+	protected static final String SHEET_DATA_EMPTY = "<sheetData/>";
+
+	/** シートのXMLのうち、行データを格納する要素の終了タグ */
+	protected static final String SHEET_DATA_END = "</sheetData>";
+
+	/** シートのパーツを圧縮するエグゼキューター */
+	protected Executor executor = null;
+
+	/**
+	 * シートのパーツを並列に圧縮するワークブックのコンストラクタ
+	 *
+	 * @param rowAccessWindowSize メモリ上に保持する行数
+	 * @param compressTmpFiles 一時ファイルを圧縮するかどうか
+	 * @param executor シートのパーツを圧縮するエグゼキューター
+	 */
+	public ParallelStreamingWorkbook(int rowAccessWindowSize, boolean compressTmpFiles, Executor executor) {
+
+		super(null, rowAccessWindowSize, compressTmpFiles);
+
+		this.executor = executor;
+	}
+
+	/**
+	 * テンプレートのパッケージにシートの行データを埋め込み、出力ストリームへ出力します。
+	 * <p>
+	 * シートのパーツはエグゼキューター上で並列に圧縮し、それ以外のパーツはこのスレッドで圧縮します。
+	 * 圧縮に失敗したシートがある場合は、すべての圧縮の終了を待ってから、パッケージ内の順序で最初の例外をスローします。
+	 * </p>
+	 * <br/>
+	 * <p>(オーバーライドメソッド)</p>
+	 *
+	 * @param zipEntrySource テンプレートのパッケージ
+	 * @param out 出力先の出力ストリーム
+	 * @throws IOException IO例外
+	 * @see org.apache.poi.xssf.streaming.SXSSFWorkbook#injectData(org.apache.poi.openxml4j.util.ZipEntrySource, java.io.OutputStream)
+	 */
+	@Override
+	protected void injectData(ZipEntrySource zipEntrySource, OutputStream out) throws IOException {
+
+		Map<String, SXSSFSheet> sheetMap = new HashMap<String, SXSSFSheet>();
+
+		for (int i = 0; i < getNumberOfSheets(); i++) {
+			XSSFSheet sheet = getXSSFWorkbook().getSheetAt(i);
+
+			sheetMap.put(sheet.getPackagePart().getPartName().getName().substring(1), getSheetAt(i));
+		}
+
+		List<ZipArchiveEntry> entryList = new ArrayList<ZipArchiveEntry>(Collections.list(zipEntrySource.getEntries()));
+		Map<String, CompletableFuture<ScatterZipOutputStream>> futureMap = new HashMap<String, CompletableFuture<ScatterZipOutputStream>>();
+
+		try {
+			for (ZipArchiveEntry entry : entryList) {
+				SXSSFSheet sheet = sheetMap.get(entry.getName());
+
+				if (sheet != null) {
+					byte[] template = readEntry(zipEntrySource, entry);
+
+					futureMap.put(entry.getName(), CompletableFuture.supplyAsync(() -> {
+						try {
+							return compressSheet(entry, template, sheet);
+						} catch (IOException e) {
+							throw new CompletionException(e);
+						}
+					}, executor));
+				}
+			}
+
+			ZipArchiveOutputStream zos = new ZipArchiveOutputStream(out);
+
+			try {
+				for (ZipArchiveEntry entry : entryList) {
+					CompletableFuture<ScatterZipOutputStream> future = futureMap.get(entry.getName());
+
+					if (future == null) {
+						copyEntry(zipEntrySource, entry, zos);
+
+						continue;
+					}
+
+					ScatterZipOutputStream scatter = join(future, futureMap);
+
+					try {
+						scatter.writeTo(zos);
+					} finally {
+						futureMap.remove(entry.getName());
+						Poi2ccUtil.close(scatter);
+					}
+				}
+			} finally {
+				zos.finish();
+			}
+		} finally {
+			for (CompletableFuture<ScatterZipOutputStream> future : futureMap.values()) {
+				// 出力しなかった圧縮済みのパーツの一時ファイルを削除します
+				try {
+					Poi2ccUtil.close(future.join());
+				} catch (CompletionException e) {
+				}
+			}
+
+			zipEntrySource.close();
+		}
+	}
+
+	/**
+	 * シートのパーツを一時ファイルへ圧縮します。
+	 *
+	 * @param entry テンプレートのシートのエントリー
+	 * @param template テンプレートのシートのXML
+	 * @param sheet シート
+	 * @return 圧縮済みのシートのパーツ
+	 * @throws IOException IO例外
+	 */
+	protected ScatterZipOutputStream compressSheet(ZipArchiveEntry entry, byte[] template, SXSSFSheet sheet) throws IOException {
+
+		String xml = new String(template, StandardCharsets.UTF_8);
+		int begin = xml.indexOf(SHEET_DATA_START);
+
+		if (begin == -1) {
+			throw new Poi2ccRuntimeException("シートのXMLに行データの要素がありません : " + entry.getName());
+		}
+
+		int end = begin + SHEET_DATA_EMPTY.length();
+
+		if (xml.startsWith(SHEET_DATA_EMPTY, begin) == false) {
+			end = xml.indexOf(SHEET_DATA_END, begin) + SHEET_DATA_END.length();
+		}
+
+		InputStream in = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+				new ByteArrayInputStream((xml.substring(0, begin) + "<sheetData>").getBytes(StandardCharsets.UTF_8)),
+				sheet.getWorksheetXMLInputStream(),
+				new ByteArrayInputStream((SHEET_DATA_END + xml.substring(end)).getBytes(StandardCharsets.UTF_8)))));
+
+		ZipArchiveEntry sheetEntry = new ZipArchiveEntry(entry.getName());
+		ScatterZipOutputStream scatter = null;
+
+		sheetEntry.setMethod(ZipEntry.DEFLATED);
+		sheetEntry.setTime(entry.getTime());
+
+		try {
+			scatter = ScatterZipOutputStream.fileBased(TempFile.createTempFile("poi2cc-part", ".tmp"));
+			scatter.addArchiveEntry(ZipArchiveEntryRequest.createZipArchiveEntryRequest(sheetEntry, () -> in));
+		} catch (IOException | RuntimeException e) {
+			Poi2ccUtil.close(scatter);
+
+			throw e;
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+
+		return scatter;
+	}
+
+	/**
+	 * テンプレートのエントリーを読み込みます。
+	 *
+	 * @param zipEntrySource テンプレートのパッケージ
+	 * @param entry エントリー
+	 * @return エントリーの内容
+	 * @throws IOException IO例外
+	 */
+	protected byte[] readEntry(ZipEntrySource zipEntrySource, ZipArchiveEntry entry) throws IOException {
+
+		InputStream in = openEntry(zipEntrySource, entry);
+
+		try {
+			return IOUtils.toByteArray(in);
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+	}
+
+	/**
+	 * テンプレートのエントリーをそのまま出力先へ圧縮します。
+	 *
+	 * @param zipEntrySource テンプレートのパッケージ
+	 * @param entry エントリー
+	 * @param zos 出力先のzip
+	 * @throws IOException IO例外
+	 */
+	protected void copyEntry(ZipEntrySource zipEntrySource, ZipArchiveEntry entry, ZipArchiveOutputStream zos) throws IOException {
+
+		ZipArchiveEntry outputEntry = new ZipArchiveEntry(entry.getName());
+
+		outputEntry.setSize(entry.getSize());
+		outputEntry.setTime(entry.getTime());
+
+		zos.putArchiveEntry(outputEntry);
+
+		InputStream in = openEntry(zipEntrySource, entry);
+
+		try {
+			IOUtils.copy(in, zos);
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+
+		zos.closeArchiveEntry();
+	}
+
+	/**
+	 * テンプレートのエントリーを開きます。
+	 * <p>
+	 * テンプレートは自身で出力したパッケージのため、zip爆弾の検査を無効にします。
+	 * </p>
+	 *
+	 * @param zipEntrySource テンプレートのパッケージ
+	 * @param entry エントリー
+	 * @return エントリーの入力ストリーム
+	 * @throws IOException IO例外
+	 */
+	protected InputStream openEntry(ZipEntrySource zipEntrySource, ZipArchiveEntry entry) throws IOException {
+
+		InputStream in = zipEntrySource.getInputStream(entry);
+
+		if (in instanceof ZipArchiveThresholdInputStream == true) {
+			((ZipArchiveThresholdInputStream) in).setGuardState(false);
+		}
+
+		return in;
+	}
+
+	/**
+	 * シートのパーツの圧縮の終了を待ちます。
+	 * <p>
+	 * 圧縮に失敗した場合は、すべての圧縮の終了を待ってから例外をスローします。
+	 * </p>
+	 *
+	 * @param future 圧縮の結果
+	 * @param futureMap すべてのシートのパーツの圧縮の結果
+	 * @return 圧縮済みのシートのパーツ
+	 * @throws IOException IO例外
+	 */
+	protected ScatterZipOutputStream join(CompletableFuture<ScatterZipOutputStream> future, Map<String, CompletableFuture<ScatterZipOutputStream>> futureMap) throws IOException {
+
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			try {
+				CompletableFuture.allOf(new ArrayList<CompletableFuture<ScatterZipOutputStream>>(futureMap.values()).toArray(new CompletableFuture<?>[futureMap.size()])).join();
+			} catch (CompletionException ignore) {
+				// 例外は失敗したシートのものをスローします
+			}
+
+			Throwable cause = e.getCause();
+
+			if (cause instanceof IOException == true) {
+				throw (IOException) cause;
+			} else if (cause instanceof RuntimeException == true) {
+				throw (RuntimeException) cause;
+			}
+
+			throw new Poi2ccRuntimeException(cause);
+		}
+	}
+}
@@ -13,6 +13,15 @@ import java.util.Set;
 
 public class Poi2ccUtil {
 
+	/** 10の累乗(浮動小数点数で正確に表現できる範囲) */
+	protected static final double[] POWER_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	/** 高速に変換できる仮数部の最大桁数 */
+	protected static final int FAST_PATH_DIGITS = 15;
+
 	public static boolean isEmptyString(CharSequence text) {
 
 		if (text == null || text.length() == 0) {
@@ -125,4 +134,163 @@ public class Poi2ccUtil {
 			close(cois);
 		}
 	}
+
+	/**
+	 * 文字列を浮動小数点数に変換します。
+	 * <p>
+	 * 仮数部が15桁以内かつ指数が±22以内の場合は文字列を生成せずに変換します。
+	 * この範囲では仮数・10の累乗とも浮動小数点数で正確に表現できるため、1回の乗除算で正しく丸められた値になります。
+	 * それ以外は{@link Double#parseDouble(String)}で変換します。
+	 * </p>
+	 *
+	 * @param text 変換する文字列
+	 * @return 変換した値
+	 * @throws NumberFormatException 数値として解釈できない場合
+	 */
+	public static double parseDouble(CharSequence text) {
+
+		int begin = 0;
+		int end = text.length();
+
+		while (begin < end && text.charAt(begin) <= ' ') {
+			begin++;
+		}
+		while (begin < end && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+
+		int i = begin;
+		boolean negative = false;
+
+		if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+			negative = text.charAt(i) == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean number = false;
+		boolean fraction = false;
+
+		for (; i < end; i++) {
+			char c = text.charAt(i);
+
+			if ('0' <= c && c <= '9') {
+				number = true;
+
+				if (mantissa == 0 && c == '0') {
+					if (fraction == true) {
+						exponent--;
+					}
+					continue;
+				}
+				if (digits == FAST_PATH_DIGITS) {
+					return Double.parseDouble(text.toString());
+				}
+
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+
+				if (fraction == true) {
+					exponent--;
+				}
+			} else if (c == '.' && fraction == false) {
+				fraction = true;
+			} else {
+				break;
+			}
+		}
+
+		if (i < end && number == true && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			i++;
+
+			boolean negativeExponent = false;
+
+			if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+				negativeExponent = text.charAt(i) == '-';
+				i++;
+			}
+
+			int value = 0;
+			int exponentBegin = i;
+
+			for (; i < end && '0' <= text.charAt(i) && text.charAt(i) <= '9'; i++) {
+				if (value < 10000) {
+					value = value * 10 + (text.charAt(i) - '0');
+				}
+			}
+
+			if (i == exponentBegin) {
+				return Double.parseDouble(text.toString());
+			}
+
+			exponent += negativeExponent == true ? -value : value;
+		}
+
+		if (i != end || number == false || exponent < -22 || 22 < exponent) {
+			if (mantissa == 0 && i == end && number == true) {
+				return negative == true ? -0.0 : 0.0;
+			}
+
+			return Double.parseDouble(text.toString());
+		}
+
+		double value = mantissa;
+
+		if (exponent < 0) {
+			value /= POWER_OF_TEN[-exponent];
+		} else {
+			value *= POWER_OF_TEN[exponent];
+		}
+
+		return negative == true ? -value : value;
+	}
+
+	/**
+	 * 文字列を整数に変換します。
+	 * <p>
+	 * 文字列を生成せずに変換します。前後の空白は無視します。
+	 * </p>
+	 *
+	 * @param text 変換する文字列
+	 * @return 変換した値
+	 * @throws NumberFormatException 整数として解釈できない場合
+	 */
+	public static int parseInt(CharSequence text) {
+
+		int begin = 0;
+		int end = text.length();
+
+		while (begin < end && text.charAt(begin) <= ' ') {
+			begin++;
+		}
+		while (begin < end && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+
+		if (begin == end || end - begin > 9) {
+			return Integer.parseInt(text.toString().trim());
+		}
+
+		boolean negative = text.charAt(begin) == '-';
+		int i = negative == true ? begin + 1 : begin;
+		int value = 0;
+
+		if (i == end) {
+			throw new NumberFormatException(text.toString());
+		}
+
+		for (; i < end; i++) {
+			char c = text.charAt(i);
+
+			if (c < '0' || '9' < c) {
+				throw new NumberFormatException(text.toString());
+			}
+
+			value = value * 10 + (c - '0');
+		}
+
+		return negative == true ? -value : value;
+	}
 }
@@ -0,0 +1,65 @@
+package com.kiruah.poi2cc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.kiruah.poi2cc.storage.Address;
+import com.kiruah.poi2cc.storage.sub.CellFont;
+import com.kiruah.poi2cc.storage.sub.CellStyle;
+
+/**
+ * 1回のロード・走査の間だけ保持する処理中の状態です。
+ * <p>
+ * {@link ExcelReader}はロード・走査ごとにこの状態を生成して各処理へ引き渡し、自身はロード時のオプションなど
+ * 変更されない情報のみを保持します。そのため、1つの{@link ExcelReader}を複数のスレッドから同時に利用できます。
+ * </p>
+ * <p>
+ * スタイル・フォントの変換結果はファイル内のスタイル番号・フォント番号をキーとするため、ロードするブックごとに保持します。
+ * 並列ロードではシートを解析するスレッド間で共有するため、スレッドセーフなマップを利用します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class ReadContext {
+
+	/** 現在処理中のブック */
+	protected org.apache.poi.ss.usermodel.Workbook fileBook = null;
+
+	/** 現在処理中のシート */
+	protected org.apache.poi.ss.usermodel.Sheet fileSheet = null;
+
+	/** 現在処理中の行 */
+	protected org.apache.poi.ss.usermodel.Row fileRow = null;
+
+	/** 現在処理中のセル */
+	protected org.apache.poi.ss.usermodel.Cell fileCell = null;
+
+	/** 現在処理中のシートのセルのアドレスとコメントの対応表(コメントがない場合はnull) */
+	protected Map<Address, String> commentMap = null;
+
+	/** スタイル番号ごとのセルスタイル(同じスタイルのセル間で共有します) */
+	protected Map<Integer, CellStyle> cellStyleMap = new ConcurrentHashMap<>();
+
+	/** フォント番号ごとのフォント(同じフォントのセル間で共有します) */
+	protected Map<Integer, CellFont> cellFontMap = new ConcurrentHashMap<>();
+
+	/** スタイル番号ごとの日付書式判定結果 */
+	protected Map<Integer, Boolean> dateFormatMap = new ConcurrentHashMap<>();
+
+	/**
+	 * ロードの状態のコンストラクタ
+	 */
+	public ReadContext() {
+
+	}
+
+	/**
+	 * 現在処理中のブックを取得します。
+	 *
+	 * @return 現在処理中のブック(ストリーミングでロードする場合はnull)
+	 */
+	public org.apache.poi.ss.usermodel.Workbook getFileBook() {
+
+		return fileBook;
+	}
+}
@@ -0,0 +1,504 @@
+package com.kiruah.poi2cc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import com.kiruah.poi2cc.storage.ValueType;
+
+/**
+ * {@link RowHandler}へ通知される1行分のセル値
+ * <p>
+ * 1シートの走査中は同じインスタンスが行ごとに再利用されます。
+ * {@link RowHandler#handleRow(RowData)}の呼び出し後も値を保持したい場合は、必要な値をコピーしてください。
+ * </p>
+ * <p>
+ * セルは行内に実在するものだけが列番号の昇順に格納され、0から{@link #getCellCount()}未満の
+ * インデックスで参照します。値の意味は{@link com.kiruah.poi2cc.storage.Cell}に準じます。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class RowData {
+
+	/** 配列の初期サイズ */
+	protected static final int INITIAL_CAPACITY = 16;
+
+	/** 行番号 */
+	protected int rowNumber = 0;
+
+	/** 行高さ */
+	protected int height = 0;
+
+	/** セル数 */
+	protected int cellCount = 0;
+
+	/** 1904年を基準とした日付かどうか */
+	protected boolean date1904 = false;
+
+	/** 列番号 */
+	protected int[] columnNumberArray = new int[INITIAL_CAPACITY];
+
+	/** 値の種類 */
+	protected ValueType[] valueTypeArray = new ValueType[INITIAL_CAPACITY];
+
+	/** テキスト値 */
+	protected String[] textArray = new String[INITIAL_CAPACITY];
+
+	/** 数値(日時の場合はシリアル値、エラーの場合はエラーコード) */
+	protected double[] numberArray = new double[INITIAL_CAPACITY];
+
+	/** 真偽値 */
+	protected boolean[] booleanArray = new boolean[INITIAL_CAPACITY];
+
+	/** 式 */
+	protected String[] formulaArray = new String[INITIAL_CAPACITY];
+
+	/** エラーかどうか */
+	protected boolean[] errorArray = new boolean[INITIAL_CAPACITY];
+
+	/** スタイル番号 */
+	protected int[] styleIndexArray = new int[INITIAL_CAPACITY];
+
+	/**
+	 * 新しい行の格納を開始します。
+	 *
+	 * @param rowNumber 行番号
+	 * @param height 行高さ
+	 */
+	public void clear(int rowNumber, int height) {
+
+		Arrays.fill(textArray, 0, cellCount, null);
+		Arrays.fill(formulaArray, 0, cellCount, null);
+
+		this.rowNumber = rowNumber;
+		this.height = height;
+		this.cellCount = 0;
+	}
+
+	/**
+	 * セルを追加し、そのインデックスを返却します。
+	 * <p>
+	 * 追加したセルの値は空(NONE)に初期化されます。
+	 * </p>
+	 *
+	 * @param columnNumber 列番号
+	 * @param styleIndex スタイル番号
+	 * @return 追加したセルのインデックス
+	 */
+	public int addCell(int columnNumber, int styleIndex) {
+
+		if (cellCount == columnNumberArray.length) {
+			grow();
+		}
+
+		int index = cellCount++;
+
+		columnNumberArray[index] = columnNumber;
+		styleIndexArray[index] = styleIndex;
+		valueTypeArray[index] = ValueType.NONE;
+		textArray[index] = null;
+		numberArray[index] = 0.0;
+		booleanArray[index] = false;
+		formulaArray[index] = null;
+		errorArray[index] = false;
+
+		return index;
+	}
+
+	/**
+	 * 格納領域を拡張します。
+	 */
+	protected void grow() {
+
+		int capacity = columnNumberArray.length * 2;
+
+		columnNumberArray = Arrays.copyOf(columnNumberArray, capacity);
+		valueTypeArray = Arrays.copyOf(valueTypeArray, capacity);
+		textArray = Arrays.copyOf(textArray, capacity);
+		numberArray = Arrays.copyOf(numberArray, capacity);
+		booleanArray = Arrays.copyOf(booleanArray, capacity);
+		formulaArray = Arrays.copyOf(formulaArray, capacity);
+		errorArray = Arrays.copyOf(errorArray, capacity);
+		styleIndexArray = Arrays.copyOf(styleIndexArray, capacity);
+	}
+
+	/**
+	 * セルにテキスト値を設定します。
+	 *
+	 * @param index セルのインデックス
+	 * @param value テキスト値
+	 */
+	public void setText(int index, String value) {
+
+		valueTypeArray[index] = ValueType.TEXT;
+		textArray[index] = value;
+	}
+
+	/**
+	 * セルに数値を設定します。
+	 *
+	 * @param index セルのインデックス
+	 * @param value 数値
+	 */
+	public void setNumber(int index, double value) {
+
+		valueTypeArray[index] = ValueType.NUMBER;
+		numberArray[index] = value;
+	}
+
+	/**
+	 * セルに日時のシリアル値を設定します。
+	 *
+	 * @param index セルのインデックス
+	 * @param value 日時のシリアル値
+	 */
+	public void setDate(int index, double value) {
+
+		valueTypeArray[index] = ValueType.DATE;
+		numberArray[index] = value;
+	}
+
+	/**
+	 * セルにISO8601形式の日時を設定します。
+	 *
+	 * @param index セルのインデックス
+	 * @param value ISO8601形式の日時
+	 */
+	public void setDate(int index, String value) {
+
+		valueTypeArray[index] = ValueType.DATE;
+		textArray[index] = value;
+	}
+
+	/**
+	 * セルに真偽値を設定します。
+	 *
+	 * @param index セルのインデックス
+	 * @param value 真偽値
+	 */
+	public void setBoolean(int index, boolean value) {
+
+		valueTypeArray[index] = ValueType.BOOLEAN;
+		booleanArray[index] = value;
+	}
+
+	/**
+	 * セルにエラー値を設定します。
+	 *
+	 * @param index セルのインデックス
+	 * @param code エラーコード
+	 */
+	public void setError(int index, byte code) {
+
+		valueTypeArray[index] = ValueType.NUMBER;
+		numberArray[index] = code;
+		errorArray[index] = true;
+	}
+
+	/**
+	 * セルに式を設定します。
+	 *
+	 * @param index セルのインデックス
+	 * @param formula 式
+	 */
+	public void setFormula(int index, String formula) {
+
+		formulaArray[index] = formula;
+	}
+
+	/**
+	 * 行番号を取得します。
+	 * @return 行番号
+	 */
+	public int getRowNumber() {
+
+		return rowNumber;
+	}
+
+	/**
+	 * 行高さを取得します。
+	 * @return 行高さ
+	 */
+	public int getHeight() {
+
+		return height;
+	}
+
+	/**
+	 * セル数を取得します。
+	 * @return セル数
+	 */
+	public int getCellCount() {
+
+		return cellCount;
+	}
+
+	/**
+	 * 1904年を基準とした日付かどうかを取得します。
+	 * @return 1904年を基準とした日付かどうか
+	 */
+	public boolean isDate1904() {
+
+		return date1904;
+	}
+
+	/**
+	 * 1904年を基準とした日付かどうかを設定します。
+	 * @param date1904 1904年を基準とした日付かどうか
+	 */
+	public void setDate1904(boolean date1904) {
+
+		this.date1904 = date1904;
+	}
+
+	/**
+	 * セルの列番号を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return 列番号
+	 */
+	public int getColumnNumber(int index) {
+
+		return columnNumberArray[index];
+	}
+
+	/**
+	 * セルのスタイル番号を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return スタイル番号
+	 */
+	public int getStyleIndex(int index) {
+
+		return styleIndexArray[index];
+	}
+
+	/**
+	 * セルの値の種類を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return 値の種類
+	 */
+	public ValueType getValueType(int index) {
+
+		return valueTypeArray[index];
+	}
+
+	/**
+	 * セルの見た目上の値(画面表示上の値)を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return セルの見た目上の値(画面表示上の値)
+	 */
+	public Object getValue(int index) {
+
+		ValueType valueType = valueTypeArray[index];
+
+		if (valueType == ValueType.NONE) {
+			return Poi2ccConstants.EMPTY_STRING;
+		} else if (valueType == ValueType.BOOLEAN) {
+			return booleanArray[index];
+		} else if (valueType == ValueType.TEXT) {
+			return textArray[index];
+		} else if (valueType == ValueType.NUMBER) {
+			return getValueBigDecimal(index);
+		} else if (valueType == ValueType.DATE) {
+			return getValueDate(index);
+		}
+
+		return null;
+	}
+
+	/**
+	 * セルのテキスト値を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return テキスト値
+	 */
+	public String getValueText(int index) {
+
+		ValueType valueType = valueTypeArray[index];
+
+		if (valueType == ValueType.NONE) {
+			return null;
+		} else if (valueType == ValueType.BOOLEAN) {
+			return Boolean.toString(booleanArray[index]);
+		} else if (valueType == ValueType.NUMBER) {
+			return getValueBigDecimal(index).toPlainString();
+		} else if (valueType == ValueType.DATE) {
+			return getValueDate(index).format(Poi2ccConstants.DEFAULT_DATE_TIME_FORMAT);
+		} else if (valueType == ValueType.TEXT) {
+			return textArray[index];
+		}
+
+		return null;
+	}
+
+	/**
+	 * セルの数値を取得します。
+	 * <p>
+	 * オブジェクトを生成せずに値を取得します。
+	 * 数値以外の場合は、真偽値は1または0、日時はシリアル値、それ以外は0を返却します。
+	 * </p>
+	 *
+	 * @param index セルのインデックス
+	 * @return 数値
+	 */
+	public double getValueNumber(int index) {
+
+		ValueType valueType = valueTypeArray[index];
+
+		if (valueType == ValueType.NUMBER) {
+			return numberArray[index];
+		} else if (valueType == ValueType.BOOLEAN) {
+			return booleanArray[index] == true ? 1.0 : 0.0;
+		} else if (valueType == ValueType.DATE && textArray[index] == null) {
+			return numberArray[index];
+		}
+
+		return 0.0;
+	}
+
+	/**
+	 * セルの数値を{@link BigDecimal}で取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return 数値(値なしの場合はnull)
+	 */
+	public BigDecimal getValueBigDecimal(int index) {
+
+		ValueType valueType = valueTypeArray[index];
+
+		if (valueType == ValueType.NONE) {
+			return null;
+		} else if (valueType == ValueType.TEXT) {
+			try {
+				return new BigDecimal(textArray[index]);
+			} catch (Exception e) {
+				return BigDecimal.ZERO;
+			}
+		}
+
+		return new BigDecimal(getValueNumber(index));
+	}
+
+	/**
+	 * セルの日時を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return 日時(日時以外の場合はnull)
+	 */
+	public LocalDateTime getValueDate(int index) {
+
+		if (valueTypeArray[index] != ValueType.DATE) {
+			return null;
+		}
+
+		if (textArray[index] != null) {
+			return LocalDateTime.parse(textArray[index]);
+		}
+
+		return DateUtil.getLocalDateTime(numberArray[index], date1904);
+	}
+
+	/**
+	 * セルの真偽値を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return 真偽値
+	 */
+	public boolean getValueBoolean(int index) {
+
+		ValueType valueType = valueTypeArray[index];
+
+		if (valueType == ValueType.BOOLEAN) {
+			return booleanArray[index];
+		} else if (valueType == ValueType.NUMBER) {
+			return numberArray[index] != 0.0;
+		} else if (valueType == ValueType.TEXT) {
+			return Boolean.valueOf(textArray[index]);
+		}
+
+		return false;
+	}
+
+	/**
+	 * セルの式を取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return 式(式でない場合はnull)
+	 */
+	public String getFormulaValue(int index) {
+
+		return formulaArray[index];
+	}
+
+	/**
+	 * セルの日時をシリアル値で保持しているかどうかを取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return シリアル値の場合はtrue(ISO8601形式の日時の場合・日時以外の場合はfalse)
+	 */
+	public boolean isDateSerial(int index) {
+
+		return valueTypeArray[index] == ValueType.DATE && textArray[index] == null;
+	}
+
+	/**
+	 * セルが式かどうかを取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return 式の場合はtrue
+	 */
+	public boolean isFormula(int index) {
+
+		return formulaArray[index] != null;
+	}
+
+	/**
+	 * セルがエラーかどうかを取得します。
+	 *
+	 * @param index セルのインデックス
+	 * @return エラーの場合はtrue
+	 */
+	public boolean isError(int index) {
+
+		return errorArray[index];
+	}
+
+	/**
+	 * 列番号からセルのインデックスを取得します。
+	 *
+	 * @param columnNumber 列番号
+	 * @return セルのインデックス(セルがない場合は-1)
+	 */
+	public int indexOf(int columnNumber) {
+
+		int index = Arrays.binarySearch(columnNumberArray, 0, cellCount, columnNumber);
+
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * 文字列値が指定した文字列と一致するセルのインデックスを取得します。
+	 * <p>
+	 * 見出し行の検索などに利用します。文字列以外の値のセルは比較しません。
+	 * </p>
+	 *
+	 * @param text 文字列
+	 * @return セルのインデックス(一致するセルがない場合は-1)
+	 */
+	public int indexOfText(String text) {
+
+		for (int i = 0; i < cellCount; i++) {
+			if (valueTypeArray[i] == ValueType.TEXT && text.equals(textArray[i]) == true) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+}
@@ -0,0 +1,58 @@
+package com.kiruah.poi2cc;
+
+/**
+ * ブックを先頭から1行ずつ走査する際に、シートの開始・終了と各行の内容を受け取ります。
+ * <p>
+ * {@link ExcelReader#scan(String, RowHandler)}などに渡して利用します。
+ * 行情報は再利用されるため、保持する場合は値をコピーしてください。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public interface RowHandler {
+
+	/**
+	 * シートの走査開始時に呼び出されます。
+	 *
+	 * @param sheetName シート名
+	 * @param sheetIndex シート番号
+	 */
+	default void startSheet(String sheetName, int sheetIndex) {
+
+	}
+
+	/**
+	 * 行ごとに呼び出されます。
+	 * <p>
+	 * セルが1つもない行は通知されない場合があります。
+	 * </p>
+	 *
+	 * @param row 行情報(再利用されます)
+	 */
+	void handleRow(RowData row);
+
+	/**
+	 * シートの走査終了時に呼び出されます。
+	 *
+	 * @param sheetName シート名
+	 * @param sheetIndex シート番号
+	 */
+	default void endSheet(String sheetName, int sheetIndex) {
+
+	}
+
+	/**
+	 * 走査を打ち切るかどうかを取得します。
+	 * <p>
+	 * 行を通知するごとに呼び出され、trueを返した時点で解析を打ち切ります。
+	 * 処理中のシートの{@link #endSheet(String, int)}は呼び出され、以降のシートは走査しません。
+	 * ファイルは走査の終了と同時に閉じられます。
+	 * </p>
+	 *
+	 * @return 走査を打ち切る場合はtrue
+	 */
+	default boolean isFinished() {
+
+		return false;
+	}
+}
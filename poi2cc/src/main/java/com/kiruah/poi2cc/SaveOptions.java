@@ -0,0 +1,234 @@
+package com.kiruah.poi2cc;
+
+import java.util.concurrent.Executor;
+
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Excelファイル保存時のオプション
+ *
+ * @author Kiruah
+ */
+public class SaveOptions {
+
+	/** ストリーミング(SXSSF)で保存するかどうか */
+	protected boolean streaming = false;
+
+	/** ストリーミングで保存する場合にメモリ上に保持する行数 */
+	protected int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+	/** ストリーミングで保存する場合に一時ファイルを圧縮するかどうか */
+	protected boolean compressTempFiles = false;
+
+	/** 値または書式を持つセルのみを出力するかどうか */
+	protected boolean sparse = false;
+
+	/** シートを並列に生成・圧縮するエグゼキューター */
+	protected Executor executor = null;
+
+	/**
+	 * デフォルトのオプションを生成します。
+	 *
+	 * @return デフォルトのオプション
+	 */
+	public static SaveOptions defaults() {
+
+		return new SaveOptions();
+	}
+
+	/**
+	 * ストリーミングで保存するオプションを生成します。
+	 *
+	 * @return ストリーミングで保存するオプション
+	 */
+	public static SaveOptions streaming() {
+
+		SaveOptions options = new SaveOptions();
+
+		options.setStreaming(true);
+
+		return options;
+	}
+
+	/**
+	 * メモリ上に保持する行数を指定して、ストリーミングで保存するオプションを生成します。
+	 *
+	 * @param rowAccessWindowSize メモリ上に保持する行数
+	 * @return ストリーミングで保存するオプション
+	 * @throws Poi2ccRuntimeException 行数が1未満の場合
+	 */
+	public static SaveOptions streaming(int rowAccessWindowSize) {
+
+		SaveOptions options = streaming();
+
+		options.setRowAccessWindowSize(rowAccessWindowSize);
+
+		return options;
+	}
+
+	/**
+	 * シートを並列に生成・圧縮して、ストリーミングで保存するオプションを生成します。
+	 *
+	 * @param executor シートの生成・圧縮を実行するエグゼキューター
+	 * @return シートを並列に生成・圧縮するオプション
+	 */
+	public static SaveOptions parallel(Executor executor) {
+
+		SaveOptions options = streaming();
+
+		options.setExecutor(executor);
+
+		return options;
+	}
+
+	/**
+	 * 値または書式を持つセルのみを出力するオプションを生成します。
+	 *
+	 * @return 値または書式を持つセルのみを出力するオプション
+	 */
+	public static SaveOptions sparse() {
+
+		SaveOptions options = new SaveOptions();
+
+		options.setSparse(true);
+
+		return options;
+	}
+
+	/**
+	 * ストリーミング(SXSSF)で保存するかどうかを取得します。
+	 * <p>
+	 * trueの場合、Apache POIの{@link SXSSFWorkbook}で各シートを行番号の昇順に出力し、
+	 * メモリ上に保持する行数を超えた行は一時ファイルへ書き出します。
+	 * 出力するファイルの大きさに関わらず、保存中にメモリ上に保持するApache POIの行は一定数になります。
+	 * 一時ファイルは保存終了時に削除します。
+	 * </p>
+	 * @return ストリーミング(SXSSF)で保存するかどうか
+	 */
+	public boolean isStreaming() {
+
+		return streaming;
+	}
+
+	/**
+	 * ストリーミング(SXSSF)で保存するかどうかを設定します。
+	 * @param streaming ストリーミング(SXSSF)で保存するかどうか
+	 */
+	public void setStreaming(boolean streaming) {
+
+		this.streaming = streaming;
+	}
+
+	/**
+	 * ストリーミングで保存する場合にメモリ上に保持する行数を取得します。
+	 * <p>
+	 * 既定値は{@link SXSSFWorkbook#DEFAULT_WINDOW_SIZE}です。
+	 * </p>
+	 * @return メモリ上に保持する行数
+	 */
+	public int getRowAccessWindowSize() {
+
+		return rowAccessWindowSize;
+	}
+
+	/**
+	 * ストリーミングで保存する場合にメモリ上に保持する行数を設定します。
+	 * @param rowAccessWindowSize メモリ上に保持する行数
+	 * @throws Poi2ccRuntimeException 行数が1未満の場合
+	 */
+	public void setRowAccessWindowSize(int rowAccessWindowSize) {
+
+		if (rowAccessWindowSize < 1) {
+			throw new Poi2ccRuntimeException("メモリ上に保持する行数は1以上を指定してください:" + rowAccessWindowSize);
+		}
+
+		this.rowAccessWindowSize = rowAccessWindowSize;
+	}
+
+	/**
+	 * ストリーミングで保存する場合に一時ファイルを圧縮するかどうかを取得します。
+	 * <p>
+	 * trueの場合、一時ファイルをgzipで圧縮し、ディスクの使用量を抑えます。保存に要する時間は増加します。
+	 * </p>
+	 * @return 一時ファイルを圧縮するかどうか
+	 */
+	public boolean isCompressTempFiles() {
+
+		return compressTempFiles;
+	}
+
+	/**
+	 * ストリーミングで保存する場合に一時ファイルを圧縮するかどうかを設定します。
+	 * @param compressTempFiles 一時ファイルを圧縮するかどうか
+	 */
+	public void setCompressTempFiles(boolean compressTempFiles) {
+
+		this.compressTempFiles = compressTempFiles;
+	}
+
+	/**
+	 * 値または書式を持つセルのみを出力するかどうかを取得します。
+	 * <p>
+	 * trueの場合、シートの最大行・最大列の範囲をすべて出力せず、シートが保持するセルのみを行番号・列番号の昇順に出力します。
+	 * 値・数式・結合を持たず、既定のフォント・セルスタイルのセルは出力しません。
+	 * </p>
+	 * @return 値または書式を持つセルのみを出力するかどうか
+	 */
+	public boolean isSparse() {
+
+		return sparse;
+	}
+
+	/**
+	 * 値または書式を持つセルのみを出力するかどうかを設定します。
+	 * @param sparse 値または書式を持つセルのみを出力するかどうか
+	 */
+	public void setSparse(boolean sparse) {
+
+		this.sparse = sparse;
+	}
+
+	/**
+	 * シートを並列に生成・圧縮するエグゼキューターを取得します。
+	 * <p>
+	 * ストリーミングで保存する場合に指定すると、各シートのセルの生成とシートのパーツの圧縮をエグゼキューター上で並列に行い、
+	 * 元のシート順にパッケージへ格納します。フォント・セルスタイルはすべてのシートで共有します。
+	 * ストリーミングで保存しない場合は逐次保存します。
+	 * </p>
+	 * @return シートを並列に生成・圧縮するエグゼキューター(並列に保存しない場合はnull)
+	 */
+	public Executor getExecutor() {
+
+		return executor;
+	}
+
+	/**
+	 * シートを並列に生成・圧縮するエグゼキューターを設定します。
+	 * @param executor シートを並列に生成・圧縮するエグゼキューター(並列に保存しない場合はnull)
+	 */
+	public void setExecutor(Executor executor) {
+
+		this.executor = executor;
+	}
+
+	/**
+	 * オプションを複製します。
+	 * <p>
+	 * エグゼキューターは共有します。
+	 * </p>
+	 *
+	 * @return 複製したオプション
+	 */
+	public SaveOptions copy() {
+
+		SaveOptions options = new SaveOptions();
+
+		options.streaming = streaming;
+		options.rowAccessWindowSize = rowAccessWindowSize;
+		options.compressTempFiles = compressTempFiles;
+		options.sparse = sparse;
+		options.executor = executor;
+
+		return options;
+	}
+}
@@ -0,0 +1,188 @@
+package com.kiruah.poi2cc;
+
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+
+import com.kiruah.poi2cc.storage.Address;
+import com.kiruah.poi2cc.storage.Cell;
+import com.kiruah.poi2cc.storage.Sheet;
+import com.kiruah.poi2cc.storage.ValueType;
+
+/**
+ * ストリーミングで通知された行情報からシートのセル情報を組み立てます。
+ * <p>
+ * 行内のセルの間と最終セルの右隣を空のセルで補完し、
+ * Apache POIのオブジェクトモデル経由でロードした場合と同じセル配置にします。
+ * ファイルに存在するセルのみを格納する場合は補完しません。
+ * ロードする列・範囲が限定されている場合は範囲内のみ補完します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class SheetBuilder implements RowHandler {
+
+	/** スタイルの変換を行うリーダー */
+	protected ExcelReader reader = null;
+
+	/** ロードの状態 */
+	protected ReadContext context = null;
+
+	/** ブックの共有情報 */
+	protected CellStyleSource source = null;
+
+	/** 格納先のシート */
+	protected Sheet sheet = null;
+
+	/** セルのコメント(コメントがない場合はnull) */
+	protected Map<Address, String> commentMap = null;
+
+	/** ファイルに存在するセルのみを格納するかどうか */
+	protected boolean sparse = false;
+
+	/** 数値・日時の変換を値の取得時まで遅延するかどうか */
+	protected boolean lazyValues = false;
+
+	/**
+	 * シート組み立てのコンストラクタ
+	 *
+	 * @param reader スタイルの変換を行うリーダー
+	 * @param context ロードの状態
+	 * @param source ブックの共有情報
+	 * @param sheet 格納先のシート
+	 * @param commentMap セルのコメント(コメントがない場合はnull)
+	 */
+	public SheetBuilder(ExcelReader reader, ReadContext context, CellStyleSource source, Sheet sheet, Map<Address, String> commentMap) {
+
+		this.reader = reader;
+		this.context = context;
+		this.source = source;
+		this.sheet = sheet;
+		this.commentMap = commentMap;
+		this.sparse = reader.options.isSparse();
+		this.lazyValues = reader.options.isLazyValues();
+
+		if (commentMap != null && commentMap.isEmpty() == true) {
+			this.commentMap = null;
+		}
+	}
+
+	@Override
+	public void handleRow(RowData row) {
+
+		int rowNumber = row.getRowNumber();
+		int cellCount = row.getCellCount();
+		int lastColumnNumber = -1;
+
+		sheet.getRowSizeMap().put(rowNumber, row.getHeight());
+
+		for (int i = 0; i < cellCount; i++) {
+			int columnNumber = row.getColumnNumber(i);
+
+			fillBlankCell(rowNumber, lastColumnNumber + 1, columnNumber);
+
+			Address address = new Address(columnNumber, rowNumber);
+			Cell cell = null;
+
+			try {
+				cell = createCell(row, i);
+
+				if (commentMap != null) {
+					String comment = commentMap.get(address);
+
+					if (comment != null) {
+						cell.setComment(comment);
+					}
+				}
+			} catch (Exception e) {
+				cell = reader.createBlankCell();
+			}
+
+			sheet.setCell(address, cell);
+
+			lastColumnNumber = columnNumber;
+		}
+
+		if (lastColumnNumber >= 0) {
+			fillBlankCell(rowNumber, lastColumnNumber + 1, lastColumnNumber + 2);
+		}
+	}
+
+	/**
+	 * 行内の指定範囲を空のセルで補完します。
+	 *
+	 * @param rowNumber 行番号
+	 * @param beginColumnNumber 補完開始列番号
+	 * @param endColumnNumber 補完終了列番号(この列は含まない)
+	 */
+	protected void fillBlankCell(int rowNumber, int beginColumnNumber, int endColumnNumber) {
+
+		if (sparse == true) {
+			return;
+		}
+
+		for (int i = beginColumnNumber; i < endColumnNumber; i++) {
+			if (reader.options.containsCell(i, rowNumber) == false) {
+				continue;
+			}
+
+			sheet.setCell(new Address(i, rowNumber), reader.createBlankCell());
+		}
+	}
+
+	/**
+	 * 行情報のセル値からセルを生成します。
+	 *
+	 * @param row 行情報
+	 * @param index セルのインデックス
+	 * @return セル
+	 */
+	protected Cell createCell(RowData row, int index) {
+
+		Cell cell = new Cell(null, null, null);
+		ValueType valueType = row.getValueType(index);
+
+		if (valueType == ValueType.NONE) {
+			cell.setValue(Poi2ccConstants.EMPTY_STRING);
+		} else if (valueType == ValueType.TEXT) {
+			cell.setValue(row.getValueText(index));
+		} else if (valueType == ValueType.BOOLEAN) {
+			cell.setValue(row.getValueBoolean(index));
+		} else if (valueType == ValueType.DATE) {
+			if (lazyValues == true && row.isDateSerial(index) == true) {
+				cell.setValueDeferred(ValueType.DATE, row.getValueNumber(index), row.isDate1904());
+			} else {
+				cell.setValue(row.getValueDate(index));
+			}
+		} else if (row.isError(index) == true) {
+			cell.setValue((byte) row.getValueNumber(index));
+			cell.setError(true);
+		} else if (lazyValues == true) {
+			cell.setValueDeferred(ValueType.NUMBER, row.getValueNumber(index), false);
+		} else {
+			cell.setValue(row.getValueNumber(index));
+		}
+
+		if (row.isFormula(index) == true) {
+			cell.setFormulaValue(row.getFormulaValue(index));
+			cell.setFormula(true);
+		}
+
+		CellStyle style = null;
+
+		if (reader.options.isValuesOnly() == false) {
+			style = source.getCellStyle(row.getStyleIndex(index));
+		}
+
+		if (style != null) {
+			cell.setLocked(style.getLocked());
+			reader.setCellFont(context, source.getFont(style), cell);
+			reader.setCellStyle(context, style, cell);
+		} else {
+			cell.setFont(reader.blankCellFont);
+			cell.setStyle(reader.blankCellStyle);
+		}
+
+		return cell;
+	}
+}
@@ -0,0 +1,96 @@
+package com.kiruah.poi2cc;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFDataFormat;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * 1回の保存の間だけ保持する処理中の状態です。
+ * <p>
+ * {@link ExcelWriter}は保存ごとにこの状態を生成して各処理へ引き渡し、自身は状態を保持しません。
+ * そのため、1つの{@link ExcelWriter}を複数のスレッドから同時に利用できます。
+ * 生成したフォント・セルスタイルは出力先のブックに属するため、保存するブックごとに保持します。
+ * ストリーミングで保存する場合、シート・行・セルは{@link SXSSFWorkbook}から生成し、
+ * フォント・セルスタイルは{@link SXSSFWorkbook}が内部に保持する{@link XSSFWorkbook}から生成します。
+ * シートを並列に生成する場合はシートごとに状態を生成し、ブックとセルスタイル・フォントの登録先を共有します。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class WriteContext {
+
+	/** 現在処理中のブック(フォント・セルスタイルの生成先) */
+	protected XSSFWorkbook fileBook = null;
+
+	/** シートの生成先・出力元のブック(ストリーミングで保存する場合は{@link SXSSFWorkbook}) */
+	protected Workbook outputBook = null;
+
+	/** 現在処理中のデータフォーマット */
+	protected XSSFDataFormat fileDataFormat = null;
+
+	/** 現在処理中のシート */
+	protected Sheet fileSheet = null;
+
+	/** 現在処理中の行 */
+	protected Row row = null;
+
+	/** 現在処理中のセル */
+	protected Cell fileCell = null;
+
+	/** 現在処理中のブックに生成したセルスタイル・フォントの登録先 */
+	protected CellStyleRegistry styleRegistry = new CellStyleRegistry();
+
+	/**
+	 * 保存の状態のコンストラクタ
+	 *
+	 * @param fileBook 保存するワークブック形式
+	 */
+	public WriteContext(XSSFWorkbook fileBook) {
+
+		this.fileBook = fileBook;
+		this.outputBook = fileBook;
+		this.fileDataFormat = fileBook.createDataFormat();
+	}
+
+	/**
+	 * ストリーミングで保存する場合の保存の状態のコンストラクタ
+	 *
+	 * @param outputBook 保存するストリーミング形式のワークブック
+	 */
+	public WriteContext(SXSSFWorkbook outputBook) {
+
+		this.fileBook = outputBook.getXSSFWorkbook();
+		this.outputBook = outputBook;
+		this.fileDataFormat = fileBook.createDataFormat();
+	}
+
+	/**
+	 * シートを並列に生成する場合の各シートの保存の状態のコンストラクタ
+	 * <p>
+	 * ブック・データフォーマット・セルスタイルとフォントの登録先を共有します。
+	 * </p>
+	 *
+	 * @param bookContext ブックの保存の状態
+	 */
+	public WriteContext(WriteContext bookContext) {
+
+		this.fileBook = bookContext.fileBook;
+		this.outputBook = bookContext.outputBook;
+		this.fileDataFormat = bookContext.fileDataFormat;
+		this.styleRegistry = bookContext.styleRegistry;
+	}
+
+	/**
+	 * 現在処理中のブックを取得します。
+	 *
+	 * @return 現在処理中のブック
+	 */
+	public XSSFWorkbook getFileBook() {
+
+		return fileBook;
+	}
+}
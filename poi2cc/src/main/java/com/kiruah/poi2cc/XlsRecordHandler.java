@@ -0,0 +1,880 @@
+package com.kiruah.poi2cc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.record.ArrayRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BlankRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BottomMarginRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.ColumnInfoRecord;
+import org.apache.poi.hssf.record.CommonObjectDataSubRecord;
+import org.apache.poi.hssf.record.DefaultColWidthRecord;
+import org.apache.poi.hssf.record.DefaultRowHeightRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FooterRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.HCenterRecord;
+import org.apache.poi.hssf.record.HeaderFooterBase;
+import org.apache.poi.hssf.record.HeaderRecord;
+import org.apache.poi.hssf.record.HorizontalPageBreakRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.LeftMarginRecord;
+import org.apache.poi.hssf.record.MergeCellsRecord;
+import org.apache.poi.hssf.record.NoteRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.ObjRecord;
+import org.apache.poi.hssf.record.PrintGridlinesRecord;
+import org.apache.poi.hssf.record.PrintSetupRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RightMarginRecord;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SharedFormulaRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.record.SubRecord;
+import org.apache.poi.hssf.record.TextObjectRecord;
+import org.apache.poi.hssf.record.TopMarginRecord;
+import org.apache.poi.hssf.record.VCenterRecord;
+import org.apache.poi.hssf.record.VerticalPageBreakRecord;
+import org.apache.poi.hssf.record.WSBoolRecord;
+import org.apache.poi.hssf.record.WindowTwoRecord;
+import org.apache.poi.hssf.usermodel.HSSFPrintSetup;
+import org.apache.poi.hssf.usermodel.HeaderFooter;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+
+import com.kiruah.poi2cc.storage.Address;
+import com.kiruah.poi2cc.storage.Book;
+import com.kiruah.poi2cc.storage.Cell;
+import com.kiruah.poi2cc.storage.Sheet;
+import com.kiruah.poi2cc.storage.sub.SheetStyle;
+
+/**
+ * xls形式のブックのレコードを先頭から順に受け取り、行ごとのセル値を{@link RowHandler}へ通知します。
+ * <p>
+ * ブック全体の情報のレコードから{@link XlsWorkbookSource}を生成し、以降のシートのレコードは
+ * 行単位にまとめて通知します。行の区切りはセルのレコードの行番号の変化で判定し、
+ * セルのない行は行のレコード(ROW)から空の行として通知します。
+ * </p>
+ * <p>
+ * ブックが指定された場合は、シートごとに{@link SheetBuilder}でシート情報を組み立て、
+ * 列幅・印刷設定・コメント・結合セルなどのシート単位の情報も格納します。
+ * セル値のみをロードする場合、シートのスタイル・印刷設定・コメントは読み飛ばします。
+ * ロードする列・範囲が限定されている場合、範囲外のセルは値を解釈せずに読み飛ばします。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsRecordHandler extends AbortableHSSFListener {
+
+	/** レコードの処理を打ち切ることを示す戻り値 */
+	protected static final short ABORT = 1;
+
+	/** 行の高さが既定の高さであることを示すビット */
+	protected static final int DEFAULT_HEIGHT_BIT = 0x8000;
+
+	/** 行の高さ */
+	protected static final int HEIGHT_MASK = 0x7FFF;
+
+	/** 行のレコードがない行の高さ */
+	protected static final int NO_ROW_RECORD_HEIGHT = 0xFF;
+
+	/** 基本列幅の既定値 */
+	protected static final int DEFAULT_COLUMN_WIDTH = 8;
+
+	/** デフォルト行高さの既定値 */
+	protected static final short DEFAULT_ROW_HEIGHT = 0xFF;
+
+	/** スタイルの変換を行うリーダー */
+	protected ExcelReader reader = null;
+
+	/** ロードの状態(走査のみの場合はnull) */
+	protected ReadContext context = null;
+
+	/** ロード時のオプション */
+	protected LoadOptions options = null;
+
+	/** 格納先のブック(走査のみの場合はnull) */
+	protected Book book = null;
+
+	/** ロードするシート名の条件(すべてのシートをロードする場合はnull) */
+	protected Predicate<String> sheetFilter = null;
+
+	/** 走査時の行の通知先(ブックへ格納する場合はnull) */
+	protected RowHandler scanHandler = null;
+
+	/** ブック全体の情報のレコード */
+	protected List<Record> workbookRecordList = new ArrayList<Record>();
+
+	/** ブックの共有情報 */
+	protected XlsWorkbookSource source = null;
+
+	/** BOFのネストの深さ(シート内のグラフなどは2以上) */
+	protected int depth = 0;
+
+	/** 処理中のシート番号 */
+	protected int sheetIndex = -1;
+
+	/** 処理中のシート名(シートを読み飛ばす場合はnull) */
+	protected String sheetName = null;
+
+	/** 処理中のシート(走査のみの場合はnull) */
+	protected Sheet sheet = null;
+
+	/** 処理中のシートの行の通知先 */
+	protected RowHandler rowHandler = null;
+
+	/** 行情報(行ごとに再利用します) */
+	protected RowData rowData = new RowData();
+
+	/** 行の通知先の指定により処理を打ち切ったかどうか */
+	protected boolean finished = false;
+
+	/** 現在処理中の行番号(行を処理していない場合は-1) */
+	protected int rowNumber = -1;
+
+	/** 未通知の行の高さ(行番号 - 高さ) */
+	protected TreeMap<Integer, Integer> rowHeightMap = new TreeMap<Integer, Integer>();
+
+	/** 文字列のレコードを待っている式のセルのインデックス */
+	protected int stringIndex = -1;
+
+	/** 共有式・配列式のレコードを待っている式のセルのインデックス */
+	protected int formulaIndex = -1;
+
+	/** 共有式・配列式のレコードを待っている式のレコード */
+	protected FormulaRecord formulaRecord = null;
+
+	/** 共有式のレコード(基準セル - レコード) */
+	protected Map<CellAddress, SharedFormulaRecord> sharedFormulaMap = new HashMap<CellAddress, SharedFormulaRecord>();
+
+	/** 配列式のレコード(基準セル - レコード) */
+	protected Map<CellAddress, ArrayRecord> arrayFormulaMap = new HashMap<CellAddress, ArrayRecord>();
+
+	/** 基本列幅 */
+	protected int defaultColumnWidth = DEFAULT_COLUMN_WIDTH;
+
+	/** デフォルト行高さ */
+	protected short defaultRowHeight = DEFAULT_ROW_HEIGHT;
+
+	/** 列情報のレコード */
+	protected List<ColumnInfoRecord> columnInfoList = new ArrayList<ColumnInfoRecord>();
+
+	/** 結合セル範囲 */
+	protected List<CellRangeAddress> mergedRegionList = new ArrayList<CellRangeAddress>();
+
+	/** シート単位の情報のレコード(レコード種別 - レコード) */
+	protected Map<Short, Record> sheetRecordMap = new HashMap<Short, Record>();
+
+	/** 処理中のコメントのオブジェクトID(コメント以外の場合は-1) */
+	protected int commentObjectId = -1;
+
+	/** コメントの文字列(オブジェクトID - 文字列) */
+	protected Map<Integer, String> commentTextMap = new HashMap<Integer, String>();
+
+	/** コメントのレコード */
+	protected List<NoteRecord> noteList = new ArrayList<NoteRecord>();
+
+	/**
+	 * ブックを走査するレコード処理のコンストラクタ
+	 *
+	 * @param reader スタイルの変換を行うリーダー
+	 * @param scanHandler 行の通知先
+	 */
+	public XlsRecordHandler(ExcelReader reader, RowHandler scanHandler) {
+
+		this.reader = reader;
+		this.options = LoadOptions.defaults();
+		this.scanHandler = scanHandler;
+	}
+
+	/**
+	 * ブックへ格納するレコード処理のコンストラクタ
+	 *
+	 * @param reader スタイルの変換を行うリーダー
+	 * @param context ロードの状態
+	 * @param book 格納先のブック
+	 * @param sheetFilter ロードするシート名の条件(すべてのシートをロードする場合はnull)
+	 */
+	public XlsRecordHandler(ExcelReader reader, ReadContext context, Book book, Predicate<String> sheetFilter) {
+
+		this.reader = reader;
+		this.context = context;
+		this.options = reader.options;
+		this.book = book;
+		this.sheetFilter = sheetFilter;
+	}
+
+	/**
+	 * レコードを処理し、行の通知先が走査の打ち切りを指定した場合は以降のレコードの処理を打ち切ります。
+	 * <p>
+	 * 打ち切った場合も処理中のシートの終了は通知します。
+	 * </p>
+	 *
+	 * @param record レコード
+	 * @return 処理を続ける場合は0
+	 */
+	@Override
+	public short abortableProcessRecord(Record record) {
+
+		processRecord(record);
+
+		if (finished == false) {
+			return 0;
+		}
+
+		if (scanHandler != null && sheetName != null) {
+			scanHandler.endSheet(sheetName, sheetIndex);
+			sheetName = null;
+		}
+
+		return ABORT;
+	}
+
+	@Override
+	public void processRecord(Record record) {
+
+		short sid = record.getSid();
+
+		if (sid == BOFRecord.sid) {
+			depth++;
+
+			if (depth == 1 && source != null) {
+				startSheet();
+			}
+		} else if (sid == EOFRecord.sid) {
+			if (depth == 1 && source == null) {
+				workbookRecordList.add(record);
+				startWorkbook();
+			} else if (depth == 1) {
+				endSheet();
+			}
+
+			depth--;
+
+			return;
+		}
+
+		if (depth != 1) {
+			return;
+		} else if (source == null) {
+			workbookRecordList.add(record);
+		} else if (sheetName != null) {
+			processSheetRecord(record);
+		}
+	}
+
+	/**
+	 * ブック全体の情報のレコードからブックの共有情報を生成します。
+	 */
+	protected void startWorkbook() {
+
+		source = new XlsWorkbookSource(workbookRecordList);
+		workbookRecordList = null;
+
+		rowData.setDate1904(source.isDate1904());
+	}
+
+	/**
+	 * シートの処理を開始します。
+	 */
+	protected void startSheet() {
+
+		sheetIndex++;
+		sheetName = null;
+
+		if (sheetIndex >= source.getSheetCount()) {
+			return;
+		}
+
+		String name = source.getSheetName(sheetIndex);
+
+		if (sheetFilter != null && sheetFilter.test(name) == false) {
+			return;
+		}
+
+		sheetName = name;
+		rowNumber = -1;
+		stringIndex = -1;
+		formulaIndex = -1;
+		formulaRecord = null;
+		commentObjectId = -1;
+		defaultColumnWidth = DEFAULT_COLUMN_WIDTH;
+		defaultRowHeight = DEFAULT_ROW_HEIGHT;
+
+		rowHeightMap.clear();
+		sharedFormulaMap.clear();
+		arrayFormulaMap.clear();
+		columnInfoList.clear();
+		mergedRegionList.clear();
+		sheetRecordMap.clear();
+		commentTextMap.clear();
+		noteList.clear();
+
+		if (scanHandler != null) {
+			rowHandler = scanHandler;
+			rowHandler.startSheet(sheetName, sheetIndex);
+		} else {
+			sheet = new Sheet(sheetName);
+			rowHandler = new SheetBuilder(reader, context, source, sheet, null);
+		}
+	}
+
+	/**
+	 * シートの処理を終了します。
+	 */
+	protected void endSheet() {
+
+		if (sheetName == null) {
+			return;
+		}
+
+		flushRow();
+		flushEmptyRow(Integer.MAX_VALUE);
+
+		if (scanHandler != null) {
+			scanHandler.endSheet(sheetName, sheetIndex);
+		} else {
+			finishSheet();
+			book.addSheet(sheet);
+		}
+
+		sheetName = null;
+		sheet = null;
+		rowHandler = null;
+	}
+
+	/**
+	 * シートのレコードを処理します。
+	 *
+	 * @param record レコード
+	 */
+	protected void processSheetRecord(Record record) {
+
+		switch (record.getSid()) {
+		case NumberRecord.sid:
+		case LabelSSTRecord.sid:
+		case LabelRecord.sid:
+		case BoolErrRecord.sid:
+		case BlankRecord.sid:
+		case FormulaRecord.sid:
+			processCell((CellValueRecordInterface) record);
+			break;
+		case StringRecord.sid:
+			if (stringIndex >= 0) {
+				rowData.setText(stringIndex, ((StringRecord) record).getString());
+				stringIndex = -1;
+			}
+			break;
+		case SharedFormulaRecord.sid:
+			SharedFormulaRecord sharedFormula = (SharedFormulaRecord) record;
+
+			sharedFormulaMap.put(new CellAddress(sharedFormula.getFirstRow(), sharedFormula.getFirstColumn()), sharedFormula);
+			resolveFormula();
+			break;
+		case ArrayRecord.sid:
+			ArrayRecord arrayFormula = (ArrayRecord) record;
+
+			arrayFormulaMap.put(new CellAddress(arrayFormula.getFirstRow(), arrayFormula.getFirstColumn()), arrayFormula);
+			resolveFormula();
+			break;
+		case RowRecord.sid:
+			RowRecord row = (RowRecord) record;
+
+			if (options.containsRow(row.getRowNumber()) == true) {
+				rowHeightMap.put(row.getRowNumber(), getRowHeight(row));
+			}
+			break;
+		case DefaultRowHeightRecord.sid:
+			defaultRowHeight = ((DefaultRowHeightRecord) record).getRowHeight();
+			break;
+		default:
+			if (sheet != null) {
+				processSheetInformation(record);
+			}
+		}
+	}
+
+	/**
+	 * セルのレコードを行情報に格納します。
+	 *
+	 * @param record セルのレコード
+	 */
+	protected void processCell(CellValueRecordInterface record) {
+
+		int row = record.getRow();
+		int column = record.getColumn();
+
+		stringIndex = -1;
+		formulaIndex = -1;
+		formulaRecord = null;
+
+		if (options.containsCell(column, row) == false) {
+			return;
+		}
+
+		if (row != rowNumber) {
+			flushRow();
+			flushEmptyRow(row);
+
+			if (finished == true) {
+				return;
+			}
+
+			Integer height = rowHeightMap.remove(row);
+
+			rowData.clear(row, height != null ? height : NO_ROW_RECORD_HEIGHT);
+			rowNumber = row;
+		}
+
+		int styleIndex = record.getXFIndex();
+		int index = rowData.addCell(column, styleIndex);
+
+		if (record instanceof NumberRecord == true) {
+			setNumber(index, styleIndex, ((NumberRecord) record).getValue());
+		} else if (record instanceof LabelSSTRecord == true) {
+			rowData.setText(index, source.getSharedString(((LabelSSTRecord) record).getSSTIndex()));
+		} else if (record instanceof LabelRecord == true) {
+			rowData.setText(index, ((LabelRecord) record).getValue());
+		} else if (record instanceof BoolErrRecord == true) {
+			BoolErrRecord boolErr = (BoolErrRecord) record;
+
+			if (boolErr.isBoolean() == true) {
+				rowData.setBoolean(index, boolErr.getBooleanValue());
+			} else {
+				rowData.setError(index, boolErr.getErrorValue());
+			}
+		} else if (record instanceof FormulaRecord == true) {
+			processFormula((FormulaRecord) record, index, styleIndex);
+		}
+	}
+
+	/**
+	 * 式のレコードの計算結果と式を行情報に格納します。
+	 *
+	 * @param record 式のレコード
+	 * @param index セルのインデックス
+	 * @param styleIndex スタイル番号
+	 */
+	@SuppressWarnings("deprecation")
+	protected void processFormula(FormulaRecord record, int index, int styleIndex) {
+
+		CellType resultType = CellType.forInt(record.getCachedResultType());
+
+		if (resultType == CellType.NUMERIC) {
+			setNumber(index, styleIndex, record.getValue());
+		} else if (resultType == CellType.STRING) {
+			rowData.setText(index, Poi2ccConstants.EMPTY_STRING);
+
+			if (record.hasCachedResultString() == true) {
+				stringIndex = index;
+			}
+		} else if (resultType == CellType.BOOLEAN) {
+			rowData.setBoolean(index, record.getCachedBooleanValue());
+		} else if (resultType == CellType.ERROR) {
+			rowData.setError(index, (byte) record.getCachedErrorValue());
+		}
+
+		formulaIndex = index;
+		formulaRecord = record;
+
+		resolveFormula();
+	}
+
+	/**
+	 * 式の文字列を生成して行情報に格納します。
+	 * <p>
+	 * 共有式・配列式の場合、基準セルのレコードは式のレコードの直後に出現するため、
+	 * 見つからない場合は後続のレコードを待ちます。
+	 * </p>
+	 */
+	protected void resolveFormula() {
+
+		if (formulaRecord == null) {
+			return;
+		}
+
+		Ptg[] ptgArray = formulaRecord.getParsedExpression();
+		CellReference reference = formulaRecord.getFormula().getExpReference();
+
+		if (reference != null) {
+			CellAddress address = new CellAddress(reference.getRow(), reference.getCol());
+			SharedFormulaRecord sharedFormula = sharedFormulaMap.get(address);
+			ArrayRecord arrayFormula = arrayFormulaMap.get(address);
+
+			if (sharedFormula != null) {
+				ptgArray = sharedFormula.getFormulaTokens(formulaRecord);
+			} else if (arrayFormula != null) {
+				ptgArray = arrayFormula.getFormulaTokens();
+			} else {
+				return;
+			}
+		}
+
+		rowData.setFormula(formulaIndex, source.getFormula(ptgArray));
+
+		formulaIndex = -1;
+		formulaRecord = null;
+	}
+
+	/**
+	 * 数値を行情報に格納します。日付書式の場合は日時として格納します。
+	 *
+	 * @param index セルのインデックス
+	 * @param styleIndex スタイル番号
+	 * @param value 数値
+	 */
+	protected void setNumber(int index, int styleIndex, double value) {
+
+		if (DateUtil.isValidExcelDate(value) == true && source.isDateFormat(styleIndex) == true) {
+			rowData.setDate(index, value);
+		} else {
+			rowData.setNumber(index, value);
+		}
+	}
+
+	/**
+	 * 処理中の行を通知します。
+	 */
+	protected void flushRow() {
+
+		if (rowNumber < 0) {
+			return;
+		}
+
+		rowHandler.handleRow(rowData);
+		rowNumber = -1;
+		finished = rowHandler.isFinished();
+	}
+
+	/**
+	 * 指定した行より前の、セルのない行を空の行として通知します。
+	 *
+	 * @param endRowNumber 通知を終了する行番号(この行は含まない)
+	 */
+	protected void flushEmptyRow(int endRowNumber) {
+
+		while (finished == false && rowHeightMap.isEmpty() == false && rowHeightMap.firstKey() < endRowNumber) {
+			Map.Entry<Integer, Integer> entry = rowHeightMap.pollFirstEntry();
+
+			rowData.clear(entry.getKey(), entry.getValue());
+			rowHandler.handleRow(rowData);
+			finished = rowHandler.isFinished();
+		}
+	}
+
+	/**
+	 * 行のレコードから行の高さを取得します。
+	 *
+	 * @param record 行のレコード
+	 * @return 行の高さ
+	 */
+	protected int getRowHeight(RowRecord record) {
+
+		int height = record.getHeight();
+
+		if ((height & DEFAULT_HEIGHT_BIT) != 0) {
+			return defaultRowHeight;
+		}
+
+		return height & HEIGHT_MASK;
+	}
+
+	/**
+	 * シート単位の情報のレコードを保持します。
+	 *
+	 * @param record レコード
+	 */
+	protected void processSheetInformation(Record record) {
+
+		switch (record.getSid()) {
+		case DefaultColWidthRecord.sid:
+			defaultColumnWidth = ((DefaultColWidthRecord) record).getColWidth();
+			break;
+		case ColumnInfoRecord.sid:
+			columnInfoList.add((ColumnInfoRecord) record);
+			break;
+		case MergeCellsRecord.sid:
+			MergeCellsRecord mergeCells = (MergeCellsRecord) record;
+
+			for (int i = 0; i < mergeCells.getNumAreas(); i++) {
+				mergedRegionList.add(mergeCells.getAreaAt(i));
+			}
+			break;
+		default:
+			if (options.isValuesOnly() == false) {
+				processSheetStyle(record);
+			}
+		}
+	}
+
+	/**
+	 * シートのスタイル・印刷設定・コメントのレコードを保持します。
+	 *
+	 * @param record レコード
+	 */
+	protected void processSheetStyle(Record record) {
+
+		switch (record.getSid()) {
+		case WindowTwoRecord.sid:
+		case WSBoolRecord.sid:
+		case HCenterRecord.sid:
+		case VCenterRecord.sid:
+		case PrintGridlinesRecord.sid:
+		case LeftMarginRecord.sid:
+		case RightMarginRecord.sid:
+		case TopMarginRecord.sid:
+		case BottomMarginRecord.sid:
+		case HeaderRecord.sid:
+		case FooterRecord.sid:
+		case PrintSetupRecord.sid:
+		case HorizontalPageBreakRecord.sid:
+		case VerticalPageBreakRecord.sid:
+			sheetRecordMap.putIfAbsent(record.getSid(), record);
+			break;
+		case ObjRecord.sid:
+			commentObjectId = -1;
+
+			for (SubRecord subRecord : ((ObjRecord) record).getSubRecords()) {
+				if (subRecord instanceof CommonObjectDataSubRecord == true) {
+					CommonObjectDataSubRecord objectData = (CommonObjectDataSubRecord) subRecord;
+
+					if (objectData.getObjectType() == CommonObjectDataSubRecord.OBJECT_TYPE_COMMENT) {
+						commentObjectId = objectData.getObjectId();
+					}
+				}
+			}
+			break;
+		case TextObjectRecord.sid:
+			if (commentObjectId >= 0) {
+				TextObjectRecord textObject = (TextObjectRecord) record;
+
+				if (textObject.getStr() != null) {
+					commentTextMap.put(commentObjectId, textObject.getStr().getString());
+				}
+
+				commentObjectId = -1;
+			}
+			break;
+		case NoteRecord.sid:
+			noteList.add((NoteRecord) record);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * 保持したシート単位の情報をシートに反映します。
+	 * <p>
+	 * 列幅はシートの最大列数までの各列に設定します。結合セルの反映後、空のセルを補完します。
+	 * </p>
+	 */
+	protected void finishSheet() {
+
+		sheet.setDefaultColumnSize(defaultColumnWidth * ExcelReader.COLUMN_CORRECTING_VALUE);
+		sheet.setDefaultRowSize(defaultRowHeight);
+
+		if (options.isValuesOnly() == false) {
+			loadSheetStyle(sheet.getStyle());
+			loadComment();
+		}
+
+		int maxColumn = sheet.getMaxColumn();
+
+		for (int i = 0; i < maxColumn; i++) {
+			sheet.getColumnSizeMap().put(i, getColumnWidth(i));
+		}
+
+		for (CellRangeAddress range : mergedRegionList) {
+			reader.loadMergedCell(sheet, range);
+		}
+
+		reader.fillBlankCell(sheet);
+	}
+
+	/**
+	 * 列幅(1/256文字単位)を取得します。
+	 *
+	 * @param column 列番号
+	 * @return 列幅
+	 */
+	protected int getColumnWidth(int column) {
+
+		for (ColumnInfoRecord columnInfo : columnInfoList) {
+			if (columnInfo.containsColumn(column) == true) {
+				return columnInfo.getColumnWidth();
+			}
+		}
+
+		return defaultColumnWidth * ExcelReader.COLUMN_CORRECTING_VALUE;
+	}
+
+	/**
+	 * 保持したレコードからシートのスタイル・印刷設定を設定します。
+	 *
+	 * @param style シートのスタイル
+	 */
+	protected void loadSheetStyle(SheetStyle style) {
+
+		WindowTwoRecord windowTwo = (WindowTwoRecord) sheetRecordMap.get(WindowTwoRecord.sid);
+
+		if (windowTwo != null) {
+			style.setDisplayGridLine(windowTwo.getDisplayGridlines());
+			style.setDisplayZeros(windowTwo.getDisplayZeros());
+		}
+
+		style.setMarginTop(getMargin(TopMarginRecord.sid, 1.0));
+		style.setMarginBottom(getMargin(BottomMarginRecord.sid, 1.0));
+		style.setMarginLeft(getMargin(LeftMarginRecord.sid, 0.75));
+		style.setMarginRight(getMargin(RightMarginRecord.sid, 0.75));
+
+		WSBoolRecord wsBool = (WSBoolRecord) sheetRecordMap.get(WSBoolRecord.sid);
+
+		if (wsBool != null) {
+			style.setAutoBreaks(wsBool.getAutobreaks());
+			style.setDisplayGuts(wsBool.getDisplayGuts());
+			style.setFitToPage(wsBool.getFitToPage());
+		}
+
+		HCenterRecord hCenter = (HCenterRecord) sheetRecordMap.get(HCenterRecord.sid);
+		VCenterRecord vCenter = (VCenterRecord) sheetRecordMap.get(VCenterRecord.sid);
+		PrintGridlinesRecord printGridlines = (PrintGridlinesRecord) sheetRecordMap.get(PrintGridlinesRecord.sid);
+
+		style.setHorizontallyCenter(hCenter != null && hCenter.getHCenter() == true);
+		style.setVerticallyCenter(vCenter != null && vCenter.getVCenter() == true);
+		style.setPrintGridlines(printGridlines != null && printGridlines.getPrintGridlines() == true);
+
+		reader.loadHeader(style, createHeaderFooter((HeaderFooterBase) sheetRecordMap.get(HeaderRecord.sid)));
+		reader.loadFooter(style, createHeaderFooter((HeaderFooterBase) sheetRecordMap.get(FooterRecord.sid)));
+		reader.loadPrintSetup(style, createPrintSetup((PrintSetupRecord) sheetRecordMap.get(PrintSetupRecord.sid)));
+
+		HorizontalPageBreakRecord rowBreak = (HorizontalPageBreakRecord) sheetRecordMap.get(HorizontalPageBreakRecord.sid);
+
+		if (rowBreak != null) {
+			for (int value : rowBreak.getBreaks()) {
+				style.getRowBreakList().add(value);
+			}
+		}
+
+		VerticalPageBreakRecord columnBreak = (VerticalPageBreakRecord) sheetRecordMap.get(VerticalPageBreakRecord.sid);
+
+		if (columnBreak != null) {
+			for (int value : columnBreak.getBreaks()) {
+				style.getColumnBreakList().add(value);
+			}
+		}
+	}
+
+	/**
+	 * 余白を取得します。
+	 *
+	 * @param sid 余白のレコード種別
+	 * @param defaultValue レコードがない場合の余白
+	 * @return 余白
+	 */
+	protected double getMargin(short sid, double defaultValue) {
+
+		Record record = sheetRecordMap.get(sid);
+
+		if (record instanceof LeftMarginRecord == true) {
+			return ((LeftMarginRecord) record).getMargin();
+		} else if (record instanceof RightMarginRecord == true) {
+			return ((RightMarginRecord) record).getMargin();
+		} else if (record instanceof TopMarginRecord == true) {
+			return ((TopMarginRecord) record).getMargin();
+		} else if (record instanceof BottomMarginRecord == true) {
+			return ((BottomMarginRecord) record).getMargin();
+		}
+
+		return defaultValue;
+	}
+
+	/**
+	 * ヘッダー・フッターのレコードから左・中央・右の文字列を解析するヘッダー・フッターを生成します。
+	 *
+	 * @param record ヘッダー・フッターのレコード(レコードがない場合はnull)
+	 * @return ヘッダー・フッター
+	 */
+	protected HeaderFooter createHeaderFooter(HeaderFooterBase record) {
+
+		final String text = record != null ? record.getText() : Poi2ccConstants.EMPTY_STRING;
+
+		return new HeaderFooter() {
+
+			@Override
+			protected String getRawText() {
+
+				return text;
+			}
+
+			@Override
+			protected void setHeaderFooterText(String text) {
+
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * 印刷設定のレコードから印刷設定を生成します。
+	 * <p>
+	 * レコードがない場合はApache POIでシートを生成した場合と同じ既定値とします。
+	 * </p>
+	 *
+	 * @param record 印刷設定のレコード(レコードがない場合はnull)
+	 * @return 印刷設定
+	 */
+	protected HSSFPrintSetup createPrintSetup(PrintSetupRecord record) {
+
+		if (record == null) {
+			record = new PrintSetupRecord();
+			record.setPaperSize((short) 1);
+			record.setScale((short) 100);
+			record.setPageStart((short) 1);
+			record.setFitWidth((short) 1);
+			record.setFitHeight((short) 1);
+			record.setOptions((short) 2);
+			record.setHResolution((short) 300);
+			record.setVResolution((short) 300);
+			record.setHeaderMargin(0.5);
+			record.setFooterMargin(0.5);
+			record.setCopies((short) 1);
+		}
+
+		return new HSSFPrintSetup(record) {
+		};
+	}
+
+	/**
+	 * 保持したコメントのレコードから、ファイルに存在するセルにコメントを設定します。
+	 */
+	protected void loadComment() {
+
+		for (NoteRecord note : noteList) {
+			String text = commentTextMap.get(note.getShapeId());
+
+			if (text == null) {
+				continue;
+			}
+
+			Cell cell = sheet.getActualCell(new Address(note.getColumn(), note.getRow()));
+
+			if (cell != null) {
+				cell.setComment(text);
+			}
+		}
+	}
+}
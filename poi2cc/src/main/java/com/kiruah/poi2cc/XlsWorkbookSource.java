@@ -0,0 +1,165 @@
+package com.kiruah.poi2cc;
+
+import java.util.List;
+
+import org.apache.poi.hssf.model.HSSFFormulaParser;
+import org.apache.poi.hssf.model.InternalWorkbook;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.apache.poi.ss.usermodel.Font;
+
+/**
+ * xls形式のブックをストリーミングでロードする際の共有情報を保持します。
+ * <p>
+ * ブック全体の情報(共有文字列テーブル、フォント、書式、スタイル、シートの一覧)のレコードのみから
+ * Apache POIのブックを生成し、シートのレコードの解析から参照されます。
+ * シートのレコードはブックに読み込まないため、シートの行数に関わらずメモリ使用量は一定です。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsWorkbookSource implements CellStyleSource {
+
+	/** 日付書式判定 未判定 */
+	protected static final byte DATE_FORMAT_UNKNOWN = 0;
+
+	/** 日付書式判定 日付書式 */
+	protected static final byte DATE_FORMAT_DATE = 1;
+
+	/** 日付書式判定 日付以外の書式 */
+	protected static final byte DATE_FORMAT_OTHER = 2;
+
+	/** ブック全体の情報のみを読み込んだブック */
+	protected HSSFWorkbook workbook = null;
+
+	/** スタイル番号ごとのスタイルキャッシュ */
+	protected HSSFCellStyle[] styleArray = null;
+
+	/** スタイル番号ごとの日付書式判定キャッシュ */
+	protected byte[] dateFormatArray = null;
+
+	/**
+	 * ブック全体の情報のレコードからブックの共有情報を生成します。
+	 *
+	 * @param recordList 先頭のBOFからEOFまでのレコードのリスト
+	 */
+	public XlsWorkbookSource(List<Record> recordList) {
+
+		workbook = HSSFWorkbook.create(InternalWorkbook.createWorkbook(recordList));
+		styleArray = new HSSFCellStyle[workbook.getNumCellStyles()];
+		dateFormatArray = new byte[styleArray.length];
+	}
+
+	/**
+	 * シート数を取得します。
+	 *
+	 * @return シート数
+	 */
+	public int getSheetCount() {
+
+		return workbook.getInternalWorkbook().getNumSheets();
+	}
+
+	/**
+	 * シート名を取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シート名
+	 */
+	public String getSheetName(int sheetIndex) {
+
+		return workbook.getInternalWorkbook().getSheetName(sheetIndex);
+	}
+
+	/**
+	 * 共有文字列を取得します。
+	 *
+	 * @param index 共有文字列番号
+	 * @return 共有文字列
+	 */
+	public String getSharedString(int index) {
+
+		return workbook.getInternalWorkbook().getSSTString(index).getString();
+	}
+
+	/**
+	 * 数式の解析結果から数式の文字列を生成します。
+	 *
+	 * @param ptgArray 数式の解析結果
+	 * @return 数式の文字列
+	 */
+	public String getFormula(Ptg[] ptgArray) {
+
+		return HSSFFormulaParser.toFormulaString(workbook, ptgArray);
+	}
+
+	@Override
+	public HSSFCellStyle getCellStyle(int styleIndex) {
+
+		if (styleArray.length == 0) {
+			return null;
+		}
+		if (styleIndex < 0 || styleArray.length <= styleIndex) {
+			styleIndex = 0;
+		}
+
+		HSSFCellStyle style = styleArray[styleIndex];
+
+		if (style == null) {
+			style = workbook.getCellStyleAt(styleIndex);
+			styleArray[styleIndex] = style;
+		}
+
+		return style;
+	}
+
+	@Override
+	public Font getFont(CellStyle style) {
+
+		return ((HSSFCellStyle) style).getFont(workbook);
+	}
+
+	/**
+	 * スタイル番号に対応する書式が日付書式かどうかを判定します。
+	 *
+	 * @param styleIndex スタイル番号
+	 * @return 日付書式の場合はtrue
+	 */
+	public boolean isDateFormat(int styleIndex) {
+
+		HSSFCellStyle style = getCellStyle(styleIndex);
+
+		if (style == null) {
+			return false;
+		}
+
+		int index = style.getIndex();
+
+		if (dateFormatArray[index] == DATE_FORMAT_UNKNOWN) {
+			ExcelNumberFormat format = ExcelNumberFormat.from(style);
+
+			if (format != null && DateUtil.isADateFormat(format) == true) {
+				dateFormatArray[index] = DATE_FORMAT_DATE;
+			} else {
+				dateFormatArray[index] = DATE_FORMAT_OTHER;
+			}
+		}
+
+		return dateFormatArray[index] == DATE_FORMAT_DATE;
+	}
+
+	/**
+	 * 1904年を基準とした日付かどうかを取得します。
+	 *
+	 * @return 1904年を基準とした日付かどうか
+	 */
+	public boolean isDate1904() {
+
+		return workbook.getInternalWorkbook().isUsing1904DateWindowing();
+	}
+}
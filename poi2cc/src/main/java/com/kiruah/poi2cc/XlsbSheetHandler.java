@@ -0,0 +1,733 @@
+package com.kiruah.poi2cc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.util.StringUtil;
+import org.apache.poi.xssf.binary.XSSFBParseException;
+import org.apache.poi.xssf.binary.XSSFBParser;
+
+import com.kiruah.poi2cc.storage.Sheet;
+import com.kiruah.poi2cc.storage.sub.SheetStyle;
+import com.zaxxer.sparsebits.SparseBitSet;
+
+/**
+ * xlsb形式のシートのレコードを先頭から順に解析し、行ごとのセル値を{@link RowHandler}へ通知します。
+ * <p>
+ * {@link XlsxSheetHandler}と同じ行情報・シート単位の情報を格納するため、xlsx形式をロードした場合と同じシートになります。
+ * シート単位の情報を格納しない場合、行・セルのレコード以外はデータを読み込まずに読み飛ばします。
+ * </p>
+ * <p>
+ * 式はApache POIで解釈できないバイナリ形式で格納されているため、式の計算結果の値のみを読み込みます。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsbSheetHandler extends XSSFBParser {
+
+	/** セルのレコードの値の開始位置(列番号・スタイル番号の後) */
+	protected static final int CELL_VALUE_OFFSET = 8;
+
+	/** 文字列がnullであることを示す文字数 */
+	protected static final long NULL_STRING_LENGTH = 0xFFFFFFFFL;
+
+	/** 行の高さが指定されていることを示すフラグ(BrtRowHdrの12バイト目のfUnsynced) */
+	protected static final int ROW_CUSTOM_HEIGHT = 0x20;
+
+	/** レコード種別 BrtRowHdr */
+	protected static final int BRT_ROW_HDR = 0;
+
+	/** レコード種別 BrtCellBlank */
+	protected static final int BRT_CELL_BLANK = 1;
+
+	/** レコード種別 BrtCellRk */
+	protected static final int BRT_CELL_RK = 2;
+
+	/** レコード種別 BrtCellError */
+	protected static final int BRT_CELL_ERROR = 3;
+
+	/** レコード種別 BrtCellBool */
+	protected static final int BRT_CELL_BOOL = 4;
+
+	/** レコード種別 BrtCellReal */
+	protected static final int BRT_CELL_REAL = 5;
+
+	/** レコード種別 BrtCellSt */
+	protected static final int BRT_CELL_ST = 6;
+
+	/** レコード種別 BrtCellIsst */
+	protected static final int BRT_CELL_ISST = 7;
+
+	/** レコード種別 BrtFmlaString */
+	protected static final int BRT_FMLA_STRING = 8;
+
+	/** レコード種別 BrtFmlaNum */
+	protected static final int BRT_FMLA_NUM = 9;
+
+	/** レコード種別 BrtFmlaBool */
+	protected static final int BRT_FMLA_BOOL = 10;
+
+	/** レコード種別 BrtFmlaError */
+	protected static final int BRT_FMLA_ERROR = 11;
+
+	/** レコード種別 BrtColInfo */
+	protected static final int BRT_COL_INFO = 60;
+
+	/** レコード種別 BrtCellRString */
+	protected static final int BRT_CELL_RSTRING = 62;
+
+	/** レコード種別 BrtBeginWsView */
+	protected static final int BRT_BEGIN_WS_VIEW = 137;
+
+	/** レコード種別 BrtEndSheetData */
+	protected static final int BRT_END_SHEET_DATA = 146;
+
+	/** レコード種別 BrtWsProp */
+	protected static final int BRT_WS_PROP = 147;
+
+	/** レコード種別 BrtMergeCell */
+	protected static final int BRT_MERGE_CELL = 176;
+
+	/** レコード種別 BrtBeginRwBrk */
+	protected static final int BRT_BEGIN_RW_BRK = 392;
+
+	/** レコード種別 BrtEndRwBrk */
+	protected static final int BRT_END_RW_BRK = 393;
+
+	/** レコード種別 BrtBeginColBrk */
+	protected static final int BRT_BEGIN_COL_BRK = 394;
+
+	/** レコード種別 BrtEndColBrk */
+	protected static final int BRT_END_COL_BRK = 395;
+
+	/** レコード種別 BrtBrk */
+	protected static final int BRT_BRK = 396;
+
+	/** レコード種別 BrtMargins */
+	protected static final int BRT_MARGINS = 476;
+
+	/** レコード種別 BrtPrintOptions */
+	protected static final int BRT_PRINT_OPTIONS = 477;
+
+	/** レコード種別 BrtPageSetup */
+	protected static final int BRT_PAGE_SETUP = 478;
+
+	/** レコード種別 BrtBeginHeaderFooter */
+	protected static final int BRT_BEGIN_HEADER_FOOTER = 479;
+
+	/** レコード種別 BrtWsFmtInfo */
+	protected static final int BRT_WS_FMT_INFO = 485;
+
+	/** 行・セルのみを解析する場合に読み込むレコード */
+	protected static final SparseBitSet CELL_RECORDS = new SparseBitSet();
+
+	/** シート単位の情報も格納する場合に読み込むレコード */
+	protected static final SparseBitSet SHEET_RECORDS = new SparseBitSet();
+
+	static {
+		CELL_RECORDS.set(BRT_ROW_HDR, BRT_FMLA_ERROR + 1);
+		CELL_RECORDS.set(BRT_CELL_RSTRING);
+		CELL_RECORDS.set(BRT_END_SHEET_DATA);
+
+		SHEET_RECORDS.or(CELL_RECORDS);
+		SHEET_RECORDS.set(BRT_COL_INFO);
+		SHEET_RECORDS.set(BRT_BEGIN_WS_VIEW);
+		SHEET_RECORDS.set(BRT_WS_PROP);
+		SHEET_RECORDS.set(BRT_MERGE_CELL);
+		SHEET_RECORDS.set(BRT_BEGIN_RW_BRK, BRT_END_COL_BRK + 1);
+		SHEET_RECORDS.set(BRT_BRK);
+		SHEET_RECORDS.set(BRT_MARGINS, BRT_BEGIN_HEADER_FOOTER + 1);
+		SHEET_RECORDS.set(BRT_WS_FMT_INFO);
+	}
+
+	/** ブックの共有情報 */
+	protected XlsbWorkbookSource source = null;
+
+	/** シート単位の情報の格納先(格納しない場合はnull) */
+	protected Sheet sheet = null;
+
+	/** 行の通知先 */
+	protected RowHandler rowHandler = null;
+
+	/** ロード時のオプション */
+	protected LoadOptions options = null;
+
+	/** 行情報(行ごとに再利用します) */
+	protected RowData rowData = new RowData();
+
+	/** 現在処理中の行番号 */
+	protected int rowNumber = -1;
+
+	/** 行を処理中かどうか */
+	protected boolean row = false;
+
+	/** 現在処理中の行を読み飛ばすかどうか */
+	protected boolean skipRow = false;
+
+	/** 列幅の定義(列番号 - 幅(1/256文字単位)) */
+	protected Map<Integer, Integer> columnWidthMap = new HashMap<Integer, Integer>();
+
+	/** 基本列幅 */
+	protected int baseColumnWidth = 8;
+
+	/** デフォルト行高さ(twips) */
+	protected int defaultRowHeight = 0;
+
+	/** 結合セル範囲 */
+	protected List<CellRangeAddress> mergedRegionList = new ArrayList<CellRangeAddress>();
+
+	/** 改ページを処理中のレコード種別 */
+	protected int breakRecord = -1;
+
+	/** ページ設定を読み込んだかどうか */
+	protected boolean pageSetup = false;
+
+	/** ロードする範囲の最終行を過ぎたか、行の通知先の指定により解析を打ち切ったかどうか */
+	protected boolean finished = false;
+
+	/**
+	 * シートのレコード解析ハンドラのコンストラクタ
+	 *
+	 * @param in シートのレコードを読み取る入力ストリーム
+	 * @param source ブックの共有情報
+	 * @param sheet シート単位の情報の格納先(格納しない場合はnull)
+	 * @param rowHandler 行の通知先
+	 */
+	public XlsbSheetHandler(InputStream in, XlsbWorkbookSource source, Sheet sheet, RowHandler rowHandler) {
+
+		this(in, source, sheet, rowHandler, LoadOptions.defaults());
+	}
+
+	/**
+	 * シートのレコード解析ハンドラのコンストラクタ
+	 *
+	 * @param in シートのレコードを読み取る入力ストリーム
+	 * @param source ブックの共有情報
+	 * @param sheet シート単位の情報の格納先(格納しない場合はnull)
+	 * @param rowHandler 行の通知先
+	 * @param options ロード時のオプション
+	 */
+	public XlsbSheetHandler(InputStream in, XlsbWorkbookSource source, Sheet sheet, RowHandler rowHandler, LoadOptions options) {
+
+		super(in, sheet == null ? CELL_RECORDS : SHEET_RECORDS);
+
+		this.source = source;
+		this.sheet = sheet;
+		this.rowHandler = rowHandler;
+		this.options = options;
+
+		rowData.setDate1904(source.isDate1904());
+
+		if (sheet != null && options.isValuesOnly() == false) {
+			SheetStyle style = sheet.getStyle();
+
+			style.setDisplayGridLine(true);
+			style.setDisplayZeros(true);
+			style.setAutoBreaks(true);
+			style.setDisplayGuts(true);
+		}
+	}
+
+	/**
+	 * シートのレコードを解析します。
+	 * <p>
+	 * ロードする範囲の最終行を過ぎた場合、または行の通知先が走査の打ち切りを指定した場合は
+	 * {@link XSSFBParseException}をスローして解析を打ち切り、{@link #isFinished()}がtrueを返します。
+	 * </p>
+	 *
+	 * @throws IOException IO例外
+	 */
+	@Override
+	public void parse() throws IOException {
+
+		super.parse();
+
+		endRow();
+
+		if (sheet != null && options.isValuesOnly() == false && pageSetup == false) {
+			loadPageSetup(null);
+		}
+	}
+
+	@Override
+	public void handleRecord(int recordType, byte[] data) throws XSSFBParseException {
+
+		switch (recordType) {
+		case BRT_ROW_HDR:
+			endRow();
+			startRow(data);
+			break;
+		case BRT_CELL_BLANK:
+		case BRT_CELL_RK:
+		case BRT_CELL_ERROR:
+		case BRT_CELL_BOOL:
+		case BRT_CELL_REAL:
+		case BRT_CELL_ST:
+		case BRT_CELL_ISST:
+		case BRT_FMLA_STRING:
+		case BRT_FMLA_NUM:
+		case BRT_FMLA_BOOL:
+		case BRT_FMLA_ERROR:
+		case BRT_CELL_RSTRING:
+			handleCell(recordType, data);
+			break;
+		case BRT_END_SHEET_DATA:
+			endRow();
+			break;
+		default:
+			handleSheetRecord(recordType, data);
+			break;
+		}
+	}
+
+	/**
+	 * シート単位の情報のレコードを処理します。
+	 *
+	 * @param recordType レコード種別
+	 * @param data レコードのデータ
+	 */
+	protected void handleSheetRecord(int recordType, byte[] data) {
+
+		if (sheet == null) {
+			return;
+		}
+
+		if (recordType == BRT_COL_INFO) {
+			loadColumn(data);
+		} else if (recordType == BRT_MERGE_CELL) {
+			mergedRegionList.add(new CellRangeAddress(LittleEndian.getInt(data, 0), LittleEndian.getInt(data, 4), LittleEndian.getInt(data, 8), LittleEndian.getInt(data, 12)));
+		} else if (recordType == BRT_WS_FMT_INFO) {
+			baseColumnWidth = LittleEndian.getUShort(data, 4);
+			defaultRowHeight = LittleEndian.getUShort(data, 6);
+		} else if (options.isValuesOnly() == true) {
+			return;
+		} else if (recordType == BRT_BEGIN_WS_VIEW) {
+			int flags = LittleEndian.getUShort(data, 0);
+
+			sheet.getStyle().setDisplayGridLine((flags & 0x04) != 0);
+			sheet.getStyle().setDisplayZeros((flags & 0x10) != 0);
+		} else if (recordType == BRT_WS_PROP) {
+			int flags = LittleEndian.getUShort(data, 0);
+
+			sheet.getStyle().setAutoBreaks((flags & 0x01) != 0);
+			sheet.getStyle().setFitToPage((flags & 0x100) != 0);
+			sheet.getStyle().setDisplayGuts((flags & 0x400) != 0);
+		} else if (recordType == BRT_PRINT_OPTIONS) {
+			int flags = LittleEndian.getUShort(data, 0);
+
+			sheet.getStyle().setHorizontallyCenter((flags & 0x01) != 0);
+			sheet.getStyle().setVerticallyCenter((flags & 0x02) != 0);
+			sheet.getStyle().setPrintGridlines((flags & 0x08) != 0);
+		} else if (recordType == BRT_MARGINS) {
+			loadPageMargins(data);
+		} else if (recordType == BRT_PAGE_SETUP) {
+			loadPageSetup(data);
+		} else if (recordType == BRT_BEGIN_HEADER_FOOTER) {
+			loadHeaderFooter(data);
+		} else if (recordType == BRT_BEGIN_RW_BRK || recordType == BRT_BEGIN_COL_BRK) {
+			breakRecord = recordType;
+		} else if (recordType == BRT_END_RW_BRK || recordType == BRT_END_COL_BRK) {
+			breakRecord = -1;
+		} else if (recordType == BRT_BRK) {
+			loadBreak(data);
+		}
+	}
+
+	/**
+	 * 行の開始(BrtRowHdr)を処理します。
+	 * <p>
+	 * シート単位の情報を格納しない場合、ロードする範囲の最終行を過ぎた時点で解析を打ち切ります。
+	 * 高さが指定されていない行はxlsx形式と同じくシートのデフォルトの高さとします。
+	 * </p>
+	 *
+	 * @param data レコードのデータ
+	 * @throws XSSFBParseException 解析を打ち切る場合
+	 */
+	protected void startRow(byte[] data) throws XSSFBParseException {
+
+		rowNumber = LittleEndian.getInt(data, 0);
+
+		if (sheet == null && options.getRange() != null && rowNumber > options.getRange().getLastRow()) {
+			finished = true;
+			throw new XSSFBParseException("lastRow");
+		}
+
+		row = true;
+		skipRow = options.containsRow(rowNumber) == false;
+
+		int height = (data[11] & ROW_CUSTOM_HEIGHT) != 0 ? LittleEndian.getUShort(data, 8) : defaultRowHeight;
+
+		rowData.clear(rowNumber, height);
+	}
+
+	/**
+	 * 行の終了を処理し、行情報を通知します。
+	 * <p>
+	 * xlsb形式には行の終了を示すレコードがないため、次の行の開始時とシートデータの終了時に呼び出します。
+	 * ロードする範囲外の行は通知しません。
+	 * 通知先が走査の打ち切りを指定した場合は解析を打ち切ります。
+	 * </p>
+	 *
+	 * @throws XSSFBParseException 解析を打ち切る場合
+	 */
+	protected void endRow() throws XSSFBParseException {
+
+		if (row == false) {
+			return;
+		}
+
+		row = false;
+
+		if (skipRow == true) {
+			return;
+		}
+
+		rowHandler.handleRow(rowData);
+
+		if (rowHandler.isFinished() == true) {
+			finished = true;
+			throw new XSSFBParseException("finished");
+		}
+	}
+
+	/**
+	 * セルのレコードを処理し、セル値を行情報に追加します。
+	 * <p>
+	 * 値を解釈できないセルは空のセルとして追加します。
+	 * ロードする列・範囲外のセルは追加しません。
+	 * </p>
+	 *
+	 * @param recordType レコード種別
+	 * @param data レコードのデータ
+	 */
+	protected void handleCell(int recordType, byte[] data) {
+
+		int columnNumber = LittleEndian.getInt(data, 0);
+
+		if (row == false || skipRow == true || options.containsCell(columnNumber, rowNumber) == false) {
+			return;
+		}
+
+		int styleIndex = (data[4] & 0xFF) | (data[5] & 0xFF) << 8 | (data[6] & 0xFF) << 16;
+		int index = rowData.addCell(columnNumber, styleIndex);
+
+		try {
+			setCellValue(recordType, data, index, styleIndex);
+		} catch (Exception e) {
+			rowData.cellCount = index;
+			rowData.addCell(columnNumber, styleIndex);
+		}
+	}
+
+	/**
+	 * セルのレコードの値を行情報に設定します。
+	 *
+	 * @param recordType レコード種別
+	 * @param data レコードのデータ
+	 * @param index セルのインデックス
+	 * @param styleIndex スタイル番号
+	 */
+	protected void setCellValue(int recordType, byte[] data, int index, int styleIndex) {
+
+		switch (recordType) {
+		case BRT_CELL_RK:
+			setNumber(index, styleIndex, getRkNumber(LittleEndian.getInt(data, CELL_VALUE_OFFSET)));
+			break;
+		case BRT_CELL_REAL:
+		case BRT_FMLA_NUM:
+			setNumber(index, styleIndex, LittleEndian.getDouble(data, CELL_VALUE_OFFSET));
+			break;
+		case BRT_CELL_ISST:
+			rowData.setText(index, source.getSharedString((int) LittleEndian.getUInt(data, CELL_VALUE_OFFSET)));
+			break;
+		case BRT_CELL_ST:
+		case BRT_FMLA_STRING:
+			rowData.setText(index, XlsbWorkbookSource.readString(data, CELL_VALUE_OFFSET));
+			break;
+		case BRT_CELL_RSTRING:
+			rowData.setText(index, XlsbWorkbookSource.readString(data, CELL_VALUE_OFFSET + 1));
+			break;
+		case BRT_CELL_BOOL:
+		case BRT_FMLA_BOOL:
+			rowData.setBoolean(index, data[CELL_VALUE_OFFSET] != 0);
+			break;
+		case BRT_CELL_ERROR:
+		case BRT_FMLA_ERROR:
+			rowData.setError(index, data[CELL_VALUE_OFFSET]);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * 数値を行情報に設定します。
+	 * <p>
+	 * 日付書式のセルは日付として設定します。
+	 * </p>
+	 *
+	 * @param index セルのインデックス
+	 * @param styleIndex スタイル番号
+	 * @param number 数値
+	 */
+	protected void setNumber(int index, int styleIndex, double number) {
+
+		if (DateUtil.isValidExcelDate(number) == true && source.isDateFormat(styleIndex) == true) {
+			rowData.setDate(index, number);
+		} else {
+			rowData.setNumber(index, number);
+		}
+	}
+
+	/**
+	 * RK形式の数値を変換します。
+	 * <p>
+	 * 下位2ビットは100で割るかどうか・整数かどうかを示し、残りの30ビットが整数、または倍精度浮動小数点数の上位30ビットです。
+	 * </p>
+	 *
+	 * @param rk RK形式の数値
+	 * @return 数値
+	 */
+	protected static double getRkNumber(int rk) {
+
+		double number = 0.0;
+
+		if ((rk & 0x02) != 0) {
+			number = rk >> 2;
+		} else {
+			number = Double.longBitsToDouble(((long) (rk & 0xFFFFFFFC)) << 32);
+		}
+
+		if ((rk & 0x01) != 0) {
+			number /= 100;
+		}
+
+		return number;
+	}
+
+	/**
+	 * 列幅の定義(BrtColInfo)を読み込みます。
+	 *
+	 * @param data レコードのデータ
+	 */
+	protected void loadColumn(byte[] data) {
+
+		int first = LittleEndian.getInt(data, 0);
+		int last = LittleEndian.getInt(data, 4);
+		Integer width = LittleEndian.getInt(data, 8);
+
+		for (int i = first; i <= last && i < Sheet.MAX_COLUMN; i++) {
+			columnWidthMap.put(i, width);
+		}
+	}
+
+	/**
+	 * ページの余白(BrtMargins)を読み込みます。
+	 *
+	 * @param data レコードのデータ
+	 */
+	protected void loadPageMargins(byte[] data) {
+
+		SheetStyle style = sheet.getStyle();
+
+		style.setMarginLeft(LittleEndian.getDouble(data, 0));
+		style.setMarginRight(LittleEndian.getDouble(data, 8));
+		style.setMarginTop(LittleEndian.getDouble(data, 16));
+		style.setMarginBottom(LittleEndian.getDouble(data, 24));
+		style.setHeaderMargin(LittleEndian.getDouble(data, 32));
+		style.setFooterMargin(LittleEndian.getDouble(data, 40));
+	}
+
+	/**
+	 * 印刷設定(BrtPageSetup)を読み込みます。
+	 * <p>
+	 * レコードがない場合はxlsx形式のスキーマのデフォルト値を設定します。
+	 * </p>
+	 *
+	 * @param data レコードのデータ(印刷設定がない場合はnull)
+	 */
+	protected void loadPageSetup(byte[] data) {
+
+		SheetStyle style = sheet.getStyle();
+
+		if (data == null) {
+			style.setPaperSize(1);
+			style.setScale(100);
+			style.setPageStart(1);
+			style.setFitWidth(1);
+			style.setFitHeight(1);
+			style.setLeftToRight(false);
+			style.setLandscape(false);
+			style.setNoOrientation(true);
+			style.setValidSettings(true);
+			style.setNoColor(false);
+			style.setDraft(false);
+			style.setNotes(false);
+			style.setUsePage(false);
+			style.setHorizontallyResolution(600);
+			style.setVerticallyResolution(600);
+		} else {
+			int flags = LittleEndian.getUShort(data, 32);
+
+			style.setPaperSize(LittleEndian.getInt(data, 0));
+			style.setScale(LittleEndian.getInt(data, 4));
+			style.setHorizontallyResolution(LittleEndian.getInt(data, 8));
+			style.setVerticallyResolution(LittleEndian.getInt(data, 12));
+			style.setPageStart(LittleEndian.getInt(data, 20));
+			style.setFitWidth(LittleEndian.getInt(data, 24));
+			style.setFitHeight(LittleEndian.getInt(data, 28));
+			style.setLeftToRight((flags & 0x01) != 0);
+			style.setLandscape((flags & 0x02) != 0);
+			style.setNoColor((flags & 0x08) != 0);
+			style.setNoOrientation((flags & 0x10) != 0);
+			style.setValidSettings((flags & 0x20) != 0);
+			style.setDraft((flags & 0x40) != 0);
+			style.setNotes((flags & 0x80) != 0 && (flags & 0x100) == 0);
+			style.setUsePage((flags & 0x800) != 0);
+		}
+
+		pageSetup = true;
+	}
+
+	/**
+	 * ヘッダー・フッター(BrtBeginHeaderFooter)を読み込みます。
+	 * <p>
+	 * 奇数ページ(既定)のヘッダー・フッターのみを読み込みます。
+	 * </p>
+	 *
+	 * @param data レコードのデータ
+	 */
+	protected void loadHeaderFooter(byte[] data) {
+
+		SheetStyle style = sheet.getStyle();
+		String header = readNullableString(data, 2);
+		String footer = readNullableString(data, 2 + getNullableStringSize(header));
+
+		if (header != null) {
+			style.setHeaderLeft(XlsxSheetHandler.getSection(XlsxSheetHandler.HEADER_FOOTER_HELPER.getLeftSection(header)));
+			style.setHeaderCenter(XlsxSheetHandler.getSection(XlsxSheetHandler.HEADER_FOOTER_HELPER.getCenterSection(header)));
+			style.setHeaderRight(XlsxSheetHandler.getSection(XlsxSheetHandler.HEADER_FOOTER_HELPER.getRightSection(header)));
+		}
+		if (footer != null) {
+			style.setFooterLeft(XlsxSheetHandler.getSection(XlsxSheetHandler.HEADER_FOOTER_HELPER.getLeftSection(footer)));
+			style.setFooterCenter(XlsxSheetHandler.getSection(XlsxSheetHandler.HEADER_FOOTER_HELPER.getCenterSection(footer)));
+			style.setFooterRight(XlsxSheetHandler.getSection(XlsxSheetHandler.HEADER_FOOTER_HELPER.getRightSection(footer)));
+		}
+	}
+
+	/**
+	 * 改ページ(BrtBrk)を読み込みます。
+	 *
+	 * @param data レコードのデータ
+	 */
+	protected void loadBreak(byte[] data) {
+
+		int id = LittleEndian.getInt(data, 0) - 1;
+
+		if (breakRecord == BRT_BEGIN_RW_BRK) {
+			sheet.getStyle().getRowBreakList().add(id);
+		} else if (breakRecord == BRT_BEGIN_COL_BRK) {
+			sheet.getStyle().getColumnBreakList().add(id);
+		}
+	}
+
+	/**
+	 * レコードの指定位置のnullを許容する文字列(XLNullableWideString)を読み取ります。
+	 *
+	 * @param data レコードのデータ
+	 * @param offset 読み取り位置
+	 * @return 文字列(nullの場合はnull)
+	 */
+	protected static String readNullableString(byte[] data, int offset) {
+
+		long length = LittleEndian.getUInt(data, offset);
+
+		if (length == NULL_STRING_LENGTH) {
+			return null;
+		}
+
+		return StringUtil.getFromUnicodeLE(data, offset + 4, (int) length);
+	}
+
+	/**
+	 * nullを許容する文字列(XLNullableWideString)のレコード上のバイト数を取得します。
+	 *
+	 * @param value 文字列
+	 * @return バイト数(文字数の4バイトを含みます)
+	 */
+	protected static int getNullableStringSize(String value) {
+
+		if (value == null) {
+			return 4;
+		}
+
+		return 4 + value.length() * 2;
+	}
+
+	/**
+	 * 解析した列幅・行高さの既定値をシートに反映します。
+	 * <p>
+	 * レコードの解析の終了後、行情報からシートへセルを格納した後に呼び出します。
+	 * 列幅はシートの最大列数までの各列に設定します。
+	 * </p>
+	 */
+	public void finish() {
+
+		if (sheet == null) {
+			return;
+		}
+
+		sheet.setDefaultColumnSize(baseColumnWidth * ExcelReader.COLUMN_CORRECTING_VALUE);
+		sheet.setDefaultRowSize((short) defaultRowHeight);
+
+		int maxColumn = sheet.getMaxColumn();
+
+		for (int i = 0; i < maxColumn; i++) {
+			sheet.getColumnSizeMap().put(i, getColumnWidth(i));
+		}
+	}
+
+	/**
+	 * ロードする範囲の最終行を過ぎたか、行の通知先の指定により解析を打ち切ったかどうかを取得します。
+	 *
+	 * @return 解析を打ち切った場合はtrue
+	 */
+	public boolean isFinished() {
+
+		return finished;
+	}
+
+	/**
+	 * 結合セル範囲のリストを取得します。
+	 *
+	 * @return 結合セル範囲のリスト
+	 */
+	public List<CellRangeAddress> getMergedRegionList() {
+
+		return mergedRegionList;
+	}
+
+	/**
+	 * 列幅(1/256文字単位)を取得します。
+	 *
+	 * @param column 列番号
+	 * @return 列幅
+	 */
+	protected int getColumnWidth(int column) {
+
+		Integer width = columnWidthMap.get(column);
+
+		if (width == null) {
+			return baseColumnWidth * ExcelReader.COLUMN_CORRECTING_VALUE;
+		}
+
+		return width.intValue();
+	}
+}
@@ -0,0 +1,719 @@
+package com.kiruah.poi2cc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+import org.apache.poi.util.LittleEndian;
+import org.apache.poi.xssf.binary.XSSFBCommentsTable;
+import org.apache.poi.xssf.binary.XSSFBParseException;
+import org.apache.poi.xssf.binary.XSSFBParser;
+import org.apache.poi.xssf.binary.XSSFBSharedStringsTable;
+import org.apache.poi.xssf.binary.XSSFBUtils;
+import org.apache.poi.xssf.eventusermodel.XSSFBReader;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.model.ThemesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.SAXException;
+
+import com.zaxxer.sparsebits.SparseBitSet;
+
+/**
+ * xlsb形式のブックをストリーミングでロードする際の共有情報を保持します。
+ * <p>
+ * 共有文字列テーブル、スタイル、シートの一覧をブック単位で1度だけ読み込み、
+ * シートごとのレコード解析から参照されます。
+ * スタイル(styles.bin)はxlsx形式と同じApache POIのスタイルへ変換するため、
+ * xlsx形式をロードした場合と同じセルのスタイル・フォントになります。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsbWorkbookSource implements CellStyleSource, Closeable {
+
+	/** レコード種別 BrtFont */
+	protected static final int BRT_FONT = 43;
+
+	/** レコード種別 BrtFmt */
+	protected static final int BRT_FMT = 44;
+
+	/** レコード種別 BrtFill */
+	protected static final int BRT_FILL = 45;
+
+	/** レコード種別 BrtBorder */
+	protected static final int BRT_BORDER = 46;
+
+	/** レコード種別 BrtXf */
+	protected static final int BRT_XF = 47;
+
+	/** レコード種別 BrtWbProp */
+	protected static final int BRT_WB_PROP = 153;
+
+	/** レコード種別 BrtBeginCellXFs */
+	protected static final int BRT_BEGIN_CELL_XFS = 617;
+
+	/** レコード種別 BrtEndCellXFs */
+	protected static final int BRT_END_CELL_XFS = 618;
+
+	/** 色の種別 自動 */
+	protected static final int COLOR_AUTO = 0;
+
+	/** 色の種別 インデックス */
+	protected static final int COLOR_INDEXED = 1;
+
+	/** 色の種別 RGB */
+	protected static final int COLOR_RGB = 2;
+
+	/** 色の種別 テーマ */
+	protected static final int COLOR_THEME = 3;
+
+	/** xlsb形式のスタイルのコンテンツタイプ */
+	protected static final String STYLES_CONTENT_TYPE = "application/vnd.ms-excel.styles";
+
+	/** 日付書式判定 未判定 */
+	protected static final byte DATE_FORMAT_UNKNOWN = 0;
+
+	/** 日付書式判定 日付書式 */
+	protected static final byte DATE_FORMAT_DATE = 1;
+
+	/** 日付書式判定 日付以外の書式 */
+	protected static final byte DATE_FORMAT_OTHER = 2;
+
+	/** パッケージ */
+	protected OPCPackage pkg = null;
+
+	/** 共有文字列テーブル */
+	protected SharedStrings sharedStrings = null;
+
+	/** スタイルテーブル(styles.binから変換したスタイル) */
+	protected StylesTable styles = null;
+
+	/** 1904年を基準とした日付かどうか */
+	protected boolean date1904 = false;
+
+	/** シート名リスト(ブック内の順序) */
+	protected List<String> sheetNameList = new ArrayList<String>();
+
+	/** シートのパッケージパートリスト(ブック内の順序) */
+	protected List<PackagePart> sheetPartList = new ArrayList<PackagePart>();
+
+	/** スタイル番号ごとのスタイル */
+	protected List<XSSFCellStyle> styleList = new ArrayList<XSSFCellStyle>();
+
+	/** スタイル番号ごとの日付書式判定キャッシュ */
+	protected byte[] dateFormatArray = null;
+
+	/**
+	 * パッケージからブックの共有情報を読み込みます。
+	 *
+	 * @param pkg パッケージ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public XlsbWorkbookSource(OPCPackage pkg) throws InvalidFormatException, IOException {
+
+		this(pkg, false);
+	}
+
+	/**
+	 * パッケージからブックの共有情報を読み込みます。
+	 *
+	 * @param pkg パッケージ
+	 * @param sharedStringsOnDisk 共有文字列テーブルを一時ファイルに保持するかどうか
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public XlsbWorkbookSource(OPCPackage pkg, boolean sharedStringsOnDisk) throws InvalidFormatException, IOException {
+
+		this.pkg = pkg;
+
+		try {
+			XSSFBReader reader = new XSSFBReader(pkg);
+
+			loadWorkbookProperty(reader);
+			loadStyles();
+
+			XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+			while (iterator.hasNext() == true) {
+				Poi2ccUtil.close(iterator.next());
+
+				sheetNameList.add(iterator.getSheetName());
+				sheetPartList.add(iterator.getSheetPart());
+			}
+
+			// 一時ファイルを作成する場合があるため、他の共有情報を読み込んだ後に読み込みます。
+			if (sharedStringsOnDisk == true) {
+				sharedStrings = DiskSharedStringsTable.loadBinary(pkg);
+			} else {
+				sharedStrings = new XSSFBSharedStringsTable(pkg);
+			}
+		} catch (InvalidFormatException e) {
+			throw e;
+		} catch (OpenXML4JException | SAXException | XSSFBParseException e) {
+			throw new InvalidFormatException("ブック情報を読み込めません", e);
+		}
+
+		dateFormatArray = new byte[styleList.size()];
+	}
+
+	/**
+	 * パッケージがxlsb形式のブックかどうかを判定します。
+	 *
+	 * @param pkg パッケージ
+	 * @return xlsb形式の場合はtrue
+	 */
+	public static boolean isXlsb(OPCPackage pkg) {
+
+		return pkg.getPartsByContentType(XSSFRelation.XLSB_BINARY_WORKBOOK.getContentType()).isEmpty() == false;
+	}
+
+	/**
+	 * ブックのプロパティ(BrtWbProp)を読み込みます。
+	 *
+	 * @param reader xlsbリーダー
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	protected void loadWorkbookProperty(XSSFBReader reader) throws InvalidFormatException, IOException {
+
+		InputStream in = reader.getWorkbookData();
+
+		try {
+			WorkbookPropertyHandler handler = new WorkbookPropertyHandler(in);
+
+			handler.parse();
+
+			date1904 = handler.date1904;
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+	}
+
+	/**
+	 * スタイル(styles.bin)を読み込み、Apache POIのスタイルへ変換します。
+	 * <p>
+	 * テーマの色を解決できるように、テーマがある場合はスタイルテーブルへ設定します。
+	 * </p>
+	 *
+	 * @throws IOException IO例外
+	 */
+	protected void loadStyles() throws IOException {
+
+		styles = new StylesTable();
+
+		List<PackagePart> themePartList = pkg.getPartsByContentType(XSSFRelation.THEME.getContentType());
+
+		if (themePartList.isEmpty() == false) {
+			styles.setTheme(new ThemesTable(themePartList.get(0)));
+		}
+
+		List<PackagePart> stylesPartList = pkg.getPartsByContentType(STYLES_CONTENT_TYPE);
+
+		if (stylesPartList.isEmpty() == true) {
+			return;
+		}
+
+		InputStream in = stylesPartList.get(0).getInputStream();
+
+		try {
+			new StylesHandler(in).parse();
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+	}
+
+	/**
+	 * シート数を取得します。
+	 *
+	 * @return シート数
+	 */
+	public int getSheetCount() {
+
+		return sheetNameList.size();
+	}
+
+	/**
+	 * シート名を取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シート名
+	 */
+	public String getSheetName(int sheetIndex) {
+
+		return sheetNameList.get(sheetIndex);
+	}
+
+	/**
+	 * シートのレコードを読み取る入力ストリームを開きます。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シートのレコードを読み取る入力ストリーム
+	 * @throws IOException IO例外
+	 */
+	public InputStream openSheet(int sheetIndex) throws IOException {
+
+		return sheetPartList.get(sheetIndex).getInputStream();
+	}
+
+	/**
+	 * シートに関連付けられたコメントテーブルを取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return コメントテーブル(コメントがない場合はnull)
+	 * @throws IOException IO例外
+	 */
+	public XSSFBCommentsTable getSheetComments(int sheetIndex) throws IOException {
+
+		PackagePart sheetPart = sheetPartList.get(sheetIndex);
+
+		try {
+			PackageRelationshipCollection commentsList = sheetPart.getRelationshipsByType(XSSFRelation.SHEET_COMMENTS.getRelation());
+
+			if (commentsList.size() == 0) {
+				return null;
+			}
+
+			PackageRelationship comments = commentsList.getRelationship(0);
+			PackagePartName commentsName = PackagingURIHelper.createPartName(comments.getTargetURI());
+			PackagePart commentsPart = pkg.getPart(commentsName);
+
+			if (commentsPart == null) {
+				return null;
+			}
+
+			InputStream in = commentsPart.getInputStream();
+
+			try {
+				return new XSSFBCommentsTable(in);
+			} finally {
+				Poi2ccUtil.close(in);
+			}
+		} catch (InvalidFormatException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * 共有文字列を取得します。
+	 *
+	 * @param index 共有文字列番号
+	 * @return 共有文字列
+	 */
+	public String getSharedString(int index) {
+
+		if (sharedStrings instanceof DiskSharedStringsTable == true) {
+			return ((DiskSharedStringsTable) sharedStrings).getString(index);
+		}
+
+		return ((XSSFBSharedStringsTable) sharedStrings).getItemAt(index).getString();
+	}
+
+	/**
+	 * スタイル番号に対応するスタイルを取得します。
+	 *
+	 * @param styleIndex スタイル番号
+	 * @return スタイル(スタイルがない場合はnull)
+	 */
+	@Override
+	public XSSFCellStyle getCellStyle(int styleIndex) {
+
+		if (styleList.isEmpty() == true) {
+			return null;
+		}
+		if (styleIndex < 0 || styleList.size() <= styleIndex) {
+			styleIndex = 0;
+		}
+
+		return styleList.get(styleIndex);
+	}
+
+	@Override
+	public Font getFont(CellStyle style) {
+
+		return ((XSSFCellStyle) style).getFont();
+	}
+
+	/**
+	 * スタイル番号に対応する書式が日付書式かどうかを判定します。
+	 *
+	 * @param styleIndex スタイル番号
+	 * @return 日付書式の場合はtrue
+	 */
+	public boolean isDateFormat(int styleIndex) {
+
+		if (styleList.isEmpty() == true) {
+			return false;
+		}
+		if (styleIndex < 0 || styleList.size() <= styleIndex) {
+			styleIndex = 0;
+		}
+
+		if (dateFormatArray[styleIndex] == DATE_FORMAT_UNKNOWN) {
+			ExcelNumberFormat format = ExcelNumberFormat.from(styleList.get(styleIndex));
+
+			if (format != null && DateUtil.isADateFormat(format) == true) {
+				dateFormatArray[styleIndex] = DATE_FORMAT_DATE;
+			} else {
+				dateFormatArray[styleIndex] = DATE_FORMAT_OTHER;
+			}
+		}
+
+		return dateFormatArray[styleIndex] == DATE_FORMAT_DATE;
+	}
+
+	/**
+	 * 1904年を基準とした日付かどうかを取得します。
+	 *
+	 * @return 1904年を基準とした日付かどうか
+	 */
+	public boolean isDate1904() {
+
+		return date1904;
+	}
+
+	/**
+	 * パッケージを取得します。
+	 *
+	 * @return パッケージ
+	 */
+	public OPCPackage getPackage() {
+
+		return pkg;
+	}
+
+	/**
+	 * パッケージを閉じます。
+	 * <p>
+	 * 読み取り専用として扱うため、パッケージへの保存は行いません。
+	 * </p>
+	 */
+	@Override
+	public void close() {
+
+		if (sharedStrings instanceof DiskSharedStringsTable == true) {
+			((DiskSharedStringsTable) sharedStrings).close();
+		}
+		if (pkg != null) {
+			pkg.revert();
+			pkg = null;
+		}
+	}
+
+	/**
+	 * レコードの指定位置の文字列(XLWideString)を読み取ります。
+	 *
+	 * @param data レコードのデータ
+	 * @param offset 読み取り位置
+	 * @return 文字列
+	 */
+	protected static String readString(byte[] data, int offset) {
+
+		StringBuilder builder = new StringBuilder();
+
+		XSSFBUtils.readXLWideString(data, offset, builder);
+
+		return builder.toString();
+	}
+
+	/**
+	 * レコードの指定位置の色(BrtColor)を読み取ります。
+	 *
+	 * @param data レコードのデータ
+	 * @param offset 読み取り位置
+	 * @return 色(自動の場合はnull)
+	 */
+	protected XSSFColor readColor(byte[] data, int offset) {
+
+		int colorType = (data[offset] & 0xFF) >> 1;
+		int index = data[offset + 1] & 0xFF;
+		int tint = LittleEndian.getShort(data, offset + 2);
+
+		if (colorType != COLOR_INDEXED && colorType != COLOR_RGB && colorType != COLOR_THEME) {
+			return null;
+		}
+
+		XSSFColor color = new XSSFColor(styles.getIndexedColors());
+
+		if (colorType == COLOR_INDEXED) {
+			color.setIndexed(index);
+		} else if (colorType == COLOR_RGB) {
+			color.setRGB(new byte[] { data[offset + 4], data[offset + 5], data[offset + 6] });
+		} else {
+			color.setTheme(index);
+		}
+
+		if (tint != 0) {
+			color.setTint(tint < 0 ? tint / 32768.0 : tint / 32767.0);
+		}
+
+		return color;
+	}
+
+	/**
+	 * workbook.binからブックのプロパティを読み取るハンドラ
+	 */
+	protected static class WorkbookPropertyHandler extends XSSFBParser {
+
+		/** 解析するレコード */
+		protected static final SparseBitSet RECORDS = new SparseBitSet();
+
+		static {
+			RECORDS.set(BRT_WB_PROP);
+		}
+
+		/** 1904年を基準とした日付かどうか */
+		protected boolean date1904 = false;
+
+		/**
+		 * ブックのプロパティを読み取るハンドラのコンストラクタ
+		 *
+		 * @param in workbook.binの入力ストリーム
+		 */
+		protected WorkbookPropertyHandler(InputStream in) {
+
+			super(in, RECORDS);
+		}
+
+		@Override
+		public void handleRecord(int recordType, byte[] data) throws XSSFBParseException {
+
+			if (recordType == BRT_WB_PROP) {
+				date1904 = (data[0] & 0x01) != 0;
+			}
+		}
+	}
+
+	/**
+	 * styles.binからスタイルを読み取り、Apache POIのスタイルへ変換するハンドラ
+	 * <p>
+	 * セルのスタイル(BrtBeginCellXFs内のBrtXf)のみをスタイル番号の順に変換し、スタイルのひな形は読み飛ばします。
+	 * </p>
+	 */
+	protected class StylesHandler extends XSSFBParser {
+
+		/** フォント番号ごとのフォント */
+		protected List<XSSFFont> fontList = new ArrayList<XSSFFont>();
+
+		/** 塗りつぶし番号ごとの塗りつぶしのレコード */
+		protected List<byte[]> fillList = new ArrayList<byte[]>();
+
+		/** 罫線番号ごとの罫線のレコード */
+		protected List<byte[]> borderList = new ArrayList<byte[]>();
+
+		/** セルのスタイルを処理中かどうか */
+		protected boolean cellXf = false;
+
+		/**
+		 * スタイルを読み取るハンドラのコンストラクタ
+		 *
+		 * @param in styles.binの入力ストリーム
+		 */
+		protected StylesHandler(InputStream in) {
+
+			super(in);
+		}
+
+		@Override
+		public void handleRecord(int recordType, byte[] data) throws XSSFBParseException {
+
+			switch (recordType) {
+			case BRT_FMT:
+				styles.putNumberFormat((short) LittleEndian.getUShort(data, 0), readString(data, 2));
+				break;
+			case BRT_FONT:
+				fontList.add(createFont(data));
+				break;
+			case BRT_FILL:
+				fillList.add(data);
+				break;
+			case BRT_BORDER:
+				borderList.add(data);
+				break;
+			case BRT_BEGIN_CELL_XFS:
+				cellXf = true;
+				break;
+			case BRT_END_CELL_XFS:
+				cellXf = false;
+				break;
+			case BRT_XF:
+				if (cellXf == true) {
+					styleList.add(createCellStyle(data));
+				}
+				break;
+			default:
+				break;
+			}
+		}
+
+		/**
+		 * フォント(BrtFont)からフォントを生成し、スタイルテーブルへ登録します。
+		 *
+		 * @param data レコードのデータ
+		 * @return フォント
+		 */
+		protected XSSFFont createFont(byte[] data) {
+
+			XSSFFont font = new XSSFFont();
+			int flags = LittleEndian.getUShort(data, 2);
+			XSSFColor color = readColor(data, 12);
+
+			font.setFontHeight((short) LittleEndian.getUShort(data, 0));
+			font.setItalic((flags & 0x02) != 0);
+			font.setStrikeout((flags & 0x08) != 0);
+			font.setBold(LittleEndian.getUShort(data, 4) >= 700);
+			font.setTypeOffset((short) LittleEndian.getUShort(data, 6));
+			font.setUnderline(data[8]);
+			font.setFontName(readString(data, 21));
+
+			// XSSFFont#setColor(XSSFColor)はRGBのみを引き継ぐため、インデックス・テーマの色をそのまま設定します。
+			if (color != null) {
+				font.getCTFont().addNewColor().set(color.getCTColor());
+			}
+
+			font.registerTo(styles);
+
+			return font;
+		}
+
+		/**
+		 * セルのスタイル(BrtXf)からスタイルを生成します。
+		 *
+		 * @param data レコードのデータ
+		 * @return スタイル
+		 */
+		protected XSSFCellStyle createCellStyle(byte[] data) {
+
+			XSSFCellStyle style = styleList.isEmpty() == true ? styles.getStyleAt(0) : styles.createCellStyle();
+			int fontIndex = LittleEndian.getUShort(data, 4);
+			int fillIndex = LittleEndian.getUShort(data, 6);
+			int borderIndex = LittleEndian.getUShort(data, 8);
+			int rotation = data[10] & 0xFF;
+			int flags = LittleEndian.getUShort(data, 12);
+
+			style.setDataFormat(LittleEndian.getUShort(data, 2));
+
+			if (fontIndex < fontList.size()) {
+				style.setFont(fontList.get(fontIndex));
+			}
+			if (fillIndex < fillList.size()) {
+				setFill(style, fillList.get(fillIndex));
+			}
+			if (borderIndex < borderList.size()) {
+				setBorder(style, borderList.get(borderIndex));
+			}
+
+			if (90 < rotation && rotation <= 180) {
+				rotation = 90 - rotation;
+			}
+
+			style.setRotation((short) rotation);
+			style.setIndention((short) (data[11] & 0xFF));
+			style.setAlignment(HorizontalAlignment.forInt(flags & 0x07));
+			style.setVerticalAlignment(VerticalAlignment.forInt((flags >> 3) & 0x07));
+			style.setWrapText((flags & 0x40) != 0);
+			style.setShrinkToFit((flags & 0x100) != 0);
+			style.setLocked((flags & 0x1000) != 0);
+			style.setHidden((flags & 0x2000) != 0);
+
+			return style;
+		}
+
+		/**
+		 * 塗りつぶし(BrtFill)をスタイルに設定します。
+		 *
+		 * @param style スタイル
+		 * @param data レコードのデータ
+		 */
+		protected void setFill(XSSFCellStyle style, byte[] data) {
+
+			FillPatternType pattern = FillPatternType.forInt(LittleEndian.getInt(data, 0));
+
+			style.setFillPattern(pattern);
+
+			if (pattern == FillPatternType.NO_FILL) {
+				return;
+			}
+
+			XSSFColor foregroundColor = readColor(data, 4);
+			XSSFColor backgroundColor = readColor(data, 12);
+
+			if (foregroundColor != null) {
+				style.setFillForegroundColor(foregroundColor);
+			}
+			if (backgroundColor != null) {
+				style.setFillBackgroundColor(backgroundColor);
+			}
+		}
+
+		/**
+		 * 罫線(BrtBorder)をスタイルに設定します。
+		 * <p>
+		 * 上・下・左・右の順に、線の種類(1バイト)・予約(1バイト)・色(8バイト)が格納されています。
+		 * 自動の色はPOIの既定のままとします。
+		 * </p>
+		 *
+		 * @param style スタイル
+		 * @param data レコードのデータ
+		 */
+		protected void setBorder(XSSFCellStyle style, byte[] data) {
+
+			BorderStyle top = BorderStyle.valueOf(data[1]);
+			BorderStyle bottom = BorderStyle.valueOf(data[11]);
+			BorderStyle left = BorderStyle.valueOf(data[21]);
+			BorderStyle right = BorderStyle.valueOf(data[31]);
+
+			if (top != BorderStyle.NONE) {
+				style.setBorderTop(top);
+				XSSFColor color = readColor(data, 3);
+				if (color != null) {
+					style.setTopBorderColor(color);
+				}
+			}
+			if (bottom != BorderStyle.NONE) {
+				style.setBorderBottom(bottom);
+				XSSFColor color = readColor(data, 13);
+				if (color != null) {
+					style.setBottomBorderColor(color);
+				}
+			}
+			if (left != BorderStyle.NONE) {
+				style.setBorderLeft(left);
+				XSSFColor color = readColor(data, 23);
+				if (color != null) {
+					style.setLeftBorderColor(color);
+				}
+			}
+			if (right != BorderStyle.NONE) {
+				style.setBorderRight(right);
+				XSSFColor color = readColor(data, 33);
+				if (color != null) {
+					style.setRightBorderColor(color);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,702 @@
+package com.kiruah.poi2cc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ * xlsx形式のシートXMLにおける行要素の位置を、一定行数ごとに記録した索引です。
+ * <p>
+ * シートXMLを展開したバイト列をXMLとして解析せずに走査し、行要素の開始位置と行番号を記録します。
+ * 索引を利用すると、指定した行に最も近い記録位置まで展開のみで読み飛ばし、そこから解析を開始できます。
+ * zip形式の圧縮データは途中から展開できないため、記録する位置は展開後のバイト位置です。
+ * </p>
+ * <p>
+ * 記録位置より前で定義された共有式・配列式の基準も記録し、途中から解析した行の式を復元します。
+ * シートXMLはUTF-8で記述され、行要素が行番号の昇順に並んでいることを前提とします。
+ * 索引は作成元のファイルに対してのみ有効です。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsxRowIndex implements Serializable {
+
+	/** シリアルバージョンUID */
+	private static final long serialVersionUID = 3418507461927733915L;
+
+	/** デフォルトの記録間隔(行数) */
+	public static final int DEFAULT_INTERVAL = 1000;
+
+	/** 記録間隔(行数) */
+	protected int interval = DEFAULT_INTERVAL;
+
+	/** シートXMLの先頭からsheetData開始タグまでのバイト列 */
+	protected byte[] header = null;
+
+	/** 行要素の数 */
+	protected int rowCount = 0;
+
+	/** 最終行番号(行がない場合は-1) */
+	protected int lastRowNumber = -1;
+
+	/** 記録数 */
+	protected int checkpointCount = 0;
+
+	/** 記録位置の行番号 */
+	protected int[] checkpointRows = new int[16];
+
+	/** 記録位置(展開後のバイト位置) */
+	protected long[] checkpointOffsets = new long[16];
+
+	/** 共有式・配列式の基準(出現順) */
+	protected List<FormulaAnchor> formulaList = new ArrayList<FormulaAnchor>();
+
+	/**
+	 * 行索引のコンストラクタ
+	 *
+	 * @param interval 記録間隔(行数)
+	 */
+	protected XlsxRowIndex(int interval) {
+
+		this.interval = interval;
+	}
+
+	/**
+	 * シートXMLを走査して行索引を作成します。
+	 * <p>
+	 * 入力ストリームはsheetDataの終了タグまで読み取ります。閉じる処理は呼び出し元で行ってください。
+	 * </p>
+	 *
+	 * @param in シートXMLの入力ストリーム
+	 * @param interval 記録間隔(行数)
+	 * @return 行索引
+	 * @throws IOException IO例外
+	 * @throws Poi2ccRuntimeException 記録間隔が1未満の場合
+	 */
+	public static XlsxRowIndex build(InputStream in, int interval) throws IOException {
+
+		if (interval < 1) {
+			throw new Poi2ccRuntimeException("記録間隔は1以上を指定してください:" + interval);
+		}
+
+		XlsxRowIndex index = new XlsxRowIndex(interval);
+
+		new Scanner(in, index).scan();
+
+		return index;
+	}
+
+	/**
+	 * 指定した行から解析を開始する記録位置を検索します。
+	 *
+	 * @param rowNumber 行番号
+	 * @return 記録位置の番号(指定した行以降に行がない場合は-1)
+	 */
+	public int findCheckpoint(int rowNumber) {
+
+		if (checkpointCount == 0 || rowNumber > lastRowNumber) {
+			return -1;
+		}
+
+		int found = Arrays.binarySearch(checkpointRows, 0, checkpointCount, rowNumber);
+
+		if (found >= 0) {
+			return found;
+		}
+
+		return Math.max(-found - 2, 0);
+	}
+
+	/**
+	 * 記録位置の行番号を取得します。
+	 *
+	 * @param checkpoint 記録位置の番号
+	 * @return 行番号
+	 */
+	public int getCheckpointRow(int checkpoint) {
+
+		return checkpointRows[checkpoint];
+	}
+
+	/**
+	 * 記録位置を取得します。
+	 *
+	 * @param checkpoint 記録位置の番号
+	 * @return 展開後のバイト位置
+	 */
+	public long getCheckpointOffset(int checkpoint) {
+
+		return checkpointOffsets[checkpoint];
+	}
+
+	/**
+	 * 記録位置から解析を開始できるように、シートXML解析ハンドラの状態を設定します。
+	 * <p>
+	 * 記録位置の直前の行番号と、記録位置より前で定義された共有式・配列式の基準を設定します。
+	 * </p>
+	 *
+	 * @param handler シートXML解析ハンドラ
+	 * @param checkpoint 記録位置の番号
+	 */
+	protected void prepare(XlsxSheetHandler handler, int checkpoint) {
+
+		long offset = checkpointOffsets[checkpoint];
+
+		handler.rowNumber = checkpointRows[checkpoint] - 1;
+
+		for (FormulaAnchor anchor : formulaList) {
+			if (anchor.offset >= offset) {
+				break;
+			}
+
+			if (anchor.range == null) {
+				handler.sharedFormulaMap.put(anchor.sharedIndex, new XlsxSheetHandler.SharedFormula(anchor.formula, anchor.columnNumber, anchor.rowNumber, null));
+			} else {
+				handler.arrayFormulaList.add(new XlsxSheetHandler.SharedFormula(anchor.formula, anchor.columnNumber, anchor.rowNumber, CellRangeAddress.valueOf(anchor.range)));
+			}
+		}
+	}
+
+	/**
+	 * 記録位置を追加します。
+	 *
+	 * @param rowNumber 行番号
+	 * @param offset 展開後のバイト位置
+	 */
+	protected void addCheckpoint(int rowNumber, long offset) {
+
+		if (checkpointCount == checkpointRows.length) {
+			checkpointRows = Arrays.copyOf(checkpointRows, checkpointCount * 2);
+			checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpointCount * 2);
+		}
+
+		checkpointRows[checkpointCount] = rowNumber;
+		checkpointOffsets[checkpointCount] = offset;
+		checkpointCount++;
+	}
+
+	/**
+	 * 記録間隔を取得します。
+	 *
+	 * @return 記録間隔(行数)
+	 */
+	public int getInterval() {
+
+		return interval;
+	}
+
+	/**
+	 * シートXMLの先頭からsheetData開始タグまでのバイト列を取得します。
+	 *
+	 * @return バイト列(sheetDataがない場合はnull)
+	 */
+	public byte[] getHeader() {
+
+		return header;
+	}
+
+	/**
+	 * 行要素の数を取得します。
+	 *
+	 * @return 行要素の数
+	 */
+	public int getRowCount() {
+
+		return rowCount;
+	}
+
+	/**
+	 * 最終行番号を取得します。
+	 *
+	 * @return 最終行番号(行がない場合は-1)
+	 */
+	public int getLastRowNumber() {
+
+		return lastRowNumber;
+	}
+
+	/**
+	 * 記録数を取得します。
+	 *
+	 * @return 記録数
+	 */
+	public int getCheckpointCount() {
+
+		return checkpointCount;
+	}
+
+	/**
+	 * 共有式・配列式の基準
+	 */
+	protected static class FormulaAnchor implements Serializable {
+
+		/** シリアルバージョンUID */
+		private static final long serialVersionUID = -6025771493810148227L;
+
+		/** 式要素の位置(展開後のバイト位置) */
+		protected long offset = 0;
+
+		/** 共有式番号(配列式の場合はnull) */
+		protected String sharedIndex = null;
+
+		/** 式の範囲(共有式の場合はnull) */
+		protected String range = null;
+
+		/** 式 */
+		protected String formula = null;
+
+		/** 基準セルの列番号 */
+		protected int columnNumber = 0;
+
+		/** 基準セルの行番号 */
+		protected int rowNumber = 0;
+	}
+
+	/**
+	 * シートXMLを展開したバイト列から、行・セル・式要素の開始タグのみを読み取ります。
+	 * <p>
+	 * XMLの文字データや属性値に「&lt;」は出現しないため、「&lt;」から始まるタグ名のみで要素を判別します。
+	 * </p>
+	 */
+	protected static class Scanner {
+
+		/** 読み取りバッファのサイズ */
+		protected static final int BUFFER_SIZE = 64 * 1024;
+
+		/** 行要素のタグ名 */
+		protected static final byte[] ROW = "row".getBytes(StandardCharsets.US_ASCII);
+
+		/** セル要素のタグ名 */
+		protected static final byte[] CELL = "c".getBytes(StandardCharsets.US_ASCII);
+
+		/** 式要素のタグ名 */
+		protected static final byte[] FORMULA = "f".getBytes(StandardCharsets.US_ASCII);
+
+		/** セルデータ要素のタグ名 */
+		protected static final byte[] SHEET_DATA = "sheetData".getBytes(StandardCharsets.US_ASCII);
+
+		/** 入力ストリーム */
+		protected InputStream in = null;
+
+		/** 作成中の行索引 */
+		protected XlsxRowIndex index = null;
+
+		/** 読み取りバッファ */
+		protected byte[] buffer = new byte[BUFFER_SIZE];
+
+		/** 読み取りバッファの有効なバイト数 */
+		protected int length = 0;
+
+		/** 読み取りバッファの読み取り位置 */
+		protected int position = 0;
+
+		/** 読み取りバッファ先頭のバイト位置 */
+		protected long bufferOffset = 0;
+
+		/** sheetData開始タグを含む読み取りバッファまでのバイト列(sheetData開始タグの読み取り後はnull) */
+		protected ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+		/** タグ名 */
+		protected byte[] name = new byte[64];
+
+		/** タグ名の長さ */
+		protected int nameLength = 0;
+
+		/** タグ名の名前空間接頭辞を除いた開始位置 */
+		protected int localStart = 0;
+
+		/** 開始タグの属性部分 */
+		protected byte[] tag = new byte[256];
+
+		/** 開始タグの属性部分の長さ */
+		protected int tagLength = 0;
+
+		/** 現在処理中の行番号 */
+		protected int rowNumber = -1;
+
+		/** 現在処理中の列番号 */
+		protected int columnNumber = -1;
+
+		/**
+		 * 走査処理のコンストラクタ
+		 *
+		 * @param in シートXMLの入力ストリーム
+		 * @param index 作成中の行索引
+		 */
+		protected Scanner(InputStream in, XlsxRowIndex index) {
+
+			this.in = in;
+			this.index = index;
+		}
+
+		/**
+		 * sheetDataの終了タグまで走査します。
+		 *
+		 * @throws IOException IO例外
+		 */
+		protected void scan() throws IOException {
+
+			int b;
+
+			while ((b = read()) >= 0) {
+				if (b != '<') {
+					continue;
+				}
+
+				long offset = bufferOffset + position - 1;
+
+				readName();
+
+				if (nameLength == 0) {
+					continue;
+				}
+
+				if (name[0] == '/') {
+					if (header == null && isName(SHEET_DATA, 1) == true) {
+						return;
+					}
+				} else if (isName(ROW, 0) == true) {
+					startRow(offset);
+				} else if (isName(CELL, 0) == true) {
+					startCell();
+				} else if (isName(FORMULA, 0) == true) {
+					startFormula(offset);
+				} else if (header != null && isName(SHEET_DATA, 0) == true) {
+					boolean empty = readTag();
+
+					index.header = Arrays.copyOf(header.toByteArray(), (int) (bufferOffset + position));
+					header = null;
+
+					if (empty == true) {
+						return;
+					}
+				}
+			}
+		}
+
+		/**
+		 * 行要素の開始を処理します。
+		 *
+		 * @param offset 開始タグの位置
+		 * @throws IOException IO例外
+		 */
+		protected void startRow(long offset) throws IOException {
+
+			readTag();
+
+			String r = getAttribute("r");
+
+			rowNumber = r != null ? Integer.parseInt(r) - 1 : rowNumber + 1;
+			columnNumber = -1;
+
+			if (index.rowCount % index.interval == 0) {
+				index.addCheckpoint(rowNumber, offset);
+			}
+
+			index.rowCount++;
+			index.lastRowNumber = rowNumber;
+		}
+
+		/**
+		 * セル要素の開始を処理します。
+		 *
+		 * @throws IOException IO例外
+		 */
+		protected void startCell() throws IOException {
+
+			readTag();
+
+			String r = getAttribute("r");
+
+			columnNumber = r != null ? XlsxSheetHandler.getColumnNumber(r) : columnNumber + 1;
+		}
+
+		/**
+		 * 式要素の開始を処理し、共有式・配列式の基準であれば記録します。
+		 *
+		 * @param offset 開始タグの位置
+		 * @throws IOException IO例外
+		 */
+		protected void startFormula(long offset) throws IOException {
+
+			if (readTag() == true) {
+				return;
+			}
+
+			String type = getAttribute("t");
+			String sharedIndex = getAttribute("si");
+			String range = getAttribute("ref");
+
+			if ("shared".equals(type) == true && sharedIndex != null) {
+				range = null;
+			} else if ("array".equals(type) == true && range != null) {
+				sharedIndex = null;
+			} else {
+				return;
+			}
+
+			String formula = readText();
+
+			if (Poi2ccUtil.isEmptyString(formula) == true) {
+				return;
+			}
+
+			FormulaAnchor anchor = new FormulaAnchor();
+
+			anchor.offset = offset;
+			anchor.sharedIndex = sharedIndex;
+			anchor.range = range;
+			anchor.formula = formula;
+			anchor.columnNumber = columnNumber;
+			anchor.rowNumber = rowNumber;
+
+			index.formulaList.add(anchor);
+		}
+
+		/**
+		 * 1バイト読み取ります。
+		 *
+		 * @return 読み取ったバイト(終端の場合は-1)
+		 * @throws IOException IO例外
+		 */
+		protected int read() throws IOException {
+
+			if (position == length) {
+				bufferOffset += length;
+				position = 0;
+				length = Math.max(in.read(buffer), 0);
+
+				if (length == 0) {
+					return -1;
+				}
+				if (header != null) {
+					header.write(buffer, 0, length);
+				}
+			}
+
+			return buffer[position++] & 0xFF;
+		}
+
+		/**
+		 * 「&lt;」に続くタグ名を読み取ります。
+		 *
+		 * @throws IOException IO例外
+		 */
+		protected void readName() throws IOException {
+
+			nameLength = 0;
+			localStart = 0;
+
+			int b;
+
+			while ((b = read()) >= 0) {
+				if (b == ' ' || b == '>' || b == '/' && nameLength > 0 || b == '\t' || b == '\r' || b == '\n') {
+					position--;
+
+					return;
+				}
+				if (nameLength == name.length) {
+					return;
+				}
+				if (b == ':') {
+					localStart = nameLength + 1;
+				}
+
+				name[nameLength++] = (byte) b;
+			}
+		}
+
+		/**
+		 * タグ名(名前空間接頭辞を除く)が指定した名前と一致するかどうかを判定します。
+		 *
+		 * @param expected 名前
+		 * @param skip タグ名の先頭から読み飛ばすバイト数(終了タグの「/」など)
+		 * @return 一致する場合はtrue
+		 */
+		protected boolean isName(byte[] expected, int skip) {
+
+			int start = Math.max(localStart, skip);
+
+			if (nameLength - start != expected.length) {
+				return false;
+			}
+
+			for (int i = 0; i < expected.length; i++) {
+				if (name[start + i] != expected[i]) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * 開始タグの属性部分を「&gt;」まで読み取ります。
+		 *
+		 * @return 空要素タグの場合はtrue
+		 * @throws IOException IO例外
+		 */
+		protected boolean readTag() throws IOException {
+
+			tagLength = 0;
+
+			int b;
+
+			while ((b = read()) >= 0 && b != '>') {
+				if (tagLength == tag.length) {
+					tag = Arrays.copyOf(tag, tagLength * 2);
+				}
+
+				tag[tagLength++] = (byte) b;
+			}
+
+			return tagLength > 0 && tag[tagLength - 1] == '/';
+		}
+
+		/**
+		 * 読み取った開始タグから属性値を取得します。
+		 * <p>
+		 * 行・セル・式要素の属性値は実体参照を含まないため、そのまま返却します。
+		 * </p>
+		 *
+		 * @param attributeName 属性名
+		 * @return 属性値(属性がない場合はnull)
+		 */
+		protected String getAttribute(String attributeName) {
+
+			int i = 0;
+
+			while (i < tagLength) {
+				while (i < tagLength && isSpace(tag[i]) == true) {
+					i++;
+				}
+
+				int nameStart = i;
+
+				while (i < tagLength && tag[i] != '=' && isSpace(tag[i]) == false) {
+					i++;
+				}
+
+				int nameEnd = i;
+
+				while (i < tagLength && tag[i] != '\'' && tag[i] != '"') {
+					i++;
+				}
+				if (i == tagLength) {
+					return null;
+				}
+
+				byte quote = tag[i++];
+				int valueStart = i;
+
+				while (i < tagLength && tag[i] != quote) {
+					i++;
+				}
+
+				if (nameEnd - nameStart == attributeName.length()
+						&& attributeName.equals(new String(tag, nameStart, nameEnd - nameStart, StandardCharsets.US_ASCII)) == true) {
+					return new String(tag, valueStart, i - valueStart, StandardCharsets.UTF_8);
+				}
+
+				i++;
+			}
+
+			return null;
+		}
+
+		/**
+		 * 次のタグまでの文字データを読み取り、実体参照を展開して返却します。
+		 *
+		 * @return 文字データ
+		 * @throws IOException IO例外
+		 */
+		protected String readText() throws IOException {
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			int b;
+
+			while ((b = read()) >= 0 && b != '<') {
+				out.write(b);
+			}
+
+			if (b == '<') {
+				position--;
+			}
+
+			return unescape(new String(out.toByteArray(), StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * XMLの実体参照・文字参照を展開します。
+		 *
+		 * @param text 文字データ
+		 * @return 展開した文字列
+		 */
+		protected static String unescape(String text) {
+
+			int ampersand = text.indexOf('&');
+
+			if (ampersand < 0) {
+				return text;
+			}
+
+			StringBuilder builder = new StringBuilder(text.length());
+			int i = 0;
+
+			while (ampersand >= 0) {
+				int semicolon = text.indexOf(';', ampersand);
+
+				if (semicolon < 0) {
+					break;
+				}
+
+				builder.append(text, i, ampersand);
+
+				String entity = text.substring(ampersand + 1, semicolon);
+
+				if ("amp".equals(entity) == true) {
+					builder.append('&');
+				} else if ("lt".equals(entity) == true) {
+					builder.append('<');
+				} else if ("gt".equals(entity) == true) {
+					builder.append('>');
+				} else if ("quot".equals(entity) == true) {
+					builder.append('"');
+				} else if ("apos".equals(entity) == true) {
+					builder.append('\'');
+				} else if (entity.startsWith("#x") == true) {
+					builder.appendCodePoint(Integer.parseInt(entity.substring(2), 16));
+				} else if (entity.startsWith("#") == true) {
+					builder.appendCodePoint(Integer.parseInt(entity.substring(1)));
+				} else {
+					builder.append(text, ampersand, semicolon + 1);
+				}
+
+				i = semicolon + 1;
+				ampersand = text.indexOf('&', i);
+			}
+
+			builder.append(text, i, text.length());
+
+			return builder.toString();
+		}
+
+		/**
+		 * XMLの空白文字かどうかを判定します。
+		 *
+		 * @param b バイト
+		 * @return 空白文字の場合はtrue
+		 */
+		protected static boolean isSpace(byte b) {
+
+			return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package com.kiruah.poi2cc;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.xml.sax.SAXException;
+
+/**
+ * xlsx形式のファイルを開いたまま保持し、シートの指定した行範囲のみを読み取ります。
+ * <p>
+ * シートごとに初回の読み取り時に{@link XlsxRowIndex 行索引}を作成し、以降は指定した開始行に最も近い記録位置から解析します。
+ * 記録位置までのシートXMLは展開のみ行い、XMLとしては解析しないため、巨大なシートの後半の行も先頭から解析せずに読み取れます。
+ * 共有文字列・スタイルは開いた時点で一度だけ読み込みます。
+ * </p>
+ * <p>
+ * 使用後は{@link #close()}でファイルを閉じてください。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsxRowReader implements Closeable {
+
+	/** 記録位置まで読み飛ばす際のバッファサイズ */
+	protected static final int SKIP_BUFFER_SIZE = 64 * 1024;
+
+	/** ブックの共有情報 */
+	protected XlsxWorkbookSource source = null;
+
+	/** 行索引の記録間隔(行数) */
+	protected int interval = XlsxRowIndex.DEFAULT_INTERVAL;
+
+	/** 作成済みの行索引(シート番号 - 行索引) */
+	protected Map<Integer, XlsxRowIndex> indexMap = new HashMap<Integer, XlsxRowIndex>();
+
+	/**
+	 * 行範囲読み取りのコンストラクタ
+	 *
+	 * @param file xlsx形式のファイル
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 */
+	public XlsxRowReader(File file) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		this(file, XlsxRowIndex.DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * 行範囲読み取りのコンストラクタ
+	 *
+	 * @param file xlsx形式のファイル
+	 * @param interval 行索引の記録間隔(行数)
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws FileNotFoundException ファイルがない場合の例外
+	 * @throws IOException IO例外
+	 * @throws Poi2ccRuntimeException 記録間隔が1未満の場合
+	 */
+	public XlsxRowReader(File file, int interval) throws InvalidFormatException, FileNotFoundException, IOException {
+
+		if (interval < 1) {
+			throw new Poi2ccRuntimeException("記録間隔は1以上を指定してください:" + interval);
+		}
+		if (file.isFile() == false) {
+			throw new FileNotFoundException(file.getPath());
+		}
+
+		OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+
+		try {
+			source = new XlsxWorkbookSource(pkg);
+		} finally {
+			if (source == null) {
+				pkg.revert();
+			}
+		}
+
+		this.interval = interval;
+	}
+
+	/**
+	 * シートの指定した行範囲を読み取り、各行を行ハンドラへ通知します。
+	 * <p>
+	 * 行ハンドラには{@link RowHandler#startSheet(String, int)}・{@link RowHandler#endSheet(String, int)}も通知します。
+	 * 終了行を過ぎた時点で解析を打ち切ります。
+	 * </p>
+	 *
+	 * @param sheetName シート名
+	 * @param beginRow 開始行番号
+	 * @param lastRow 終了行番号(この行を含む)
+	 * @param handler 行ハンドラ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 * @throws Poi2ccRuntimeException シートがない場合
+	 */
+	public synchronized void readRows(String sheetName, int beginRow, int lastRow, RowHandler handler) throws InvalidFormatException, IOException {
+
+		int sheetIndex = getSheetIndex(sheetName);
+		XlsxRowIndex index = getRowIndex(sheetIndex);
+		int checkpoint = index.findCheckpoint(beginRow);
+
+		handler.startSheet(sheetName, sheetIndex);
+
+		if (checkpoint >= 0 && beginRow <= lastRow) {
+			XlsxSheetHandler sheetHandler = new XlsxSheetHandler(source, null, handler, LoadOptions.rows(beginRow, lastRow));
+
+			index.prepare(sheetHandler, checkpoint);
+
+			InputStream in = source.openSheet(sheetIndex);
+
+			try {
+				skip(in, index.getCheckpointOffset(checkpoint));
+
+				XlsxWorkbookSource.parse(new SequenceInputStream(new ByteArrayInputStream(index.getHeader()), in), sheetHandler);
+			} catch (SAXException e) {
+				if (sheetHandler.isFinished() == false) {
+					throw new InvalidFormatException("シートを解析できません:" + sheetName, e);
+				}
+			} finally {
+				Poi2ccUtil.close(in);
+			}
+		}
+
+		handler.endSheet(sheetName, sheetIndex);
+	}
+
+	/**
+	 * シートの行索引を取得します。
+	 * <p>
+	 * 作成されていない場合はシートXMLを走査して作成します。
+	 * </p>
+	 *
+	 * @param sheetName シート名
+	 * @return 行索引
+	 * @throws IOException IO例外
+	 * @throws Poi2ccRuntimeException シートがない場合
+	 */
+	public synchronized XlsxRowIndex getRowIndex(String sheetName) throws IOException {
+
+		return getRowIndex(getSheetIndex(sheetName));
+	}
+
+	/**
+	 * 作成済みの行索引を設定します。
+	 * <p>
+	 * 保存しておいた行索引を再利用する場合に使用します。同じファイルから作成した行索引を指定してください。
+	 * </p>
+	 *
+	 * @param sheetName シート名
+	 * @param index 行索引
+	 * @throws Poi2ccRuntimeException シートがない場合
+	 */
+	public synchronized void setRowIndex(String sheetName, XlsxRowIndex index) {
+
+		indexMap.put(getSheetIndex(sheetName), index);
+	}
+
+	/**
+	 * シートの行索引を取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return 行索引
+	 * @throws IOException IO例外
+	 */
+	protected XlsxRowIndex getRowIndex(int sheetIndex) throws IOException {
+
+		XlsxRowIndex index = indexMap.get(sheetIndex);
+
+		if (index != null) {
+			return index;
+		}
+
+		InputStream in = source.openSheet(sheetIndex);
+
+		try {
+			index = XlsxRowIndex.build(in, interval);
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+
+		indexMap.put(sheetIndex, index);
+
+		return index;
+	}
+
+	/**
+	 * シート名からシート番号を取得します。
+	 *
+	 * @param sheetName シート名
+	 * @return シート番号
+	 * @throws Poi2ccRuntimeException シートがない場合
+	 */
+	protected int getSheetIndex(String sheetName) {
+
+		int sheetNumber = source.getSheetCount();
+
+		for (int i = 0; i < sheetNumber; i++) {
+			if (source.getSheetName(i).equals(sheetName) == true) {
+				return i;
+			}
+		}
+
+		throw new Poi2ccRuntimeException("シートがありません:" + sheetName);
+	}
+
+	/**
+	 * 入力ストリームを指定したバイト数だけ読み飛ばします。
+	 * <p>
+	 * 圧縮されたシートXMLは展開しながら読み飛ばします。
+	 * </p>
+	 *
+	 * @param in 入力ストリーム
+	 * @param length 読み飛ばすバイト数
+	 * @throws IOException 指定したバイト数に満たない場合
+	 */
+	protected static void skip(InputStream in, long length) throws IOException {
+
+		byte[] buffer = new byte[SKIP_BUFFER_SIZE];
+		long remain = length;
+
+		while (remain > 0) {
+			int read = in.read(buffer, 0, (int) Math.min(remain, buffer.length));
+
+			if (read < 0) {
+				throw new IOException("シートのXMLが行索引より短いため読み飛ばせません");
+			}
+
+			remain -= read;
+		}
+	}
+
+	/**
+	 * シート数を取得します。
+	 *
+	 * @return シート数
+	 */
+	public int getSheetCount() {
+
+		return source.getSheetCount();
+	}
+
+	/**
+	 * シート名を取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シート名
+	 */
+	public String getSheetName(int sheetIndex) {
+
+		return source.getSheetName(sheetIndex);
+	}
+
+	@Override
+	public synchronized void close() {
+
+		source.close();
+		indexMap.clear();
+	}
+}
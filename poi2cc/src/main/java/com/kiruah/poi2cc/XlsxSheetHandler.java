@@ -0,0 +1,1038 @@
+package com.kiruah.poi2cc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.helpers.HeaderFooterHelper;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.kiruah.poi2cc.storage.Sheet;
+import com.kiruah.poi2cc.storage.sub.SheetStyle;
+
+/**
+ * xlsx形式のシートXMLをSAXで解析し、行ごとのセル値を{@link RowHandler}へ通知します。
+ * <p>
+ * シートが指定された場合は、列幅・印刷設定などのシート単位の情報もシートへ格納します。
+ * セル値のみをロードする場合、シートのスタイル・印刷設定は読み飛ばします。
+ * ロードする列・範囲が限定されている場合、範囲外のセルは値を解釈せずに読み飛ばします。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsxSheetHandler extends DefaultHandler {
+
+	/** ポイントからtwipsへの変換係数 */
+	protected static final int TWIPS_PER_POINT = 20;
+
+	/** ヘッダー・フッターの解析ヘルパー */
+	protected static final HeaderFooterHelper HEADER_FOOTER_HELPER = new HeaderFooterHelper();
+
+	/** セル参照(A1形式)の字句のパターン */
+	protected static final String CELL_REFERENCE_PATTERN = "\\$?[A-Za-z]{1,3}\\$?[0-9]+";
+
+	/** 列全体の範囲参照(A:A形式)の列の字句のパターン */
+	protected static final String COLUMN_REFERENCE_PATTERN = "\\$?[A-Za-z]{1,3}";
+
+	/** 行全体の範囲参照(1:1形式)の行の字句のパターン */
+	protected static final String ROW_REFERENCE_PATTERN = "\\$?[0-9]+";
+
+	/** ブックの共有情報 */
+	protected XlsxWorkbookSource source = null;
+
+	/** シート単位の情報の格納先(格納しない場合はnull) */
+	protected Sheet sheet = null;
+
+	/** 行の通知先 */
+	protected RowHandler rowHandler = null;
+
+	/** ロード時のオプション */
+	protected LoadOptions options = null;
+
+	/** 行情報(行ごとに再利用します) */
+	protected RowData rowData = new RowData();
+
+	/** 文字列を収集中かどうか */
+	protected boolean collecting = false;
+
+	/** 収集中の文字列 */
+	protected StringBuilder text = new StringBuilder();
+
+	/** 現在処理中の行番号 */
+	protected int rowNumber = -1;
+
+	/** 現在処理中の列番号 */
+	protected int columnNumber = -1;
+
+	/** 現在処理中の行を読み飛ばすかどうか */
+	protected boolean skipRow = false;
+
+	/** 現在処理中のセルの型(t属性) */
+	protected String cellType = null;
+
+	/** 現在処理中のセルのスタイル番号(s属性) */
+	protected int styleIndex = 0;
+
+	/** 現在処理中のセルの値 */
+	protected StringBuilder value = new StringBuilder();
+
+	/** 現在処理中のセルが値要素を持つかどうか */
+	protected boolean valueElement = false;
+
+	/** 値を収集中かどうか */
+	protected boolean valueCollecting = false;
+
+	/** 現在処理中のセルのインライン文字列 */
+	protected StringBuilder inlineText = new StringBuilder();
+
+	/** 現在処理中のセルがインライン文字列を持つかどうか */
+	protected boolean inlineString = false;
+
+	/** ふりがな(rPh)を処理中かどうか */
+	protected boolean phonetic = false;
+
+	/** 現在処理中のセルの式 */
+	protected String formula = null;
+
+	/** 現在処理中のセルに式要素があるかどうか */
+	protected boolean formulaElement = false;
+
+	/** 現在処理中の式の種類(t属性) */
+	protected String formulaType = null;
+
+	/** 現在処理中の共有式番号(si属性) */
+	protected String sharedIndex = null;
+
+	/** 現在処理中の式の範囲(ref属性) */
+	protected String formulaRef = null;
+
+	/** 共有式の基準となるセル情報 */
+	protected Map<String, SharedFormula> sharedFormulaMap = new HashMap<String, SharedFormula>();
+
+	/** 配列式の範囲と式 */
+	protected List<SharedFormula> arrayFormulaList = new ArrayList<SharedFormula>();
+
+	/** 列幅の定義(列番号 - 幅) */
+	protected Map<Integer, Double> columnWidthMap = new HashMap<Integer, Double>();
+
+	/** 基本列幅 */
+	protected int baseColumnWidth = 8;
+
+	/** デフォルト行高さ(ポイント) */
+	protected double defaultRowHeight = 0.0;
+
+	/** 結合セル範囲 */
+	protected List<CellRangeAddress> mergedRegionList = new ArrayList<CellRangeAddress>();
+
+	/** 改ページを処理中の要素名 */
+	protected String breakElement = null;
+
+	/** ページ設定を読み込んだかどうか */
+	protected boolean pageSetup = false;
+
+	/** ロードする範囲の最終行を過ぎたか、行の通知先の指定により解析を打ち切ったかどうか */
+	protected boolean finished = false;
+
+	/**
+	 * シートXML解析ハンドラのコンストラクタ
+	 *
+	 * @param source ブックの共有情報
+	 * @param sheet シート単位の情報の格納先(格納しない場合はnull)
+	 * @param rowHandler 行の通知先
+	 */
+	public XlsxSheetHandler(XlsxWorkbookSource source, Sheet sheet, RowHandler rowHandler) {
+
+		this(source, sheet, rowHandler, LoadOptions.defaults());
+	}
+
+	/**
+	 * シートXML解析ハンドラのコンストラクタ
+	 *
+	 * @param source ブックの共有情報
+	 * @param sheet シート単位の情報の格納先(格納しない場合はnull)
+	 * @param rowHandler 行の通知先
+	 * @param options ロード時のオプション
+	 */
+	public XlsxSheetHandler(XlsxWorkbookSource source, Sheet sheet, RowHandler rowHandler, LoadOptions options) {
+
+		this.source = source;
+		this.sheet = sheet;
+		this.rowHandler = rowHandler;
+		this.options = options;
+
+		rowData.setDate1904(source.isDate1904());
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+
+		if ("c".equals(localName) == true) {
+			startCell(attributes);
+		} else if ("v".equals(localName) == true) {
+			valueElement = true;
+			valueCollecting = true;
+			value.setLength(0);
+		} else if ("f".equals(localName) == true) {
+			formulaElement = true;
+			formulaType = attributes.getValue("t");
+			sharedIndex = attributes.getValue("si");
+			formulaRef = attributes.getValue("ref");
+			startText();
+		} else if ("is".equals(localName) == true) {
+			inlineString = true;
+		} else if ("t".equals(localName) == true) {
+			if (inlineString == true && phonetic == false) {
+				startText();
+			}
+		} else if ("rPh".equals(localName) == true) {
+			phonetic = true;
+		} else if ("row".equals(localName) == true) {
+			startRow(attributes);
+		} else if (sheet == null) {
+			return;
+		} else if ("col".equals(localName) == true) {
+			loadColumn(attributes);
+		} else if ("mergeCell".equals(localName) == true) {
+			String ref = attributes.getValue("ref");
+
+			if (ref != null) {
+				mergedRegionList.add(CellRangeAddress.valueOf(ref));
+			}
+		} else if ("sheetFormatPr".equals(localName) == true) {
+			baseColumnWidth = getInt(attributes, "baseColWidth", 8);
+			defaultRowHeight = getDouble(attributes, "defaultRowHeight", 0.0);
+		} else if (options.isValuesOnly() == true) {
+			return;
+		} else if ("sheetView".equals(localName) == true) {
+			loadSheetView(attributes);
+		} else if ("pageSetUpPr".equals(localName) == true) {
+			sheet.getStyle().setAutoBreaks(getBoolean(attributes, "autoPageBreaks", true));
+			sheet.getStyle().setFitToPage(getBoolean(attributes, "fitToPage", false));
+		} else if ("outlinePr".equals(localName) == true) {
+			sheet.getStyle().setDisplayGuts(getBoolean(attributes, "showOutlineSymbols", true));
+		} else if ("printOptions".equals(localName) == true) {
+			sheet.getStyle().setPrintGridlines(getBoolean(attributes, "gridLines", false));
+			sheet.getStyle().setHorizontallyCenter(getBoolean(attributes, "horizontalCentered", false));
+			sheet.getStyle().setVerticallyCenter(getBoolean(attributes, "verticalCentered", false));
+		} else if ("pageMargins".equals(localName) == true) {
+			loadPageMargins(attributes);
+		} else if ("pageSetup".equals(localName) == true) {
+			loadPageSetup(attributes);
+		} else if ("oddHeader".equals(localName) == true || "oddFooter".equals(localName) == true) {
+			startText();
+		} else if ("rowBreaks".equals(localName) == true || "colBreaks".equals(localName) == true) {
+			breakElement = localName;
+		} else if ("brk".equals(localName) == true) {
+			loadBreak(attributes);
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+
+		if ("c".equals(localName) == true) {
+			endCell();
+		} else if ("v".equals(localName) == true) {
+			valueCollecting = false;
+		} else if ("f".equals(localName) == true) {
+			formula = endText();
+		} else if ("t".equals(localName) == true) {
+			if (inlineString == true && phonetic == false) {
+				inlineText.append(endText());
+			}
+		} else if ("rPh".equals(localName) == true) {
+			phonetic = false;
+		} else if ("row".equals(localName) == true) {
+			endRow();
+		} else if (sheet == null || options.isValuesOnly() == true) {
+			return;
+		} else if ("oddHeader".equals(localName) == true) {
+			String header = endText();
+
+			sheet.getStyle().setHeaderLeft(getSection(HEADER_FOOTER_HELPER.getLeftSection(header)));
+			sheet.getStyle().setHeaderCenter(getSection(HEADER_FOOTER_HELPER.getCenterSection(header)));
+			sheet.getStyle().setHeaderRight(getSection(HEADER_FOOTER_HELPER.getRightSection(header)));
+		} else if ("oddFooter".equals(localName) == true) {
+			String footer = endText();
+
+			sheet.getStyle().setFooterLeft(getSection(HEADER_FOOTER_HELPER.getLeftSection(footer)));
+			sheet.getStyle().setFooterCenter(getSection(HEADER_FOOTER_HELPER.getCenterSection(footer)));
+			sheet.getStyle().setFooterRight(getSection(HEADER_FOOTER_HELPER.getRightSection(footer)));
+		} else if ("rowBreaks".equals(localName) == true || "colBreaks".equals(localName) == true) {
+			breakElement = null;
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) throws SAXException {
+
+		if (valueCollecting == true) {
+			value.append(ch, start, length);
+		} else if (collecting == true) {
+			text.append(ch, start, length);
+		}
+	}
+
+	@Override
+	public void startDocument() throws SAXException {
+
+		if (sheet == null || options.isValuesOnly() == true) {
+			return;
+		}
+
+		SheetStyle style = sheet.getStyle();
+
+		style.setDisplayGridLine(true);
+		style.setDisplayZeros(true);
+		style.setAutoBreaks(true);
+		style.setDisplayGuts(true);
+	}
+
+	@Override
+	public void endDocument() throws SAXException {
+
+		if (sheet != null && options.isValuesOnly() == false && pageSetup == false) {
+			loadPageSetup(null);
+		}
+	}
+
+	/**
+	 * 文字列の収集を開始します。
+	 */
+	protected void startText() {
+
+		collecting = true;
+		text.setLength(0);
+	}
+
+	/**
+	 * 文字列の収集を終了し、収集した文字列を返却します。
+	 *
+	 * @return 収集した文字列
+	 */
+	protected String endText() {
+
+		collecting = false;
+
+		return text.toString();
+	}
+
+	/**
+	 * 行の開始を処理します。
+	 * <p>
+	 * シート単位の情報を格納しない場合、ロードする範囲の最終行を過ぎた時点で解析を打ち切ります。
+	 * </p>
+	 *
+	 * @param attributes 属性
+	 * @throws SAXException 解析を打ち切る場合
+	 */
+	protected void startRow(Attributes attributes) throws SAXException {
+
+		String r = attributes.getValue("r");
+
+		if (r != null) {
+			rowNumber = Integer.parseInt(r) - 1;
+		} else {
+			rowNumber++;
+		}
+
+		if (sheet == null && options.getRange() != null && rowNumber > options.getRange().getLastRow()) {
+			finished = true;
+			throw new SAXException("lastRow");
+		}
+
+		columnNumber = -1;
+		skipRow = options.containsRow(rowNumber) == false;
+
+		double height = getDouble(attributes, "ht", defaultRowHeight);
+
+		rowData.clear(rowNumber, (short) (height * TWIPS_PER_POINT));
+	}
+
+	/**
+	 * 行の終了を処理し、行情報を通知します。
+	 * <p>
+	 * ロードする範囲外の行は通知しません。
+	 * 通知先が走査の打ち切りを指定した場合は解析を打ち切ります。
+	 * </p>
+	 *
+	 * @throws SAXException 解析を打ち切る場合
+	 */
+	protected void endRow() throws SAXException {
+
+		if (skipRow == true) {
+			return;
+		}
+
+		rowHandler.handleRow(rowData);
+
+		if (rowHandler.isFinished() == true) {
+			finished = true;
+			throw new SAXException("finished");
+		}
+	}
+
+	/**
+	 * セルの開始を処理します。
+	 *
+	 * @param attributes 属性
+	 */
+	protected void startCell(Attributes attributes) {
+
+		String r = attributes.getValue("r");
+
+		if (r != null) {
+			columnNumber = getColumnNumber(r);
+		} else {
+			columnNumber++;
+		}
+
+		cellType = attributes.getValue("t");
+		styleIndex = getInt(attributes, "s", 0);
+
+		value.setLength(0);
+		valueElement = false;
+		formula = null;
+		formulaElement = false;
+		formulaType = null;
+		sharedIndex = null;
+		formulaRef = null;
+		inlineString = false;
+		inlineText.setLength(0);
+	}
+
+	/**
+	 * セルの終了を処理し、セル値を行情報に追加します。
+	 * <p>
+	 * 値を解釈できないセルは空のセルとして追加します。
+	 * ロードする列・範囲外のセルは追加しません。
+	 * </p>
+	 */
+	protected void endCell() {
+
+		if (skipRow == true || options.containsCell(columnNumber, rowNumber) == false) {
+			registerFormula();
+			inlineString = false;
+
+			return;
+		}
+
+		int index = rowData.addCell(columnNumber, styleIndex);
+
+		try {
+			setCellValue(index);
+		} catch (Exception e) {
+			rowData.cellCount = index;
+			rowData.addCell(columnNumber, styleIndex);
+		}
+
+		inlineString = false;
+	}
+
+	/**
+	 * 現在処理中のセルの値を行情報に設定します。
+	 *
+	 * @param index セルのインデックス
+	 */
+	protected void setCellValue(int index) {
+
+		String cellFormula = getFormula();
+
+		if (cellType == null || "n".equals(cellType) == true) {
+			if (value.length() == 0) {
+				if (cellFormula != null) {
+					rowData.setNumber(index, 0.0);
+				}
+			} else {
+				double number = Poi2ccUtil.parseDouble(value);
+
+				if (DateUtil.isValidExcelDate(number) == true && source.isDateFormat(styleIndex) == true) {
+					rowData.setDate(index, number);
+				} else {
+					rowData.setNumber(index, number);
+				}
+			}
+		} else if ("s".equals(cellType) == true) {
+			rowData.setText(index, source.getSharedString(Poi2ccUtil.parseInt(value)));
+		} else if ("inlineStr".equals(cellType) == true) {
+			if (inlineText.length() > 0 || valueElement == false) {
+				rowData.setText(index, inlineText.toString());
+			} else {
+				rowData.setText(index, value.toString());
+			}
+		} else if ("str".equals(cellType) == true) {
+			rowData.setText(index, value.toString());
+		} else if ("b".equals(cellType) == true) {
+			rowData.setBoolean(index, value.length() == 1 && value.charAt(0) == '1' || "true".contentEquals(value));
+		} else if ("e".equals(cellType) == true) {
+			rowData.setError(index, FormulaError.forString(value.toString()).getCode());
+		} else if ("d".equals(cellType) == true) {
+			rowData.setDate(index, value.toString());
+		}
+
+		if (cellFormula != null) {
+			rowData.setFormula(index, cellFormula);
+		}
+	}
+
+	/**
+	 * 現在処理中のセルの式を取得します。
+	 * <p>
+	 * 共有式の場合は基準セルの式を相対位置に合わせて変換します。
+	 * </p>
+	 *
+	 * @return 式(式がない場合はnull)
+	 */
+	protected String getFormula() {
+
+		if (formulaElement == true) {
+			if ("shared".equals(formulaType) == true && sharedIndex != null) {
+				if (Poi2ccUtil.isEmptyString(formula) == false) {
+					sharedFormulaMap.put(sharedIndex, new SharedFormula(formula, columnNumber, rowNumber, null));
+
+					return formula;
+				}
+
+				SharedFormula base = sharedFormulaMap.get(sharedIndex);
+
+				if (base == null) {
+					return null;
+				}
+
+				return shiftFormula(base.formula, columnNumber - base.columnNumber, rowNumber - base.rowNumber);
+			} else if ("array".equals(formulaType) == true && formulaRef != null) {
+				arrayFormulaList.add(new SharedFormula(formula, columnNumber, rowNumber, CellRangeAddress.valueOf(formulaRef)));
+			} else if ("dataTable".equals(formulaType) == true) {
+				return null;
+			}
+
+			return formula;
+		}
+
+		for (SharedFormula arrayFormula : arrayFormulaList) {
+			if (arrayFormula.range.isInRange(rowNumber, columnNumber) == true) {
+				return arrayFormula.formula;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * 読み飛ばすセルの式のうち、他のセルから参照される共有式・配列式の基準のみを登録します。
+	 */
+	protected void registerFormula() {
+
+		if (formulaElement == false) {
+			return;
+		}
+
+		if ("shared".equals(formulaType) == true && sharedIndex != null) {
+			if (Poi2ccUtil.isEmptyString(formula) == false) {
+				sharedFormulaMap.put(sharedIndex, new SharedFormula(formula, columnNumber, rowNumber, null));
+			}
+		} else if ("array".equals(formulaType) == true && formulaRef != null) {
+			arrayFormulaList.add(new SharedFormula(formula, columnNumber, rowNumber, CellRangeAddress.valueOf(formulaRef)));
+		}
+	}
+
+	/**
+	 * 式に含まれる相対参照を指定した分だけ移動します。
+	 *
+	 * @param formula 式
+	 * @param columnOffset 列の移動量
+	 * @param rowOffset 行の移動量
+	 * @return 移動後の式
+	 */
+	public static String shiftFormula(String formula, int columnOffset, int rowOffset) {
+
+		if (columnOffset == 0 && rowOffset == 0) {
+			return formula;
+		}
+
+		StringBuilder builder = new StringBuilder(formula.length() + 8);
+		int length = formula.length();
+		int i = 0;
+
+		while (i < length) {
+			char c = formula.charAt(i);
+
+			if (c == '"' || c == '\'') {
+				int end = i + 1;
+
+				while (end < length) {
+					if (formula.charAt(end) == c) {
+						if (end + 1 < length && formula.charAt(end + 1) == c) {
+							end += 2;
+							continue;
+						}
+						break;
+					}
+					end++;
+				}
+
+				end = Math.min(end + 1, length);
+				builder.append(formula, i, end);
+				i = end;
+			} else if (c == '[') {
+				int end = formula.indexOf(']', i);
+
+				end = end < 0 ? length : end + 1;
+				builder.append(formula, i, end);
+				i = end;
+			} else if (isTokenChar(c) == true) {
+				int end = i;
+
+				while (end < length && isTokenChar(formula.charAt(end)) == true) {
+					end++;
+				}
+
+				String token = formula.substring(i, end);
+				boolean reference = end >= length || (formula.charAt(end) != '(' && formula.charAt(end) != '!');
+
+				if (reference == true && end + 1 < length && formula.charAt(end) == ':') {
+					int lastEnd = end + 1;
+
+					while (lastEnd < length && isTokenChar(formula.charAt(lastEnd)) == true) {
+						lastEnd++;
+					}
+
+					String area = shiftWholeArea(token, formula.substring(end + 1, lastEnd), columnOffset, rowOffset);
+
+					if (area != null) {
+						builder.append(area);
+						i = lastEnd;
+						continue;
+					}
+				}
+
+				if (reference == true && token.matches(CELL_REFERENCE_PATTERN) == true) {
+					builder.append(shiftReference(token, columnOffset, rowOffset));
+				} else {
+					builder.append(token);
+				}
+				i = end;
+			} else {
+				builder.append(c);
+				i++;
+			}
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * セル参照(A1形式)を指定した分だけ移動します。
+	 *
+	 * @param reference セル参照
+	 * @param columnOffset 列の移動量
+	 * @param rowOffset 行の移動量
+	 * @return 移動後のセル参照
+	 */
+	protected static String shiftReference(String reference, int columnOffset, int rowOffset) {
+
+		CellReference cellReference = new CellReference(reference);
+		int column = cellReference.getCol();
+		int row = cellReference.getRow();
+
+		if (cellReference.isColAbsolute() == false) {
+			column += columnOffset;
+		}
+		if (cellReference.isRowAbsolute() == false) {
+			row += rowOffset;
+		}
+		if (column < 0 || row < 0 || column > SpreadsheetVersion.EXCEL2007.getLastColumnIndex() || row > SpreadsheetVersion.EXCEL2007.getLastRowIndex()) {
+			return FormulaError.REF.getString();
+		}
+
+		return new CellReference(row, column, cellReference.isRowAbsolute(), cellReference.isColAbsolute()).formatAsString();
+	}
+
+	/**
+	 * 列全体(A:A形式)・行全体(1:1形式)の範囲参照を指定した分だけ移動します。
+	 * <p>
+	 * 絶対参照($)の列・行は移動しません。範囲がシートの外に出る場合は#REF!を返却します。
+	 * </p>
+	 *
+	 * @param first 範囲の開始の字句
+	 * @param last 範囲の終了の字句
+	 * @param columnOffset 列の移動量
+	 * @param rowOffset 行の移動量
+	 * @return 移動後の範囲参照(列全体・行全体の範囲参照でない場合はnull)
+	 */
+	protected static String shiftWholeArea(String first, String last, int columnOffset, int rowOffset) {
+
+		if (first.matches(COLUMN_REFERENCE_PATTERN) == true && last.matches(COLUMN_REFERENCE_PATTERN) == true) {
+			String firstColumn = shiftWholeColumn(first, columnOffset);
+			String lastColumn = shiftWholeColumn(last, columnOffset);
+
+			if (firstColumn == null || lastColumn == null) {
+				return FormulaError.REF.getString();
+			}
+
+			return firstColumn + ":" + lastColumn;
+		}
+		if (first.matches(ROW_REFERENCE_PATTERN) == true && last.matches(ROW_REFERENCE_PATTERN) == true) {
+			String firstRow = shiftWholeRow(first, rowOffset);
+			String lastRow = shiftWholeRow(last, rowOffset);
+
+			if (firstRow == null || lastRow == null) {
+				return FormulaError.REF.getString();
+			}
+
+			return firstRow + ":" + lastRow;
+		}
+
+		return null;
+	}
+
+	/**
+	 * 列全体の範囲参照の列を指定した分だけ移動します。
+	 *
+	 * @param reference 列の字句($付きの列名)
+	 * @param columnOffset 列の移動量
+	 * @return 移動後の列の字句(シートの外に出る場合はnull)
+	 */
+	protected static String shiftWholeColumn(String reference, int columnOffset) {
+
+		if (reference.charAt(0) == '$') {
+			return reference;
+		}
+
+		int column = getColumnNumber(reference) + columnOffset;
+
+		if (column < 0 || column > SpreadsheetVersion.EXCEL2007.getLastColumnIndex()) {
+			return null;
+		}
+
+		return CellReference.convertNumToColString(column);
+	}
+
+	/**
+	 * 行全体の範囲参照の行を指定した分だけ移動します。
+	 *
+	 * @param reference 行の字句($付きの行番号)
+	 * @param rowOffset 行の移動量
+	 * @return 移動後の行の字句(シートの外に出る場合はnull)
+	 */
+	protected static String shiftWholeRow(String reference, int rowOffset) {
+
+		if (reference.charAt(0) == '$') {
+			return reference;
+		}
+
+		int row = Integer.parseInt(reference) - 1 + rowOffset;
+
+		if (row < 0 || row > SpreadsheetVersion.EXCEL2007.getLastRowIndex()) {
+			return null;
+		}
+
+		return Integer.toString(row + 1);
+	}
+
+	/**
+	 * 式の字句を構成する文字かどうかを判定します。
+	 *
+	 * @param c 文字
+	 * @return 字句を構成する文字の場合はtrue
+	 */
+	protected static boolean isTokenChar(char c) {
+
+		return Character.isLetterOrDigit(c) == true || c == '$' || c == '_' || c == '.';
+	}
+
+	/**
+	 * A1形式のセル参照から列番号を取得します。
+	 *
+	 * @param reference セル参照
+	 * @return 列番号
+	 */
+	protected static int getColumnNumber(String reference) {
+
+		int column = 0;
+		int length = reference.length();
+
+		for (int i = 0; i < length; i++) {
+			char c = reference.charAt(i);
+
+			if ('A' <= c && c <= 'Z') {
+				column = column * Poi2ccConstants.ALPHABET_NUMBER + (c - 'A' + 1);
+			} else if ('a' <= c && c <= 'z') {
+				column = column * Poi2ccConstants.ALPHABET_NUMBER + (c - 'a' + 1);
+			} else if (c != '$') {
+				break;
+			}
+		}
+
+		return column - 1;
+	}
+
+	/**
+	 * 列幅の定義を読み込みます。
+	 *
+	 * @param attributes 属性
+	 */
+	protected void loadColumn(Attributes attributes) {
+
+		String width = attributes.getValue("width");
+
+		if (width == null) {
+			return;
+		}
+
+		int min = getInt(attributes, "min", 1);
+		int max = getInt(attributes, "max", min);
+		Double columnWidth = Double.valueOf(width);
+
+		for (int i = min; i <= max && i <= Sheet.MAX_COLUMN; i++) {
+			columnWidthMap.put(i - 1, columnWidth);
+		}
+	}
+
+	/**
+	 * シートの表示設定を読み込みます。
+	 *
+	 * @param attributes 属性
+	 */
+	protected void loadSheetView(Attributes attributes) {
+
+		SheetStyle style = sheet.getStyle();
+
+		style.setDisplayGridLine(getBoolean(attributes, "showGridLines", true));
+		style.setDisplayZeros(getBoolean(attributes, "showZeros", true));
+	}
+
+	/**
+	 * ページの余白を読み込みます。
+	 *
+	 * @param attributes 属性
+	 */
+	protected void loadPageMargins(Attributes attributes) {
+
+		SheetStyle style = sheet.getStyle();
+
+		style.setMarginTop(getDouble(attributes, "top", 0.0));
+		style.setMarginBottom(getDouble(attributes, "bottom", 0.0));
+		style.setMarginLeft(getDouble(attributes, "left", 0.0));
+		style.setMarginRight(getDouble(attributes, "right", 0.0));
+		style.setHeaderMargin(getDouble(attributes, "header", 0.0));
+		style.setFooterMargin(getDouble(attributes, "footer", 0.0));
+	}
+
+	/**
+	 * 印刷設定を読み込みます。
+	 * <p>
+	 * 属性がない場合はスキーマのデフォルト値を設定します。
+	 * </p>
+	 *
+	 * @param attributes 属性(印刷設定がない場合はnull)
+	 */
+	protected void loadPageSetup(Attributes attributes) {
+
+		SheetStyle style = sheet.getStyle();
+		String orientation = getString(attributes, "orientation", "default");
+
+		style.setPaperSize(getInt(attributes, "paperSize", 1));
+		style.setScale(getInt(attributes, "scale", 100));
+		style.setPageStart(getInt(attributes, "firstPageNumber", 1));
+		style.setFitWidth(getInt(attributes, "fitToWidth", 1));
+		style.setFitHeight(getInt(attributes, "fitToHeight", 1));
+		style.setLeftToRight("overThenDown".equals(getString(attributes, "pageOrder", "downThenOver")));
+		style.setLandscape("landscape".equals(orientation));
+		style.setNoOrientation("default".equals(orientation));
+		style.setValidSettings(getBoolean(attributes, "usePrinterDefaults", true));
+		style.setNoColor(getBoolean(attributes, "blackAndWhite", false));
+		style.setDraft(getBoolean(attributes, "draft", false));
+		style.setNotes("asDisplayed".equals(getString(attributes, "cellComments", "none")));
+		style.setUsePage(getBoolean(attributes, "useFirstPageNumber", false));
+		style.setHorizontallyResolution(getInt(attributes, "horizontalDpi", 600));
+		style.setVerticallyResolution(getInt(attributes, "verticalDpi", 600));
+
+		pageSetup = true;
+	}
+
+	/**
+	 * 改ページを読み込みます。
+	 *
+	 * @param attributes 属性
+	 */
+	protected void loadBreak(Attributes attributes) {
+
+		int id = getInt(attributes, "id", 0) - 1;
+
+		if ("rowBreaks".equals(breakElement) == true) {
+			sheet.getStyle().getRowBreakList().add(id);
+		} else if ("colBreaks".equals(breakElement) == true) {
+			sheet.getStyle().getColumnBreakList().add(id);
+		}
+	}
+
+	/**
+	 * 解析した列幅・行高さの既定値をシートに反映します。
+	 * <p>
+	 * SAX解析の終了後、行情報からシートへセルを格納した後に呼び出します。
+	 * 列幅はシートの最大列数までの各列に設定します。
+	 * </p>
+	 */
+	public void finish() {
+
+		if (sheet == null) {
+			return;
+		}
+
+		sheet.setDefaultColumnSize(baseColumnWidth * ExcelReader.COLUMN_CORRECTING_VALUE);
+		sheet.setDefaultRowSize((short) (defaultRowHeight * TWIPS_PER_POINT));
+
+		int maxColumn = sheet.getMaxColumn();
+
+		for (int i = 0; i < maxColumn; i++) {
+			sheet.getColumnSizeMap().put(i, getColumnWidth(i));
+		}
+	}
+
+	/**
+	 * ロードする範囲の最終行を過ぎたか、行の通知先の指定により解析を打ち切ったかどうかを取得します。
+	 *
+	 * @return 解析を打ち切った場合はtrue
+	 */
+	public boolean isFinished() {
+
+		return finished;
+	}
+
+	/**
+	 * 結合セル範囲のリストを取得します。
+	 *
+	 * @return 結合セル範囲のリスト
+	 */
+	public List<CellRangeAddress> getMergedRegionList() {
+
+		return mergedRegionList;
+	}
+
+	/**
+	 * 列幅(1/256文字単位)を取得します。
+	 *
+	 * @param column 列番号
+	 * @return 列幅
+	 */
+	protected int getColumnWidth(int column) {
+
+		Double width = columnWidthMap.get(column);
+
+		if (width == null) {
+			return baseColumnWidth * ExcelReader.COLUMN_CORRECTING_VALUE;
+		}
+
+		return (int) (width.doubleValue() * ExcelReader.COLUMN_CORRECTING_VALUE);
+	}
+
+	/**
+	 * ヘッダー・フッターの区画文字列を取得します。
+	 *
+	 * @param section 区画文字列
+	 * @return 区画文字列(nullの場合は空文字列)
+	 */
+	protected static String getSection(String section) {
+
+		if (section == null) {
+			return Poi2ccConstants.EMPTY_STRING;
+		}
+
+		return section;
+	}
+
+	protected static String getString(Attributes attributes, String name, String defaultValue) {
+
+		if (attributes == null) {
+			return defaultValue;
+		}
+
+		String value = attributes.getValue(name);
+
+		if (value == null) {
+			return defaultValue;
+		}
+
+		return value;
+	}
+
+	protected static int getInt(Attributes attributes, String name, int defaultValue) {
+
+		String value = getString(attributes, name, null);
+
+		if (value == null) {
+			return defaultValue;
+		}
+
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return (int) Double.parseDouble(value);
+		}
+	}
+
+	protected static double getDouble(Attributes attributes, String name, double defaultValue) {
+
+		String value = getString(attributes, name, null);
+
+		if (value == null) {
+			return defaultValue;
+		}
+
+		return Double.parseDouble(value);
+	}
+
+	protected static boolean getBoolean(Attributes attributes, String name, boolean defaultValue) {
+
+		String value = getString(attributes, name, null);
+
+		if (value == null) {
+			return defaultValue;
+		}
+
+		return "1".equals(value) || "true".equals(value);
+	}
+
+	/**
+	 * 共有式・配列式の基準となる式情報
+	 */
+	protected static class SharedFormula {
+
+		/** 式 */
+		protected String formula = null;
+
+		/** 基準セルの列番号 */
+		protected int columnNumber = 0;
+
+		/** 基準セルの行番号 */
+		protected int rowNumber = 0;
+
+		/** 式の範囲 */
+		protected CellRangeAddress range = null;
+
+		/**
+		 * 式情報のコンストラクタ
+		 *
+		 * @param formula 式
+		 * @param columnNumber 基準セルの列番号
+		 * @param rowNumber 基準セルの行番号
+		 * @param range 式の範囲
+		 */
+		protected SharedFormula(String formula, int columnNumber, int rowNumber, CellRangeAddress range) {
+
+			this.formula = formula;
+			this.columnNumber = columnNumber;
+			this.rowNumber = rowNumber;
+			this.range = range;
+		}
+	}
+}
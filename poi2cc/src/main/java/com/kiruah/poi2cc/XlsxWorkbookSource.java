@@ -0,0 +1,476 @@
+package com.kiruah.poi2cc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.CommentsTable;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * xlsx形式のブックをストリーミングでロードする際の共有情報を保持します。
+ * <p>
+ * 共有文字列テーブル、スタイルテーブル、シートの一覧をブック単位で1度だけ読み込み、
+ * シートごとのSAX解析から参照されます。
+ * </p>
+ *
+ * @author Kiruah
+ */
+public class XlsxWorkbookSource implements CellStyleSource, Closeable {
+
+	/** 日付書式判定 未判定 */
+	protected static final byte DATE_FORMAT_UNKNOWN = 0;
+
+	/** 日付書式判定 日付書式 */
+	protected static final byte DATE_FORMAT_DATE = 1;
+
+	/** 日付書式判定 日付以外の書式 */
+	protected static final byte DATE_FORMAT_OTHER = 2;
+
+	/** パッケージ */
+	protected OPCPackage pkg = null;
+
+	/** 共有文字列テーブル */
+	protected SharedStrings sharedStrings = null;
+
+	/** スタイルテーブル */
+	protected StylesTable styles = null;
+
+	/** 1904年を基準とした日付かどうか */
+	protected boolean date1904 = false;
+
+	/** シート名リスト(ブック内の順序) */
+	protected List<String> sheetNameList = new ArrayList<String>();
+
+	/** シートのパッケージパートリスト(ブック内の順序) */
+	protected List<PackagePart> sheetPartList = new ArrayList<PackagePart>();
+
+	/** スタイル番号ごとのスタイルキャッシュ */
+	protected XSSFCellStyle[] styleArray = null;
+
+	/** スタイル番号ごとの日付書式判定キャッシュ */
+	protected byte[] dateFormatArray = null;
+
+	/**
+	 * パッケージからブックの共有情報を読み込みます。
+	 *
+	 * @param pkg パッケージ
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public XlsxWorkbookSource(OPCPackage pkg) throws InvalidFormatException, IOException {
+
+		this(pkg, false);
+	}
+
+	/**
+	 * パッケージからブックの共有情報を読み込みます。
+	 *
+	 * @param pkg パッケージ
+	 * @param sharedStringsOnDisk 共有文字列テーブルを一時ファイルに保持するかどうか
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 */
+	public XlsxWorkbookSource(OPCPackage pkg, boolean sharedStringsOnDisk) throws InvalidFormatException, IOException {
+
+		this.pkg = pkg;
+
+		try {
+			XSSFReader reader = new XSSFReader(pkg);
+
+			styles = reader.getStylesTable();
+
+			loadWorkbookProperty(reader);
+
+			XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+			while (iterator.hasNext() == true) {
+				Poi2ccUtil.close(iterator.next());
+
+				sheetNameList.add(iterator.getSheetName());
+				sheetPartList.add(iterator.getSheetPart());
+			}
+
+			// 一時ファイルを作成する場合があるため、他の共有情報を読み込んだ後に読み込みます。
+			if (sharedStringsOnDisk == true) {
+				sharedStrings = DiskSharedStringsTable.load(pkg);
+			} else {
+				sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+			}
+		} catch (InvalidFormatException e) {
+			throw e;
+		} catch (OpenXML4JException | SAXException e) {
+			throw new InvalidFormatException("ブック情報を読み込めません", e);
+		}
+
+		if (styles != null) {
+			styleArray = new XSSFCellStyle[styles.getNumCellStyles()];
+			dateFormatArray = new byte[styleArray.length];
+		}
+	}
+
+	/**
+	 * ブックのプロパティ(workbookPr)を読み込みます。
+	 *
+	 * @param reader xlsxリーダー
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 * @throws IOException IO例外
+	 * @throws SAXException XML解析例外
+	 */
+	protected void loadWorkbookProperty(XSSFReader reader) throws InvalidFormatException, IOException, SAXException {
+
+		InputStream in = reader.getWorkbookData();
+
+		try {
+			WorkbookPropertyHandler handler = new WorkbookPropertyHandler();
+
+			parse(in, handler);
+
+			date1904 = handler.date1904;
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+	}
+
+	/**
+	 * 指定したハンドラでXMLを解析します。
+	 *
+	 * @param in XMLの入力ストリーム
+	 * @param handler SAXハンドラ
+	 * @throws IOException IO例外
+	 * @throws SAXException XML解析例外
+	 */
+	public static void parse(InputStream in, DefaultHandler handler) throws IOException, SAXException {
+
+		XMLReader xmlReader = null;
+
+		try {
+			xmlReader = XMLHelper.newXMLReader();
+		} catch (ParserConfigurationException e) {
+			throw new SAXException(e);
+		}
+
+		xmlReader.setContentHandler(handler);
+		xmlReader.parse(new InputSource(in));
+	}
+
+	/**
+	 * シート数を取得します。
+	 *
+	 * @return シート数
+	 */
+	public int getSheetCount() {
+
+		return sheetNameList.size();
+	}
+
+	/**
+	 * シート名を取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シート名
+	 */
+	public String getSheetName(int sheetIndex) {
+
+		return sheetNameList.get(sheetIndex);
+	}
+
+	/**
+	 * シートのパッケージパートを取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シートのパッケージパート
+	 */
+	public PackagePart getSheetPart(int sheetIndex) {
+
+		return sheetPartList.get(sheetIndex);
+	}
+
+	/**
+	 * シートのXMLを読み取る入力ストリームを開きます。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シートのXMLを読み取る入力ストリーム
+	 * @throws IOException IO例外
+	 */
+	public InputStream openSheet(int sheetIndex) throws IOException {
+
+		return sheetPartList.get(sheetIndex).getInputStream();
+	}
+
+	/**
+	 * 複数のスレッドからシートを解析できるように、遅延して読み込む情報をすべて読み込みます。
+	 * <p>
+	 * スタイル・日付書式判定のキャッシュと、各シートのリレーションを事前に読み込みます。
+	 * 以降は共有情報を読み取るのみとなるため、シートごとの解析を並列に実行できます。
+	 * </p>
+	 *
+	 * @throws InvalidFormatException 不正なフォーマット例外
+	 */
+	public void prepareConcurrentAccess() throws InvalidFormatException {
+
+		if (styleArray != null) {
+			for (int i = 0; i < styleArray.length; i++) {
+				isDateFormat(i);
+			}
+		}
+
+		for (PackagePart sheetPart : sheetPartList) {
+			sheetPart.getRelationships();
+		}
+	}
+
+	/**
+	 * シートXMLに記録されたシートの使用範囲(dimension)を取得します。
+	 * <p>
+	 * シートXMLの先頭部分のみを解析します。
+	 * </p>
+	 *
+	 * @param sheetIndex シート番号
+	 * @return シートの使用範囲(記録されていない場合はnull)
+	 * @throws IOException IO例外
+	 */
+	public CellRangeAddress getSheetDimension(int sheetIndex) throws IOException {
+
+		InputStream in = openSheet(sheetIndex);
+		DimensionHandler handler = new DimensionHandler();
+
+		try {
+			parse(in, handler);
+		} catch (SAXException e) {
+			if (handler.finished == false) {
+				throw new IOException(e);
+			}
+		} finally {
+			Poi2ccUtil.close(in);
+		}
+
+		return handler.dimension;
+	}
+
+	/**
+	 * シートに関連付けられたコメントテーブルを取得します。
+	 *
+	 * @param sheetIndex シート番号
+	 * @return コメントテーブル(コメントがない場合はnull)
+	 * @throws IOException IO例外
+	 */
+	public CommentsTable getSheetComments(int sheetIndex) throws IOException {
+
+		PackagePart sheetPart = sheetPartList.get(sheetIndex);
+
+		try {
+			PackageRelationshipCollection commentsList = sheetPart.getRelationshipsByType(XSSFRelation.SHEET_COMMENTS.getRelation());
+
+			if (commentsList.size() == 0) {
+				return null;
+			}
+
+			PackageRelationship comments = commentsList.getRelationship(0);
+			PackagePartName commentsName = PackagingURIHelper.createPartName(comments.getTargetURI());
+			PackagePart commentsPart = pkg.getPart(commentsName);
+
+			if (commentsPart == null) {
+				return null;
+			}
+
+			return new CommentsTable(commentsPart);
+		} catch (InvalidFormatException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * 共有文字列を取得します。
+	 *
+	 * @param index 共有文字列番号
+	 * @return 共有文字列
+	 */
+	public String getSharedString(int index) {
+
+		if (sharedStrings instanceof DiskSharedStringsTable == true) {
+			return ((DiskSharedStringsTable) sharedStrings).getString(index);
+		}
+
+		return sharedStrings.getItemAt(index).getString();
+	}
+
+	/**
+	 * スタイル番号に対応するスタイルを取得します。
+	 *
+	 * @param styleIndex スタイル番号
+	 * @return スタイル(スタイルテーブルがない場合はnull)
+	 */
+	@Override
+	public XSSFCellStyle getCellStyle(int styleIndex) {
+
+		if (styleArray == null || styleArray.length == 0) {
+			return null;
+		}
+		if (styleIndex < 0 || styleArray.length <= styleIndex) {
+			styleIndex = 0;
+		}
+
+		XSSFCellStyle style = styleArray[styleIndex];
+
+		if (style == null) {
+			style = styles.getStyleAt(styleIndex);
+			styleArray[styleIndex] = style;
+		}
+
+		return style;
+	}
+
+	@Override
+	public Font getFont(CellStyle style) {
+
+		return ((XSSFCellStyle) style).getFont();
+	}
+
+	/**
+	 * スタイル番号に対応する書式が日付書式かどうかを判定します。
+	 *
+	 * @param styleIndex スタイル番号
+	 * @return 日付書式の場合はtrue
+	 */
+	public boolean isDateFormat(int styleIndex) {
+
+		XSSFCellStyle style = getCellStyle(styleIndex);
+
+		if (style == null) {
+			return false;
+		}
+
+		int index = style.getIndex();
+
+		if (dateFormatArray[index] == DATE_FORMAT_UNKNOWN) {
+			ExcelNumberFormat format = ExcelNumberFormat.from(style);
+
+			if (format != null && DateUtil.isADateFormat(format) == true) {
+				dateFormatArray[index] = DATE_FORMAT_DATE;
+			} else {
+				dateFormatArray[index] = DATE_FORMAT_OTHER;
+			}
+		}
+
+		return dateFormatArray[index] == DATE_FORMAT_DATE;
+	}
+
+	/**
+	 * 1904年を基準とした日付かどうかを取得します。
+	 *
+	 * @return 1904年を基準とした日付かどうか
+	 */
+	public boolean isDate1904() {
+
+		return date1904;
+	}
+
+	/**
+	 * パッケージを取得します。
+	 *
+	 * @return パッケージ
+	 */
+	public OPCPackage getPackage() {
+
+		return pkg;
+	}
+
+	/**
+	 * パッケージを閉じます。
+	 * <p>
+	 * 読み取り専用として扱うため、パッケージへの保存は行いません。
+	 * </p>
+	 */
+	@Override
+	public void close() {
+
+		if (sharedStrings instanceof DiskSharedStringsTable == true) {
+			((DiskSharedStringsTable) sharedStrings).close();
+		}
+		if (pkg != null) {
+			pkg.revert();
+			pkg = null;
+		}
+	}
+
+	/**
+	 * workbook.xmlからブックのプロパティを読み取るハンドラ
+	 */
+	protected static class WorkbookPropertyHandler extends DefaultHandler {
+
+		/** 1904年を基準とした日付かどうか */
+		protected boolean date1904 = false;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+
+			if ("workbookPr".equals(localName) == true) {
+				String value = attributes.getValue("date1904");
+
+				date1904 = "1".equals(value) || "true".equals(value);
+			}
+		}
+	}
+
+	/**
+	 * シートXMLからシートの使用範囲を読み取るハンドラ
+	 * <p>
+	 * 使用範囲を読み取った時点、またはセルデータに到達した時点で解析を打ち切ります。
+	 * </p>
+	 */
+	protected static class DimensionHandler extends DefaultHandler {
+
+		/** シートの使用範囲 */
+		protected CellRangeAddress dimension = null;
+
+		/** 解析を打ち切ったかどうか */
+		protected boolean finished = false;
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+
+			if ("dimension".equals(localName) == true) {
+				String ref = attributes.getValue("ref");
+
+				if (ref != null) {
+					dimension = ref.indexOf(':') < 0 ? CellRangeAddress.valueOf(ref + ":" + ref) : CellRangeAddress.valueOf(ref);
+				}
+
+				finished = true;
+				throw new SAXException("dimension");
+			} else if ("sheetData".equals(localName) == true) {
+				finished = true;
+				throw new SAXException("sheetData");
+			}
+		}
+	}
+}
@@ -1,18 +1,28 @@
 package com.kiruah.poi2cc.storage;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.kiruah.poi2cc.PackageFingerprint;
 import com.kiruah.poi2cc.Poi2ccConstants;
+import com.kiruah.poi2cc.Poi2ccRuntimeException;
 import com.kiruah.poi2cc.Poi2ccUtil;
 
 /**
  * Excelブック
+ * <p>
+ * 遅延ロードしたブックは、すべてのシートをロードするまでロード元ファイルを開いたままにします。
+ * try-with-resources文などで利用後に{@link #close()}を呼び出してください。
+ * </p>
  *
  * @author Kiruah
  */
-public class Book implements Serializable, Cloneable {
+public class Book implements Serializable, Cloneable, Closeable {
 
 	/** シリアルバージョンUID */
 	private static final long serialVersionUID = -214729840412172985L;
@@ -23,6 +33,12 @@ public class Book implements Serializable, Cloneable {
 	/** ブック名 */
 	private String name = Poi2ccConstants.EMPTY_STRING;
 
+	/** 未ロードのシートのローダー(遅延ロードしない場合はnull) */
+	private transient SheetLoader sheetLoader = null;
+
+	/** ロード元ファイルのロード時点の状態(再ロードで変更を判定できない場合はnull) */
+	private PackageFingerprint fingerprint = null;
+
 	/**
 	 * ブックのコンストラクタ
 	 *
@@ -51,15 +67,137 @@ public class Book implements Serializable, Cloneable {
 	 */
 	public Sheet getSheet(String sheetName) {
 
+		for (int i = 0; i < sheetList.size(); i++) {
+			if (Poi2ccUtil.equalString(sheetList.get(i).getName(), sheetName) == true) {
+				return loadSheet(i);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * 指定位置のシートを取得します。
+	 * <p>
+	 * 未ロードのシートの場合はロードしてから返却します。
+	 * </p>
+	 *
+	 * @param index シートの位置
+	 * @return シート
+	 * @throws Poi2ccRuntimeException ロード元ファイルを閉じた後に未ロードのシートを取得した場合
+	 */
+	protected synchronized Sheet loadSheet(int index) {
+
+		Sheet sheet = sheetList.get(index);
+
+		if (sheet.isLoaded() == true) {
+			return sheet;
+		}
+		if (sheetLoader == null) {
+			throw new Poi2ccRuntimeException("ロード元ファイルを閉じたため、未ロードのシートはロードできません : " + sheet.getName());
+		}
+
+		Sheet loadedSheet = sheetLoader.loadSheet(sheet);
+
+		loadedSheet.setLoaded(true);
+		sheetList.set(index, loadedSheet);
+
+		for (Sheet s : sheetList) {
+			if (s.isLoaded() == false) {
+				return loadedSheet;
+			}
+		}
+
+		close();
+
+		return loadedSheet;
+	}
+
+	/**
+	 * シートを含むかどうかを判定します。
+	 * <p>
+	 * 未ロードのシートはロードしません。
+	 * </p>
+	 *
+	 * @param sheetName シート名
+	 * @return シートを含む場合はtrue
+	 */
+	public synchronized boolean containsSheet(String sheetName) {
+
 		for (Sheet sheet : sheetList) {
 			if (Poi2ccUtil.equalString(sheet.getName(), sheetName) == true) {
-				return sheet;
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * ロード済みのシートを取得します。
+	 * <p>
+	 * {@link #getSheet(String)}と異なり、未ロードのシートはロードせずにnullを返却します。
+	 * </p>
+	 *
+	 * @param sheetName シート名
+	 * @return ロード済みのシート(シートがない場合・未ロードの場合はnull)
+	 */
+	public synchronized Sheet getLoadedSheet(String sheetName) {
+
+		for (Sheet sheet : sheetList) {
+			if (Poi2ccUtil.equalString(sheet.getName(), sheetName) == true) {
+				return sheet.isLoaded() == true ? sheet : null;
 			}
 		}
 
 		return null;
 	}
 
+	/**
+	 * 未ロードのシートをすべてロードします。
+	 *
+	 * @throws Poi2ccRuntimeException ロード元ファイルを閉じた後に未ロードのシートが残っている場合
+	 */
+	public void loadAllSheets() {
+
+		for (int i = 0; i < sheetList.size(); i++) {
+			loadSheet(i);
+		}
+	}
+
+	/**
+	 * 未ロードのシートがあるかどうかを判定します。
+	 *
+	 * @return 未ロードのシートがある場合はtrue
+	 */
+	protected synchronized boolean hasUnloadedSheet() {
+
+		for (Sheet sheet : sheetList) {
+			if (sheet.isLoaded() == false) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * 遅延ロードのためのロード元ファイルを閉じます。
+	 * <p>
+	 * 閉じた後に未ロードのシートを取得すると{@link Poi2ccRuntimeException}をスローします。
+	 * 必要なシートは閉じる前に取得するか、{@link #loadAllSheets()}でロードしてください。
+	 * 遅延ロードしていない場合は何もしません。
+	 * </p>
+	 */
+	@Override
+	public synchronized void close() {
+
+		if (sheetLoader != null) {
+			sheetLoader.close();
+			sheetLoader = null;
+		}
+	}
+
 	/**
 	 * シート名をリネームします。
 	 *
@@ -118,9 +256,24 @@ public class Book implements Serializable, Cloneable {
 	 */
 	public Book clone() {
 
+		loadAllSheets();
+
 		return Poi2ccUtil.cloneObject(this);
 	}
 
+	/**
+	 * シリアライズ前に未ロードのシートをすべてロードします。
+	 *
+	 * @param out 出力ストリーム
+	 * @throws IOException IO例外
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+
+		loadAllSheets();
+
+		out.defaultWriteObject();
+	}
+
 	/**
 	 * ブック情報を文字列化し返却します。
 	 * <br/>
@@ -135,11 +288,19 @@ public class Book implements Serializable, Cloneable {
 
 	/**
 	 * シートリストを取得します。
+	 * <p>
+	 * 遅延ロードされるブックの場合、各シートはリストから取得した時点でロードされます。
+	 * ロード元ファイルを閉じた後に未ロードのシートを取得すると{@link Poi2ccRuntimeException}をスローします。
+	 * </p>
 	 * @return シートリスト
 	 */
 	public List<Sheet> getSheetList() {
 
-		return sheetList;
+		if (sheetLoader == null && hasUnloadedSheet() == false) {
+			return sheetList;
+		}
+
+		return new LazySheetList();
 	}
 
 	/**
@@ -151,6 +312,42 @@ public class Book implements Serializable, Cloneable {
 		this.sheetList = sheetList;
 	}
 
+	/**
+	 * 未ロードのシートのローダーを取得します。
+	 * @return 未ロードのシートのローダー(遅延ロードしない場合はnull)
+	 */
+	public SheetLoader getSheetLoader() {
+
+		return sheetLoader;
+	}
+
+	/**
+	 * 未ロードのシートのローダーを設定します。
+	 * @param sheetLoader 未ロードのシートのローダー
+	 */
+	public void setSheetLoader(SheetLoader sheetLoader) {
+
+		this.sheetLoader = sheetLoader;
+	}
+
+	/**
+	 * ロード元ファイルのロード時点の状態を取得します。
+	 * @return ロード元ファイルのロード時点の状態(再ロードで変更を判定できない場合はnull)
+	 */
+	public PackageFingerprint getFingerprint() {
+
+		return fingerprint;
+	}
+
+	/**
+	 * ロード元ファイルのロード時点の状態を設定します。
+	 * @param fingerprint ロード元ファイルのロード時点の状態
+	 */
+	public void setFingerprint(PackageFingerprint fingerprint) {
+
+		this.fingerprint = fingerprint;
+	}
+
 	/**
 	 * ブック名を取得します。
 	 * @return ブック名
@@ -179,6 +376,8 @@ public class Book implements Serializable, Cloneable {
 	@Override
 	public int hashCode() {
 
+		loadAllSheets();
+
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((name == null) ? 0 : name.hashCode());
@@ -206,6 +405,8 @@ public class Book implements Serializable, Cloneable {
 			return false;
 		}
 		Book other = (Book) obj;
+		loadAllSheets();
+		other.loadAllSheets();
 		if (name == null) {
 			if (other.name != null) {
 				return false;
@@ -222,4 +423,43 @@ public class Book implements Serializable, Cloneable {
 		}
 		return true;
 	}
+
+	/**
+	 * 取得時に未ロードのシートをロードするシートリスト
+	 * <p>
+	 * 追加・削除などの変更はブックのシートリストへそのまま反映されます。
+	 * </p>
+	 */
+	private class LazySheetList extends AbstractList<Sheet> {
+
+		@Override
+		public Sheet get(int index) {
+
+			return loadSheet(index);
+		}
+
+		@Override
+		public Sheet set(int index, Sheet element) {
+
+			return sheetList.set(index, element);
+		}
+
+		@Override
+		public void add(int index, Sheet element) {
+
+			sheetList.add(index, element);
+		}
+
+		@Override
+		public Sheet remove(int index) {
+
+			return sheetList.remove(index);
+		}
+
+		@Override
+		public int size() {
+
+			return sheetList.size();
+		}
+	}
 }
@@ -9,7 +9,10 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Date;
 
+import org.apache.poi.ss.usermodel.DateUtil;
+
 import com.kiruah.poi2cc.Poi2ccConstants;
+import com.kiruah.poi2cc.Poi2ccRuntimeException;
 import com.kiruah.poi2cc.Poi2ccUtil;
 import com.kiruah.poi2cc.storage.sub.CellFont;
 import com.kiruah.poi2cc.storage.sub.CellRange;
@@ -35,6 +38,15 @@ public class Cell implements Serializable, Cloneable {
 
 	protected LocalDateTime valueDate = null;
 
+	/** 数値・日時の変換を遅延しているかどうか(変換前のシリアル値を保持している場合はtrue) */
+	protected boolean valueDeferred = false;
+
+	/** 変換前の数値、または日時のシリアル値 */
+	protected double valueSerial = 0.0;
+
+	/** 変換前の日時のシリアル値が1904年を基準としているかどうか */
+	protected boolean valueDate1904 = false;
+
 	/** セルの実際の式値 */
 	protected String formulaValue = null;
 
@@ -127,6 +139,8 @@ public class Cell implements Serializable, Cloneable {
 	 */
 	public Object getValue() {
 
+		decodeValue();
+
 		if (valueType == ValueType.NONE) {
 			return "";
 		} else if (valueType == ValueType.BOOLEAN) {
@@ -149,6 +163,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(boolean value) {
 
 		valueType = ValueType.BOOLEAN;
+		valueDeferred = false;
 		valueBoolean = value;
 		this.formula = false;
 	}
@@ -160,6 +175,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(CharSequence value) {
 
 		valueType = ValueType.TEXT;
+		valueDeferred = false;
 		if (value == null) {
 			valueText = null;
 		} else {
@@ -175,6 +191,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(BigDecimal value) {
 
 		valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		if (value == null) {
 			valueNumber = BigDecimal.ZERO;
 		} else {
@@ -190,6 +207,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(Date value) {
 
 		valueType = ValueType.DATE;
+		valueDeferred = false;
 
 		Instant instant = value.toInstant();
 		valueDate = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
@@ -203,6 +221,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(LocalDateTime value) {
 
 		valueType = ValueType.DATE;
+		valueDeferred = false;
 		valueDate = value;
 		this.formula = false;
 	}
@@ -214,6 +233,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(byte value) {
 
 		valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		valueNumber = new BigDecimal(value);
 		this.formula = false;
 	}
@@ -225,6 +245,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(char value) {
 
 		valueType = ValueType.TEXT;
+		valueDeferred = false;
 		valueText = new String(new char[] {value});
 		this.formula = false;
 	}
@@ -236,6 +257,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(short value) {
 
 		valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		valueNumber = new BigDecimal(value);
 		this.formula = false;
 	}
@@ -247,6 +269,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(int value) {
 
 		valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		valueNumber = new BigDecimal(value);
 		this.formula = false;
 	}
@@ -258,6 +281,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(long value) {
 
 		valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		valueNumber = new BigDecimal(value);
 		this.formula = false;
 	}
@@ -269,6 +293,7 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(float value) {
 
 		valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		valueNumber = new BigDecimal(value);
 		this.formula = false;
 	}
@@ -280,10 +305,58 @@ public class Cell implements Serializable, Cloneable {
 	public void setValue(double value) {
 
 		valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		valueNumber = new BigDecimal(value);
 		this.formula = false;
 	}
 
+	/**
+	 * 数値・日時を変換前のシリアル値のまま設定します。
+	 * <p>
+	 * 値は{@link #getValue()}・{@link #getValueNumber()}・{@link #getValueDate()}などで初めて取得された時点で
+	 * {@link BigDecimal}・{@link LocalDateTime}へ変換し、以降は変換結果を再利用します。
+	 * 変換結果は{@link #setValue(double)}、または{@link DateUtil#getLocalDateTime(double, boolean)}で変換して
+	 * {@link #setValue(LocalDateTime)}で設定した場合と同一です。
+	 * </p>
+	 * @param valueType 値の種類(数値または日時)
+	 * @param serial 数値、または日時のシリアル値
+	 * @param date1904 日時のシリアル値が1904年を基準としているかどうか
+	 * @throws Poi2ccRuntimeException 値の種類が数値・日時以外の場合
+	 */
+	public void setValueDeferred(ValueType valueType, double serial, boolean date1904) {
+
+		if (valueType != ValueType.NUMBER && valueType != ValueType.DATE) {
+			throw new Poi2ccRuntimeException("変換を遅延できるのは数値・日時のみです:" + valueType);
+		}
+
+		this.valueType = valueType;
+		valueDeferred = true;
+		valueSerial = serial;
+		valueDate1904 = date1904;
+		valueNumber = null;
+		valueDate = null;
+		this.formula = false;
+	}
+
+	/**
+	 * 変換を遅延している数値・日時を変換します。
+	 * <p>
+	 * 変換結果は不変オブジェクトのため、複数のスレッドから同時に取得された場合も同じ値になります。
+	 * </p>
+	 */
+	protected void decodeValue() {
+
+		if (valueDeferred == false) {
+			return;
+		}
+
+		if (valueType == ValueType.NUMBER && valueNumber == null) {
+			valueNumber = new BigDecimal(valueSerial);
+		} else if (valueType == ValueType.DATE && valueDate == null) {
+			valueDate = DateUtil.getLocalDateTime(valueSerial, valueDate1904);
+		}
+	}
+
 	/**
 	 * valueTypeを取得します。
 	 * @return valueType
@@ -299,7 +372,10 @@ public class Cell implements Serializable, Cloneable {
 	 */
 	public void setValueType(ValueType valueType) {
 
+		decodeValue();
+
 		this.valueType = valueType;
+		valueDeferred = false;
 	}
 
 	/**
@@ -308,6 +384,8 @@ public class Cell implements Serializable, Cloneable {
 	 */
 	public String getValueText() {
 
+		decodeValue();
+
 		if (valueType == ValueType.NONE) {
 			return null;
 		} else if (valueType == ValueType.BOOLEAN) {
@@ -333,6 +411,7 @@ public class Cell implements Serializable, Cloneable {
 
 		this.valueText = valueText;
 		this.valueType = ValueType.TEXT;
+		valueDeferred = false;
 		this.formula = false;
 	}
 
@@ -342,6 +421,8 @@ public class Cell implements Serializable, Cloneable {
 	 */
 	public BigDecimal getValueNumber() {
 
+		decodeValue();
+
 		if (valueType == ValueType.NONE) {
 			return null;
 		} else if (valueType == ValueType.BOOLEAN) {
@@ -378,6 +459,7 @@ public class Cell implements Serializable, Cloneable {
 
 		this.valueNumber = valueNumber;
 		this.valueType = ValueType.NUMBER;
+		valueDeferred = false;
 		this.formula = false;
 	}
 
@@ -387,6 +469,8 @@ public class Cell implements Serializable, Cloneable {
 	 */
 	public LocalDateTime getValueDate() {
 
+		decodeValue();
+
 		if (valueType == ValueType.NONE) {
 			return null;
 		} else if (valueType == ValueType.BOOLEAN) {
@@ -411,6 +495,7 @@ public class Cell implements Serializable, Cloneable {
 
 		this.valueDate = valueDate;
 		this.valueType = ValueType.DATE;
+		valueDeferred = false;
 		this.formula = false;
 	}
 
@@ -420,6 +505,8 @@ public class Cell implements Serializable, Cloneable {
 	 */
 	public boolean getValueBoolean() {
 
+		decodeValue();
+
 		if (valueType == ValueType.NONE) {
 			return false;
 		} else if (valueType == ValueType.BOOLEAN) {
@@ -446,6 +533,7 @@ public class Cell implements Serializable, Cloneable {
 
 		this.valueBoolean = valueBoolean;
 		this.valueType = ValueType.BOOLEAN;
+		valueDeferred = false;
 		this.formula = false;
 	}
 
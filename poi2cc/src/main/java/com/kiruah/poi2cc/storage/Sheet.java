@@ -38,6 +38,9 @@ public class Sheet extends CellSet
 	/** シートのスタイル情報 */
 	protected SheetStyle style = new SheetStyle();
 
+	/** シートの内容がロード済みかどうか */
+	protected boolean loaded = true;
+
 	/**
 	 * シート情報を生成するコンストラクタ
 	 *
@@ -190,6 +193,28 @@ public class Sheet extends CellSet
 		this.style = style;
 	}
 
+	/**
+	 * シートの内容がロード済みかどうかを取得します。
+	 * <p>
+	 * 遅延ロードされるブックでは、未ロードのシートはシート名と範囲のみを保持します。
+	 * </p>
+	 * @return シートの内容がロード済みかどうか
+	 */
+	public boolean isLoaded() {
+
+		return loaded;
+	}
+
+	/**
+	 * シートの内容がロード済みかどうかを設定します。
+	 * @param loaded シートの内容がロード済みかどうか
+	 */
+	public void setLoaded(
+			boolean loaded) {
+
+		this.loaded = loaded;
+	}
+
 	/**
 	 * hashCode
 	 * <br/>
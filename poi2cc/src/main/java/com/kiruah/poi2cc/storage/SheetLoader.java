@@ -0,0 +1,25 @@
+package com.kiruah.poi2cc.storage;
+
+/**
+ * 遅延ロードされるブックのシート内容を、初回アクセス時にロードします。
+ *
+ * @author Kiruah
+ */
+public interface SheetLoader {
+
+	/**
+	 * 未ロードのシートの内容をロードします。
+	 *
+	 * @param sheet 未ロードのシート(シート名と範囲のみを保持)
+	 * @return ロードしたシート
+	 */
+	Sheet loadSheet(Sheet sheet);
+
+	/**
+	 * ロード元のファイルを閉じます。
+	 * <p>
+	 * 閉じた後は未ロードのシートをロードできません。
+	 * </p>
+	 */
+	void close();
+}
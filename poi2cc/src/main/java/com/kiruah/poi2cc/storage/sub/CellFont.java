@@ -2,10 +2,15 @@ package com.kiruah.poi2cc.storage.sub;
 
 import java.io.Serializable;
 
+import com.kiruah.poi2cc.Poi2ccRuntimeException;
 import com.kiruah.poi2cc.Poi2ccUtil;
 
 /**
  * セルのフォント
+ * <p>
+ * ブックのロード時は同じフォントを持つセル間で1つのインスタンスを共有し、変更不可の状態にしています。
+ * 変更する場合は{@link #clone()}で複製したインスタンスをセルに設定してください。
+ * </p>
  *
  * @author Kiruah
  */
@@ -35,6 +40,12 @@ public class CellFont implements Serializable, Cloneable {
 	/** 下線 */
 	protected byte fontUnderline = 0;
 
+	/** 変更不可かどうか */
+	protected boolean frozen = false;
+
+	/** 変更不可の場合に計算済みのハッシュ値(未計算の場合は0) */
+	protected transient int hash = 0;
+
 	/**
 	 * ボールドを取得します。
 	 *
@@ -52,6 +63,7 @@ public class CellFont implements Serializable, Cloneable {
 	 */
 	public void setFontBold(boolean fontBold) {
 
+		checkFrozen();
 		this.fontBold = fontBold;
 	}
 
@@ -72,6 +84,7 @@ public class CellFont implements Serializable, Cloneable {
 	 */
 	public void setFontColor(short fontColor) {
 
+		checkFrozen();
 		this.fontColor = fontColor;
 	}
 
@@ -92,6 +105,7 @@ public class CellFont implements Serializable, Cloneable {
 	 */
 	public void setFontSize(short fontSize) {
 
+		checkFrozen();
 		this.fontSize = fontSize;
 	}
 
@@ -112,6 +126,7 @@ public class CellFont implements Serializable, Cloneable {
 	 */
 	public void setFontName(String fontName) {
 
+		checkFrozen();
 		this.fontName = fontName;
 	}
 
@@ -132,6 +147,7 @@ public class CellFont implements Serializable, Cloneable {
 	 */
 	public void setFontItalic(boolean fontItalic) {
 
+		checkFrozen();
 		this.fontItalic = fontItalic;
 	}
 
@@ -152,6 +168,7 @@ public class CellFont implements Serializable, Cloneable {
 	 */
 	public void setFontStrikeout(boolean fontStrikeout) {
 
+		checkFrozen();
 		this.fontStrikeout = fontStrikeout;
 	}
 
@@ -172,11 +189,49 @@ public class CellFont implements Serializable, Cloneable {
 	 */
 	public void setFontUnderline(byte fontUnderline) {
 
+		checkFrozen();
 		this.fontUnderline = fontUnderline;
 	}
 
+	/**
+	 * 変更不可かどうかを取得します。
+	 *
+	 * @return 変更不可かどうか
+	 */
+	public boolean isFrozen() {
+
+		return frozen;
+	}
+
+	/**
+	 * 以降の変更を不可にします。
+	 *
+	 * @return このインスタンス
+	 */
+	public CellFont freeze() {
+
+		frozen = true;
+
+		return this;
+	}
+
+	/**
+	 * 変更可能な状態かを確認します。
+	 *
+	 * @throws Poi2ccRuntimeException 変更不可の場合
+	 */
+	protected void checkFrozen() {
+
+		if (frozen == true) {
+			throw new Poi2ccRuntimeException("共有されているフォントは変更できません。clone()で複製してください");
+		}
+	}
+
 	/**
 	 * インスタンスをクローンします。
+	 * <p>
+	 * クローンしたインスタンスは変更可能です。
+	 * </p>
 	 *
 	 * @return クローンされたインスタンス
 	 * @see java.lang.Object#clone()
@@ -184,12 +239,19 @@ public class CellFont implements Serializable, Cloneable {
 	@Override
 	public CellFont clone() {
 
-		return Poi2ccUtil.cloneObject(this);
+		CellFont font = Poi2ccUtil.cloneObject(this);
+		font.frozen = false;
+
+		return font;
 	}
 
 	@Override
 	public int hashCode() {
 
+		if (frozen == true && hash != 0) {
+			return hash;
+		}
+
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + (fontBold ? 1231 : 1237);
@@ -199,6 +261,9 @@ public class CellFont implements Serializable, Cloneable {
 		result = prime * result + fontSize;
 		result = prime * result + (fontStrikeout ? 1231 : 1237);
 		result = prime * result + fontUnderline;
+		if (frozen == true) {
+			hash = result;
+		}
 		return result;
 	}
 
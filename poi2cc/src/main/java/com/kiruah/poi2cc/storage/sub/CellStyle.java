@@ -8,8 +8,15 @@ import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.ss.usermodel.HorizontalAlignment;
 import org.apache.poi.ss.usermodel.VerticalAlignment;
 
+import com.kiruah.poi2cc.Poi2ccRuntimeException;
+import com.kiruah.poi2cc.Poi2ccUtil;
+
 /**
  * セルのスタイル情報
+ * <p>
+ * ブックのロード時は同じスタイルを持つセル間で1つのインスタンスを共有し、変更不可の状態にしています。
+ * 変更する場合は{@link #clone()}で複製したインスタンスをセルに設定してください。
+ * </p>
  *
  * @author Kiruah
  */
@@ -57,12 +64,22 @@ public class CellStyle implements Serializable, Cloneable {
 	/** 罫線(上線) */
 	protected BorderStyle borderTop = BorderStyle.NONE;
 
+	/** 変更不可かどうか */
+	protected boolean frozen = false;
+
+	/** 変更不可の場合に計算済みのハッシュ値(未計算の場合は0) */
+	protected transient int hash = 0;
+
 	/* (非 Javadoc)
 	 * @see java.lang.Object#hashCode()
 	 */
 	@Override
 	public int hashCode() {
 
+		if (frozen == true && hash != 0) {
+			return hash;
+		}
+
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + ((alignment == null) ? 0 : alignment.hashCode());
@@ -78,6 +95,9 @@ public class CellStyle implements Serializable, Cloneable {
 		result = prime * result + rotation;
 		result = prime * result + ((verticalAlignment == null) ? 0 : verticalAlignment.hashCode());
 		result = prime * result + (wrapText ? 1231 : 1237);
+		if (frozen == true) {
+			hash = result;
+		}
 		return result;
 	}
 
@@ -147,6 +167,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setFormat(String format) {
 
+		checkFrozen();
 		this.format = format;
 	}
 
@@ -165,6 +186,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setForegroundColor(Color foregroundColor) {
 
+		checkFrozen();
 		this.foregroundColor = foregroundColor;
 	}
 
@@ -183,6 +205,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setBackgroundColor(Color backgroundColor) {
 
+		checkFrozen();
 		this.backgroundColor = backgroundColor;
 	}
 
@@ -201,6 +224,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setFillPattern(FillPatternType fillPattern) {
 
+		checkFrozen();
 		this.fillPattern = fillPattern;
 	}
 
@@ -219,6 +243,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setAlignment(HorizontalAlignment alignment) {
 
+		checkFrozen();
 		this.alignment = alignment;
 	}
 
@@ -237,6 +262,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setVerticalAlignment(VerticalAlignment verticalAlignment) {
 
+		checkFrozen();
 		this.verticalAlignment = verticalAlignment;
 	}
 
@@ -255,6 +281,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setIndent(short indent) {
 
+		checkFrozen();
 		this.indent = indent;
 	}
 
@@ -273,6 +300,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setWrapText(boolean wrapText) {
 
+		checkFrozen();
 		this.wrapText = wrapText;
 	}
 
@@ -291,6 +319,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setRotation(short rotation) {
 
+		checkFrozen();
 		this.rotation = rotation;
 	}
 
@@ -309,6 +338,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setBorderBottom(BorderStyle borderBottom) {
 
+		checkFrozen();
 		this.borderBottom = borderBottom;
 	}
 
@@ -327,6 +357,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setBorderLeft(BorderStyle borderLeft) {
 
+		checkFrozen();
 		this.borderLeft = borderLeft;
 	}
 
@@ -345,6 +376,7 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setBorderRight(BorderStyle borderRight) {
 
+		checkFrozen();
 		this.borderRight = borderRight;
 	}
 
@@ -363,6 +395,55 @@ public class CellStyle implements Serializable, Cloneable {
 	 */
 	public void setBorderTop(BorderStyle borderTop) {
 
+		checkFrozen();
 		this.borderTop = borderTop;
 	}
+
+	/**
+	 * 変更不可かどうかを取得します。
+	 * @return 変更不可かどうか
+	 */
+	public boolean isFrozen() {
+
+		return frozen;
+	}
+
+	/**
+	 * 以降の変更を不可にします。
+	 * @return このインスタンス
+	 */
+	public CellStyle freeze() {
+
+		frozen = true;
+
+		return this;
+	}
+
+	/**
+	 * 変更可能な状態かを確認します。
+	 * @throws Poi2ccRuntimeException 変更不可の場合
+	 */
+	protected void checkFrozen() {
+
+		if (frozen == true) {
+			throw new Poi2ccRuntimeException("共有されているスタイルは変更できません。clone()で複製してください");
+		}
+	}
+
+	/**
+	 * インスタンスをクローンします。
+	 * <p>
+	 * クローンしたインスタンスは変更可能です。
+	 * </p>
+	 * @return クローンされたインスタンス
+	 * @see java.lang.Object#clone()
+	 */
+	@Override
+	public CellStyle clone() {
+
+		CellStyle style = Poi2ccUtil.cloneObject(this);
+		style.frozen = false;
+
+		return style;
+	}
 }